@@ -2,9 +2,16 @@ package io.github.llm4j.agent.knowledge;
 
 import io.github.llm4j.agent.knowledge.model.Entity;
 import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.knowledge.traversal.GraphTraverser;
+import io.github.llm4j.agent.knowledge.traversal.Path;
+import io.github.llm4j.agent.knowledge.traversal.Subgraph;
+import io.github.llm4j.agent.knowledge.traversal.Traversal;
+import io.github.llm4j.agent.metadata.Filter;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Interface for knowledge graph storage and querying.
@@ -35,6 +42,25 @@ public interface KnowledgeGraph {
      */
     List<Entity> findEntities(String type, Map<String, Object> filters);
 
+    /**
+     * Finds entities by type and a property filter expression, which may
+     * combine equality, set membership and range conditions. The default
+     * implementation filters the result of {@link #findEntities(String, Map)}.
+     *
+     * @param type   the entity type (null for any)
+     * @param filter filter over entity properties (null for none)
+     * @return list of matching entities
+     */
+    default List<Entity> findEntitiesMatching(String type, Filter filter) {
+        List<Entity> entities = findEntities(type, null);
+        if (filter == null) {
+            return entities;
+        }
+        return entities.stream()
+                .filter(entity -> filter.matches(entity.getProperties()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Adds a triple (relationship) to the knowledge graph.
      *
@@ -42,6 +68,24 @@ public interface KnowledgeGraph {
      */
     void addTriple(Triple triple);
 
+    /**
+     * Adds entities and then triples in one batch, with the same result as
+     * calling {@link #addEntity(Entity)} and {@link #addTriple(Triple)} for
+     * each in order. Stores override this to write each distinct entity once
+     * and build their indexes in a single pass rather than per triple.
+     *
+     * @param entities entities to add, including ones with no triples
+     * @param triples  triples to add
+     */
+    default void addAll(Collection<Entity> entities, Collection<Triple> triples) {
+        for (Entity entity : entities) {
+            addEntity(entity);
+        }
+        for (Triple triple : triples) {
+            addTriple(triple);
+        }
+    }
+
     /**
      * Gets all triples where the given entity is the subject.
      *
@@ -61,6 +105,42 @@ public interface KnowledgeGraph {
      */
     List<Triple> findTriples(String subjectId, String predicateType, String objectId);
 
+    /**
+     * Visits the entities reachable from a start entity within the
+     * traversal's depth limit.
+     *
+     * @param startId   the start entity ID
+     * @param traversal direction, depth, predicate and order options
+     * @return a path to each reached entity, in visiting order
+     */
+    default List<Path> traverse(String startId, Traversal traversal) {
+        return new GraphTraverser(this).traverse(startId, traversal);
+    }
+
+    /**
+     * Finds up to k shortest simple paths between two entities.
+     *
+     * @param fromId    the start entity ID
+     * @param toId      the end entity ID
+     * @param k         the maximum number of paths
+     * @param traversal direction, depth and predicate options
+     * @return the paths, shortest first
+     */
+    default List<Path> findPaths(String fromId, String toId, int k, Traversal traversal) {
+        return new GraphTraverser(this).shortestPaths(fromId, toId, k, traversal);
+    }
+
+    /**
+     * Extracts the entities and triples around an entity.
+     *
+     * @param centerId  the center entity ID
+     * @param traversal direction, depth and predicate options
+     * @return the neighborhood subgraph
+     */
+    default Subgraph neighborhood(String centerId, Traversal traversal) {
+        return new GraphTraverser(this).neighborhood(centerId, traversal);
+    }
+
     /**
      * Returns the number of entities in the graph.
      *
@@ -0,0 +1,224 @@
+package io.github.llm4j.agent.knowledge.loader;
+
+import io.github.llm4j.agent.knowledge.KnowledgeGraph;
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Relation;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Shared machinery of the line-based loaders.
+ * <p>
+ * The calling thread reads lines into fixed-size chunks and submits each to
+ * the pool as soon as it is full, so parsing overlaps reading. Each chunk
+ * collects entity drafts (type and properties, keyed by ID) and edges on its
+ * own, without shared state. The chunks are then merged in input order, so
+ * later lines win as they would with sequential adds, each distinct entity is
+ * built once, and the whole graph is handed to
+ * {@link KnowledgeGraph#addAll(Collection, Collection)} in one batch.
+ */
+final class ChunkedLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedLoader.class);
+
+    /**
+     * Parses one line into a chunk. Implementations are shared by all chunks
+     * and must be thread-safe.
+     */
+    @FunctionalInterface
+    interface LineParser {
+
+        /**
+         * @throws IllegalArgumentException if the line is malformed
+         */
+        void parse(String line, Chunk chunk);
+    }
+
+    private final ForkJoinPool pool;
+    private final int chunkLines;
+
+    ChunkedLoader(ForkJoinPool pool, int chunkLines) {
+        this.pool = pool != null ? pool : ForkJoinPool.commonPool();
+        this.chunkLines = chunkLines;
+    }
+
+    /**
+     * Parses the remaining lines of the reader and adds the result to the
+     * graph.
+     *
+     * @param graph       the graph to load into
+     * @param reader      the input, positioned after any header
+     * @param firstLine   the line number of the reader's next line
+     * @param parser      the line parser
+     * @param defaultType the type of entities no line gave a type
+     * @return the load statistics
+     */
+    LoadStats load(KnowledgeGraph graph, BufferedReader reader, long firstLine, LineParser parser,
+            String defaultType) throws IOException {
+        long start = System.nanoTime();
+
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+        List<String> lines = new ArrayList<>(chunkLines);
+        long lineNumber = firstLine;
+        long chunkStart = firstLine;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+            lineNumber++;
+            if (lines.size() == chunkLines) {
+                tasks.add(submit(lines, chunkStart, parser));
+                lines = new ArrayList<>(chunkLines);
+                chunkStart = lineNumber;
+            }
+        }
+        if (!lines.isEmpty()) {
+            tasks.add(submit(lines, chunkStart, parser));
+        }
+
+        Map<String, Draft> drafts = new LinkedHashMap<>();
+        List<Edge> edges = new ArrayList<>();
+        long skipped = 0;
+        for (ForkJoinTask<Chunk> task : tasks) {
+            Chunk chunk = task.join();
+            for (Draft draft : chunk.drafts.values()) {
+                Draft merged = drafts.putIfAbsent(draft.id, draft);
+                if (merged != null) {
+                    merged.merge(draft);
+                }
+            }
+            edges.addAll(chunk.edges);
+            skipped += chunk.skipped;
+        }
+
+        Map<String, Entity> entities = new HashMap<>(drafts.size() * 2);
+        for (Draft draft : drafts.values()) {
+            entities.put(draft.id, Entity.builder()
+                    .id(draft.id)
+                    .type(draft.type != null ? draft.type : defaultType)
+                    .properties(draft.properties)
+                    .build());
+        }
+        List<Triple> triples = new ArrayList<>(edges.size());
+        for (Edge edge : edges) {
+            triples.add(new Triple(entities.get(edge.subject), edge.relation, entities.get(edge.object)));
+        }
+        long parsed = System.nanoTime();
+
+        graph.addAll(entities.values(), triples);
+        long indexed = System.nanoTime();
+
+        if (skipped > 0) {
+            logger.warn("Skipped {} malformed lines while loading graph", skipped);
+        }
+        LoadStats stats = new LoadStats(lineNumber - 1, skipped, triples.size(), entities.size(),
+                Duration.ofNanos(parsed - start), Duration.ofNanos(indexed - parsed));
+        logger.info("Loaded graph: {}", stats);
+        return stats;
+    }
+
+    private ForkJoinTask<Chunk> submit(List<String> lines, long firstLine, LineParser parser) {
+        return pool.submit(() -> {
+            Chunk chunk = new Chunk();
+            long lineNumber = firstLine;
+            for (String line : lines) {
+                try {
+                    parser.parse(line, chunk);
+                } catch (IllegalArgumentException e) {
+                    chunk.skipped++;
+                    logger.debug("Skipping line {}: {}", lineNumber, e.getMessage());
+                }
+                lineNumber++;
+            }
+            return chunk;
+        });
+    }
+
+    /**
+     * The entities and edges parsed from one chunk of lines.
+     */
+    static final class Chunk {
+
+        private final Map<String, Draft> drafts = new LinkedHashMap<>();
+        private final List<Edge> edges = new ArrayList<>();
+        private final Map<String, Relation> plainRelations = new HashMap<>();
+        private long skipped;
+
+        /**
+         * Records an entity, creating it if this chunk has not seen it.
+         */
+        void entity(String id) {
+            draft(id);
+        }
+
+        /**
+         * Sets an entity's type.
+         */
+        void type(String id, String type) {
+            draft(id).type = type;
+        }
+
+        /**
+         * Sets an entity property.
+         */
+        void property(String id, String key, Object value) {
+            draft(id).properties.put(key, value);
+        }
+
+        /**
+         * Records an edge without properties; relations are shared per type.
+         */
+        void edge(String subject, String predicate, String object) {
+            edge(subject, plainRelations.computeIfAbsent(predicate,
+                    type -> Relation.builder().type(type).build()), object);
+        }
+
+        void edge(String subject, Relation relation, String object) {
+            draft(subject);
+            draft(object);
+            edges.add(new Edge(subject, relation, object));
+        }
+
+        private Draft draft(String id) {
+            return drafts.computeIfAbsent(id, Draft::new);
+        }
+    }
+
+    private static final class Draft {
+
+        private final String id;
+        private String type;
+        private final Map<String, Object> properties = new LinkedHashMap<>();
+
+        Draft(String id) {
+            this.id = id;
+        }
+
+        void merge(Draft later) {
+            if (later.type != null) {
+                type = later.type;
+            }
+            properties.putAll(later.properties);
+        }
+    }
+
+    private static final class Edge {
+
+        private final String subject;
+        private final Relation relation;
+        private final String object;
+
+        Edge(String subject, Relation relation, String object) {
+            this.subject = subject;
+            this.relation = relation;
+            this.object = object;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package io.github.llm4j.agent.knowledge.loader;
+
+import io.github.llm4j.agent.knowledge.KnowledgeGraph;
+import io.github.llm4j.agent.knowledge.model.Relation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bulk loads an edge list in CSV format into a {@link KnowledgeGraph}.
+ * <p>
+ * Each row is one triple: a subject column, an object column and optionally
+ * a predicate column (rows without one use a fixed predicate type). Any
+ * other column becomes a string property of the relation, named after the
+ * header (or {@code column<i>} without one); empty cells are left out.
+ * Entities are identified by the subject and object values and all get the
+ * configured type.
+ * <p>
+ * Fields may be quoted, with {@code ""} for a quote inside a quoted field,
+ * but a quoted field cannot span lines. Rows are parsed in parallel chunks
+ * and the graph is added with one call to {@link KnowledgeGraph#addAll}, so
+ * each entity is written once and indexes are built in a single pass. Rows
+ * with too few columns or an empty subject or object are skipped and counted.
+ *
+ * <pre>{@code
+ * CsvEdgeLoader loader = CsvEdgeLoader.builder()
+ *         .columns("source", "relation", "target")
+ *         .entityType("Person")
+ *         .build();
+ * LoadStats stats = loader.load(graph, Path.of("edges.csv"));
+ * }</pre>
+ */
+public class CsvEdgeLoader {
+
+    private final ChunkedLoader loader;
+    private final char delimiter;
+    private final boolean header;
+    private final String subjectName;
+    private final String predicateName;
+    private final String objectName;
+    private final int subjectColumn;
+    private final int predicateColumn;
+    private final int objectColumn;
+    private final String predicate;
+    private final String entityType;
+
+    private CsvEdgeLoader(Builder builder) {
+        this.loader = new ChunkedLoader(builder.pool, builder.chunkLines);
+        this.delimiter = builder.delimiter;
+        this.header = builder.header;
+        this.subjectName = builder.subjectName;
+        this.predicateName = builder.predicateName;
+        this.objectName = builder.objectName;
+        this.subjectColumn = builder.subjectColumn;
+        this.predicateColumn = builder.predicateColumn;
+        this.objectColumn = builder.objectColumn;
+        this.predicate = builder.predicate;
+        this.entityType = builder.entityType;
+    }
+
+    /**
+     * Loads a CSV file, read as UTF-8.
+     *
+     * @param graph the graph to load into
+     * @param file  the file
+     * @return the load statistics
+     * @throws IOException if the file cannot be read
+     */
+    public LoadStats load(KnowledgeGraph graph, Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return load(graph, reader);
+        }
+    }
+
+    /**
+     * Loads CSV from a reader, which is read to the end but not closed.
+     *
+     * @param graph  the graph to load into
+     * @param reader the input
+     * @return the load statistics
+     * @throws IOException              if the input cannot be read
+     * @throws IllegalArgumentException if a named column is not in the header
+     */
+    public LoadStats load(KnowledgeGraph graph, Reader reader) throws IOException {
+        Objects.requireNonNull(graph, "graph cannot be null");
+        Objects.requireNonNull(reader, "reader cannot be null");
+        BufferedReader lines = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+
+        List<String> names = new ArrayList<>();
+        if (header) {
+            String line = lines.readLine();
+            if (line != null) {
+                names = split(line);
+            }
+        }
+        Columns columns = new Columns(names);
+        return loader.load(graph, lines, header ? 2 : 1, columns::parse, entityType);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Splits a row into fields, unquoting quoted ones.
+     */
+    private List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int at = 0;
+        while (true) {
+            if (at < line.length() && line.charAt(at) == '"') {
+                at++;
+                while (true) {
+                    if (at == line.length()) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = line.charAt(at++);
+                    if (c == '"') {
+                        if (at < line.length() && line.charAt(at) == '"') {
+                            field.append('"');
+                            at++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (at < line.length() && line.charAt(at) != delimiter) {
+                    throw new IllegalArgumentException("Unexpected character after quoted field at column " + at);
+                }
+            } else {
+                int end = line.indexOf(delimiter, at);
+                end = end < 0 ? line.length() : end;
+                field.append(line, at, end);
+                at = end;
+            }
+            fields.add(field.toString().trim());
+            field.setLength(0);
+            if (at == line.length()) {
+                return fields;
+            }
+            at++;
+        }
+    }
+
+    /**
+     * Column positions resolved against the header of one input.
+     */
+    private final class Columns {
+
+        private final List<String> names;
+        private final int subject;
+        private final int predicate;
+        private final int object;
+
+        Columns(List<String> names) {
+            this.names = names;
+            this.subject = resolve(subjectName, subjectColumn);
+            this.predicate = resolve(predicateName, predicateColumn);
+            this.object = resolve(objectName, objectColumn);
+        }
+
+        void parse(String line, ChunkedLoader.Chunk chunk) {
+            if (line.isBlank()) {
+                return;
+            }
+            List<String> fields = split(line);
+            String subjectId = field(fields, subject);
+            String objectId = field(fields, object);
+            String type = predicate >= 0 ? field(fields, predicate) : CsvEdgeLoader.this.predicate;
+            if (subjectId.isEmpty() || objectId.isEmpty() || type.isEmpty()) {
+                throw new IllegalArgumentException("Empty subject, predicate or object");
+            }
+
+            Relation.Builder relation = null;
+            for (int i = 0; i < fields.size(); i++) {
+                if (i != subject && i != predicate && i != object && !fields.get(i).isEmpty()) {
+                    if (relation == null) {
+                        relation = Relation.builder().type(type);
+                    }
+                    relation.addProperty(i < names.size() ? names.get(i) : "column" + i, fields.get(i));
+                }
+            }
+            if (relation != null) {
+                chunk.edge(subjectId, relation.build(), objectId);
+            } else {
+                chunk.edge(subjectId, type, objectId);
+            }
+        }
+
+        private int resolve(String name, int column) {
+            if (name == null) {
+                return column;
+            }
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Column '" + name + "' not found in header " + names);
+            }
+            return index;
+        }
+
+        private String field(List<String> fields, int column) {
+            if (column >= fields.size()) {
+                throw new IllegalArgumentException("Expected at least " + (column + 1) + " columns");
+            }
+            return fields.get(column);
+        }
+    }
+
+    public static final class Builder {
+        private ForkJoinPool pool;
+        private int chunkLines = 10_000;
+        private char delimiter = ',';
+        private boolean header = true;
+        private String subjectName;
+        private String predicateName;
+        private String objectName;
+        private int subjectColumn = 0;
+        private int predicateColumn = 1;
+        private int objectColumn = 2;
+        private String predicate = "RELATED_TO";
+        private String entityType = "Entity";
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the pool that parses chunks. Defaults to the common pool.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Sets the number of lines parsed per task. Defaults to 10,000.
+         */
+        public Builder chunkLines(int chunkLines) {
+            this.chunkLines = chunkLines;
+            return this;
+        }
+
+        /**
+         * Sets the field delimiter. Defaults to a comma.
+         */
+        public Builder delimiter(char delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        /**
+         * Sets whether the first line is a header. Defaults to true.
+         */
+        public Builder header(boolean header) {
+            this.header = header;
+            return this;
+        }
+
+        /**
+         * Sets the subject, predicate and object columns by position.
+         * Defaults to 0, 1 and 2.
+         *
+         * @param subject   subject column
+         * @param predicate predicate column, or -1 to use
+         *                  {@link #predicate(String)} for every row
+         * @param object    object column
+         */
+        public Builder columns(int subject, int predicate, int object) {
+            this.subjectName = null;
+            this.predicateName = null;
+            this.objectName = null;
+            this.subjectColumn = subject;
+            this.predicateColumn = predicate;
+            this.objectColumn = object;
+            return this;
+        }
+
+        /**
+         * Sets the subject, predicate and object columns by header name.
+         *
+         * @param subject   subject column
+         * @param predicate predicate column, or null to use
+         *                  {@link #predicate(String)} for every row
+         * @param object    object column
+         */
+        public Builder columns(String subject, String predicate, String object) {
+            this.subjectName = Objects.requireNonNull(subject, "subject cannot be null");
+            this.predicateName = predicate;
+            this.objectName = Objects.requireNonNull(object, "object cannot be null");
+            this.predicateColumn = -1;
+            return this;
+        }
+
+        /**
+         * Sets the predicate type of rows when there is no predicate column.
+         * Defaults to "RELATED_TO".
+         */
+        public Builder predicate(String predicate) {
+            this.predicate = predicate;
+            return this;
+        }
+
+        /**
+         * Sets the type of all loaded entities. Defaults to "Entity".
+         */
+        public Builder entityType(String entityType) {
+            this.entityType = entityType;
+            return this;
+        }
+
+        public CsvEdgeLoader build() {
+            if (chunkLines <= 0) {
+                throw new IllegalArgumentException("chunkLines must be positive");
+            }
+            if (delimiter == '"') {
+                throw new IllegalArgumentException("delimiter cannot be a quote");
+            }
+            if (subjectName != null && !header) {
+                throw new IllegalArgumentException("Columns can only be named when the input has a header");
+            }
+            if (subjectColumn < 0 || objectColumn < 0 || predicateColumn < -1) {
+                throw new IllegalArgumentException("Column positions cannot be negative");
+            }
+            Objects.requireNonNull(predicate, "predicate cannot be null");
+            Objects.requireNonNull(entityType, "entityType cannot be null");
+            return new CsvEdgeLoader(this);
+        }
+    }
+}
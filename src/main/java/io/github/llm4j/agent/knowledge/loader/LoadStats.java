@@ -0,0 +1,86 @@
+package io.github.llm4j.agent.knowledge.loader;
+
+import java.time.Duration;
+
+/**
+ * Counters and timings of one bulk load into a knowledge graph.
+ */
+public final class LoadStats {
+
+    private final long linesRead;
+    private final long linesSkipped;
+    private final long triplesLoaded;
+    private final long entitiesLoaded;
+    private final Duration parseTime;
+    private final Duration indexTime;
+
+    LoadStats(long linesRead, long linesSkipped, long triplesLoaded, long entitiesLoaded,
+            Duration parseTime, Duration indexTime) {
+        this.linesRead = linesRead;
+        this.linesSkipped = linesSkipped;
+        this.triplesLoaded = triplesLoaded;
+        this.entitiesLoaded = entitiesLoaded;
+        this.parseTime = parseTime;
+        this.indexTime = indexTime;
+    }
+
+    /**
+     * Returns the number of lines read, including headers, blank lines and
+     * comments.
+     */
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    /**
+     * Returns the number of lines that could not be parsed. They are logged
+     * and left out of the graph.
+     */
+    public long getLinesSkipped() {
+        return linesSkipped;
+    }
+
+    public long getTriplesLoaded() {
+        return triplesLoaded;
+    }
+
+    /**
+     * Returns the number of distinct entities in the input.
+     */
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    /**
+     * Returns the time spent reading and parsing the input and merging
+     * entities.
+     */
+    public Duration getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * Returns the time the graph spent adding the batch and building its
+     * indexes.
+     */
+    public Duration getIndexTime() {
+        return indexTime;
+    }
+
+    public Duration getElapsed() {
+        return parseTime.plus(indexTime);
+    }
+
+    public double getTriplesPerSecond() {
+        double seconds = getElapsed().toNanos() / 1e9;
+        return seconds > 0 ? triplesLoaded / seconds : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LoadStats{triples=%d, entities=%d, lines=%d (%d skipped), "
+                + "parse=%d ms, index=%d ms, %.1f triples/s}",
+                triplesLoaded, entitiesLoaded, linesRead, linesSkipped,
+                parseTime.toMillis(), indexTime.toMillis(), getTriplesPerSecond());
+    }
+}
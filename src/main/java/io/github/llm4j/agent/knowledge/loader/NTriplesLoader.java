@@ -0,0 +1,341 @@
+package io.github.llm4j.agent.knowledge.loader;
+
+import io.github.llm4j.agent.knowledge.KnowledgeGraph;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bulk loads an RDF graph in N-Triples format into a {@link KnowledgeGraph}.
+ * <p>
+ * Each statement is mapped onto the property graph model:
+ * <ul>
+ * <li>an {@code rdf:type} statement sets the subject's entity type;</li>
+ * <li>a statement with a literal object sets a subject property, converting
+ * {@code xsd} integers, decimals, doubles and booleans to numbers and
+ * booleans (language tags are dropped);</li>
+ * <li>any other statement becomes a triple between the two entities.</li>
+ * </ul>
+ * IRIs and blank node labels ({@code _:b0}) are used as entity IDs. Entities
+ * without an {@code rdf:type} get the default type. With
+ * {@link Builder#localNames(boolean) local names}, predicates, types and
+ * property keys are shortened to the part of the IRI after the last
+ * {@code #} or {@code /}, which reads better in prompts.
+ * <p>
+ * Lines are parsed in parallel chunks and the graph is added with one call to
+ * {@link KnowledgeGraph#addAll}, so each entity is written once and indexes
+ * are built in a single pass. Malformed lines are skipped and counted.
+ *
+ * <pre>{@code
+ * NTriplesLoader loader = NTriplesLoader.builder()
+ *         .localNames(true)
+ *         .build();
+ * LoadStats stats = loader.load(graph, Path.of("dataset.nt"));
+ * }</pre>
+ */
+public class NTriplesLoader {
+
+    private static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+    private static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+
+    private final ChunkedLoader loader;
+    private final boolean localNames;
+    private final String defaultType;
+
+    private NTriplesLoader(Builder builder) {
+        this.loader = new ChunkedLoader(builder.pool, builder.chunkLines);
+        this.localNames = builder.localNames;
+        this.defaultType = builder.defaultType;
+    }
+
+    /**
+     * Loads an N-Triples file, read as UTF-8.
+     *
+     * @param graph the graph to load into
+     * @param file  the file
+     * @return the load statistics
+     * @throws IOException if the file cannot be read
+     */
+    public LoadStats load(KnowledgeGraph graph, Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return load(graph, reader);
+        }
+    }
+
+    /**
+     * Loads N-Triples from a reader, which is read to the end but not closed.
+     *
+     * @param graph  the graph to load into
+     * @param reader the input
+     * @return the load statistics
+     * @throws IOException if the input cannot be read
+     */
+    public LoadStats load(KnowledgeGraph graph, Reader reader) throws IOException {
+        Objects.requireNonNull(graph, "graph cannot be null");
+        Objects.requireNonNull(reader, "reader cannot be null");
+        BufferedReader lines = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+        return loader.load(graph, lines, 1, this::parse, defaultType);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private void parse(String line, ChunkedLoader.Chunk chunk) {
+        Statement statement = new Statement(line);
+        if (statement.atEnd()) {
+            return;
+        }
+
+        String subject = statement.resource();
+        String predicate = statement.iri();
+        boolean literal = statement.peek() == '"';
+        Object object = literal ? statement.literal() : statement.resource();
+        statement.end();
+
+        if (literal) {
+            chunk.property(subject, name(predicate), object);
+        } else if (predicate.equals(RDF_TYPE)) {
+            chunk.type(subject, name((String) object));
+        } else {
+            chunk.edge(subject, name(predicate), (String) object);
+        }
+    }
+
+    private String name(String iri) {
+        if (!localNames) {
+            return iri;
+        }
+        int cut = Math.max(iri.lastIndexOf('#'), iri.lastIndexOf('/'));
+        return cut >= 0 && cut < iri.length() - 1 ? iri.substring(cut + 1) : iri;
+    }
+
+    /**
+     * Cursor over the terms of one statement.
+     */
+    private static final class Statement {
+
+        private static final String ESCAPES = "tbnrf\"'\\";
+        private static final String UNESCAPED = "\t\b\n\r\f\"'\\";
+
+        private final String line;
+        private int at;
+
+        Statement(String line) {
+            this.line = line;
+            skipSpace();
+        }
+
+        boolean atEnd() {
+            return at == line.length() || line.charAt(at) == '#';
+        }
+
+        char peek() {
+            if (at == line.length()) {
+                throw new IllegalArgumentException("Incomplete statement");
+            }
+            return line.charAt(at);
+        }
+
+        /**
+         * Reads an IRI or blank node.
+         */
+        String resource() {
+            if (peek() == '_') {
+                if (!line.startsWith("_:", at)) {
+                    throw new IllegalArgumentException("Bad blank node at column " + at);
+                }
+                int start = at;
+                while (at < line.length() && !Character.isWhitespace(line.charAt(at))) {
+                    at++;
+                }
+                String label = line.substring(start, at);
+                if (label.length() == 2) {
+                    throw new IllegalArgumentException("Empty blank node label at column " + start);
+                }
+                skipSpace();
+                return label;
+            }
+            return iri();
+        }
+
+        String iri() {
+            if (peek() != '<') {
+                throw new IllegalArgumentException("Expected IRI at column " + at);
+            }
+            int end = line.indexOf('>', at);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated IRI at column " + at);
+            }
+            String iri = line.substring(at + 1, end);
+            at = end + 1;
+            skipSpace();
+            return iri;
+        }
+
+        Object literal() {
+            StringBuilder value = new StringBuilder();
+            at++;
+            while (true) {
+                if (at == line.length()) {
+                    throw new IllegalArgumentException("Unterminated literal");
+                }
+                char c = line.charAt(at++);
+                if (c == '"') {
+                    break;
+                }
+                if (c == '\\') {
+                    at = unescape(value);
+                } else {
+                    value.append(c);
+                }
+            }
+
+            String datatype = null;
+            if (line.startsWith("^^", at)) {
+                at += 2;
+                datatype = iri();
+            } else if (at < line.length() && line.charAt(at) == '@') {
+                // Language tag, dropped
+                while (at < line.length() && !Character.isWhitespace(line.charAt(at)) && line.charAt(at) != '.') {
+                    at++;
+                }
+            }
+            skipSpace();
+            return convert(value.toString(), datatype);
+        }
+
+        void end() {
+            if (peek() != '.') {
+                throw new IllegalArgumentException("Expected '.' at column " + at);
+            }
+            at++;
+            skipSpace();
+            if (!atEnd()) {
+                throw new IllegalArgumentException("Unexpected content after '.' at column " + at);
+            }
+        }
+
+        private int unescape(StringBuilder value) {
+            if (at == line.length()) {
+                throw new IllegalArgumentException("Unterminated escape");
+            }
+            char c = line.charAt(at++);
+            if (c == 'u' || c == 'U') {
+                return codePoint(value, c == 'u' ? 4 : 8);
+            }
+            int escape = ESCAPES.indexOf(c);
+            if (escape < 0) {
+                throw new IllegalArgumentException("Bad escape \\" + c);
+            }
+            value.append(UNESCAPED.charAt(escape));
+            return at;
+        }
+
+        private int codePoint(StringBuilder value, int digits) {
+            if (at + digits > line.length()) {
+                throw new IllegalArgumentException("Truncated escape");
+            }
+            try {
+                value.appendCodePoint(Integer.parseInt(line.substring(at, at + digits), 16));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad escape " + line.substring(at, at + digits));
+            }
+            return at + digits;
+        }
+
+        private void skipSpace() {
+            while (at < line.length() && (line.charAt(at) == ' ' || line.charAt(at) == '\t')) {
+                at++;
+            }
+        }
+
+        private static Object convert(String value, String datatype) {
+            if (datatype == null || !datatype.startsWith(XSD)) {
+                return value;
+            }
+            try {
+                switch (datatype.substring(XSD.length())) {
+                    case "integer":
+                    case "int":
+                    case "long":
+                    case "short":
+                    case "byte":
+                    case "nonNegativeInteger":
+                    case "positiveInteger":
+                        return Long.parseLong(value.trim());
+                    case "decimal":
+                    case "double":
+                    case "float":
+                        return Double.parseDouble(value.trim());
+                    case "boolean":
+                        return Boolean.parseBoolean(value.trim()) || value.trim().equals("1");
+                    default:
+                        return value;
+                }
+            } catch (NumberFormatException e) {
+                // Out of range or ill-typed: keep the lexical form
+                return value;
+            }
+        }
+    }
+
+    public static final class Builder {
+        private ForkJoinPool pool;
+        private int chunkLines = 10_000;
+        private boolean localNames;
+        private String defaultType = "Resource";
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the pool that parses chunks. Defaults to the common pool.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Sets the number of lines parsed per task. Defaults to 10,000.
+         */
+        public Builder chunkLines(int chunkLines) {
+            this.chunkLines = chunkLines;
+            return this;
+        }
+
+        /**
+         * Shortens predicate, type and property IRIs to their local names.
+         * Entity IDs are always full IRIs. Defaults to false.
+         */
+        public Builder localNames(boolean localNames) {
+            this.localNames = localNames;
+            return this;
+        }
+
+        /**
+         * Sets the type of entities without an {@code rdf:type}. Defaults to
+         * "Resource".
+         */
+        public Builder defaultType(String defaultType) {
+            this.defaultType = defaultType;
+            return this;
+        }
+
+        public NTriplesLoader build() {
+            if (chunkLines <= 0) {
+                throw new IllegalArgumentException("chunkLines must be positive");
+            }
+            Objects.requireNonNull(defaultType, "defaultType cannot be null");
+            return new NTriplesLoader(this);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package io.github.llm4j.agent.knowledge.store;
+
+import io.github.llm4j.agent.knowledge.KnowledgeGraph;
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Relation;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.metadata.Filter;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memory-compact knowledge graph for large, mostly static graphs.
+ * <p>
+ * Entity IDs, predicate types and distinct relations (type plus properties)
+ * are interned into int dictionaries, and triples are stored as parallel int
+ * arrays sorted by subject, predicate and object, with an offsets array per
+ * subject (compressed sparse rows). Two permutation arrays order the same
+ * triples by object, subject, predicate and by predicate, object, subject, so
+ * every pattern in {@link #findTriples(String, String, String)} is a range
+ * lookup plus binary searches. A triple costs 24 bytes, against several
+ * hundred for the object graph of {@link InMemoryGraphStore}.
+ * <p>
+ * New triples go to an append buffer that is merged into the sorted arrays
+ * by the first query after them, or by {@link #compact()}. The merge is a
+ * linear radix sort over all triples, so the store suits bulk loads followed
+ * by queries; workloads that interleave single writes with reads should use
+ * {@link InMemoryGraphStore}. Like that store, the graph is a set: adding a
+ * triple equal to an existing one replaces it.
+ */
+public class CompactGraphStore implements KnowledgeGraph {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Dictionaries
+    private final Map<String, Integer> entityIds = new HashMap<>();
+    private Entity[] entities = new Entity[16];
+    private int entityCount;
+    private final Map<String, Integer> predicateIds = new HashMap<>();
+    private final Map<Map.Entry<String, Map<String, Object>>, Integer> relationIds = new HashMap<>();
+    private Relation[] relations = new Relation[16];
+    private int[] relationPredicates = new int[16];
+    private int relationCount;
+
+    // Compacted triples
+    private TripleIndex index = TripleIndex.EMPTY;
+
+    // Triples added since the last compaction as (subject, predicate, object, relation)
+    private int[] pending = new int[64];
+    private int pendingCount;
+
+    @Override
+    public void addEntity(Entity entity) {
+        Objects.requireNonNull(entity, "entity cannot be null");
+        lock.writeLock().lock();
+        try {
+            internEntity(entity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Entity getEntity(String id) {
+        lock.readLock().lock();
+        try {
+            Integer entityId = entityIds.get(id);
+            return entityId != null ? entities[entityId] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Entity> findEntities(String type, Map<String, Object> filters) {
+        return findEntitiesMatching(type, Filter.fromMap(filters));
+    }
+
+    @Override
+    public List<Entity> findEntitiesMatching(String type, Filter filter) {
+        lock.readLock().lock();
+        try {
+            List<Entity> matches = new ArrayList<>();
+            for (int i = 0; i < entityCount; i++) {
+                Entity entity = entities[i];
+                if ((type == null || entity.getType().equals(type))
+                        && (filter == null || filter.matches(entity.getProperties()))) {
+                    matches.add(entity);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addTriple(Triple triple) {
+        Objects.requireNonNull(triple, "triple cannot be null");
+        lock.writeLock().lock();
+        try {
+            append(triple);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a batch under one write lock and merges it into the sorted arrays
+     * straight away, so the whole load costs a single radix sort.
+     */
+    @Override
+    public void addAll(Collection<Entity> entities, Collection<Triple> triples) {
+        lock.writeLock().lock();
+        try {
+            for (Entity entity : entities) {
+                internEntity(Objects.requireNonNull(entity, "entity cannot be null"));
+            }
+            int needed = (pendingCount + triples.size()) * 4;
+            if (needed > pending.length) {
+                pending = Arrays.copyOf(pending, needed);
+            }
+            for (Triple triple : triples) {
+                append(Objects.requireNonNull(triple, "triple cannot be null"));
+            }
+            if (pendingCount > 0) {
+                merge();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Triple> getTriples(String subjectId) {
+        return findTriples(subjectId, null, null);
+    }
+
+    @Override
+    public List<Triple> findTriples(String subjectId, String predicateType, String objectId) {
+        lockCompacted();
+        try {
+            int subject = subjectId != null ? entityIds.getOrDefault(subjectId, -1) : -1;
+            int predicate = predicateType != null ? predicateIds.getOrDefault(predicateType, -1) : -1;
+            int object = objectId != null ? entityIds.getOrDefault(objectId, -1) : -1;
+            if ((subjectId != null && subject < 0) || (predicateType != null && predicate < 0)
+                    || (objectId != null && object < 0)) {
+                return new ArrayList<>();
+            }
+
+            List<Triple> triples = new ArrayList<>();
+            index.find(subject, predicate, object, triple -> triples.add(new Triple(
+                    entities[index.subject(triple)],
+                    relations[index.relation(triple)],
+                    entities[index.object(triple)])));
+            return triples;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getEntityCount() {
+        lock.readLock().lock();
+        try {
+            return entityCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getTripleCount() {
+        lockCompacted();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merges triples added since the last compaction into the sorted arrays.
+     * Queries do this on demand; calling it after a bulk load moves the cost
+     * out of the first query.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (pendingCount > 0) {
+                merge();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entityIds.clear();
+            entities = new Entity[16];
+            entityCount = 0;
+            predicateIds.clear();
+            relationIds.clear();
+            relations = new Relation[16];
+            relationPredicates = new int[16];
+            relationCount = 0;
+            index = TripleIndex.EMPTY;
+            pending = new int[64];
+            pendingCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Acquires the read lock with no pending triples, compacting first under
+     * the write lock if needed. The caller releases the read lock.
+     */
+    private void lockCompacted() {
+        lock.readLock().lock();
+        if (pendingCount == 0) {
+            return;
+        }
+        lock.readLock().unlock();
+
+        lock.writeLock().lock();
+        try {
+            if (pendingCount > 0) {
+                merge();
+            }
+            // Downgrade, so no writer can slip in before the caller reads
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the compacted and pending triples; pending
+     * triples come last, so they replace equal compacted ones.
+     */
+    private void merge() {
+        int compacted = index.size();
+        int total = compacted + pendingCount;
+        int[] s = new int[total];
+        int[] p = new int[total];
+        int[] o = new int[total];
+        int[] r = new int[total];
+        for (int t = 0; t < compacted; t++) {
+            s[t] = index.subject(t);
+            p[t] = index.predicate(t);
+            o[t] = index.object(t);
+            r[t] = index.relation(t);
+        }
+        for (int i = 0, at = 0; i < pendingCount; i++, at += 4) {
+            int t = compacted + i;
+            s[t] = pending[at];
+            p[t] = pending[at + 1];
+            o[t] = pending[at + 2];
+            r[t] = pending[at + 3];
+        }
+
+        index = TripleIndex.build(s, p, o, r, total, entityCount, predicateIds.size());
+        pending = new int[64];
+        pendingCount = 0;
+    }
+
+    private void append(Triple triple) {
+        int subject = internEntity(triple.getSubject());
+        int object = internEntity(triple.getObject());
+        int relation = internRelation(triple.getPredicate());
+
+        int at = pendingCount * 4;
+        if (at == pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[at] = subject;
+        pending[at + 1] = relationPredicates[relation];
+        pending[at + 2] = object;
+        pending[at + 3] = relation;
+        pendingCount++;
+    }
+
+    private int internEntity(Entity entity) {
+        Integer id = entityIds.get(entity.getId());
+        if (id != null) {
+            entities[id] = entity;
+            return id;
+        }
+        if (entityCount == entities.length) {
+            entities = Arrays.copyOf(entities, entities.length * 2);
+        }
+        entities[entityCount] = entity;
+        entityIds.put(entity.getId(), entityCount);
+        return entityCount++;
+    }
+
+    private int internRelation(Relation relation) {
+        Map.Entry<String, Map<String, Object>> key =
+                new AbstractMap.SimpleImmutableEntry<>(relation.getType(), relation.getProperties());
+        Integer id = relationIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (relationCount == relations.length) {
+            relations = Arrays.copyOf(relations, relations.length * 2);
+            relationPredicates = Arrays.copyOf(relationPredicates, relationPredicates.length * 2);
+        }
+        relations[relationCount] = relation;
+        relationPredicates[relationCount] = predicateIds.computeIfAbsent(relation.getType(),
+                type -> predicateIds.size());
+        relationIds.put(key, relationCount);
+        return relationCount++;
+    }
+}
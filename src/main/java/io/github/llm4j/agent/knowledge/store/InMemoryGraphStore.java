@@ -3,29 +3,88 @@ package io.github.llm4j.agent.knowledge.store;
 import io.github.llm4j.agent.knowledge.KnowledgeGraph;
 import io.github.llm4j.agent.knowledge.model.Entity;
 import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.metadata.Filter;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * In-memory implementation of a knowledge graph.
  * Suitable for small to medium-sized graphs.
+ * <p>
+ * Triples are held in three nested hash indexes, subject-predicate-object,
+ * predicate-object-subject and object-subject-predicate, so a pattern with
+ * any combination of bound positions is answered from the index whose prefix
+ * covers them, in time proportional to the result rather than the graph.
+ * The triple indexes are concurrent maps: triple reads never block and
+ * triple writers only contend on the same keys. The entity indexes are
+ * guarded by a read-write lock, which adding a triple takes only when its
+ * subject or object is new or differs from the stored entity, so loading
+ * many triples between known entities does not serialize on it. Like other
+ * triple stores, the graph is a set:
+ * adding a triple equal to an existing one (same subject, predicate type and
+ * object) replaces it.
+ * <p>
+ * Entities are indexed by type, and optionally by property: a hash index per
+ * property answers equality and set-membership filters and a sorted index
+ * answers numeric ranges. Properties are indexed when declared in the
+ * builder, or once they have been filtered on
+ * {@link Builder#adaptiveIndexThreshold(int) often enough}. Entity queries
+ * intersect the candidate sets of the type and every indexed clause,
+ * starting from the smallest, and check the full filter only on the
+ * survivors.
+ *
+ * <pre>{@code
+ * InMemoryGraphStore graph = InMemoryGraphStore.builder()
+ *         .indexedProperties("title", "age")
+ *         .build();
+ * List<Entity> seniors = graph.findEntitiesMatching("Person",
+ *         Filter.and(Filter.eq("title", "Engineer"), Filter.gte("age", 50)));
+ * }</pre>
  */
 public class InMemoryGraphStore implements KnowledgeGraph {
 
     private final Map<String, Entity> entities;
-    private final List<Triple> triples;
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Triple>>> spo;
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Triple>>> pos;
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Triple>>> osp;
+    private final AtomicInteger tripleCount = new AtomicInteger();
+
+    // Entity indexes, guarded by entityLock
+    private final ReadWriteLock entityLock = new ReentrantReadWriteLock();
+    private final Map<String, Set<String>> typeIndex = new HashMap<>();
+    private final Map<String, PropertyIndex> propertyIndexes = new HashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> propertyQueryCounts = new ConcurrentHashMap<>();
+    private final int adaptiveIndexThreshold;
 
     public InMemoryGraphStore() {
+        this(builder());
+    }
+
+    private InMemoryGraphStore(Builder builder) {
         this.entities = new ConcurrentHashMap<>();
-        this.triples = Collections.synchronizedList(new ArrayList<>());
+        this.spo = new ConcurrentHashMap<>();
+        this.pos = new ConcurrentHashMap<>();
+        this.osp = new ConcurrentHashMap<>();
+        for (String property : builder.indexedProperties) {
+            propertyIndexes.put(property, new PropertyIndex(property));
+        }
+        this.adaptiveIndexThreshold = builder.adaptiveIndexThreshold;
     }
 
     @Override
     public void addEntity(Entity entity) {
         Objects.requireNonNull(entity, "entity cannot be null");
-        entities.put(entity.getId(), entity);
+        entityLock.writeLock().lock();
+        try {
+            putEntity(entity);
+        } finally {
+            entityLock.writeLock().unlock();
+        }
     }
 
     @Override
@@ -35,10 +94,65 @@ public class InMemoryGraphStore implements KnowledgeGraph {
 
     @Override
     public List<Entity> findEntities(String type, Map<String, Object> filters) {
-        return entities.values().stream()
-                .filter(entity -> type == null || entity.getType().equals(type))
-                .filter(entity -> matchesFilters(entity, filters))
-                .collect(Collectors.toList());
+        return findEntitiesMatching(type, Filter.fromMap(filters));
+    }
+
+    @Override
+    public List<Entity> findEntitiesMatching(String type, Filter filter) {
+        List<Entity> matches = new ArrayList<>();
+        entityLock.readLock().lock();
+        try {
+            List<Set<String>> candidateSets = new ArrayList<>(2);
+            if (type != null) {
+                candidateSets.add(typeIndex.getOrDefault(type, Collections.emptySet()));
+            }
+            Set<String> filterCandidates = filter != null ? candidates(filter) : null;
+            if (filterCandidates != null) {
+                candidateSets.add(filterCandidates);
+            }
+
+            if (candidateSets.isEmpty()) {
+                for (Entity entity : entities.values()) {
+                    if (filter == null || filter.matches(entity.getProperties())) {
+                        matches.add(entity);
+                    }
+                }
+            } else {
+                candidateSets.sort(Comparator.comparingInt(Set::size));
+                Set<String> smallest = candidateSets.get(0);
+                for (String id : smallest) {
+                    if (candidateSets.size() > 1 && !candidateSets.get(1).contains(id)) {
+                        continue;
+                    }
+                    Entity entity = entities.get(id);
+                    if (entity != null && (type == null || entity.getType().equals(type))
+                            && (filter == null || filter.matches(entity.getProperties()))) {
+                        matches.add(entity);
+                    }
+                }
+            }
+        } finally {
+            entityLock.readLock().unlock();
+        }
+
+        if (filter != null && adaptiveIndexThreshold > 0) {
+            recordQuery(filter);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the properties that currently have an index.
+     *
+     * @return indexed property names
+     */
+    public Set<String> getIndexedProperties() {
+        entityLock.readLock().lock();
+        try {
+            return new TreeSet<>(propertyIndexes.keySet());
+        } finally {
+            entityLock.readLock().unlock();
+        }
     }
 
     @Override
@@ -46,10 +160,55 @@ public class InMemoryGraphStore implements KnowledgeGraph {
         Objects.requireNonNull(triple, "triple cannot be null");
 
         // Ensure entities exist in the graph
-        addEntity(triple.getSubject());
-        addEntity(triple.getObject());
+        addEntityIfChanged(triple.getSubject());
+        addEntityIfChanged(triple.getObject());
+        putTriple(triple);
+    }
+
+    /**
+     * Adds the entity unless an identical one is already stored, which needs
+     * no write lock.
+     */
+    private void addEntityIfChanged(Entity entity) {
+        Objects.requireNonNull(entity, "entity cannot be null");
+        Entity stored = entities.get(entity.getId());
+        if (stored == entity || (stored != null && stored.getType().equals(entity.getType())
+                && stored.getProperties().equals(entity.getProperties()))) {
+            return;
+        }
+        addEntity(entity);
+    }
+
+    /**
+     * Adds a batch with one pass over the entity indexes: each distinct
+     * entity, the last occurrence of its ID winning as with single adds, is
+     * written once under a single lock acquisition, and the triples are then
+     * put into the triple indexes without touching the entities again.
+     */
+    @Override
+    public void addAll(Collection<Entity> entities, Collection<Triple> triples) {
+        Map<String, Entity> distinct = new LinkedHashMap<>();
+        for (Entity entity : entities) {
+            Objects.requireNonNull(entity, "entity cannot be null");
+            distinct.put(entity.getId(), entity);
+        }
+        for (Triple triple : triples) {
+            Objects.requireNonNull(triple, "triple cannot be null");
+            distinct.put(triple.getSubject().getId(), triple.getSubject());
+            distinct.put(triple.getObject().getId(), triple.getObject());
+        }
 
-        triples.add(triple);
+        entityLock.writeLock().lock();
+        try {
+            for (Entity entity : distinct.values()) {
+                putEntity(entity);
+            }
+        } finally {
+            entityLock.writeLock().unlock();
+        }
+        for (Triple triple : triples) {
+            putTriple(triple);
+        }
     }
 
     @Override
@@ -59,11 +218,46 @@ public class InMemoryGraphStore implements KnowledgeGraph {
 
     @Override
     public List<Triple> findTriples(String subjectId, String predicateType, String objectId) {
-        return triples.stream()
-                .filter(triple -> subjectId == null || triple.getSubject().getId().equals(subjectId))
-                .filter(triple -> predicateType == null || triple.getPredicate().getType().equals(predicateType))
-                .filter(triple -> objectId == null || triple.getObject().getId().equals(objectId))
-                .collect(Collectors.toList());
+        if (subjectId != null) {
+            if (objectId != null && predicateType == null) {
+                return values(lookup(osp, objectId, subjectId));
+            }
+            Map<String, ConcurrentMap<String, Triple>> byPredicate = spo.get(subjectId);
+            if (byPredicate == null) {
+                return new ArrayList<>();
+            }
+            if (predicateType == null) {
+                return flatten(byPredicate);
+            }
+            Map<String, Triple> byObject = byPredicate.get(predicateType);
+            if (byObject == null) {
+                return new ArrayList<>();
+            }
+            if (objectId == null) {
+                return values(byObject);
+            }
+            Triple triple = byObject.get(objectId);
+            return triple != null ? new ArrayList<>(List.of(triple)) : new ArrayList<>();
+        }
+        if (predicateType != null) {
+            if (objectId != null) {
+                return values(lookup(pos, predicateType, objectId));
+            }
+            Map<String, ConcurrentMap<String, Triple>> byObject = pos.get(predicateType);
+            return byObject != null ? flatten(byObject) : new ArrayList<>();
+        }
+        if (objectId != null) {
+            Map<String, ConcurrentMap<String, Triple>> bySubject = osp.get(objectId);
+            return bySubject != null ? flatten(bySubject) : new ArrayList<>();
+        }
+
+        List<Triple> all = new ArrayList<>(tripleCount.get());
+        for (Map<String, ConcurrentMap<String, Triple>> byPredicate : spo.values()) {
+            for (Map<String, Triple> byObject : byPredicate.values()) {
+                all.addAll(byObject.values());
+            }
+        }
+        return all;
     }
 
     @Override
@@ -73,36 +267,253 @@ public class InMemoryGraphStore implements KnowledgeGraph {
 
     @Override
     public int getTripleCount() {
-        return triples.size();
+        return tripleCount.get();
     }
 
     @Override
     public void clear() {
-        entities.clear();
-        triples.clear();
+        entityLock.writeLock().lock();
+        try {
+            entities.clear();
+            typeIndex.clear();
+            for (PropertyIndex index : propertyIndexes.values()) {
+                index.clear();
+            }
+        } finally {
+            entityLock.writeLock().unlock();
+        }
+        spo.clear();
+        pos.clear();
+        osp.clear();
+        tripleCount.set(0);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static ConcurrentMap<String, Triple> index(
+            ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Triple>>> index,
+            String first, String second) {
+        return index.computeIfAbsent(first, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(second, key -> new ConcurrentHashMap<>());
+    }
+
+    private static Map<String, Triple> lookup(
+            Map<String, ConcurrentMap<String, ConcurrentMap<String, Triple>>> index,
+            String first, String second) {
+        Map<String, ConcurrentMap<String, Triple>> level = index.get(first);
+        return level != null ? level.get(second) : null;
+    }
+
+    private static List<Triple> values(Map<String, Triple> triples) {
+        return triples != null ? new ArrayList<>(triples.values()) : new ArrayList<>();
+    }
+
+    private static List<Triple> flatten(Map<String, ConcurrentMap<String, Triple>> level) {
+        List<Triple> triples = new ArrayList<>();
+        for (Map<String, Triple> leaf : level.values()) {
+            triples.addAll(leaf.values());
+        }
+        return triples;
+    }
+
+    private void putEntity(Entity entity) {
+        Entity previous = entities.put(entity.getId(), entity);
+        if (previous != null) {
+            unindex(previous);
+        }
+        typeIndex.computeIfAbsent(entity.getType(), key -> new HashSet<>()).add(entity.getId());
+        for (PropertyIndex index : propertyIndexes.values()) {
+            index.add(entity);
+        }
+    }
+
+    private void putTriple(Triple triple) {
+        String subject = triple.getSubject().getId();
+        String predicate = triple.getPredicate().getType();
+        String object = triple.getObject().getId();
+
+        // The pos and osp writes happen inside compute() on the spo entry, so
+        // concurrent puts of the same (s, p, o) are serialized and the three
+        // indexes end up holding the same triple
+        index(spo, subject, predicate).compute(object, (key, previous) -> {
+            if (previous == null) {
+                tripleCount.incrementAndGet();
+            }
+            index(pos, predicate, object).put(subject, triple);
+            index(osp, object, subject).put(predicate, triple);
+            return triple;
+        });
+    }
+
+    private void unindex(Entity entity) {
+        Set<String> ids = typeIndex.get(entity.getType());
+        if (ids != null) {
+            ids.remove(entity.getId());
+            if (ids.isEmpty()) {
+                typeIndex.remove(entity.getType());
+            }
+        }
+        for (PropertyIndex index : propertyIndexes.values()) {
+            index.remove(entity);
+        }
     }
 
     /**
-     * Checks if an entity matches the given property filters.
+     * Translates a filter into candidate entity IDs using the property
+     * indexes.
      *
-     * @param entity  the entity to check
-     * @param filters the filters to apply
-     * @return true if entity matches all filters
+     * @return a superset of the matching IDs, or null if the filter cannot be
+     *         bounded by the indexes
      */
-    private boolean matchesFilters(Entity entity, Map<String, Object> filters) {
-        if (filters == null || filters.isEmpty()) {
-            return true;
+    private Set<String> candidates(Filter filter) {
+        if (filter instanceof Filter.Eq) {
+            Filter.Eq eq = (Filter.Eq) filter;
+            PropertyIndex index = propertyIndexes.get(eq.getField());
+            return index != null ? index.get(eq.getValue()) : null;
         }
+        if (filter instanceof Filter.In) {
+            Filter.In in = (Filter.In) filter;
+            PropertyIndex index = propertyIndexes.get(in.getField());
+            if (index == null) {
+                return null;
+            }
+            Set<String> ids = new HashSet<>();
+            for (Object value : in.getValues()) {
+                ids.addAll(index.get(value));
+            }
+            return ids;
+        }
+        if (filter instanceof Filter.Range) {
+            Filter.Range range = (Filter.Range) filter;
+            PropertyIndex index = propertyIndexes.get(range.getField());
+            return index != null ? index.range(range) : null;
+        }
+        if (filter instanceof Filter.And) {
+            List<Set<String>> clauses = new ArrayList<>();
+            for (Filter clause : ((Filter.And) filter).getFilters()) {
+                Set<String> ids = candidates(clause);
+                if (ids != null) {
+                    clauses.add(ids);
+                }
+            }
+            if (clauses.isEmpty()) {
+                return null;
+            }
+            clauses.sort(Comparator.comparingInt(Set::size));
+            Set<String> ids = new HashSet<>();
+            for (String id : clauses.get(0)) {
+                boolean inAll = true;
+                for (int i = 1; i < clauses.size() && inAll; i++) {
+                    inAll = clauses.get(i).contains(id);
+                }
+                if (inAll) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+        if (filter instanceof Filter.Or) {
+            Set<String> ids = new HashSet<>();
+            for (Filter clause : ((Filter.Or) filter).getFilters()) {
+                Set<String> clauseIds = candidates(clause);
+                if (clauseIds == null) {
+                    return null;
+                }
+                ids.addAll(clauseIds);
+            }
+            return ids;
+        }
+        // Negations match everything outside a set and are checked per entity
+        return null;
+    }
+
+    /**
+     * Counts a query against each unindexed property it filters on and
+     * indexes the properties that reach the threshold.
+     */
+    private void recordQuery(Filter filter) {
+        Set<String> fields = new HashSet<>();
+        collectFields(filter, fields);
+
+        List<String> due = new ArrayList<>();
+        for (String field : fields) {
+            AtomicInteger count = propertyQueryCounts.computeIfAbsent(field, key -> new AtomicInteger());
+            if (count.incrementAndGet() == adaptiveIndexThreshold) {
+                due.add(field);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        entityLock.writeLock().lock();
+        try {
+            for (String field : due) {
+                if (propertyIndexes.containsKey(field)) {
+                    continue;
+                }
+                PropertyIndex index = new PropertyIndex(field);
+                for (Entity entity : entities.values()) {
+                    index.add(entity);
+                }
+                propertyIndexes.put(field, index);
+            }
+        } finally {
+            entityLock.writeLock().unlock();
+        }
+    }
 
-        for (Map.Entry<String, Object> filter : filters.entrySet()) {
-            Object propertyValue = entity.getProperty(filter.getKey());
-            Object filterValue = filter.getValue();
+    private static void collectFields(Filter filter, Set<String> fields) {
+        if (filter instanceof Filter.Eq) {
+            fields.add(((Filter.Eq) filter).getField());
+        } else if (filter instanceof Filter.In) {
+            fields.add(((Filter.In) filter).getField());
+        } else if (filter instanceof Filter.Range) {
+            fields.add(((Filter.Range) filter).getField());
+        } else if (filter instanceof Filter.Not) {
+            collectFields(((Filter.Not) filter).getFilter(), fields);
+        } else if (filter instanceof Filter.And) {
+            for (Filter clause : ((Filter.And) filter).getFilters()) {
+                collectFields(clause, fields);
+            }
+        } else if (filter instanceof Filter.Or) {
+            for (Filter clause : ((Filter.Or) filter).getFilters()) {
+                collectFields(clause, fields);
+            }
+        }
+    }
 
-            if (propertyValue == null || !propertyValue.equals(filterValue)) {
-                return false;
+    public static final class Builder {
+        private final Set<String> indexedProperties = new LinkedHashSet<>();
+        private int adaptiveIndexThreshold = 16;
+
+        private Builder() {
+        }
+
+        /**
+         * Declares entity properties to index from the start.
+         */
+        public Builder indexedProperties(String... properties) {
+            this.indexedProperties.addAll(Arrays.asList(properties));
+            return this;
+        }
+
+        /**
+         * Sets how many entity queries must filter on an unindexed property
+         * before it is indexed; 0 disables adaptive indexing. Defaults to 16.
+         */
+        public Builder adaptiveIndexThreshold(int adaptiveIndexThreshold) {
+            if (adaptiveIndexThreshold < 0) {
+                throw new IllegalArgumentException("adaptiveIndexThreshold cannot be negative");
             }
+            this.adaptiveIndexThreshold = adaptiveIndexThreshold;
+            return this;
         }
 
-        return true;
+        public InMemoryGraphStore build() {
+            return new InMemoryGraphStore(this);
+        }
     }
 }
@@ -0,0 +1,720 @@
+package io.github.llm4j.agent.knowledge.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.llm4j.agent.knowledge.KnowledgeGraph;
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Relation;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.metadata.Filter;
+import io.github.llm4j.agent.metadata.MetadataTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Disk-backed knowledge graph that survives restarts without being rebuilt
+ * from source data.
+ * <p>
+ * A store is a directory with two files:
+ * <ul>
+ * <li>{@code graph.wal} - an append-only write-ahead log of entity and triple
+ * records added since the last compaction, replayed on open</li>
+ * <li>{@code graph.seg} - the compacted graph: entity, predicate and relation
+ * dictionaries followed by a sorted, dictionary-encoded triple index (the
+ * layout of {@link CompactGraphStore}) that is memory-mapped rather than
+ * read onto the heap</li>
+ * </ul>
+ * Logged triples are also kept in an in-memory delta, and queries merge it
+ * with the mapped segment. Once the delta holds the configured number of
+ * triples, or on {@link #compact()}, segment and delta are merged into a new
+ * segment, which atomically replaces the old one before the log is
+ * truncated. Reopening therefore reads the dictionaries, maps the index and
+ * replays a log of bounded length.
+ * <p>
+ * Entity and relation properties are stored as JSON, so they must be values
+ * Jackson can round-trip (strings, numbers, booleans, lists and maps). The
+ * {@link MetadataTypes types} of top-level numbers and dates that JSON does
+ * not preserve are stored alongside, so a reopened graph returns the same
+ * boxed types. Like
+ * the other stores, the graph is a set: adding a triple equal to an existing
+ * one replaces it.
+ */
+public class PersistentGraphStore implements KnowledgeGraph, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistentGraphStore.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {
+    };
+
+    static final String LOG_FILE = "graph.wal";
+    static final String SEGMENT_FILE = "graph.seg";
+
+    private static final int MAGIC = 0x4C34474B; // "L4GK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final byte RECORD_ENTITY = 1;
+    private static final byte RECORD_TRIPLE = 2;
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 100_000;
+    private static final int APPEND_BATCH = 4096;
+
+    private final Path directory;
+    private final int compactionThreshold;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Latest version of every entity, from the segment and the log
+    private final Map<String, Entity> entities = new HashMap<>();
+
+    // Compacted segment
+    private String[] segmentEntityIds = new String[0];
+    private Map<String, Integer> segmentEntityOrdinals = new HashMap<>();
+    private Map<String, Integer> segmentPredicateOrdinals = new HashMap<>();
+    private Relation[] segmentRelations = new Relation[0];
+    private TripleIndex segment = TripleIndex.EMPTY;
+
+    // Triples logged since the last compaction
+    private final InMemoryGraphStore delta = InMemoryGraphStore.builder().adaptiveIndexThreshold(0).build();
+    // Delta triples equal to a segment triple, which they replace
+    private int shadowed;
+
+    private FileChannel logChannel;
+    private long logSize;
+
+    private PersistentGraphStore(Path directory, int compactionThreshold) {
+        this.directory = directory;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if it does not
+     * exist, with the default compaction threshold.
+     *
+     * @param directory store directory
+     * @return the opened store
+     * @throws IOException if the files cannot be read or created
+     */
+    public static PersistentGraphStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if it does not
+     * exist.
+     *
+     * @param directory           store directory
+     * @param compactionThreshold number of logged triples that triggers a
+     *                            compaction; 0 compacts only on
+     *                            {@link #compact()}
+     * @return the opened store
+     * @throws IOException if the files cannot be read or created
+     */
+    public static PersistentGraphStore open(Path directory, int compactionThreshold) throws IOException {
+        Objects.requireNonNull(directory, "directory cannot be null");
+        if (compactionThreshold < 0) {
+            throw new IllegalArgumentException("compactionThreshold cannot be negative");
+        }
+
+        Files.createDirectories(directory);
+        PersistentGraphStore store = new PersistentGraphStore(directory, compactionThreshold);
+        if (Files.exists(directory.resolve(SEGMENT_FILE))) {
+            store.readSegment();
+        }
+        store.logChannel = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            store.replayLog();
+        } catch (IOException | RuntimeException e) {
+            store.logChannel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    @Override
+    public void addEntity(Entity entity) {
+        Objects.requireNonNull(entity, "entity cannot be null");
+
+        lock.writeLock().lock();
+        try {
+            append(List.of(entityRecord(entity)));
+            entities.put(entity.getId(), entity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to log entity " + entity.getId(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Entity getEntity(String id) {
+        lock.readLock().lock();
+        try {
+            return entities.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Entity> findEntities(String type, Map<String, Object> filters) {
+        return findEntitiesMatching(type, Filter.fromMap(filters));
+    }
+
+    @Override
+    public List<Entity> findEntitiesMatching(String type, Filter filter) {
+        lock.readLock().lock();
+        try {
+            List<Entity> matches = new ArrayList<>();
+            for (Entity entity : entities.values()) {
+                if ((type == null || entity.getType().equals(type))
+                        && (filter == null || filter.matches(entity.getProperties()))) {
+                    matches.add(entity);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addTriple(Triple triple) {
+        Objects.requireNonNull(triple, "triple cannot be null");
+
+        lock.writeLock().lock();
+        try {
+            // Entities first, so a replayed triple always finds them
+            append(List.of(entityRecord(triple.getSubject()), entityRecord(triple.getObject()),
+                    tripleRecord(triple)));
+            entities.put(triple.getSubject().getId(), triple.getSubject());
+            entities.put(triple.getObject().getId(), triple.getObject());
+            applyTriple(triple);
+
+            if (compactionThreshold > 0 && delta.getTripleCount() >= compactionThreshold) {
+                compactLocked();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to log triple " + triple, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a batch under one write lock. The log gets one record per distinct
+     * entity, in its final version, ahead of the triple records, and the
+     * batch triggers at most one compaction, at the end, however many
+     * thresholds' worth of triples it holds.
+     */
+    @Override
+    public void addAll(Collection<Entity> entities, Collection<Triple> triples) {
+        Map<String, Entity> distinct = new LinkedHashMap<>();
+        for (Entity entity : entities) {
+            Objects.requireNonNull(entity, "entity cannot be null");
+            distinct.put(entity.getId(), entity);
+        }
+        for (Triple triple : triples) {
+            Objects.requireNonNull(triple, "triple cannot be null");
+            distinct.put(triple.getSubject().getId(), triple.getSubject());
+            distinct.put(triple.getObject().getId(), triple.getObject());
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<Map.Entry<Byte, Map<String, Object>>> records = new ArrayList<>(APPEND_BATCH);
+            for (Entity entity : distinct.values()) {
+                records.add(entityRecord(entity));
+                if (records.size() == APPEND_BATCH) {
+                    append(records);
+                    records.clear();
+                }
+            }
+            for (Triple triple : triples) {
+                records.add(tripleRecord(triple));
+                if (records.size() == APPEND_BATCH) {
+                    append(records);
+                    records.clear();
+                }
+            }
+            if (!records.isEmpty()) {
+                append(records);
+            }
+
+            this.entities.putAll(distinct);
+            Set<List<String>> batch = new HashSet<>();
+            for (Triple triple : triples) {
+                String subject = triple.getSubject().getId();
+                String predicate = triple.getPredicate().getType();
+                String object = triple.getObject().getId();
+                if (batch.add(List.of(subject, predicate, object))
+                        && delta.findTriples(subject, predicate, object).isEmpty()
+                        && inSegment(subject, predicate, object)) {
+                    shadowed++;
+                }
+            }
+            delta.addAll(List.of(), triples);
+
+            if (compactionThreshold > 0 && delta.getTripleCount() >= compactionThreshold) {
+                compactLocked();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to log batch of " + triples.size() + " triples", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Triple> getTriples(String subjectId) {
+        return findTriples(subjectId, null, null);
+    }
+
+    @Override
+    public List<Triple> findTriples(String subjectId, String predicateType, String objectId) {
+        lock.readLock().lock();
+        try {
+            List<Triple> triples = new ArrayList<>();
+            for (Triple triple : delta.findTriples(subjectId, predicateType, objectId)) {
+                triples.add(new Triple(entities.get(triple.getSubject().getId()), triple.getPredicate(),
+                        entities.get(triple.getObject().getId())));
+            }
+
+            int subject = subjectId != null ? segmentEntityOrdinals.getOrDefault(subjectId, -1) : -1;
+            int predicate = predicateType != null ? segmentPredicateOrdinals.getOrDefault(predicateType, -1) : -1;
+            int object = objectId != null ? segmentEntityOrdinals.getOrDefault(objectId, -1) : -1;
+            if ((subjectId != null && subject < 0) || (predicateType != null && predicate < 0)
+                    || (objectId != null && object < 0)) {
+                return triples;
+            }
+
+            boolean checkShadowed = shadowed > 0;
+            segment.find(subject, predicate, object, t -> {
+                String subjectKey = segmentEntityIds[segment.subject(t)];
+                String objectKey = segmentEntityIds[segment.object(t)];
+                Relation relation = segmentRelations[segment.relation(t)];
+                if (checkShadowed && !delta.findTriples(subjectKey, relation.getType(), objectKey).isEmpty()) {
+                    return;
+                }
+                triples.add(new Triple(entities.get(subjectKey), relation, entities.get(objectKey)));
+            });
+            return triples;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getEntityCount() {
+        lock.readLock().lock();
+        try {
+            return entities.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getTripleCount() {
+        lock.readLock().lock();
+        try {
+            return segment.size() + delta.getTripleCount() - shadowed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merges the logged triples into a new segment and truncates the log.
+     *
+     * @throws IOException if the segment cannot be written
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            compactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces logged records to the storage device.
+     *
+     * @throws IOException if the log cannot be synced
+     */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            logChannel.force(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            logChannel.truncate(0);
+            logSize = 0;
+            Files.deleteIfExists(directory.resolve(SEGMENT_FILE));
+
+            // Only once the files are gone, so a failed clear never hides a graph that reopening would restore
+            entities.clear();
+            delta.clear();
+            shadowed = 0;
+            setSegment(new String[0], new HashMap<>(), new Relation[0], TripleIndex.EMPTY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear graph in " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (logChannel.isOpen()) {
+                logChannel.force(false);
+                logChannel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyTriple(Triple triple) {
+        String subject = triple.getSubject().getId();
+        String predicate = triple.getPredicate().getType();
+        String object = triple.getObject().getId();
+
+        boolean inDelta = !delta.findTriples(subject, predicate, object).isEmpty();
+        delta.addTriple(triple);
+        if (!inDelta && inSegment(subject, predicate, object)) {
+            shadowed++;
+        }
+    }
+
+    private boolean inSegment(String subjectId, String predicateType, String objectId) {
+        Integer subject = segmentEntityOrdinals.get(subjectId);
+        Integer predicate = segmentPredicateOrdinals.get(predicateType);
+        Integer object = segmentEntityOrdinals.get(objectId);
+        return subject != null && predicate != null && object != null
+                && segment.indexOf(subject, predicate, object) >= 0;
+    }
+
+    private void compactLocked() throws IOException {
+        if (logSize == 0) {
+            return;
+        }
+
+        // Dictionaries
+        String[] entityIds = entities.keySet().toArray(new String[0]);
+        Map<String, Integer> entityOrdinals = new HashMap<>(entityIds.length * 2);
+        for (int i = 0; i < entityIds.length; i++) {
+            entityOrdinals.put(entityIds[i], i);
+        }
+        Map<String, Integer> predicateOrdinals = new LinkedHashMap<>();
+        Map<Map.Entry<String, Map<String, Object>>, Integer> relationOrdinals = new HashMap<>();
+        List<Relation> relations = new ArrayList<>();
+
+        // Segment triples first, so the delta replaces equal ones
+        int total = segment.size() + delta.getTripleCount();
+        int[] s = new int[total];
+        int[] p = new int[total];
+        int[] o = new int[total];
+        int[] r = new int[total];
+        int count = 0;
+        for (int t = 0; t < segment.size(); t++, count++) {
+            Relation relation = segmentRelations[segment.relation(t)];
+            s[count] = entityOrdinals.get(segmentEntityIds[segment.subject(t)]);
+            p[count] = predicateOrdinals.computeIfAbsent(relation.getType(), type -> predicateOrdinals.size());
+            o[count] = entityOrdinals.get(segmentEntityIds[segment.object(t)]);
+            r[count] = internRelation(relation, relationOrdinals, relations);
+        }
+        for (Triple triple : delta.findTriples(null, null, null)) {
+            Relation relation = triple.getPredicate();
+            s[count] = entityOrdinals.get(triple.getSubject().getId());
+            p[count] = predicateOrdinals.computeIfAbsent(relation.getType(), type -> predicateOrdinals.size());
+            o[count] = entityOrdinals.get(triple.getObject().getId());
+            r[count] = internRelation(relation, relationOrdinals, relations);
+            count++;
+        }
+        TripleIndex index = TripleIndex.build(s, p, o, r, count, entityIds.length, predicateOrdinals.size());
+
+        Path segmentFile = directory.resolve(SEGMENT_FILE);
+        Path tempFile = directory.resolve(SEGMENT_FILE + ".tmp");
+        long indexPosition;
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            indexPosition = writeDictionaries(channel, entityIds, predicateOrdinals.keySet(), relations);
+            index.writeTo(channel, indexPosition);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(indexPosition).flip();
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+        Files.move(tempFile, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        TripleIndex mapped;
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+            mapped = TripleIndex.map(channel, indexPosition);
+        }
+        setSegment(entityIds, predicateOrdinals, relations.toArray(new Relation[0]), mapped);
+
+        // A crash before this point replays the log onto the new segment, which is harmless
+        logChannel.truncate(0);
+        logChannel.force(true);
+        logSize = 0;
+        delta.clear();
+        shadowed = 0;
+    }
+
+    private void setSegment(String[] entityIds, Map<String, Integer> predicateOrdinals, Relation[] relations,
+            TripleIndex index) {
+        Map<String, Integer> entityOrdinals = new HashMap<>(entityIds.length * 2);
+        for (int i = 0; i < entityIds.length; i++) {
+            entityOrdinals.put(entityIds[i], i);
+        }
+        this.segmentEntityIds = entityIds;
+        this.segmentEntityOrdinals = entityOrdinals;
+        this.segmentPredicateOrdinals = new HashMap<>(predicateOrdinals);
+        this.segmentRelations = relations;
+        this.segment = index;
+    }
+
+    private static int internRelation(Relation relation, Map<Map.Entry<String, Map<String, Object>>, Integer> ordinals,
+            List<Relation> relations) {
+        Map.Entry<String, Map<String, Object>> key =
+                new AbstractMap.SimpleImmutableEntry<>(relation.getType(), relation.getProperties());
+        return ordinals.computeIfAbsent(key, k -> {
+            relations.add(relation);
+            return relations.size() - 1;
+        });
+    }
+
+    /**
+     * Writes the dictionaries after the header as counted lists of
+     * length-prefixed records (big-endian, in {@link DataOutputStream} form):
+     * entity JSON, predicate types and relation JSON.
+     *
+     * @return the 8-byte aligned position where the triple index starts
+     */
+    private long writeDictionaries(FileChannel channel, String[] entityIds, Collection<String> predicates,
+            List<Relation> relations) throws IOException {
+        channel.position(HEADER_BYTES);
+        // Not closed: that would close the channel
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                1 << 16));
+        out.writeInt(entityIds.length);
+        for (String id : entityIds) {
+            writeRecord(out, objectMapper.writeValueAsBytes(entityRecord(entities.get(id)).getValue()));
+        }
+        out.writeInt(predicates.size());
+        for (String predicate : predicates) {
+            writeRecord(out, predicate.getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeInt(relations.size());
+        for (Relation relation : relations) {
+            writeRecord(out, objectMapper.writeValueAsBytes(relationRecord(relation)));
+        }
+        out.flush();
+        return (channel.position() + 7) & ~7L;
+    }
+
+    private void readSegment() throws IOException {
+        Path segmentFile = directory.resolve(SEGMENT_FILE);
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Truncated header in " + segmentFile);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a graph segment file: " + segmentFile);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported graph segment version " + version + " in " + segmentFile);
+            }
+            long indexPosition = header.getLong();
+
+            channel.position(HEADER_BYTES);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel),
+                    1 << 16));
+            String[] entityIds = new String[in.readInt()];
+            for (int i = 0; i < entityIds.length; i++) {
+                Entity entity = toEntity(objectMapper.readValue(readRecord(in), RECORD_TYPE));
+                entityIds[i] = entity.getId();
+                entities.put(entity.getId(), entity);
+            }
+            int predicateCount = in.readInt();
+            Map<String, Integer> predicateOrdinals = new HashMap<>(predicateCount * 2);
+            for (int i = 0; i < predicateCount; i++) {
+                predicateOrdinals.put(new String(readRecord(in), StandardCharsets.UTF_8), i);
+            }
+            Relation[] relations = new Relation[in.readInt()];
+            for (int i = 0; i < relations.length; i++) {
+                relations[i] = toRelation(objectMapper.readValue(readRecord(in), RECORD_TYPE));
+            }
+
+            setSegment(entityIds, predicateOrdinals, relations, TripleIndex.map(channel, indexPosition));
+        }
+    }
+
+    private void replayLog() throws IOException {
+        long size = logChannel.size();
+        ByteBuffer prefix = ByteBuffer.allocate(1 + Integer.BYTES);
+        long position = 0;
+
+        while (position < size) {
+            prefix.clear();
+            if (logChannel.read(prefix, position) < prefix.capacity()) {
+                break;
+            }
+            prefix.flip();
+            byte type = prefix.get();
+            int length = prefix.getInt();
+            if (length < 0 || position + prefix.capacity() + length > size) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            while (payload.hasRemaining()) {
+                logChannel.read(payload, position + prefix.capacity() + payload.position());
+            }
+            Map<String, Object> record;
+            try {
+                record = objectMapper.readValue(payload.array(), RECORD_TYPE);
+            } catch (IOException e) {
+                break;
+            }
+
+            if (type == RECORD_ENTITY) {
+                Entity entity = toEntity(record);
+                entities.put(entity.getId(), entity);
+            } else if (type == RECORD_TRIPLE) {
+                Entity subject = entities.get((String) record.get("subject"));
+                Entity object = entities.get((String) record.get("object"));
+                if (subject == null || object == null) {
+                    break;
+                }
+                applyTriple(new Triple(subject, toRelation(record), object));
+            } else {
+                break;
+            }
+            position += prefix.capacity() + length;
+        }
+
+        if (position < size) {
+            logger.warn("Truncating incomplete graph log tail at {} in {}", position, directory);
+            logChannel.truncate(position);
+        }
+        logSize = position;
+    }
+
+    /**
+     * Appends records to the log in one write.
+     */
+    private void append(List<Map.Entry<Byte, Map<String, Object>>> records) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(records.size());
+        int length = 0;
+        for (Map.Entry<Byte, Map<String, Object>> record : records) {
+            byte[] payload = objectMapper.writeValueAsBytes(record.getValue());
+            payloads.add(payload);
+            length += 1 + Integer.BYTES + payload.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (int i = 0; i < records.size(); i++) {
+            buffer.put(records.get(i).getKey()).putInt(payloads.get(i).length).put(payloads.get(i));
+        }
+        buffer.flip();
+        writeFully(logChannel, buffer, logSize);
+        logSize += length;
+    }
+
+    private static Map.Entry<Byte, Map<String, Object>> entityRecord(Entity entity) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", entity.getId());
+        record.put("type", entity.getType());
+        putProperties(record, entity.getProperties());
+        return new AbstractMap.SimpleImmutableEntry<>(RECORD_ENTITY, record);
+    }
+
+    private static Map.Entry<Byte, Map<String, Object>> tripleRecord(Triple triple) {
+        Map<String, Object> record = relationRecord(triple.getPredicate());
+        record.put("subject", triple.getSubject().getId());
+        record.put("object", triple.getObject().getId());
+        return new AbstractMap.SimpleImmutableEntry<>(RECORD_TRIPLE, record);
+    }
+
+    private static Map<String, Object> relationRecord(Relation relation) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("type", relation.getType());
+        putProperties(record, relation.getProperties());
+        return record;
+    }
+
+    private static void putProperties(Map<String, Object> record, Map<String, Object> properties) {
+        record.put("properties", properties);
+        Map<String, String> types = MetadataTypes.of(properties);
+        if (!types.isEmpty()) {
+            record.put("propertyTypes", types);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> properties(Map<String, Object> record) {
+        return MetadataTypes.restore((Map<String, Object>) record.get("properties"),
+                (Map<String, String>) record.get("propertyTypes"));
+    }
+
+    private static Entity toEntity(Map<String, Object> record) {
+        return Entity.builder()
+                .id((String) record.get("id"))
+                .type((String) record.get("type"))
+                .properties(properties(record))
+                .build();
+    }
+
+    private static Relation toRelation(Map<String, Object> record) {
+        return Relation.builder()
+                .type((String) record.get("type"))
+                .properties(properties(record))
+                .build();
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
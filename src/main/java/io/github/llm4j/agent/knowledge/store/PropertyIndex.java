@@ -0,0 +1,110 @@
+package io.github.llm4j.agent.knowledge.store;
+
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.metadata.Filter;
+
+import java.util.*;
+
+/**
+ * Secondary index over a single entity property: a hash index from each
+ * distinct value to the IDs of the entities carrying it, plus a sorted index
+ * of numeric values for range lookups. Values are keyed in their
+ * {@link Filter#normalize(Object) normalized} form, so lookups agree with
+ * filter matching. Not thread-safe; the owning store guards it.
+ */
+final class PropertyIndex {
+
+    private final String property;
+    private final Map<Object, Set<String>> postings = new HashMap<>();
+    private final NavigableMap<Number, Set<String>> numeric = new TreeMap<>(Filter::compareNumbers);
+
+    PropertyIndex(String property) {
+        this.property = property;
+    }
+
+    String getProperty() {
+        return property;
+    }
+
+    void add(Entity entity) {
+        Object value = Filter.normalize(entity.getProperty(property));
+        if (value == null) {
+            return;
+        }
+        postings.computeIfAbsent(value, key -> new HashSet<>()).add(entity.getId());
+        if (value instanceof Number) {
+            numeric.computeIfAbsent((Number) value, key -> new HashSet<>()).add(entity.getId());
+        }
+    }
+
+    void remove(Entity entity) {
+        Object value = Filter.normalize(entity.getProperty(property));
+        if (value == null) {
+            return;
+        }
+        removeId(postings, value, entity.getId());
+        if (value instanceof Number) {
+            removeId(numeric, (Number) value, entity.getId());
+        }
+    }
+
+    /**
+     * Returns the IDs of entities whose property equals the value. The
+     * returned set is shared and must not be modified.
+     */
+    Set<String> get(Object value) {
+        Set<String> ids = postings.get(Filter.normalize(value));
+        return ids != null ? ids : Collections.emptySet();
+    }
+
+    /**
+     * Returns the IDs of entities whose property lies within the range: a
+     * sorted-index scan for numeric bounds, otherwise one range test per
+     * distinct value.
+     */
+    Set<String> range(Filter.Range range) {
+        Object lower = range.getLower();
+        Object upper = range.getUpper();
+        Set<String> ids = new HashSet<>();
+
+        if ((lower == null || lower instanceof Number) && (upper == null || upper instanceof Number)) {
+            NavigableMap<Number, Set<String>> matches;
+            if (lower == null) {
+                matches = numeric.headMap((Number) upper, range.isUpperInclusive());
+            } else if (upper == null) {
+                matches = numeric.tailMap((Number) lower, range.isLowerInclusive());
+            } else if (Filter.compareNumbers((Number) lower, (Number) upper) > 0) {
+                return ids;
+            } else {
+                matches = numeric.subMap((Number) lower, range.isLowerInclusive(),
+                        (Number) upper, range.isUpperInclusive());
+            }
+            for (Set<String> posting : matches.values()) {
+                ids.addAll(posting);
+            }
+            return ids;
+        }
+
+        for (Map.Entry<Object, Set<String>> posting : postings.entrySet()) {
+            if (range.test(posting.getKey())) {
+                ids.addAll(posting.getValue());
+            }
+        }
+        return ids;
+    }
+
+    void clear() {
+        postings.clear();
+        numeric.clear();
+    }
+
+    private static <K> void removeId(Map<K, Set<String>> index, K key, String id) {
+        Set<String> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
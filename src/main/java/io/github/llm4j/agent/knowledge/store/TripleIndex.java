@@ -0,0 +1,342 @@
+package io.github.llm4j.agent.knowledge.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of dictionary-encoded triples in compressed sparse row form,
+ * shared by {@link CompactGraphStore} (on the heap) and
+ * {@link PersistentGraphStore} (memory-mapped).
+ * <p>
+ * Triples are parallel int columns (subject, predicate, object, relation)
+ * sorted by subject, predicate and object, with an offsets array per
+ * subject. Two permutations order the same triples by object, subject,
+ * predicate and by predicate, object, subject, each with its own offsets, so
+ * every pattern is a row lookup plus binary searches.
+ * <p>
+ * Serialized form (little-endian ints): triple count, entity count, predicate
+ * count, then the columns, subject offsets, object permutation, object
+ * offsets, predicate permutation and predicate offsets.
+ */
+final class TripleIndex {
+
+    static final TripleIndex EMPTY = build(new int[0], new int[0], new int[0], new int[0], 0, 0, 0);
+
+    private static final int HEADER_INTS = 3;
+
+    private final int size;
+    private final int entityCount;
+    private final int predicateCount;
+    private final IntBuffer subjects;
+    private final IntBuffer predicates;
+    private final IntBuffer objects;
+    private final IntBuffer relations;
+    private final IntBuffer subjectOffsets;
+    private final IntBuffer byObject;
+    private final IntBuffer objectOffsets;
+    private final IntBuffer byPredicate;
+    private final IntBuffer predicateOffsets;
+
+    private TripleIndex(int size, int entityCount, int predicateCount, IntBuffer[] columns) {
+        this.size = size;
+        this.entityCount = entityCount;
+        this.predicateCount = predicateCount;
+        this.subjects = columns[0];
+        this.predicates = columns[1];
+        this.objects = columns[2];
+        this.relations = columns[3];
+        this.subjectOffsets = columns[4];
+        this.byObject = columns[5];
+        this.objectOffsets = columns[6];
+        this.byPredicate = columns[7];
+        this.predicateOffsets = columns[8];
+    }
+
+    /**
+     * Sorts triples into an index with three stable counting sorts (object,
+     * then predicate, then subject). Equal triples end up adjacent in input
+     * order and the last one is kept, so later triples replace earlier ones.
+     *
+     * @param s              subject ids
+     * @param p              predicate ids
+     * @param o              object ids
+     * @param r              relation ids
+     * @param count          number of triples in the arrays
+     * @param entityCount    number of entity ids
+     * @param predicateCount number of predicate ids
+     * @return the index, on the heap
+     */
+    static TripleIndex build(int[] s, int[] p, int[] o, int[] r, int count, int entityCount, int predicateCount) {
+        int[] order = identity(count);
+        order = countingSort(order, o, offsets(order, o, entityCount));
+        order = countingSort(order, p, offsets(order, p, predicateCount));
+        order = countingSort(order, s, offsets(order, s, entityCount));
+
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int t = order[i];
+            if (i + 1 < count) {
+                int next = order[i + 1];
+                if (s[next] == s[t] && p[next] == p[t] && o[next] == o[t]) {
+                    continue;
+                }
+            }
+            order[size++] = t;
+        }
+
+        int[] subjects = new int[size];
+        int[] predicates = new int[size];
+        int[] objects = new int[size];
+        int[] relations = new int[size];
+        for (int i = 0; i < size; i++) {
+            int t = order[i];
+            subjects[i] = s[t];
+            predicates[i] = p[t];
+            objects[i] = o[t];
+            relations[i] = r[t];
+        }
+
+        int[] all = identity(size);
+        int[] subjectOffsets = offsets(all, subjects, entityCount);
+        // Stable sorts of (s, p, o) order give (o, s, p) and then (p, o, s)
+        int[] objectOffsets = offsets(all, objects, entityCount);
+        int[] byObject = countingSort(all, objects, objectOffsets);
+        int[] predicateOffsets = offsets(byObject, predicates, predicateCount);
+        int[] byPredicate = countingSort(byObject, predicates, predicateOffsets);
+
+        IntBuffer[] columns = new IntBuffer[9];
+        int[][] arrays = {subjects, predicates, objects, relations, subjectOffsets,
+                byObject, objectOffsets, byPredicate, predicateOffsets};
+        for (int i = 0; i < arrays.length; i++) {
+            columns[i] = IntBuffer.wrap(arrays[i]);
+        }
+        return new TripleIndex(size, entityCount, predicateCount, columns);
+    }
+
+    /**
+     * Maps an index previously written with {@link #writeTo(FileChannel, long)}.
+     *
+     * @param channel  the file, open for reading
+     * @param position where the index starts
+     * @return the index, backed by read-only mappings of the file
+     */
+    static TripleIndex map(FileChannel channel, long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_INTS * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, position + header.position()) < 0) {
+                throw new IOException("Truncated triple index");
+            }
+        }
+        header.flip();
+        int size = header.getInt();
+        int entityCount = header.getInt();
+        int predicateCount = header.getInt();
+
+        int[] lengths = columnLengths(size, entityCount, predicateCount);
+        IntBuffer[] columns = new IntBuffer[lengths.length];
+        long offset = position + HEADER_INTS * Integer.BYTES;
+        for (int i = 0; i < lengths.length; i++) {
+            long bytes = (long) lengths[i] * Integer.BYTES;
+            if (offset + bytes > channel.size()) {
+                throw new IOException("Truncated triple index");
+            }
+            // One mapping per column keeps each under the 2 GB mapping limit
+            columns[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+            offset += bytes;
+        }
+        return new TripleIndex(size, entityCount, predicateCount, columns);
+    }
+
+    /**
+     * Writes the index at a position in the file.
+     *
+     * @return the number of bytes written
+     */
+    long writeTo(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(size).putInt(entityCount).putInt(predicateCount);
+        long start = position;
+
+        IntBuffer[] columns = {subjects, predicates, objects, relations, subjectOffsets,
+                byObject, objectOffsets, byPredicate, predicateOffsets};
+        for (IntBuffer column : columns) {
+            for (int i = 0; i < column.limit(); i++) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    position += writeFully(channel, buffer, position);
+                    buffer.clear();
+                }
+                buffer.putInt(column.get(i));
+            }
+        }
+        buffer.flip();
+        position += writeFully(channel, buffer, position);
+        return position - start;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int subject(int triple) {
+        return subjects.get(triple);
+    }
+
+    int predicate(int triple) {
+        return predicates.get(triple);
+    }
+
+    int object(int triple) {
+        return objects.get(triple);
+    }
+
+    int relation(int triple) {
+        return relations.get(triple);
+    }
+
+    /**
+     * Passes the position of each triple matching the pattern to the action.
+     * Use -1 for unbound positions; ids the index has never seen match
+     * nothing.
+     */
+    void find(int subject, int predicate, int object, IntConsumer action) {
+        if (subject >= 0) {
+            if (object >= 0 && predicate < 0) {
+                // Object rows are sorted by subject
+                int from = start(objectOffsets, object);
+                int to = end(objectOffsets, object);
+                int low = lowerBound(byObject, subjects, from, to, subject);
+                forEach(byObject, low, lowerBound(byObject, subjects, low, to, subject + 1), action);
+                return;
+            }
+            int from = start(subjectOffsets, subject);
+            int to = end(subjectOffsets, subject);
+            if (predicate >= 0) {
+                int low = lowerBound(null, predicates, from, to, predicate);
+                to = lowerBound(null, predicates, low, to, predicate + 1);
+                from = low;
+                if (object >= 0) {
+                    low = lowerBound(null, objects, from, to, object);
+                    to = lowerBound(null, objects, low, to, object + 1);
+                    from = low;
+                }
+            }
+            forEach(null, from, to, action);
+            return;
+        }
+        if (predicate >= 0) {
+            // Predicate rows are sorted by object
+            int from = start(predicateOffsets, predicate);
+            int to = end(predicateOffsets, predicate);
+            if (object >= 0) {
+                int low = lowerBound(byPredicate, objects, from, to, object);
+                to = lowerBound(byPredicate, objects, low, to, object + 1);
+                from = low;
+            }
+            forEach(byPredicate, from, to, action);
+            return;
+        }
+        if (object >= 0) {
+            forEach(byObject, start(objectOffsets, object), end(objectOffsets, object), action);
+            return;
+        }
+        forEach(null, 0, size, action);
+    }
+
+    /**
+     * Returns the position of the triple, or -1 if absent.
+     */
+    int indexOf(int subject, int predicate, int object) {
+        int from = start(subjectOffsets, subject);
+        int to = end(subjectOffsets, subject);
+        int low = lowerBound(null, predicates, from, to, predicate);
+        to = lowerBound(null, predicates, low, to, predicate + 1);
+        low = lowerBound(null, objects, low, to, object);
+        return low < to && objects.get(low) == object ? low : -1;
+    }
+
+    private static void forEach(IntBuffer permutation, int from, int to, IntConsumer action) {
+        for (int i = from; i < to; i++) {
+            action.accept(permutation != null ? permutation.get(i) : i);
+        }
+    }
+
+    private static int[] columnLengths(int size, int entityCount, int predicateCount) {
+        return new int[]{size, size, size, size, entityCount + 1, size, entityCount + 1, size, predicateCount + 1};
+    }
+
+    /**
+     * Returns the start of a row; ids beyond the index are empty rows.
+     */
+    private static int start(IntBuffer offsets, int row) {
+        return row + 1 < offsets.limit() ? offsets.get(row) : 0;
+    }
+
+    private static int end(IntBuffer offsets, int row) {
+        return row + 1 < offsets.limit() ? offsets.get(row + 1) : 0;
+    }
+
+    /**
+     * Returns the first position in [from, to) whose key is at least the
+     * value, where the range is sorted by key.
+     */
+    private static int lowerBound(IntBuffer permutation, IntBuffer keys, int from, int to, int value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            int key = keys.get(permutation != null ? permutation.get(mid) : mid);
+            if (key < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private static int[] identity(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Returns, for each key value, the number of positions in the order with
+     * a smaller key: the start of that key's row once sorted.
+     */
+    private static int[] offsets(int[] order, int[] keys, int buckets) {
+        int[] offsets = new int[buckets + 1];
+        for (int t : order) {
+            offsets[keys[t] + 1]++;
+        }
+        for (int i = 0; i < buckets; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        return offsets;
+    }
+
+    private static int[] countingSort(int[] order, int[] keys, int[] offsets) {
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        int[] sorted = new int[order.length];
+        for (int t : order) {
+            sorted[next[keys[t]]++] = t;
+        }
+        return sorted;
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+}
@@ -4,16 +4,27 @@ import io.github.llm4j.agent.Tool;
 import io.github.llm4j.agent.knowledge.KnowledgeGraph;
 import io.github.llm4j.agent.knowledge.model.Entity;
 import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.knowledge.traversal.Direction;
+import io.github.llm4j.agent.knowledge.traversal.Path;
+import io.github.llm4j.agent.knowledge.traversal.Subgraph;
+import io.github.llm4j.agent.knowledge.traversal.Traversal;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 
 /**
  * Tool for querying a knowledge graph.
+ * <p>
+ * Besides single lookups, the tool runs multi-hop traversals, path searches
+ * and neighborhood extraction in one call, so the agent does not spend an
+ * iteration per hop.
  */
 public class GraphQueryTool implements Tool {
 
+    private static final int DEFAULT_LIMIT = 50;
+
     private final KnowledgeGraph graph;
 
     public GraphQueryTool(KnowledgeGraph graph) {
@@ -32,7 +43,12 @@ public class GraphQueryTool implements Tool {
                 "{'entityId': 'id'} to get entity details, " +
                 "{'entityType': 'type'} to find entities by type, " +
                 "{'subjectId': 'id'} to get all relationships from an entity, " +
-                "{'subjectId': 'id', 'predicateType': 'type'} to find specific relationships.";
+                "{'subjectId': 'id', 'predicateType': 'type'} to find specific relationships, " +
+                "{'startId': 'id', 'maxDepth': 3} to find everything reachable within a number of hops, " +
+                "{'fromId': 'id', 'toId': 'id', 'k': 3} to find the shortest connecting paths, " +
+                "{'centerId': 'id', 'maxDepth': 2} to get all relationships around an entity. " +
+                "Multi-hop queries also accept 'predicateType', 'direction' ('outgoing', 'incoming' or 'both') " +
+                "and 'limit'.";
     }
 
     @Override
@@ -63,6 +79,43 @@ public class GraphQueryTool implements Tool {
             return formatEntities(entities);
         }
 
+        // Find paths between two entities
+        if (args.containsKey("fromId") && args.containsKey("toId")) {
+            String fromId = (String) args.get("fromId");
+            String toId = (String) args.get("toId");
+            List<Path> paths = graph.findPaths(fromId, toId, intArg(args, "k", 3), traversal(args));
+
+            if (paths.isEmpty()) {
+                return String.format("No path found from '%s' to '%s'", fromId, toId);
+            }
+
+            return formatPaths(String.format("Found %d paths from %s to %s:\n", paths.size(), fromId, toId), paths);
+        }
+
+        // Traverse from an entity
+        if (args.containsKey("startId")) {
+            String startId = (String) args.get("startId");
+            List<Path> paths = graph.traverse(startId, traversal(args));
+
+            if (paths.isEmpty()) {
+                return String.format("No entities reachable from '%s'", startId);
+            }
+
+            return formatPaths(String.format("Found %d entities reachable from %s:\n", paths.size(), startId), paths);
+        }
+
+        // Neighborhood of an entity
+        if (args.containsKey("centerId")) {
+            String centerId = (String) args.get("centerId");
+            Subgraph subgraph = graph.neighborhood(centerId, traversal(args));
+
+            if (subgraph.getTriples().isEmpty()) {
+                return String.format("No relationships found around entity '%s'", centerId);
+            }
+
+            return formatTriples(subgraph.getTriples());
+        }
+
         // Query relationships
         if (args.containsKey("subjectId")) {
             String subjectId = (String) args.get("subjectId");
@@ -77,7 +130,29 @@ public class GraphQueryTool implements Tool {
             return formatTriples(triples);
         }
 
-        return "Invalid query. Please provide 'entityId', 'entityType', or 'subjectId'.";
+        return "Invalid query. Please provide 'entityId', 'entityType', 'subjectId', 'startId', " +
+                "'fromId' and 'toId', or 'centerId'.";
+    }
+
+    private Traversal traversal(Map<String, Object> args) {
+        Traversal.Builder builder = Traversal.builder()
+                .maxDepth(intArg(args, "maxDepth", 3))
+                .maxResults(intArg(args, "limit", DEFAULT_LIMIT));
+        if (args.get("predicateType") != null) {
+            builder.predicates((String) args.get("predicateType"));
+        }
+        if (args.get("direction") != null) {
+            builder.direction(Direction.valueOf(args.get("direction").toString().toUpperCase(Locale.ROOT)));
+        }
+        return builder.build();
+    }
+
+    private static int intArg(Map<String, Object> args, String name, int defaultValue) {
+        Object value = args.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
     }
 
     private String formatEntity(Entity entity) {
@@ -103,6 +178,16 @@ public class GraphQueryTool implements Tool {
         return result.toString();
     }
 
+    private String formatPaths(String header, List<Path> paths) {
+        StringBuilder result = new StringBuilder(header);
+
+        for (Path path : paths) {
+            result.append(String.format("- %s (%d hops)\n", path, path.length()));
+        }
+
+        return result.toString();
+    }
+
     private String formatTriples(List<Triple> triples) {
         StringBuilder result = new StringBuilder();
         result.append(String.format("Found %d relationships:\n", triples.size()));
@@ -0,0 +1,22 @@
+package io.github.llm4j.agent.knowledge.traversal;
+
+/**
+ * Which triples a traversal follows from an entity.
+ */
+public enum Direction {
+
+    /**
+     * Triples where the entity is the subject.
+     */
+    OUTGOING,
+
+    /**
+     * Triples where the entity is the object.
+     */
+    INCOMING,
+
+    /**
+     * Both outgoing and incoming triples.
+     */
+    BOTH
+}
@@ -0,0 +1,308 @@
+package io.github.llm4j.agent.knowledge.traversal;
+
+import io.github.llm4j.agent.knowledge.KnowledgeGraph;
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Triple;
+
+import java.util.*;
+
+/**
+ * Runs multi-hop queries against a {@link KnowledgeGraph}: traversals,
+ * k-shortest paths and neighborhood extraction.
+ * <p>
+ * Every hop is a {@link KnowledgeGraph#findTriples(String, String, String)}
+ * lookup with the current entity bound, one per followed predicate type and
+ * direction, so on an indexed store a traversal costs time proportional to
+ * the edges it touches. The traversal methods on {@link KnowledgeGraph}
+ * delegate here.
+ */
+public class GraphTraverser {
+
+    private final KnowledgeGraph graph;
+
+    public GraphTraverser(KnowledgeGraph graph) {
+        this.graph = Objects.requireNonNull(graph, "graph cannot be null");
+    }
+
+    /**
+     * Visits the entities reachable from a start entity.
+     *
+     * @param startId   the start entity ID
+     * @param traversal the traversal options
+     * @return a path to each reached entity other than the start, in visiting
+     *         order; empty if the start entity does not exist
+     */
+    public List<Path> traverse(String startId, Traversal traversal) {
+        Objects.requireNonNull(traversal, "traversal cannot be null");
+
+        List<Path> paths = new ArrayList<>();
+        Entity start = graph.getEntity(startId);
+        if (start == null) {
+            return paths;
+        }
+
+        Set<String> visited = new HashSet<>();
+        visited.add(start.getId());
+
+        if (traversal.getStrategy() == Traversal.Strategy.BREADTH_FIRST) {
+            Deque<Trail> queue = new ArrayDeque<>();
+            queue.add(new Trail(start, null, null, 0));
+            while (!queue.isEmpty()) {
+                Trail trail = queue.poll();
+                if (trail.depth == traversal.getMaxDepth()) {
+                    continue;
+                }
+                for (Step step : steps(trail.entity.getId(), traversal)) {
+                    if (visited.add(step.neighbor.getId())) {
+                        Trail next = new Trail(step.neighbor, step.triple, trail, trail.depth + 1);
+                        paths.add(next.toPath());
+                        if (paths.size() == traversal.getMaxResults()) {
+                            return paths;
+                        }
+                        queue.add(next);
+                    }
+                }
+            }
+        } else {
+            Deque<Trail> stack = new ArrayDeque<>();
+            pushSteps(stack, new Trail(start, null, null, 0), traversal);
+            while (!stack.isEmpty()) {
+                Trail trail = stack.pop();
+                if (!visited.add(trail.entity.getId())) {
+                    continue;
+                }
+                paths.add(trail.toPath());
+                if (paths.size() == traversal.getMaxResults()) {
+                    return paths;
+                }
+                if (trail.depth < traversal.getMaxDepth()) {
+                    pushSteps(stack, trail, traversal);
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Finds up to {@code k} shortest simple paths between two entities, in
+     * order of length (Yen's algorithm over breadth-first searches).
+     *
+     * @param fromId    the start entity ID
+     * @param toId      the end entity ID
+     * @param k         the maximum number of paths
+     * @param traversal the traversal options; the depth limit bounds the
+     *                  path length and the strategy is ignored
+     * @return the paths, shortest first; empty if the entities are not
+     *         connected within the depth limit
+     */
+    public List<Path> shortestPaths(String fromId, String toId, int k, Traversal traversal) {
+        Objects.requireNonNull(traversal, "traversal cannot be null");
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+
+        List<Path> found = new ArrayList<>();
+        Entity from = graph.getEntity(fromId);
+        if (from == null || graph.getEntity(toId) == null) {
+            return found;
+        }
+
+        Path first = shortestPath(from, toId, Collections.emptySet(), Collections.emptySet(),
+                traversal.getMaxDepth(), traversal);
+        if (first == null) {
+            return found;
+        }
+        found.add(first);
+
+        List<Path> candidates = new ArrayList<>();
+        Set<Path> seen = new HashSet<>(found);
+        while (found.size() < k) {
+            Path previous = found.get(found.size() - 1);
+            for (int i = 0; i < previous.length() && i < traversal.getMaxDepth(); i++) {
+                List<Entity> rootEntities = previous.getEntities().subList(0, i + 1);
+                List<Triple> rootTriples = previous.getTriples().subList(0, i);
+
+                // Block the next hop of every known path sharing this root
+                Set<Triple> excludedTriples = new HashSet<>();
+                for (Path path : found) {
+                    if (path.length() > i && path.getEntities().subList(0, i + 1).equals(rootEntities)
+                            && path.getTriples().subList(0, i).equals(rootTriples)) {
+                        excludedTriples.add(path.getTriples().get(i));
+                    }
+                }
+                Set<String> excludedEntities = new HashSet<>();
+                for (Entity entity : rootEntities.subList(0, i)) {
+                    excludedEntities.add(entity.getId());
+                }
+
+                Path spur = shortestPath(rootEntities.get(i), toId, excludedEntities, excludedTriples,
+                        traversal.getMaxDepth() - i, traversal);
+                if (spur != null) {
+                    List<Entity> entities = new ArrayList<>(rootEntities.subList(0, i));
+                    entities.addAll(spur.getEntities());
+                    List<Triple> triples = new ArrayList<>(rootTriples);
+                    triples.addAll(spur.getTriples());
+                    Path candidate = new Path(entities, triples);
+                    if (seen.add(candidate)) {
+                        candidates.add(candidate);
+                    }
+                }
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+            int shortest = 0;
+            for (int i = 1; i < candidates.size(); i++) {
+                if (candidates.get(i).length() < candidates.get(shortest).length()) {
+                    shortest = i;
+                }
+            }
+            found.add(candidates.remove(shortest));
+        }
+        return found;
+    }
+
+    /**
+     * Extracts the entities within the depth limit of a center entity and
+     * the triples followed to reach them.
+     *
+     * @param centerId  the center entity ID
+     * @param traversal the traversal options; the result limit bounds the
+     *                  number of entities and the strategy is ignored
+     * @return the neighborhood; empty if the center entity does not exist
+     */
+    public Subgraph neighborhood(String centerId, Traversal traversal) {
+        Objects.requireNonNull(traversal, "traversal cannot be null");
+
+        Entity center = graph.getEntity(centerId);
+        if (center == null) {
+            return new Subgraph(Collections.emptyList(), Collections.emptyList());
+        }
+
+        Map<String, Entity> entities = new LinkedHashMap<>();
+        Set<Triple> triples = new LinkedHashSet<>();
+        entities.put(center.getId(), center);
+
+        Deque<Trail> queue = new ArrayDeque<>();
+        queue.add(new Trail(center, null, null, 0));
+        while (!queue.isEmpty()) {
+            Trail trail = queue.poll();
+            if (trail.depth == traversal.getMaxDepth()) {
+                continue;
+            }
+            for (Step step : steps(trail.entity.getId(), traversal)) {
+                String id = step.neighbor.getId();
+                if (!entities.containsKey(id)) {
+                    if (entities.size() >= traversal.getMaxResults()) {
+                        continue;
+                    }
+                    entities.put(id, step.neighbor);
+                    queue.add(new Trail(step.neighbor, null, null, trail.depth + 1));
+                }
+                triples.add(step.triple);
+            }
+        }
+        return new Subgraph(new ArrayList<>(entities.values()), new ArrayList<>(triples));
+    }
+
+    private Path shortestPath(Entity source, String targetId, Set<String> excludedEntities,
+            Set<Triple> excludedTriples, int maxDepth, Traversal traversal) {
+        Trail start = new Trail(source, null, null, 0);
+        if (source.getId().equals(targetId)) {
+            return start.toPath();
+        }
+
+        Set<String> visited = new HashSet<>(excludedEntities);
+        visited.add(source.getId());
+        Deque<Trail> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            Trail trail = queue.poll();
+            if (trail.depth == maxDepth) {
+                continue;
+            }
+            for (Step step : steps(trail.entity.getId(), traversal)) {
+                if (excludedTriples.contains(step.triple) || !visited.add(step.neighbor.getId())) {
+                    continue;
+                }
+                Trail next = new Trail(step.neighbor, step.triple, trail, trail.depth + 1);
+                if (step.neighbor.getId().equals(targetId)) {
+                    return next.toPath();
+                }
+                queue.add(next);
+            }
+        }
+        return null;
+    }
+
+    private void pushSteps(Deque<Trail> stack, Trail trail, Traversal traversal) {
+        List<Step> steps = steps(trail.entity.getId(), traversal);
+        // Reversed, so the first step is explored first
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            Step step = steps.get(i);
+            stack.push(new Trail(step.neighbor, step.triple, trail, trail.depth + 1));
+        }
+    }
+
+    private List<Step> steps(String entityId, Traversal traversal) {
+        Collection<String> predicates = traversal.getPredicates().isEmpty()
+                ? Collections.singletonList(null)
+                : traversal.getPredicates();
+        Direction direction = traversal.getDirection();
+
+        List<Step> steps = new ArrayList<>();
+        for (String predicate : predicates) {
+            if (direction != Direction.INCOMING) {
+                for (Triple triple : graph.findTriples(entityId, predicate, null)) {
+                    steps.add(new Step(triple, triple.getObject()));
+                }
+            }
+            if (direction != Direction.OUTGOING) {
+                for (Triple triple : graph.findTriples(null, predicate, entityId)) {
+                    steps.add(new Step(triple, triple.getSubject()));
+                }
+            }
+        }
+        return steps;
+    }
+
+    private static final class Step {
+        private final Triple triple;
+        private final Entity neighbor;
+
+        private Step(Triple triple, Entity neighbor) {
+            this.triple = triple;
+            this.neighbor = neighbor;
+        }
+    }
+
+    /**
+     * A path under construction, linked back to its start.
+     */
+    private static final class Trail {
+        private final Entity entity;
+        private final Triple triple;
+        private final Trail parent;
+        private final int depth;
+
+        private Trail(Entity entity, Triple triple, Trail parent, int depth) {
+            this.entity = entity;
+            this.triple = triple;
+            this.parent = parent;
+            this.depth = depth;
+        }
+
+        private Path toPath() {
+            LinkedList<Entity> entities = new LinkedList<>();
+            LinkedList<Triple> triples = new LinkedList<>();
+            for (Trail trail = this; trail != null; trail = trail.parent) {
+                entities.addFirst(trail.entity);
+                if (trail.triple != null) {
+                    triples.addFirst(trail.triple);
+                }
+            }
+            return new Path(entities, triples);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.llm4j.agent.knowledge.traversal;
+
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Triple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A walk through the graph: a start entity followed by the triples taken and
+ * the entity each one leads to. With {@link Direction#INCOMING} or
+ * {@link Direction#BOTH} a triple may be taken from object to subject.
+ */
+public final class Path {
+
+    private final List<Entity> entities;
+    private final List<Triple> triples;
+
+    Path(List<Entity> entities, List<Triple> triples) {
+        if (entities.size() != triples.size() + 1) {
+            throw new IllegalArgumentException("A path has one more entity than triples");
+        }
+        this.entities = Collections.unmodifiableList(new ArrayList<>(entities));
+        this.triples = Collections.unmodifiableList(new ArrayList<>(triples));
+    }
+
+    public Entity getStart() {
+        return entities.get(0);
+    }
+
+    public Entity getEnd() {
+        return entities.get(entities.size() - 1);
+    }
+
+    /**
+     * Returns the entities along the path, start and end included.
+     */
+    public List<Entity> getEntities() {
+        return entities;
+    }
+
+    public List<Triple> getTriples() {
+        return triples;
+    }
+
+    /**
+     * Returns the number of hops.
+     */
+    public int length() {
+        return triples.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Path path = (Path) o;
+        return entities.equals(path.entities) && triples.equals(path.triples);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entities, triples);
+    }
+
+    /**
+     * Formats the path as {@code alice -[KNOWS]-> bob <-[MANAGES]- carol}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(entities.get(0).getId());
+        for (int i = 0; i < triples.size(); i++) {
+            Triple triple = triples.get(i);
+            Entity next = entities.get(i + 1);
+            boolean forward = triple.getObject().getId().equals(next.getId())
+                    && triple.getSubject().getId().equals(entities.get(i).getId());
+            String type = triple.getPredicate().getType();
+            result.append(forward ? " -[" + type + "]-> " : " <-[" + type + "]- ").append(next.getId());
+        }
+        return result.toString();
+    }
+}
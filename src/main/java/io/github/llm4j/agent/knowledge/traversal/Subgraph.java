@@ -0,0 +1,38 @@
+package io.github.llm4j.agent.knowledge.traversal;
+
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Triple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entities and triples extracted from a graph, in discovery order.
+ */
+public final class Subgraph {
+
+    private final List<Entity> entities;
+    private final List<Triple> triples;
+
+    Subgraph(List<Entity> entities, List<Triple> triples) {
+        this.entities = Collections.unmodifiableList(new ArrayList<>(entities));
+        this.triples = Collections.unmodifiableList(new ArrayList<>(triples));
+    }
+
+    public List<Entity> getEntities() {
+        return entities;
+    }
+
+    public List<Triple> getTriples() {
+        return triples;
+    }
+
+    @Override
+    public String toString() {
+        return "Subgraph{" +
+                "entities=" + entities.size() +
+                ", triples=" + triples.size() +
+                '}';
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.llm4j.agent.knowledge.traversal;
+
+import java.util.*;
+
+/**
+ * Options for a graph traversal: direction, depth limit, predicate filter,
+ * search order and result limit.
+ *
+ * <pre>{@code
+ * List<Path> chain = graph.traverse("charlie", Traversal.builder()
+ *         .predicates("REPORTS_TO")
+ *         .maxDepth(5)
+ *         .build());
+ * }</pre>
+ */
+public final class Traversal {
+
+    /**
+     * Order in which a traversal visits entities.
+     */
+    public enum Strategy {
+        /**
+         * Visits entities by increasing distance; each returned path is a
+         * shortest one.
+         */
+        BREADTH_FIRST,
+
+        /**
+         * Follows each branch down to the depth limit before the next one.
+         */
+        DEPTH_FIRST
+    }
+
+    private final Direction direction;
+    private final int maxDepth;
+    private final Set<String> predicates;
+    private final Strategy strategy;
+    private final int maxResults;
+
+    private Traversal(Builder builder) {
+        this.direction = builder.direction;
+        this.maxDepth = builder.maxDepth;
+        this.predicates = Collections.unmodifiableSet(new LinkedHashSet<>(builder.predicates));
+        this.strategy = builder.strategy;
+        this.maxResults = builder.maxResults;
+    }
+
+    /**
+     * Returns a traversal with the default options.
+     */
+    public static Traversal defaults() {
+        return builder().build();
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns the predicate types to follow; empty means all.
+     */
+    public Set<String> getPredicates() {
+        return predicates;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private Direction direction = Direction.OUTGOING;
+        private int maxDepth = 3;
+        private final Set<String> predicates = new LinkedHashSet<>();
+        private Strategy strategy = Strategy.BREADTH_FIRST;
+        private int maxResults = 1000;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the direction of followed triples. Defaults to outgoing.
+         */
+        public Builder direction(Direction direction) {
+            this.direction = Objects.requireNonNull(direction, "direction cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of hops from the start entity. Defaults to 3.
+         */
+        public Builder maxDepth(int maxDepth) {
+            if (maxDepth <= 0) {
+                throw new IllegalArgumentException("maxDepth must be positive");
+            }
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * Restricts the traversal to triples with these predicate types.
+         */
+        public Builder predicates(String... predicates) {
+            return predicates(Arrays.asList(predicates));
+        }
+
+        public Builder predicates(Collection<String> predicates) {
+            this.predicates.addAll(predicates);
+            return this;
+        }
+
+        /**
+         * Sets the visiting order. Defaults to breadth-first.
+         */
+        public Builder strategy(Strategy strategy) {
+            this.strategy = Objects.requireNonNull(strategy, "strategy cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entities a traversal returns. Defaults
+         * to 1000.
+         */
+        public Builder maxResults(int maxResults) {
+            if (maxResults <= 0) {
+                throw new IllegalArgumentException("maxResults must be positive");
+            }
+            this.maxResults = maxResults;
+            return this;
+        }
+
+        public Traversal build() {
+            return new Traversal(this);
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package io.github.llm4j.agent.metadata;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Typed metadata filter expression, shared by vector store searches and
+ * knowledge graph entity queries.
+ * <p>
+ * Filters are built from the static factories and are immutable. Each node
+ * prepares its evaluation state when constructed (hash sets for {@code in},
+ * normalized bounds for ranges), so a filter is compiled once and can then be
+ * evaluated against many metadata maps or translated into a bitmap plan by an
+ * indexed store.
+ *
+ * <pre>{@code
+ * Filter filter = Filter.and(
+ *         Filter.eq("tenant", "acme"),
+ *         Filter.in("language", "en", "de"),
+ *         Filter.gte("year", 2020),
+ *         Filter.not(Filter.eq("status", "archived")));
+ * }</pre>
+ */
+public interface Filter {
+
+    /**
+     * Evaluates the filter against a metadata map.
+     *
+     * @param metadata the metadata to test
+     * @return true if the metadata satisfies the filter
+     */
+    boolean matches(Map<String, Object> metadata);
+
+    /**
+     * Returns this filter as a predicate over metadata maps.
+     *
+     * @return the predicate
+     */
+    default Predicate<Map<String, Object>> asPredicate() {
+        return this::matches;
+    }
+
+    /**
+     * Matches metadata whose field equals the value.
+     */
+    static Filter eq(String field, Object value) {
+        return new Eq(field, value);
+    }
+
+    /**
+     * Matches metadata whose field equals any of the values.
+     */
+    static Filter in(String field, Collection<?> values) {
+        return new In(field, values);
+    }
+
+    /**
+     * Matches metadata whose field equals any of the values.
+     */
+    static Filter in(String field, Object... values) {
+        return new In(field, Arrays.asList(values));
+    }
+
+    static Filter gt(String field, Object bound) {
+        return new Range(field, bound, false, null, false);
+    }
+
+    static Filter gte(String field, Object bound) {
+        return new Range(field, bound, true, null, false);
+    }
+
+    static Filter lt(String field, Object bound) {
+        return new Range(field, null, false, bound, false);
+    }
+
+    static Filter lte(String field, Object bound) {
+        return new Range(field, null, false, bound, true);
+    }
+
+    /**
+     * Matches metadata whose field lies between the bounds, both inclusive.
+     */
+    static Filter between(String field, Object lower, Object upper) {
+        return new Range(field, lower, true, upper, true);
+    }
+
+    static Filter not(Filter filter) {
+        return new Not(filter);
+    }
+
+    static Filter and(Filter... filters) {
+        return new And(Arrays.asList(filters));
+    }
+
+    static Filter and(List<Filter> filters) {
+        return new And(filters);
+    }
+
+    static Filter or(Filter... filters) {
+        return new Or(Arrays.asList(filters));
+    }
+
+    static Filter or(List<Filter> filters) {
+        return new Or(filters);
+    }
+
+    /**
+     * Returns the form in which filters compare values, so that equal values
+     * of different types compare equal. Numbers become a {@link Long} if they
+     * are integral and fit in one, otherwise a {@link Double} if one holds
+     * them exactly, otherwise a {@link BigDecimal}; no precision is lost, so
+     * distinct numbers never become equal. {@link java.util.Date}s become
+     * {@link java.time.Instant}s. Other values are returned unchanged. Indexes
+     * key their postings by this form so that lookups agree with
+     * {@link #matches(Map)}.
+     *
+     * @param value the value (may be null)
+     * @return the normalized value
+     */
+    static Object normalize(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).toInstant();
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte
+                || value instanceof AtomicLong || value instanceof AtomicInteger) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigInteger) {
+            BigInteger integer = (BigInteger) value;
+            return integer.bitLength() < Long.SIZE ? (Object) integer.longValue() : normalize(new BigDecimal(integer));
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = ((BigDecimal) value).stripTrailingZeros();
+            if (decimal.scale() <= 0 && decimal.precision() - decimal.scale() <= 19) {
+                try {
+                    return decimal.longValueExact();
+                } catch (ArithmeticException e) {
+                    // Beyond the long range
+                }
+            }
+            double approximation = decimal.doubleValue();
+            if (!Double.isInfinite(approximation) && new BigDecimal(approximation).compareTo(decimal) == 0) {
+                return approximation;
+            }
+            return decimal;
+        }
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            // Integral doubles within the long range are exact longs; -2^63 is included, 2^63 is not
+            if (number == Math.rint(number) && number >= -0x1p63 && number < 0x1p63) {
+                return (long) number;
+            }
+            return number;
+        }
+        return value;
+    }
+
+    /**
+     * Compares two {@link #normalize(Object) normalized} numbers exactly by
+     * value, whatever their types. NaN sorts above every other number, as in
+     * {@link Double#compare(double, double)}.
+     *
+     * @param a the first number
+     * @param b the second number
+     * @return a negative, zero or positive value as a is less than, equal to
+     *         or greater than b
+     */
+    static int compareNumbers(Number a, Number b) {
+        if (a instanceof Long && b instanceof Long) {
+            return Long.compare(a.longValue(), b.longValue());
+        }
+        if (a instanceof Double && b instanceof Double) {
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        double first = a.doubleValue();
+        double second = b.doubleValue();
+        if (Double.isNaN(first) || Double.isNaN(second) || Double.isInfinite(first) || Double.isInfinite(second)) {
+            return Double.compare(first, second);
+        }
+        return toBigDecimal(a).compareTo(toBigDecimal(b));
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof Long) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return new BigDecimal(number.doubleValue());
+    }
+
+    /**
+     * Converts equality filters in the {@code Map<String, Object>} form
+     * accepted by vector store searches and graph entity lookups.
+     *
+     * A null required value matches nothing.
+     *
+     * @param filters field to required value (null or empty means no filter)
+     * @return the equivalent filter, or null if there is nothing to filter on
+     */
+    static Filter fromMap(Map<String, Object> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return null;
+        }
+        if (filters.size() == 1) {
+            Map.Entry<String, Object> entry = filters.entrySet().iterator().next();
+            return eq(entry.getKey(), entry.getValue());
+        }
+
+        List<Filter> clauses = new ArrayList<>(filters.size());
+        for (Map.Entry<String, Object> entry : filters.entrySet()) {
+            clauses.add(eq(entry.getKey(), entry.getValue()));
+        }
+        return and(clauses);
+    }
+
+    /**
+     * Field equals a value. Values are compared in their
+     * {@link Filter#normalize(Object) normalized} form, so numbers are equal
+     * by value regardless of their boxed type. A null value matches nothing.
+     */
+    final class Eq implements Filter {
+        private final String field;
+        private final Object value;
+
+        private Eq(String field, Object value) {
+            this.field = Objects.requireNonNull(field, "field cannot be null");
+            this.value = normalize(value);
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        /**
+         * Returns the normalized value, or null if the filter matches nothing.
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean matches(Map<String, Object> metadata) {
+            Object metadataValue = metadata.get(field);
+            return value != null && metadataValue != null && value.equals(normalize(metadataValue));
+        }
+
+        @Override
+        public String toString() {
+            return field + " = " + value;
+        }
+    }
+
+    /**
+     * Field equals one of a set of values, compared like {@link Eq}.
+     */
+    final class In implements Filter {
+        private final String field;
+        private final Set<Object> values;
+
+        private In(String field, Collection<?> values) {
+            this.field = Objects.requireNonNull(field, "field cannot be null");
+            Objects.requireNonNull(values, "values cannot be null");
+            Set<Object> normalized = new HashSet<>(values.size() * 2);
+            for (Object value : values) {
+                normalized.add(normalize(value));
+            }
+            this.values = Collections.unmodifiableSet(normalized);
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        /**
+         * Returns the normalized values.
+         */
+        public Set<Object> getValues() {
+            return values;
+        }
+
+        @Override
+        public boolean matches(Map<String, Object> metadata) {
+            Object metadataValue = metadata.get(field);
+            return metadataValue != null && values.contains(normalize(metadataValue));
+        }
+
+        @Override
+        public String toString() {
+            return field + " IN " + values;
+        }
+    }
+
+    /**
+     * Field lies within optional lower and upper bounds. Numbers are compared
+     * exactly by value regardless of their boxed type; other values (dates, strings)
+     * must be mutually {@link Comparable}. {@link java.util.Date} values are
+     * compared as {@link java.time.Instant}s. Values that cannot be compared
+     * with the bounds never match.
+     */
+    final class Range implements Filter {
+        private final String field;
+        private final Object lower;
+        private final boolean lowerInclusive;
+        private final Object upper;
+        private final boolean upperInclusive;
+
+        private Range(String field, Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+            this.field = Objects.requireNonNull(field, "field cannot be null");
+            if (lower == null && upper == null) {
+                throw new IllegalArgumentException("range needs at least one bound");
+            }
+            this.lower = normalize(lower);
+            this.lowerInclusive = lowerInclusive;
+            this.upper = normalize(upper);
+            this.upperInclusive = upperInclusive;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        /**
+         * Returns the lower bound in its {@link Filter#normalize(Object)
+         * normalized} form, or null if unbounded below.
+         */
+        public Object getLower() {
+            return lower;
+        }
+
+        public boolean isLowerInclusive() {
+            return lowerInclusive;
+        }
+
+        /**
+         * Returns the upper bound, normalized like {@link #getLower()}, or null
+         * if unbounded above.
+         */
+        public Object getUpper() {
+            return upper;
+        }
+
+        public boolean isUpperInclusive() {
+            return upperInclusive;
+        }
+
+        @Override
+        public boolean matches(Map<String, Object> metadata) {
+            return test(metadata.get(field));
+        }
+
+        /**
+         * Tests a single field value against the bounds.
+         *
+         * @param value the value (may be null)
+         * @return true if the value lies within the range
+         */
+        public boolean test(Object value) {
+            if (value == null) {
+                return false;
+            }
+            Object normalized = normalize(value);
+            if (lower != null) {
+                Integer comparison = compare(normalized, lower);
+                if (comparison == null || comparison < 0 || (comparison == 0 && !lowerInclusive)) {
+                    return false;
+                }
+            }
+            if (upper != null) {
+                Integer comparison = compare(normalized, upper);
+                if (comparison == null || comparison > 0 || (comparison == 0 && !upperInclusive)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static Integer compare(Object value, Object bound) {
+            if (value instanceof Number && bound instanceof Number) {
+                return compareNumbers((Number) value, (Number) bound);
+            }
+            if (value instanceof Comparable && bound.getClass().isInstance(value)) {
+                return ((Comparable) value).compareTo(bound);
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            if (lower != null) {
+                builder.append(lower).append(lowerInclusive ? " <= " : " < ");
+            }
+            builder.append(field);
+            if (upper != null) {
+                builder.append(upperInclusive ? " <= " : " < ").append(upper);
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Negation of another filter.
+     */
+    final class Not implements Filter {
+        private final Filter filter;
+
+        private Not(Filter filter) {
+            this.filter = Objects.requireNonNull(filter, "filter cannot be null");
+        }
+
+        public Filter getFilter() {
+            return filter;
+        }
+
+        @Override
+        public boolean matches(Map<String, Object> metadata) {
+            return !filter.matches(metadata);
+        }
+
+        @Override
+        public String toString() {
+            return "NOT (" + filter + ")";
+        }
+    }
+
+    /**
+     * Conjunction of filters. An empty conjunction matches everything.
+     */
+    final class And implements Filter {
+        private final List<Filter> filters;
+
+        private And(List<Filter> filters) {
+            this.filters = List.copyOf(Objects.requireNonNull(filters, "filters cannot be null"));
+        }
+
+        public List<Filter> getFilters() {
+            return filters;
+        }
+
+        @Override
+        public boolean matches(Map<String, Object> metadata) {
+            for (Filter filter : filters) {
+                if (!filter.matches(metadata)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return join(filters, " AND ");
+        }
+    }
+
+    /**
+     * Disjunction of filters. An empty disjunction matches nothing.
+     */
+    final class Or implements Filter {
+        private final List<Filter> filters;
+
+        private Or(List<Filter> filters) {
+            this.filters = List.copyOf(Objects.requireNonNull(filters, "filters cannot be null"));
+        }
+
+        public List<Filter> getFilters() {
+            return filters;
+        }
+
+        @Override
+        public boolean matches(Map<String, Object> metadata) {
+            for (Filter filter : filters) {
+                if (filter.matches(metadata)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return join(filters, " OR ");
+        }
+    }
+
+    private static String join(List<Filter> filters, String operator) {
+        StringJoiner joiner = new StringJoiner(operator, "(", ")");
+        for (Filter filter : filters) {
+            joiner.add(filter.toString());
+        }
+        return joiner.toString();
+    }
+}
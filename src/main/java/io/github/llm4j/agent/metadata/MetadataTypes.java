@@ -0,0 +1,120 @@
+package io.github.llm4j.agent.metadata;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records the Java types of metadata values that a JSON round trip loses, for
+ * stores that persist metadata or properties as JSON.
+ * <p>
+ * Jackson reads JSON integers back as {@link Integer} (or {@link Long} when
+ * they do not fit) and decimals as {@link Double}, and writes dates as epoch
+ * milliseconds. Without the recorded types a {@code Long} 5 or a
+ * {@code Float} 0.5 would come back as an {@code Integer} or a {@code Double}
+ * after a reopen, and no longer equal values of the original type. Only
+ * top-level values are typed; values nested in lists or maps are left as
+ * Jackson reads them.
+ */
+public final class MetadataTypes {
+
+    private static final String LONG = "long";
+    private static final String FLOAT = "float";
+    private static final String SHORT = "short";
+    private static final String BYTE = "byte";
+    private static final String BIG_INTEGER = "biginteger";
+    private static final String BIG_DECIMAL = "bigdecimal";
+    private static final String DATE = "date";
+
+    private MetadataTypes() {
+    }
+
+    /**
+     * Returns the type tags of the values whose type JSON does not preserve.
+     *
+     * @param values metadata values (may be null)
+     * @return field to type tag, empty if every value round-trips unchanged
+     */
+    public static Map<String, String> of(Map<String, ?> values) {
+        Map<String, String> types = new LinkedHashMap<>();
+        if (values == null) {
+            return types;
+        }
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            String type = typeOf(entry.getValue());
+            if (type != null) {
+                types.put(entry.getKey(), type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Converts values read back from JSON to the types recorded by
+     * {@link #of(Map)}. Values that cannot be converted are left unchanged.
+     *
+     * @param values metadata read from JSON, modified in place
+     * @param types  field to type tag (may be null)
+     * @return the values
+     */
+    public static Map<String, Object> restore(Map<String, Object> values, Map<String, String> types) {
+        if (values == null || types == null) {
+            return values;
+        }
+        for (Map.Entry<String, String> type : types.entrySet()) {
+            Object value = values.get(type.getKey());
+            if (value instanceof Number) {
+                values.put(type.getKey(), convert((Number) value, type.getValue()));
+            }
+        }
+        return values;
+    }
+
+    private static String typeOf(Object value) {
+        if (value instanceof Long) {
+            return LONG;
+        }
+        if (value instanceof Float) {
+            return FLOAT;
+        }
+        if (value instanceof Short) {
+            return SHORT;
+        }
+        if (value instanceof Byte) {
+            return BYTE;
+        }
+        if (value instanceof BigInteger) {
+            return BIG_INTEGER;
+        }
+        if (value instanceof BigDecimal) {
+            return BIG_DECIMAL;
+        }
+        if (value instanceof Date) {
+            return DATE;
+        }
+        return null;
+    }
+
+    private static Object convert(Number value, String type) {
+        switch (type) {
+            case LONG:
+                return value.longValue();
+            case FLOAT:
+                return value.floatValue();
+            case SHORT:
+                return value.shortValue();
+            case BYTE:
+                return value.byteValue();
+            case BIG_INTEGER:
+                return value instanceof BigInteger ? value : BigInteger.valueOf(value.longValue());
+            case BIG_DECIMAL:
+                return value instanceof BigDecimal ? value : new BigDecimal(value.toString());
+            case DATE:
+                return new Date(value.longValue());
+            default:
+                return value;
+        }
+    }
+}
@@ -2,20 +2,42 @@ package io.github.llm4j.agent.rag;
 
 import io.github.llm4j.agent.AgentResult;
 import io.github.llm4j.agent.ReActAgent;
+import io.github.llm4j.agent.metadata.Filter;
 import io.github.llm4j.agent.rag.document.Document;
 import io.github.llm4j.agent.rag.document.DocumentChunk;
 import io.github.llm4j.agent.rag.embedding.EmbeddingProvider;
+import io.github.llm4j.agent.rag.ingest.IngestionPipeline;
+import io.github.llm4j.agent.rag.retrieval.ContextPacker;
+import io.github.llm4j.agent.rag.retrieval.Reranker;
+import io.github.llm4j.agent.rag.retrieval.Retriever;
+import io.github.llm4j.agent.rag.retrieval.VectorRetriever;
 import io.github.llm4j.agent.rag.store.VectorStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * RAG (Retrieval-Augmented Generation) agent that retrieves relevant context
  * from a vector store before generating responses.
+ * <p>
+ * Retrieval is delegated to a {@link Retriever}; by default the question is
+ * embedded and searched in the vector store. A
+ * {@link io.github.llm4j.agent.rag.retrieval.HybridRetriever} can be
+ * configured to fuse dense and lexical (BM25) results, and a
+ * {@link io.github.llm4j.agent.rag.retrieval.GraphRAGRetriever} to add
+ * knowledge graph facts about the entities in the chunks. With a
+ * {@link Reranker}, a larger candidate set is retrieved and reranked down to
+ * the top K. With a
+ * {@link ContextPacker}, overlapping and near-duplicate chunks are merged or
+ * dropped and the context is fitted to a token budget before prompting.
  */
 public class RAGAgent {
 
@@ -24,16 +46,32 @@ public class RAGAgent {
     private final ReActAgent agent;
     private final VectorStore vectorStore;
     private final EmbeddingProvider embeddingProvider;
+    private final Retriever retriever;
+    private final Reranker reranker;
+    private final ContextPacker contextPacker;
     private final int topK;
+    private final int candidateCount;
     private final boolean includeMetadata;
+    /**
+     * Chunk IDs added per document, kept only when the vector store cannot
+     * {@link VectorStore#find(Filter) find} them by metadata; null otherwise.
+     */
+    private final Map<String, Set<String>> documentChunks;
 
     private RAGAgent(Builder builder) {
         this.agent = Objects.requireNonNull(builder.agent, "agent cannot be null");
         this.vectorStore = Objects.requireNonNull(builder.vectorStore, "vectorStore cannot be null");
         this.embeddingProvider = Objects.requireNonNull(builder.embeddingProvider,
                 "embeddingProvider cannot be null");
+        this.retriever = builder.retriever != null
+                ? builder.retriever
+                : new VectorRetriever(vectorStore, embeddingProvider);
+        this.contextPacker = builder.contextPacker;
+        this.reranker = builder.reranker;
         this.topK = builder.topK;
+        this.candidateCount = Math.max(topK, builder.candidateCount > 0 ? builder.candidateCount : topK * 4);
         this.includeMetadata = builder.includeMetadata;
+        this.documentChunks = vectorStore.supportsFind() ? null : new ConcurrentHashMap<>();
     }
 
     /**
@@ -49,19 +87,22 @@ public class RAGAgent {
 
         logger.info("RAG Agent processing question: {}", question);
 
-        // 1. Generate embedding for the question
-        float[] queryEmbedding = embeddingProvider.embed(question);
-        logger.debug("Generated query embedding with {} dimensions", queryEmbedding.length);
-
-        // 2. Retrieve relevant context from vector store
-        List<VectorStore.SearchResult> results = vectorStore.search(queryEmbedding, topK);
-        logger.info("Retrieved {} relevant chunks", results.size());
+        // 1. Retrieve relevant context, reranking a larger candidate set if configured
+        List<VectorStore.SearchResult> results;
+        if (reranker != null) {
+            List<VectorStore.SearchResult> candidates = retriever.retrieve(question, candidateCount);
+            results = candidates.isEmpty() ? candidates : reranker.rerank(question, candidates, topK);
+            logger.info("Reranked {} candidates to {} relevant chunks", candidates.size(), results.size());
+        } else {
+            results = retriever.retrieve(question, topK);
+            logger.info("Retrieved {} relevant chunks", results.size());
+        }
 
-        // 3. Build augmented prompt with context
+        // 2. Build augmented prompt with context
         String augmentedQuestion = buildAugmentedPrompt(question, results);
         logger.debug("Augmented question length: {} characters", augmentedQuestion.length());
 
-        // 4. Run the agent with augmented context
+        // 3. Run the agent with augmented context
         return agent.run(augmentedQuestion);
     }
 
@@ -93,16 +134,172 @@ public class RAGAgent {
             DocumentChunk chunk = chunks.get(i);
             float[] embedding = embeddings.get(i);
 
-            // Store chunk content in metadata
-            chunk.getMetadata().put("content", chunk.getContent());
-            chunk.getMetadata().put("documentId", document.getId());
-
-            vectorStore.add(chunk.getId(), embedding, chunk.getMetadata());
+            Map<String, Object> metadata = chunkMetadata(document, chunk, chunkContents.get(i));
+            vectorStore.add(chunk.getId(), embedding, metadata);
+            retriever.onChunkAdded(chunk.getId(), metadata);
+        }
+        for (DocumentChunk chunk : chunks) {
+            trackChunk(document.getId(), chunk.getId());
         }
 
         logger.info("Added {} chunks from document {}", chunks.size(), document.getId());
     }
 
+    /**
+     * Adds or re-indexes a document, re-embedding only chunks whose content
+     * changed since it was last added.
+     * <p>
+     * The stored chunks of the document are looked up by their
+     * {@code documentId} metadata and compared with the new chunks by content
+     * hash. Chunks whose ID, content and metadata are unchanged are left
+     * alone; changed or new chunks reuse the embedding of any stored chunk
+     * with the same content (e.g. a paragraph that moved) and are embedded in
+     * one batch otherwise. Stored chunks whose IDs no longer exist are
+     * deleted after the new chunks are written.
+     * <p>
+     * Chunks stored before content hashes were recorded are re-embedded once.
+     * If the vector store does not support {@link VectorStore#find(Filter)},
+     * the stored chunks are taken to be those this agent has added for the
+     * document, and every chunk is re-embedded.
+     *
+     * @param document the document to add or update
+     * @return counts of the chunks written, skipped and deleted
+     */
+    public UpsertResult upsertDocument(Document document) {
+        Objects.requireNonNull(document, "document cannot be null");
+
+        Map<String, VectorStore.VectorEntry> stored = new HashMap<>();
+        Map<Object, float[]> storedEmbeddings = new HashMap<>();
+        for (VectorStore.VectorEntry entry : storedChunks(document.getId())) {
+            stored.put(entry.getId(), entry);
+            Object hash = entry.getMetadata().get("contentHash");
+            if (hash != null) {
+                storedEmbeddings.put(hash, entry.getEmbedding());
+            }
+        }
+
+        List<DocumentChunk> chunks = document.getChunks();
+        List<VectorStore.VectorEntry> writes = new ArrayList<>();
+        List<Integer> toEmbed = new ArrayList<>();
+        List<String> toEmbedContents = new ArrayList<>();
+        int unchanged = 0;
+        int reused = 0;
+
+        for (DocumentChunk chunk : chunks) {
+            String content = chunk.getContent();
+            Map<String, Object> metadata = chunkMetadata(document, chunk, content);
+            VectorStore.VectorEntry existing = stored.get(chunk.getId());
+            if (existing != null && metadata.equals(existing.getMetadata())) {
+                unchanged++;
+                continue;
+            }
+
+            float[] embedding = storedEmbeddings.get(chunk.getContentHash());
+            if (embedding != null) {
+                reused++;
+            } else {
+                toEmbed.add(writes.size());
+                toEmbedContents.add(content);
+            }
+            writes.add(new VectorStore.VectorEntry(chunk.getId(), embedding, metadata));
+        }
+
+        if (!toEmbedContents.isEmpty()) {
+            List<float[]> embeddings = embeddingProvider.embedBatch(toEmbedContents);
+            for (int i = 0; i < toEmbed.size(); i++) {
+                int index = toEmbed.get(i);
+                VectorStore.VectorEntry entry = writes.get(index);
+                writes.set(index, new VectorStore.VectorEntry(entry.getId(), embeddings.get(i), entry.getMetadata()));
+            }
+        }
+
+        // Write before deleting so the document never disappears from search
+        if (!writes.isEmpty()) {
+            vectorStore.addBatch(writes);
+            for (VectorStore.VectorEntry entry : writes) {
+                retriever.onChunkAdded(entry.getId(), entry.getMetadata());
+            }
+        }
+
+        for (DocumentChunk chunk : chunks) {
+            stored.remove(chunk.getId());
+        }
+        for (String id : stored.keySet()) {
+            vectorStore.delete(id);
+            retriever.onChunkRemoved(id);
+        }
+        if (documentChunks != null) {
+            if (chunks.isEmpty()) {
+                documentChunks.remove(document.getId());
+            } else {
+                Set<String> chunkIds = ConcurrentHashMap.newKeySet();
+                chunks.forEach(chunk -> chunkIds.add(chunk.getId()));
+                documentChunks.put(document.getId(), chunkIds);
+            }
+        }
+
+        UpsertResult result = new UpsertResult(writes.size(), unchanged, stored.size(), toEmbed.size(), reused);
+        logger.info("Upserted document {}: {}", document.getId(), result);
+        return result;
+    }
+
+    /**
+     * Returns the stored chunks of a document, falling back to the chunk IDs
+     * this agent has written when the store cannot be searched by metadata.
+     * Fallback entries carry no embedding or metadata, so they are never
+     * treated as unchanged.
+     */
+    private List<VectorStore.VectorEntry> storedChunks(String documentId) {
+        if (documentChunks == null) {
+            return vectorStore.find(Filter.eq("documentId", documentId));
+        }
+        List<VectorStore.VectorEntry> entries = new ArrayList<>();
+        for (String id : documentChunks.getOrDefault(documentId, Set.of())) {
+            entries.add(new VectorStore.VectorEntry(id, null, Map.of()));
+        }
+        return entries;
+    }
+
+    private void trackChunk(String documentId, String chunkId) {
+        if (documentChunks != null) {
+            documentChunks.computeIfAbsent(documentId, id -> ConcurrentHashMap.newKeySet()).add(chunkId);
+        }
+    }
+
+    /**
+     * Returns an ingestion pipeline builder wired to this agent's vector store,
+     * embedding provider and retriever, for bulk loads that would be too slow
+     * or memory hungry through {@link #addDocument(Document)}. Chunks stored
+     * by the pipeline can be re-indexed with {@link #upsertDocument(Document)}.
+     *
+     * @return a pre-configured pipeline builder
+     */
+    public IngestionPipeline.Builder ingestionPipeline() {
+        IngestionPipeline.Builder builder = IngestionPipeline.builder()
+                .vectorStore(vectorStore)
+                .embeddingProvider(embeddingProvider)
+                .retriever(retriever);
+        return documentChunks != null ? builder.chunkListener(this::trackChunk) : builder;
+    }
+
+    /**
+     * Builds the metadata stored with a chunk: the chunk's own metadata plus
+     * its content, content hash, document ID and, when known, its offsets in
+     * the document.
+     */
+    private static Map<String, Object> chunkMetadata(Document document, DocumentChunk chunk, String content) {
+        // Chunk metadata itself is immutable
+        Map<String, Object> metadata = new HashMap<>(chunk.getMetadata());
+        metadata.put("content", content);
+        metadata.put("contentHash", chunk.getContentHash());
+        metadata.put("documentId", document.getId());
+        if (chunk.getEndIndex() > chunk.getStartIndex()) {
+            metadata.put("startIndex", chunk.getStartIndex());
+            metadata.put("endIndex", chunk.getEndIndex());
+        }
+        return metadata;
+    }
+
     /**
      * Builds an augmented prompt by prepending retrieved context to the question.
      *
@@ -121,21 +318,20 @@ public class RAGAgent {
         prompt.append("Context:\n");
         prompt.append("---\n");
 
-        for (int i = 0; i < results.size(); i++) {
-            VectorStore.SearchResult result = results.get(i);
-            String content = (String) result.getMetadata().get("content");
-
-            if (content != null) {
-                prompt.append(String.format("[%d] %s\n", i + 1, content));
-
-                if (includeMetadata) {
-                    String documentId = (String) result.getMetadata().get("documentId");
-                    if (documentId != null) {
-                        prompt.append(String.format("    (Source: %s, Relevance: %.2f)\n",
-                                documentId, result.getSimilarity()));
-                    }
+        if (contextPacker != null) {
+            List<ContextPacker.Passage> passages = contextPacker.pack(results);
+            for (int i = 0; i < passages.size(); i++) {
+                ContextPacker.Passage passage = passages.get(i);
+                appendContext(prompt, i + 1, passage.getContent(), passage.getDocumentId(), passage.getScore());
+            }
+        } else {
+            for (int i = 0; i < results.size(); i++) {
+                VectorStore.SearchResult result = results.get(i);
+                String content = (String) result.getMetadata().get("content");
+                if (content != null) {
+                    appendContext(prompt, i + 1, content, (String) result.getMetadata().get("documentId"),
+                            result.getSimilarity());
                 }
-                prompt.append("\n");
             }
         }
 
@@ -145,15 +341,89 @@ public class RAGAgent {
         return prompt.toString();
     }
 
+    private void appendContext(StringBuilder prompt, int number, String content, String documentId,
+            float relevance) {
+        prompt.append('[').append(number).append("] ").append(content).append('\n');
+        if (includeMetadata && documentId != null) {
+            prompt.append("    (Source: ").append(documentId)
+                    .append(", Relevance: ").append(String.format("%.2f", relevance)).append(")\n");
+        }
+        prompt.append('\n');
+    }
+
     public static Builder builder() {
         return new Builder();
     }
 
+    /**
+     * Outcome of {@link #upsertDocument(Document)}.
+     */
+    public static final class UpsertResult {
+        private final int written;
+        private final int unchanged;
+        private final int deleted;
+        private final int embedded;
+        private final int reused;
+
+        private UpsertResult(int written, int unchanged, int deleted, int embedded, int reused) {
+            this.written = written;
+            this.unchanged = unchanged;
+            this.deleted = deleted;
+            this.embedded = embedded;
+            this.reused = reused;
+        }
+
+        /**
+         * Returns the number of new or changed chunks written to the store.
+         */
+        public int getWritten() {
+            return written;
+        }
+
+        /**
+         * Returns the number of chunks left untouched.
+         */
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        /**
+         * Returns the number of stored chunks deleted because their IDs vanished.
+         */
+        public int getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * Returns the number of written chunks sent to the embedding provider.
+         */
+        public int getEmbedded() {
+            return embedded;
+        }
+
+        /**
+         * Returns the number of written chunks that reused a stored embedding.
+         */
+        public int getReused() {
+            return reused;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("UpsertResult{written=%d (embedded=%d, reused=%d), unchanged=%d, deleted=%d}",
+                    written, embedded, reused, unchanged, deleted);
+        }
+    }
+
     public static final class Builder {
         private ReActAgent agent;
         private VectorStore vectorStore;
         private EmbeddingProvider embeddingProvider;
+        private Retriever retriever;
+        private Reranker reranker;
+        private ContextPacker contextPacker;
         private int topK = 3;
+        private int candidateCount;
         private boolean includeMetadata = false;
 
         private Builder() {
@@ -174,6 +444,46 @@ public class RAGAgent {
             return this;
         }
 
+        /**
+         * Sets the retriever used to find context. Defaults to a
+         * {@link VectorRetriever} over the vector store and embedding provider.
+         */
+        public Builder retriever(Retriever retriever) {
+            this.retriever = retriever;
+            return this;
+        }
+
+        /**
+         * Sets a reranker that selects the top K chunks from a larger
+         * candidate set retrieved first.
+         */
+        public Builder reranker(Reranker reranker) {
+            this.reranker = reranker;
+            return this;
+        }
+
+        /**
+         * Sets how many candidates are retrieved for the reranker. Defaults to
+         * four times top K; ignored without a reranker.
+         */
+        public Builder candidateCount(int candidateCount) {
+            if (candidateCount <= 0) {
+                throw new IllegalArgumentException("candidateCount must be positive");
+            }
+            this.candidateCount = candidateCount;
+            return this;
+        }
+
+        /**
+         * Sets a packer that merges, deduplicates and budgets the retrieved
+         * chunks before they are added to the prompt. By default every
+         * retrieved chunk is included as is.
+         */
+        public Builder contextPacker(ContextPacker contextPacker) {
+            this.contextPacker = contextPacker;
+            return this;
+        }
+
         public Builder topK(int topK) {
             if (topK <= 0) {
                 throw new IllegalArgumentException("topK must be positive");
@@ -0,0 +1,47 @@
+package io.github.llm4j.agent.rag.document;
+
+import java.util.Objects;
+
+/**
+ * Read-only window onto a range of a larger character sequence. Unlike
+ * {@link String#subSequence(int, int)}, creating a view or a sub-view never
+ * copies characters; only {@link #toString()} does.
+ */
+final class ContentView implements CharSequence {
+
+    private final CharSequence source;
+    private final int start;
+    private final int end;
+
+    ContentView(CharSequence source, int start, int end) {
+        this.source = Objects.requireNonNull(source, "source cannot be null");
+        Objects.checkFromToIndex(start, end, source.length());
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length());
+        return new ContentView(source, this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        if (source instanceof String) {
+            return ((String) source).substring(start, end);
+        }
+        return new StringBuilder(length()).append(source, start, end).toString();
+    }
+}
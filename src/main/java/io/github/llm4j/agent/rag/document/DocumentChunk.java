@@ -1,25 +1,45 @@
 package io.github.llm4j.agent.rag.document;
 
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 /**
  * Represents a chunk of a document with its content, position, and optional
  * embedding.
+ * <p>
+ * A chunk either owns its content as a string or, when built with
+ * {@link Builder#content(CharSequence, int, int)}, refers to a range of the
+ * parent document's content. The latter keeps chunking from copying the
+ * document (overlaps included); {@link #getContent()} then creates the string
+ * on each call, typically once when the chunk is embedded, while
+ * {@link #getContentView()} never copies.
  */
 public class DocumentChunk {
 
     private final String id;
     private final String documentId;
     private final String content;
+    private final CharSequence source;
     private final int startIndex;
     private final int endIndex;
     private final Map<String, Object> metadata;
     private float[] embedding;
+    private volatile String contentHash;
 
     private DocumentChunk(Builder builder) {
         this.id = Objects.requireNonNull(builder.id, "id cannot be null");
         this.documentId = Objects.requireNonNull(builder.documentId, "documentId cannot be null");
-        this.content = Objects.requireNonNull(builder.content, "content cannot be null");
+        if (builder.source != null) {
+            Objects.checkFromToIndex(builder.startIndex, builder.endIndex, builder.source.length());
+            this.content = null;
+            this.source = builder.source;
+        } else {
+            this.content = Objects.requireNonNull(builder.content, "content cannot be null");
+            this.source = null;
+        }
         this.startIndex = builder.startIndex;
         this.endIndex = builder.endIndex;
         this.metadata = Collections.unmodifiableMap(new HashMap<>(builder.metadata));
@@ -34,8 +54,53 @@ public class DocumentChunk {
         return documentId;
     }
 
+    /**
+     * Returns the content as a string. For chunks that refer to their
+     * parent's content, each call copies the characters.
+     *
+     * @return the chunk content
+     */
     public String getContent() {
-        return content;
+        return content != null ? content : getContentView().toString();
+    }
+
+    /**
+     * Returns the content without copying it.
+     *
+     * @return the chunk content as a character sequence
+     */
+    public CharSequence getContentView() {
+        return content != null ? content : new ContentView(source, startIndex, endIndex);
+    }
+
+    /**
+     * Returns the content length in characters.
+     *
+     * @return the content length
+     */
+    public int getContentLength() {
+        return content != null ? content.length() : endIndex - startIndex;
+    }
+
+    /**
+     * Returns the SHA-256 of the content as a hex string, used to detect
+     * chunks whose content has not changed between indexing runs.
+     *
+     * @return the content hash
+     */
+    public String getContentHash() {
+        String hash = contentHash;
+        if (hash == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(StandardCharsets.UTF_8.encode(CharBuffer.wrap(getContentView())));
+                hash = HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            contentHash = hash;
+        }
+        return hash;
     }
 
     public int getStartIndex() {
@@ -70,6 +135,7 @@ public class DocumentChunk {
         private String id;
         private String documentId;
         private String content;
+        private CharSequence source;
         private int startIndex;
         private int endIndex;
         private Map<String, Object> metadata = new HashMap<>();
@@ -90,6 +156,20 @@ public class DocumentChunk {
 
         public Builder content(String content) {
             this.content = content;
+            this.source = null;
+            return this;
+        }
+
+        /**
+         * Makes the chunk refer to {@code source[startIndex, endIndex)}
+         * instead of holding a copy, and sets the start and end indexes.
+         * The source must not be modified while the chunk is in use.
+         */
+        public Builder content(CharSequence source, int startIndex, int endIndex) {
+            this.source = Objects.requireNonNull(source, "source cannot be null");
+            this.content = null;
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
             return this;
         }
 
@@ -128,7 +208,7 @@ public class DocumentChunk {
         return "DocumentChunk{" +
                 "id='" + id + '\'' +
                 ", documentId='" + documentId + '\'' +
-                ", contentLength=" + content.length() +
+                ", contentLength=" + getContentLength() +
                 ", hasEmbedding=" + hasEmbedding() +
                 '}';
     }
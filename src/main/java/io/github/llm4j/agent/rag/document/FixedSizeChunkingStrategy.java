@@ -1,12 +1,19 @@
 package io.github.llm4j.agent.rag.document;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
 
 /**
  * Fixed-size chunking strategy that splits documents into chunks of a specified
  * size
  * with optional overlap between chunks.
+ * <p>
+ * Chunks of a {@link Document} refer to ranges of its content rather than
+ * copying them. Text too large to hold as one string can be chunked from a
+ * {@link Reader} with {@link #chunk(String, Reader, Map)}, which keeps only
+ * one chunk's worth of characters buffered.
  */
 public class FixedSizeChunkingStrategy implements ChunkingStrategy {
 
@@ -44,32 +51,142 @@ public class FixedSizeChunkingStrategy implements ChunkingStrategy {
 
     @Override
     public List<DocumentChunk> chunk(Document document) {
-        List<DocumentChunk> chunks = new ArrayList<>();
-        String content = document.getContent();
+        int count = chunkCount(document.getContent().length());
+        List<DocumentChunk> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            chunks.add(chunkAt(document, i));
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the number of chunks a text of the given length produces.
+     */
+    int chunkCount(int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (length <= chunkSize) {
+            return 1;
+        }
         int step = chunkSize - overlap;
+        return 1 + (length - chunkSize + step - 1) / step;
+    }
 
-        for (int i = 0; i < content.length(); i += step) {
-            int endIndex = Math.min(i + chunkSize, content.length());
-            String chunkContent = content.substring(i, endIndex);
+    /**
+     * Returns the chunk with the given index. Chunks depend only on their
+     * index, so ranges of them can be produced independently.
+     */
+    DocumentChunk chunkAt(Document document, int index) {
+        String content = document.getContent();
+        int start = index * (chunkSize - overlap);
+        int endIndex = Math.min(start + chunkSize, content.length());
 
-            DocumentChunk chunk = DocumentChunk.builder()
-                    .id(document.getId() + "_chunk_" + chunks.size())
-                    .documentId(document.getId())
-                    .content(chunkContent)
-                    .startIndex(i)
-                    .endIndex(endIndex)
-                    .metadata(document.getMetadata())
-                    .build();
+        return DocumentChunk.builder()
+                .id(document.getId() + "_chunk_" + index)
+                .documentId(document.getId())
+                .content(content, start, endIndex)
+                .metadata(document.getMetadata())
+                .build();
+    }
 
-            chunks.add(chunk);
+    /**
+     * Lazily chunks text read from a reader. The chunks have the same IDs,
+     * contents and positions as chunking a document holding the whole text,
+     * but each owns a copy of its content since the read buffer is reused.
+     * The reader is read as the iterator advances and is not closed.
+     *
+     * @param documentId the ID of the document the text belongs to
+     * @param reader     the text source
+     * @param metadata   metadata copied to every chunk
+     * @return an iterator over the chunks; read failures surface as
+     *         {@link UncheckedIOException}
+     */
+    public Iterator<DocumentChunk> chunk(String documentId, Reader reader, Map<String, Object> metadata) {
+        Objects.requireNonNull(documentId, "documentId cannot be null");
+        Objects.requireNonNull(reader, "reader cannot be null");
+        Map<String, Object> chunkMetadata = metadata != null ? metadata : Collections.emptyMap();
+
+        return new Iterator<>() {
+            private final char[] window = new char[chunkSize];
+            private int filled = -1;
+            private int start;
+            private int count;
+            private DocumentChunk next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !done) {
+                    next = advance();
+                    done = next == null;
+                }
+                return next != null;
+            }
 
-            // Break if we've reached the end
-            if (endIndex >= content.length()) {
+            @Override
+            public DocumentChunk next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                DocumentChunk chunk = next;
+                next = null;
+                return chunk;
+            }
+
+            private DocumentChunk advance() {
+                try {
+                    if (filled < 0) {
+                        filled = read(reader, window, 0, chunkSize);
+                    } else {
+                        if (filled < chunkSize) {
+                            // The previous chunk ended at the end of the text
+                            return null;
+                        }
+                        int step = chunkSize - overlap;
+                        System.arraycopy(window, step, window, 0, overlap);
+                        int read = read(reader, window, overlap, step);
+                        if (read == 0) {
+                            return null;
+                        }
+                        filled = overlap + read;
+                        start += step;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read document " + documentId, e);
+                }
+                if (filled == 0) {
+                    return null;
+                }
+
+                return DocumentChunk.builder()
+                        .id(documentId + "_chunk_" + count++)
+                        .documentId(documentId)
+                        .content(new String(window, 0, filled))
+                        .startIndex(start)
+                        .endIndex(start + filled)
+                        .metadata(chunkMetadata)
+                        .build();
+            }
+        };
+    }
+
+    /**
+     * Reads until {@code length} characters are read or the reader is
+     * exhausted.
+     *
+     * @return the number of characters read
+     */
+    private static int read(Reader reader, char[] buffer, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = reader.read(buffer, offset + total, length - total);
+            if (read < 0) {
                 break;
             }
+            total += read;
         }
-
-        return chunks;
+        return total;
     }
 
     public int getChunkSize() {
@@ -0,0 +1,326 @@
+package io.github.llm4j.agent.rag.document;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Chunks documents across cores with a {@link ForkJoinPool}, returning the
+ * chunks in document order so chunk IDs are reproducible.
+ * <p>
+ * Each document is chunked by its own task. Documents longer than the region
+ * size are additionally split into regions chunked in parallel:
+ * <ul>
+ * <li>With a {@link FixedSizeChunkingStrategy}, regions are ranges of chunk
+ * indexes. Every chunk, including its overlap with its neighbours, is cut
+ * from the full content, so the result is identical to sequential
+ * chunking.</li>
+ * <li>With any other strategy, regions end at paragraph breaks (or, failing
+ * that, line breaks or whitespace) and are chunked independently. The region
+ * chunks are then stitched back together: offsets are rebased onto the full
+ * content and chunk IDs renumbered in order. Chunks never span a region
+ * boundary, so results can differ from sequential chunking around
+ * boundaries.</li>
+ * </ul>
+ * A ParallelChunker is itself a {@link ChunkingStrategy} and can be used
+ * wherever one is accepted.
+ *
+ * <pre>{@code
+ * ParallelChunker chunker = ParallelChunker.builder()
+ *         .strategy(new SentenceChunkingStrategy(256))
+ *         .build();
+ * List<DocumentChunk> chunks = chunker.chunkAll(documents);
+ * }</pre>
+ */
+public class ParallelChunker implements ChunkingStrategy {
+
+    private final ChunkingStrategy strategy;
+    private final ForkJoinPool pool;
+    private final int regionSize;
+    private final int windowSize;
+
+    private ParallelChunker(Builder builder) {
+        this.strategy = Objects.requireNonNull(builder.strategy, "strategy cannot be null");
+        this.pool = builder.pool != null ? builder.pool : ForkJoinPool.commonPool();
+        this.regionSize = builder.regionSize;
+        this.windowSize = builder.windowSize > 0 ? builder.windowSize : pool.getParallelism() * 4;
+    }
+
+    /**
+     * Chunks one document, in parallel regions if it is larger than the
+     * region size.
+     */
+    @Override
+    public List<DocumentChunk> chunk(Document document) {
+        Objects.requireNonNull(document, "document cannot be null");
+        if (document.getContent().length() <= regionSize) {
+            return strategy.chunk(document);
+        }
+        return invoke(new DocumentTask(document));
+    }
+
+    /**
+     * Chunks documents in parallel.
+     *
+     * @param documents the documents to chunk
+     * @return the chunks of all documents, in document order
+     */
+    public List<DocumentChunk> chunkAll(Collection<? extends Document> documents) {
+        Objects.requireNonNull(documents, "documents cannot be null");
+
+        List<DocumentTask> tasks = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            tasks.add(new DocumentTask(Objects.requireNonNull(document, "document cannot be null")));
+        }
+        return invoke(new RecursiveTask<>() {
+            @Override
+            protected List<DocumentChunk> compute() {
+                return joinAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Lazily chunks a stream of documents. Documents are read and chunked in
+     * parallel windows, so only one window of documents and chunks is held
+     * at a time; chunks are returned in document order.
+     *
+     * @param documents the documents to chunk
+     * @return an iterator over the chunks of all documents
+     */
+    public Iterator<DocumentChunk> chunk(Iterator<? extends Document> documents) {
+        Objects.requireNonNull(documents, "documents cannot be null");
+
+        return new Iterator<>() {
+            private Iterator<DocumentChunk> window = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!window.hasNext() && documents.hasNext()) {
+                    List<Document> batch = new ArrayList<>(windowSize);
+                    while (batch.size() < windowSize && documents.hasNext()) {
+                        batch.add(documents.next());
+                    }
+                    window = chunkAll(batch).iterator();
+                }
+                return window.hasNext();
+            }
+
+            @Override
+            public DocumentChunk next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return window.next();
+            }
+        };
+    }
+
+    public ChunkingStrategy getStrategy() {
+        return strategy;
+    }
+
+    public int getRegionSize() {
+        return regionSize;
+    }
+
+    private <T> T invoke(ForkJoinTask<T> task) {
+        // Already running in the pool (e.g. nested use): join inline instead of resubmitting
+        return ForkJoinTask.inForkJoinPool() ? task.invoke() : pool.invoke(task);
+    }
+
+    private static List<DocumentChunk> joinAll(List<? extends ForkJoinTask<List<DocumentChunk>>> tasks) {
+        ForkJoinTask.invokeAll(tasks);
+        List<DocumentChunk> chunks = new ArrayList<>();
+        for (ForkJoinTask<List<DocumentChunk>> task : tasks) {
+            chunks.addAll(task.join());
+        }
+        return chunks;
+    }
+
+    /**
+     * Chunks one document, forking region tasks for large documents.
+     */
+    private final class DocumentTask extends RecursiveTask<List<DocumentChunk>> {
+        private final Document document;
+
+        private DocumentTask(Document document) {
+            this.document = document;
+        }
+
+        @Override
+        protected List<DocumentChunk> compute() {
+            int length = document.getContent().length();
+            if (length <= regionSize) {
+                return strategy.chunk(document);
+            }
+            if (strategy instanceof FixedSizeChunkingStrategy) {
+                return chunkFixedSize((FixedSizeChunkingStrategy) strategy, length);
+            }
+            return chunkRegions(length);
+        }
+
+        private List<DocumentChunk> chunkFixedSize(FixedSizeChunkingStrategy fixedSize, int length) {
+            int count = fixedSize.chunkCount(length);
+            int chunksPerRegion = Math.max(1, regionSize / (fixedSize.getChunkSize() - fixedSize.getOverlap()));
+
+            List<RecursiveTask<List<DocumentChunk>>> regions = new ArrayList<>();
+            for (int from = 0; from < count; from += chunksPerRegion) {
+                int first = from;
+                int last = Math.min(count, from + chunksPerRegion);
+                regions.add(new RecursiveTask<>() {
+                    @Override
+                    protected List<DocumentChunk> compute() {
+                        List<DocumentChunk> chunks = new ArrayList<>(last - first);
+                        for (int i = first; i < last; i++) {
+                            chunks.add(fixedSize.chunkAt(document, i));
+                        }
+                        return chunks;
+                    }
+                });
+            }
+            return joinAll(regions);
+        }
+
+        private List<DocumentChunk> chunkRegions(int length) {
+            String content = document.getContent();
+            List<Integer> regionStarts = new ArrayList<>();
+            List<RecursiveTask<List<DocumentChunk>>> regions = new ArrayList<>();
+            int start = 0;
+            while (start < length) {
+                int regionStart = start;
+                int regionEnd = length - start > regionSize ? regionEnd(content, start + regionSize) : length;
+                regionStarts.add(regionStart);
+                regions.add(new RecursiveTask<>() {
+                    @Override
+                    protected List<DocumentChunk> compute() {
+                        return strategy.chunk(Document.builder()
+                                .id(document.getId())
+                                .content(content.substring(regionStart, regionEnd))
+                                .metadata(document.getMetadata())
+                                .build());
+                    }
+                });
+                start = regionEnd;
+            }
+            ForkJoinTask.invokeAll(regions);
+
+            // Region chunks have region-relative offsets and IDs
+            List<DocumentChunk> chunks = new ArrayList<>();
+            for (int r = 0; r < regions.size(); r++) {
+                for (DocumentChunk chunk : regions.get(r).join()) {
+                    chunks.add(rebase(chunk, regionStarts.get(r), chunks.size()));
+                }
+            }
+            return chunks;
+        }
+
+        private DocumentChunk rebase(DocumentChunk chunk, int offset, int index) {
+            DocumentChunk.Builder builder = DocumentChunk.builder()
+                    .id(document.getId() + "_chunk_" + index)
+                    .documentId(document.getId())
+                    .metadata(chunk.getMetadata());
+            int start = chunk.getStartIndex() + offset;
+            int end = chunk.getEndIndex() + offset;
+            if (end - start == chunk.getContentLength() && end <= document.getContent().length()) {
+                builder.content(document.getContent(), start, end);
+            } else {
+                // The strategy did not record offsets that match its content
+                builder.content(chunk.getContent()).startIndex(start).endIndex(end);
+            }
+            if (chunk.hasEmbedding()) {
+                builder.embedding(chunk.getEmbedding());
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Finds where a region that should end near {@code target} ends: after
+     * the first paragraph break within half a region, else after the first
+     * line break, else at the first whitespace, else at the target itself.
+     */
+    private int regionEnd(String content, int target) {
+        int limit = (int) Math.min(content.length(), (long) target + Math.max(1, regionSize / 2));
+        int lineBreak = -1;
+        int whitespace = -1;
+        for (int i = target; i < limit; i++) {
+            char c = content.charAt(i);
+            if (c == '\n') {
+                int j = i + 1;
+                while (j < limit && (content.charAt(j) == ' ' || content.charAt(j) == '\t'
+                        || content.charAt(j) == '\r')) {
+                    j++;
+                }
+                if (j < limit && content.charAt(j) == '\n') {
+                    return j + 1;
+                }
+                if (lineBreak < 0) {
+                    lineBreak = i + 1;
+                }
+            } else if (whitespace < 0 && Character.isWhitespace(c)) {
+                whitespace = i + 1;
+            }
+        }
+        if (lineBreak >= 0) {
+            return lineBreak;
+        }
+        return whitespace >= 0 ? whitespace : target;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private ChunkingStrategy strategy;
+        private ForkJoinPool pool;
+        private int regionSize = 1 << 20;
+        private int windowSize;
+
+        private Builder() {
+        }
+
+        public Builder strategy(ChunkingStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * Sets the pool that runs chunking tasks. Defaults to the common pool.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Sets the document length, in characters, above which a document is
+         * split into regions chunked in parallel. Defaults to 1M characters.
+         */
+        public Builder regionSize(int regionSize) {
+            if (regionSize <= 0) {
+                throw new IllegalArgumentException("regionSize must be positive");
+            }
+            this.regionSize = regionSize;
+            return this;
+        }
+
+        /**
+         * Sets how many documents {@link #chunk(Iterator)} reads ahead and
+         * chunks at once. Defaults to four per pool thread.
+         */
+        public Builder windowSize(int windowSize) {
+            if (windowSize <= 0) {
+                throw new IllegalArgumentException("windowSize must be positive");
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        public ParallelChunker build() {
+            return new ParallelChunker(this);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.llm4j.agent.rag.document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Chunking strategy that splits text at the coarsest boundary that yields
+ * chunks within a token budget: paragraphs first, then lines, sentences,
+ * words and, for unbroken runs, characters.
+ * <p>
+ * At each level the pieces are merged back greedily, in order, while they
+ * fit the budget, so chunks are as large as possible without crossing a
+ * coarser boundary than necessary. Only pieces that are still too large are
+ * split at the next level. Chunks refer to ranges of the document content
+ * and exclude surrounding whitespace.
+ */
+public class RecursiveChunkingStrategy implements ChunkingStrategy {
+
+    private static final TextScanner.Separator[] LEVELS = TextScanner.Separator.values();
+
+    private final int maxTokens;
+    private final TokenEstimator tokenEstimator;
+
+    /**
+     * Creates a recursive chunking strategy using the
+     * {@link TokenEstimator#heuristic() heuristic} token estimate.
+     *
+     * @param maxTokens the maximum estimated tokens per chunk
+     */
+    public RecursiveChunkingStrategy(int maxTokens) {
+        this(maxTokens, TokenEstimator.heuristic());
+    }
+
+    /**
+     * Creates a recursive chunking strategy.
+     *
+     * @param maxTokens      the maximum estimated tokens per chunk
+     * @param tokenEstimator estimates the tokens in a piece of text
+     */
+    public RecursiveChunkingStrategy(int maxTokens, TokenEstimator tokenEstimator) {
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("maxTokens must be positive");
+        }
+        this.maxTokens = maxTokens;
+        this.tokenEstimator = Objects.requireNonNull(tokenEstimator, "tokenEstimator cannot be null");
+    }
+
+    @Override
+    public List<DocumentChunk> chunk(Document document) {
+        String content = document.getContent();
+        TextScanner.Spans spans = new TextScanner.Spans();
+        split(content, 0, content.length(), 0, spans);
+        return toChunks(document, spans);
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public TokenEstimator getTokenEstimator() {
+        return tokenEstimator;
+    }
+
+    /**
+     * Appends the chunk spans of {@code text[start, end)} to {@code out},
+     * splitting at {@code LEVELS[level]} and finer boundaries.
+     */
+    void split(CharSequence text, int start, int end, int level, TextScanner.Spans out) {
+        if (level >= LEVELS.length) {
+            splitCharacters(text, start, end, out);
+            return;
+        }
+
+        TextScanner.Spans pieces = TextScanner.split(text, start, end, LEVELS[level]);
+        if (pieces.size() == 0) {
+            return;
+        }
+        if (pieces.size() == 1) {
+            int pieceStart = pieces.start(0);
+            int pieceEnd = pieces.end(0);
+            if (tokenEstimator.estimate(text, pieceStart, pieceEnd) <= maxTokens) {
+                out.add(pieceStart, pieceEnd, 0);
+            } else {
+                split(text, pieceStart, pieceEnd, level + 1, out);
+            }
+            return;
+        }
+
+        int groupStart = -1;
+        int groupEnd = -1;
+        int groupTokens = 0;
+        for (int i = 0; i < pieces.size(); i++) {
+            int pieceStart = pieces.start(i);
+            int pieceEnd = pieces.end(i);
+            int tokens = tokenEstimator.estimate(text, pieceStart, pieceEnd);
+
+            if (tokens > maxTokens) {
+                if (groupStart >= 0) {
+                    out.add(groupStart, groupEnd, 0);
+                    groupStart = -1;
+                }
+                split(text, pieceStart, pieceEnd, level + 1, out);
+                continue;
+            }
+            if (groupStart >= 0 && groupTokens + tokens > maxTokens) {
+                out.add(groupStart, groupEnd, 0);
+                groupStart = -1;
+            }
+            if (groupStart < 0) {
+                groupStart = pieceStart;
+                groupTokens = 0;
+            }
+            groupEnd = pieceEnd;
+            groupTokens += tokens;
+        }
+        if (groupStart >= 0) {
+            out.add(groupStart, groupEnd, 0);
+        }
+    }
+
+    /**
+     * Word-level entry point for strategies that only need oversized spans
+     * broken up.
+     */
+    void splitWords(CharSequence text, int start, int end, TextScanner.Spans out) {
+        split(text, start, end, TextScanner.Separator.WORD.ordinal(), out);
+    }
+
+    /**
+     * Cuts a run without boundaries into the longest prefixes within the
+     * budget, found by doubling and then bisecting the prefix length.
+     */
+    private void splitCharacters(CharSequence text, int start, int end, TextScanner.Spans out) {
+        int position = start;
+        while (position < end) {
+            int remaining = end - position;
+            int fits = 0;
+            int probe = Math.min(remaining, maxTokens);
+            while (tokenEstimator.estimate(text, position, position + probe) <= maxTokens) {
+                fits = probe;
+                if (probe == remaining) {
+                    break;
+                }
+                probe = Math.min(remaining, probe * 2);
+            }
+            if (fits < remaining) {
+                int low = fits;
+                int high = probe;
+                while (high - low > 1) {
+                    int middle = (low + high) >>> 1;
+                    if (tokenEstimator.estimate(text, position, position + middle) <= maxTokens) {
+                        low = middle;
+                    } else {
+                        high = middle;
+                    }
+                }
+                fits = low;
+            }
+
+            int cut = position + Math.max(1, fits);
+            if (cut < end && cut - 1 > position && Character.isLowSurrogate(text.charAt(cut))) {
+                cut--;
+            }
+            out.add(position, cut, 0);
+            position = cut;
+        }
+    }
+
+    /**
+     * Builds view-backed chunks for spans of the document content.
+     */
+    static List<DocumentChunk> toChunks(Document document, TextScanner.Spans spans) {
+        String content = document.getContent();
+        List<DocumentChunk> chunks = new ArrayList<>(spans.size());
+        for (int i = 0; i < spans.size(); i++) {
+            chunks.add(DocumentChunk.builder()
+                    .id(document.getId() + "_chunk_" + i)
+                    .documentId(document.getId())
+                    .content(content, spans.start(i), spans.end(i))
+                    .metadata(document.getMetadata())
+                    .build());
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.llm4j.agent.rag.document;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Chunking strategy that packs whole sentences into chunks of up to a target
+ * number of tokens, so chunks never end mid-sentence.
+ * <p>
+ * Sentences are added to the current chunk until the next one would exceed
+ * the budget. A paragraph break also ends the chunk once it holds at least
+ * half the budget, keeping paragraphs together where the budget allows.
+ * Optionally the last few sentences of a chunk are repeated at the start of
+ * the next one. A single sentence larger than the budget is split at word
+ * boundaries.
+ * <p>
+ * Sentence boundaries are found by a single-pass scanner: terminal
+ * punctuation followed by whitespace and a word that does not start with a
+ * lower-case letter, or a blank line.
+ */
+public class SentenceChunkingStrategy implements ChunkingStrategy {
+
+    private final int maxTokens;
+    private final int overlapSentences;
+    private final TokenEstimator tokenEstimator;
+    private final RecursiveChunkingStrategy oversizedSplitter;
+
+    /**
+     * Creates a sentence chunking strategy with no overlap.
+     *
+     * @param maxTokens the maximum estimated tokens per chunk
+     */
+    public SentenceChunkingStrategy(int maxTokens) {
+        this(maxTokens, 0);
+    }
+
+    /**
+     * Creates a sentence chunking strategy using the
+     * {@link TokenEstimator#heuristic() heuristic} token estimate.
+     *
+     * @param maxTokens        the maximum estimated tokens per chunk
+     * @param overlapSentences the number of sentences repeated from the end of
+     *                         the previous chunk
+     */
+    public SentenceChunkingStrategy(int maxTokens, int overlapSentences) {
+        this(maxTokens, overlapSentences, TokenEstimator.heuristic());
+    }
+
+    /**
+     * Creates a sentence chunking strategy.
+     *
+     * @param maxTokens        the maximum estimated tokens per chunk
+     * @param overlapSentences the number of sentences repeated from the end of
+     *                         the previous chunk
+     * @param tokenEstimator   estimates the tokens in a piece of text
+     */
+    public SentenceChunkingStrategy(int maxTokens, int overlapSentences, TokenEstimator tokenEstimator) {
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("maxTokens must be positive");
+        }
+        if (overlapSentences < 0) {
+            throw new IllegalArgumentException("overlapSentences cannot be negative");
+        }
+        this.maxTokens = maxTokens;
+        this.overlapSentences = overlapSentences;
+        this.tokenEstimator = Objects.requireNonNull(tokenEstimator, "tokenEstimator cannot be null");
+        this.oversizedSplitter = new RecursiveChunkingStrategy(maxTokens, tokenEstimator);
+    }
+
+    @Override
+    public List<DocumentChunk> chunk(Document document) {
+        String content = document.getContent();
+        TextScanner.Spans sentences = TextScanner.split(content, 0, content.length(),
+                TextScanner.Separator.SENTENCE);
+        int[] tokens = new int[sentences.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokenEstimator.estimate(content, sentences.start(i), sentences.end(i));
+        }
+
+        TextScanner.Spans spans = new TextScanner.Spans();
+        int first = -1;
+        int last = -1;
+        int chunkTokens = 0;
+
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i] > maxTokens) {
+                if (first >= 0) {
+                    spans.add(sentences.start(first), sentences.end(last), 0);
+                    first = -1;
+                }
+                oversizedSplitter.splitWords(content, sentences.start(i), sentences.end(i), spans);
+                continue;
+            }
+
+            if (first >= 0 && chunkTokens + tokens[i] > maxTokens) {
+                spans.add(sentences.start(first), sentences.end(last), 0);
+                // Carry trailing sentences over, as long as the chunk still advances
+                int carried = i;
+                int carriedTokens = 0;
+                while (i - carried < overlapSentences && carried - 1 > first
+                        && carriedTokens + tokens[carried - 1] + tokens[i] <= maxTokens) {
+                    carried--;
+                    carriedTokens += tokens[carried];
+                }
+                first = carried < i ? carried : -1;
+                chunkTokens = carriedTokens;
+            }
+            if (first < 0) {
+                first = i;
+                chunkTokens = 0;
+            }
+            last = i;
+            chunkTokens += tokens[i];
+
+            if (sentences.hasFlag(i, TextScanner.PARAGRAPH_END) && chunkTokens * 2 >= maxTokens) {
+                spans.add(sentences.start(first), sentences.end(last), 0);
+                first = -1;
+            }
+        }
+        if (first >= 0) {
+            spans.add(sentences.start(first), sentences.end(last), 0);
+        }
+
+        return RecursiveChunkingStrategy.toChunks(document, spans);
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public int getOverlapSentences() {
+        return overlapSentences;
+    }
+
+    public TokenEstimator getTokenEstimator() {
+        return tokenEstimator;
+    }
+}
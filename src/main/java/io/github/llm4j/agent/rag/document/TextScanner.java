@@ -0,0 +1,210 @@
+package io.github.llm4j.agent.rag.document;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass boundary scanner used by the text-aware chunking strategies.
+ * <p>
+ * Boundaries are found by walking the characters once, without regular
+ * expressions or intermediate strings; the resulting spans are offsets into
+ * the scanned text, trimmed of surrounding whitespace and never empty.
+ */
+final class TextScanner {
+
+    /**
+     * Boundary kinds, from coarsest to finest.
+     */
+    enum Separator {
+        /** A blank line. */
+        PARAGRAPH,
+        /** A line break. */
+        LINE,
+        /** The end of a sentence, or a paragraph break. */
+        SENTENCE,
+        /** Whitespace. */
+        WORD
+    }
+
+    /** Span flag: the span is followed by a paragraph break or the end of the text. */
+    static final int PARAGRAPH_END = 1;
+
+    private TextScanner() {
+    }
+
+    /**
+     * Splits {@code text[start, end)} at every boundary of the given kind.
+     *
+     * @return the spans between boundaries
+     */
+    static Spans split(CharSequence text, int start, int end, Separator separator) {
+        Spans spans = new Spans();
+        int spanStart = start;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            int boundaryEnd = -1;
+            boolean paragraph = false;
+
+            switch (separator) {
+                case PARAGRAPH:
+                    if (c == '\n') {
+                        int next = paragraphBreakEnd(text, i, end);
+                        if (next > 0) {
+                            boundaryEnd = next;
+                            paragraph = true;
+                        }
+                    }
+                    break;
+                case LINE:
+                    if (c == '\n') {
+                        boundaryEnd = i + 1;
+                    }
+                    break;
+                case SENTENCE:
+                    if (c == '\n') {
+                        int next = paragraphBreakEnd(text, i, end);
+                        if (next > 0) {
+                            boundaryEnd = next;
+                            paragraph = true;
+                        }
+                    } else if (c == '.' || c == '!' || c == '?') {
+                        boundaryEnd = sentenceEnd(text, i, end);
+                    }
+                    break;
+                case WORD:
+                    if (Character.isWhitespace(c)) {
+                        boundaryEnd = i + 1;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown separator " + separator);
+            }
+
+            if (boundaryEnd < 0) {
+                i++;
+                continue;
+            }
+            spans.addTrimmed(text, spanStart, boundaryEnd, paragraph ? PARAGRAPH_END : 0);
+            spanStart = boundaryEnd;
+            i = boundaryEnd;
+        }
+        spans.addTrimmed(text, spanStart, end, PARAGRAPH_END);
+        return spans;
+    }
+
+    /**
+     * If a paragraph break (a line break followed by optional blanks and
+     * another line break) starts at {@code i}, returns the index after it;
+     * otherwise -1.
+     */
+    private static int paragraphBreakEnd(CharSequence text, int i, int end) {
+        int j = i + 1;
+        while (j < end) {
+            char c = text.charAt(j);
+            if (c == '\n') {
+                // Swallow any further blank lines
+                int k = j + 1;
+                while (k < end && Character.isWhitespace(text.charAt(k))) {
+                    k++;
+                }
+                return k;
+            }
+            if (c != ' ' && c != '\t' && c != '\r') {
+                return -1;
+            }
+            j++;
+        }
+        return -1;
+    }
+
+    /**
+     * If the terminal punctuation at {@code i} ends a sentence, returns the
+     * index after it and any closing quotes or brackets; otherwise -1.
+     * A sentence ends when the punctuation is followed by whitespace and the
+     * next word does not start with a lower-case letter, which keeps
+     * decimals, "e.g. this" and most abbreviations intact.
+     */
+    private static int sentenceEnd(CharSequence text, int i, int end) {
+        int j = i + 1;
+        while (j < end) {
+            char c = text.charAt(j);
+            if (c == '.' || c == '!' || c == '?' || c == '"' || c == '\'' || c == ')' || c == ']'
+                    || c == '\u201D' || c == '\u2019') {
+                j++;
+            } else {
+                break;
+            }
+        }
+        if (j == end) {
+            return j;
+        }
+        if (!Character.isWhitespace(text.charAt(j))) {
+            return -1;
+        }
+        int k = j;
+        while (k < end && Character.isWhitespace(text.charAt(k))) {
+            k++;
+        }
+        if (k < end && Character.isLowerCase(text.charAt(k))) {
+            return -1;
+        }
+        return j;
+    }
+
+    /**
+     * Growable list of spans, stored as parallel int arrays.
+     */
+    static final class Spans {
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int[] flags = new int[16];
+        private int size;
+
+        void add(int start, int end, int flag) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                flags = Arrays.copyOf(flags, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            flags[size] = flag;
+            size++;
+        }
+
+        /**
+         * Adds {@code text[start, end)} without surrounding whitespace, if
+         * anything remains. A flag on an all-whitespace span is carried over
+         * to the previous span.
+         */
+        void addTrimmed(CharSequence text, int start, int end, int flag) {
+            while (start < end && Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            if (start < end) {
+                add(start, end, flag);
+            } else if (size > 0) {
+                flags[size - 1] |= flag;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int start(int index) {
+            return starts[index];
+        }
+
+        int end(int index) {
+            return ends[index];
+        }
+
+        boolean hasFlag(int index, int flag) {
+            return (flags[index] & flag) != 0;
+        }
+    }
+}
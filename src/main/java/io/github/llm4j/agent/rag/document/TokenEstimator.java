@@ -0,0 +1,77 @@
+package io.github.llm4j.agent.rag.document;
+
+/**
+ * Estimates how many model tokens a piece of text occupies, so chunks can be
+ * sized against embedding and prompt budgets without running a real
+ * tokenizer.
+ */
+@FunctionalInterface
+public interface TokenEstimator {
+
+    /**
+     * Estimates the token count of {@code text[start, end)}.
+     *
+     * @param text  the text
+     * @param start start index (inclusive)
+     * @param end   end index (exclusive)
+     * @return estimated token count
+     */
+    int estimate(CharSequence text, int start, int end);
+
+    /**
+     * Estimates the token count of a whole text.
+     *
+     * @param text the text
+     * @return estimated token count
+     */
+    default int estimate(CharSequence text) {
+        return estimate(text, 0, text.length());
+    }
+
+    /**
+     * Returns an estimator tuned for BPE tokenizers on English-like text:
+     * every run of letters or digits costs one token per four characters
+     * (at least one), and every other non-whitespace character one token.
+     * It reads each character once and allocates nothing.
+     *
+     * @return the default estimator
+     */
+    static TokenEstimator heuristic() {
+        return (text, start, end) -> {
+            int tokens = 0;
+            int run = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    run++;
+                    continue;
+                }
+                if (run > 0) {
+                    tokens += (run + 3) >> 2;
+                    run = 0;
+                }
+                if (!Character.isWhitespace(c)) {
+                    tokens++;
+                }
+            }
+            if (run > 0) {
+                tokens += (run + 3) >> 2;
+            }
+            return tokens;
+        };
+    }
+
+    /**
+     * Returns an estimator that assumes a fixed number of characters per
+     * token.
+     *
+     * @param charsPerToken average characters per token
+     * @return the estimator
+     */
+    static TokenEstimator characters(double charsPerToken) {
+        if (charsPerToken <= 0) {
+            throw new IllegalArgumentException("charsPerToken must be positive");
+        }
+        return (text, start, end) -> (int) Math.ceil((end - start) / charsPerToken);
+    }
+}
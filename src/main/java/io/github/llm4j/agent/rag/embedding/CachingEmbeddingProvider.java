@@ -0,0 +1,371 @@
+package io.github.llm4j.agent.rag.embedding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedding provider decorator that caches embeddings by content, so texts
+ * that were embedded before (e.g. unchanged chunks during a re-index) never
+ * reach the underlying provider.
+ * <p>
+ * Entries are keyed by the SHA-256 of the model name and the text. Lookups go
+ * to an in-memory LRU tier first and then to an optional on-disk tier that
+ * survives restarts: an append-only, memory-mapped file of vectors plus a hash
+ * index. Misses are embedded by the delegate (in one batch for
+ * {@link #embedBatch(List)}) and written to both tiers.
+ *
+ * <pre>{@code
+ * CachingEmbeddingProvider provider = CachingEmbeddingProvider.builder()
+ *         .delegate(new GeminiEmbeddingProvider(config))
+ *         .model("text-embedding-004")
+ *         .directory(Path.of("cache/embeddings"))
+ *         .build();
+ * }</pre>
+ * <p>
+ * Failures of the disk tier are logged and treated as misses; they never fail
+ * an embedding call.
+ */
+public class CachingEmbeddingProvider implements EmbeddingProvider, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingEmbeddingProvider.class);
+
+    private final EmbeddingProvider delegate;
+    private final byte[] modelBytes;
+    private final Map<ByteBuffer, float[]> memory;
+    private final EmbeddingDiskCache disk;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    private CachingEmbeddingProvider(Builder builder) {
+        this.delegate = Objects.requireNonNull(builder.delegate, "delegate cannot be null");
+        String model = builder.model != null ? builder.model : delegate.getClass().getName();
+        this.modelBytes = model.getBytes(StandardCharsets.UTF_8);
+
+        int maxMemoryEntries = builder.maxMemoryEntries;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, float[]> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        };
+
+        if (builder.directory != null) {
+            try {
+                this.disk = EmbeddingDiskCache.open(builder.directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open embedding cache in " + builder.directory, e);
+            }
+        } else {
+            this.disk = null;
+        }
+    }
+
+    @Override
+    public float[] embed(String text) {
+        Objects.requireNonNull(text, "text cannot be null");
+
+        byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer key = key(textBytes);
+        float[] cached = lookup(key, textBytes.length);
+        if (cached != null) {
+            return cached;
+        }
+
+        misses.increment();
+        float[] embedding = delegate.embed(text);
+        store(key, embedding);
+        return embedding;
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        Objects.requireNonNull(texts, "texts cannot be null");
+
+        List<float[]> embeddings = new ArrayList<>(Collections.nCopies(texts.size(), null));
+        // Distinct missing texts, each with the positions it fills
+        Map<ByteBuffer, List<Integer>> pending = new LinkedHashMap<>();
+        List<String> missingTexts = new ArrayList<>();
+
+        for (int i = 0; i < texts.size(); i++) {
+            String text = Objects.requireNonNull(texts.get(i), "text cannot be null");
+            byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer key = key(textBytes);
+
+            List<Integer> positions = pending.get(key);
+            if (positions != null) {
+                // Repeated within the batch: embedded once with the first occurrence
+                positions.add(i);
+                memoryHits.increment();
+                bytesSaved.add(textBytes.length + (long) delegate.getDimensions() * Float.BYTES);
+                continue;
+            }
+
+            float[] cached = lookup(key, textBytes.length);
+            if (cached != null) {
+                embeddings.set(i, cached);
+            } else {
+                positions = new ArrayList<>(1);
+                positions.add(i);
+                pending.put(key, positions);
+                missingTexts.add(text);
+            }
+        }
+
+        if (missingTexts.isEmpty()) {
+            return embeddings;
+        }
+
+        misses.add(missingTexts.size());
+        List<float[]> fresh = delegate.embedBatch(missingTexts);
+        if (fresh.size() != missingTexts.size()) {
+            throw new IllegalStateException(String.format("Delegate returned %d embeddings for %d texts",
+                    fresh.size(), missingTexts.size()));
+        }
+
+        int j = 0;
+        for (Map.Entry<ByteBuffer, List<Integer>> entry : pending.entrySet()) {
+            float[] embedding = fresh.get(j++);
+            store(entry.getKey(), embedding);
+            List<Integer> positions = entry.getValue();
+            embeddings.set(positions.get(0), embedding);
+            for (int p = 1; p < positions.size(); p++) {
+                embeddings.set(positions.get(p), embedding.clone());
+            }
+        }
+        return embeddings;
+    }
+
+    @Override
+    public int getDimensions() {
+        return delegate.getDimensions();
+    }
+
+    /**
+     * Returns a snapshot of the cache counters.
+     *
+     * @return cache statistics
+     */
+    public CacheStats getStats() {
+        int memoryEntries;
+        synchronized (memory) {
+            memoryEntries = memory.size();
+        }
+        return new CacheStats(memoryHits.sum(), diskHits.sum(), misses.sum(), bytesSaved.sum(),
+                memoryEntries, disk != null ? disk.size() : 0);
+    }
+
+    /**
+     * Forces cached embeddings written so far to disk.
+     */
+    public void flush() {
+        if (disk == null) {
+            return;
+        }
+        try {
+            disk.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes the disk tier. The delegate is not closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    private float[] lookup(ByteBuffer key, int textBytes) {
+        float[] embedding;
+        synchronized (memory) {
+            embedding = memory.get(key);
+        }
+        if (embedding != null) {
+            memoryHits.increment();
+            bytesSaved.add(textBytes + (long) embedding.length * Float.BYTES);
+            return embedding.clone();
+        }
+
+        if (disk != null) {
+            try {
+                embedding = disk.get(key);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to read embedding cache", e);
+                return null;
+            }
+            if (embedding != null) {
+                diskHits.increment();
+                bytesSaved.add(textBytes + (long) embedding.length * Float.BYTES);
+                synchronized (memory) {
+                    memory.put(key, embedding.clone());
+                }
+                return embedding;
+            }
+        }
+        return null;
+    }
+
+    private void store(ByteBuffer key, float[] embedding) {
+        synchronized (memory) {
+            memory.put(key, embedding.clone());
+        }
+        if (disk != null) {
+            try {
+                disk.put(key, embedding);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to write embedding cache", e);
+            }
+        }
+    }
+
+    private ByteBuffer key(byte[] textBytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelBytes);
+            digest.update((byte) 0);
+            digest.update(textBytes);
+            return ByteBuffer.wrap(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Point-in-time cache counters.
+     */
+    public static final class CacheStats {
+        private final long memoryHits;
+        private final long diskHits;
+        private final long misses;
+        private final long bytesSaved;
+        private final int memoryEntries;
+        private final int diskEntries;
+
+        private CacheStats(long memoryHits, long diskHits, long misses, long bytesSaved,
+                int memoryEntries, int diskEntries) {
+            this.memoryHits = memoryHits;
+            this.diskHits = diskHits;
+            this.misses = misses;
+            this.bytesSaved = bytesSaved;
+            this.memoryEntries = memoryEntries;
+            this.diskEntries = diskEntries;
+        }
+
+        public long getMemoryHits() {
+            return memoryHits;
+        }
+
+        public long getDiskHits() {
+            return diskHits;
+        }
+
+        public long getHits() {
+            return memoryHits + diskHits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Returns the fraction of texts served from the cache.
+         */
+        public double getHitRate() {
+            long total = getHits() + misses;
+            return total == 0 ? 0.0 : (double) getHits() / total;
+        }
+
+        /**
+         * Returns the payload not exchanged with the delegate because of cache
+         * hits: the UTF-8 text plus the raw embedding floats.
+         */
+        public long getBytesSaved() {
+            return bytesSaved;
+        }
+
+        public int getMemoryEntries() {
+            return memoryEntries;
+        }
+
+        public int getDiskEntries() {
+            return diskEntries;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("CacheStats{hits=%d (memory=%d, disk=%d), misses=%d, hitRate=%.2f, bytesSaved=%d}",
+                    getHits(), memoryHits, diskHits, misses, getHitRate(), bytesSaved);
+        }
+    }
+
+    public static final class Builder {
+        private EmbeddingProvider delegate;
+        private String model;
+        private int maxMemoryEntries = 10_000;
+        private Path directory;
+
+        private Builder() {
+        }
+
+        public Builder delegate(EmbeddingProvider delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the model name that namespaces cache keys, so embeddings from
+         * different models never mix. Defaults to the delegate's class name.
+         */
+        public Builder model(String model) {
+            this.model = model;
+            return this;
+        }
+
+        /**
+         * Sets the capacity of the in-memory LRU tier; 0 disables it.
+         */
+        public Builder maxMemoryEntries(int maxMemoryEntries) {
+            if (maxMemoryEntries < 0) {
+                throw new IllegalArgumentException("maxMemoryEntries cannot be negative");
+            }
+            this.maxMemoryEntries = maxMemoryEntries;
+            return this;
+        }
+
+        /**
+         * Enables the on-disk tier in the given directory.
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * @throws UncheckedIOException if the disk tier cannot be opened
+         */
+        public CachingEmbeddingProvider build() {
+            return new CachingEmbeddingProvider(this);
+        }
+    }
+}
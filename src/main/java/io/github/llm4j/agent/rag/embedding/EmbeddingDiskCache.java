@@ -0,0 +1,357 @@
+package io.github.llm4j.agent.rag.embedding;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * On-disk tier of {@link CachingEmbeddingProvider}: an append-only file of
+ * embeddings read through memory mappings, plus an append-only index from
+ * content hash to file offset.
+ * <p>
+ * Files (little-endian, each starting with an 8-byte magic/version header):
+ * <ul>
+ * <li>{@code embeddings.bin}: records of [int dimension][dimension floats].
+ * Records never straddle a mapping segment boundary; a record that would is
+ * moved to the start of the next segment.</li>
+ * <li>{@code embeddings.idx}: records of [32-byte hash][long offset], loaded
+ * into memory on open. A torn trailing record is discarded.</li>
+ * </ul>
+ * Embeddings are written before their index record, but after a crash the
+ * index write may still have reached the disk and the data write not. Index
+ * entries are therefore checked against the data on open, and an entry whose
+ * record is found corrupt later is dropped so the embedding is stored again.
+ */
+final class EmbeddingDiskCache implements Closeable {
+
+    static final String DATA_FILE = "embeddings.bin";
+    static final String INDEX_FILE = "embeddings.idx";
+    static final int HASH_BYTES = 32;
+
+    private static final int DATA_MAGIC = 0x4C344543; // "L4EC"
+    private static final int INDEX_MAGIC = 0x4C344549; // "L4EI"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int INDEX_RECORD_BYTES = HASH_BYTES + Long.BYTES;
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final Map<ByteBuffer, Long> offsets = new HashMap<>();
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long dataSize;
+    private long indexSize;
+    private long mappedBytes;
+
+    private EmbeddingDiskCache(FileChannel data, FileChannel index) {
+        this.data = data;
+        this.index = index;
+    }
+
+    /**
+     * Opens the cache in a directory, creating it if needed.
+     *
+     * @param directory the cache directory
+     * @return the opened cache
+     * @throws IOException if the files cannot be opened or are not cache files
+     */
+    static EmbeddingDiskCache open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel data = FileChannel.open(directory.resolve(DATA_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel index = null;
+        try {
+            index = FileChannel.open(directory.resolve(INDEX_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            EmbeddingDiskCache cache = new EmbeddingDiskCache(data, index);
+            cache.dataSize = initHeader(data, DATA_MAGIC);
+            cache.indexSize = initHeader(index, INDEX_MAGIC);
+            cache.loadIndex();
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            data.close();
+            if (index != null) {
+                index.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the embedding stored under the hash, or null.
+     *
+     * @param hash the content hash
+     * @return a new array holding the embedding, or null if absent
+     */
+    float[] get(ByteBuffer hash) throws IOException {
+        Long offset;
+        lock.readLock().lock();
+        try {
+            offset = offsets.get(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (offset == null) {
+            return null;
+        }
+
+        ensureMapped();
+
+        lock.readLock().lock();
+        try {
+            ByteBuffer segment = segment(offset);
+            int position = (int) (offset % SEGMENT_BYTES);
+            int dimension = recordDimension(segment, position);
+            if (dimension > 0) {
+                float[] embedding = new float[dimension];
+                segment.position(position + Integer.BYTES);
+                segment.asFloatBuffer().get(embedding);
+                return embedding;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Forget the entry so the next put() stores the embedding again
+        lock.writeLock().lock();
+        try {
+            offsets.remove(hash, offset);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        throw new IOException("Corrupt embedding record at offset " + offset);
+    }
+
+    /**
+     * Appends an embedding unless the hash is already stored.
+     *
+     * @param hash      the content hash
+     * @param embedding the embedding
+     */
+    void put(ByteBuffer hash, float[] embedding) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (offsets.containsKey(hash)) {
+                return;
+            }
+
+            int recordBytes = Integer.BYTES + embedding.length * Float.BYTES;
+            long offset = dataSize;
+            if (offset % SEGMENT_BYTES + recordBytes > SEGMENT_BYTES) {
+                offset = (offset / SEGMENT_BYTES + 1) * SEGMENT_BYTES;
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+            record.putInt(embedding.length);
+            record.asFloatBuffer().put(embedding);
+            record.rewind();
+            writeFully(data, record, offset);
+
+            ByteBuffer indexRecord = ByteBuffer.allocate(INDEX_RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            indexRecord.put(hash.duplicate());
+            indexRecord.putLong(offset);
+            indexRecord.flip();
+            writeFully(index, indexRecord, indexSize);
+
+            offsets.put(hash, offset);
+            dataSize = offset + recordBytes;
+            indexSize += INDEX_RECORD_BYTES;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stored embeddings.
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return offsets.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the size of the embeddings file in bytes.
+     */
+    long dataBytes() {
+        lock.readLock().lock();
+        try {
+            return dataSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forces written records to the storage device.
+     */
+    void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            data.force(false);
+            index.force(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!data.isOpen()) {
+                return;
+            }
+            try {
+                data.force(false);
+                index.force(false);
+            } finally {
+                segments.clear();
+                data.close();
+                index.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        ensureMapped();
+        long records = (indexSize - HEADER_BYTES) / INDEX_RECORD_BYTES;
+        long validSize = HEADER_BYTES + records * INDEX_RECORD_BYTES;
+        if (validSize != indexSize) {
+            index.truncate(validSize);
+            indexSize = validSize;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_RECORD_BYTES * 4096).order(ByteOrder.LITTLE_ENDIAN);
+        long position = HEADER_BYTES;
+        while (position < indexSize) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), indexSize - position));
+            while (buffer.hasRemaining()) {
+                if (index.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of embedding index");
+                }
+            }
+            buffer.flip();
+            while (buffer.remaining() >= INDEX_RECORD_BYTES) {
+                byte[] hash = new byte[HASH_BYTES];
+                buffer.get(hash);
+                long offset = buffer.getLong();
+                if (offset >= HEADER_BYTES && offset + Integer.BYTES <= dataSize
+                        && recordDimension(segment(offset), (int) (offset % SEGMENT_BYTES)) > 0) {
+                    offsets.put(ByteBuffer.wrap(hash), offset);
+                }
+            }
+            position += buffer.limit();
+        }
+    }
+
+    private ByteBuffer segment(long offset) {
+        return segments.get((int) (offset / SEGMENT_BYTES)).duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the dimension of the record at a segment position, or -1 if the
+     * record is empty or does not fit in the segment.
+     */
+    private static int recordDimension(ByteBuffer segment, int position) {
+        if (position + Integer.BYTES > segment.limit()) {
+            return -1;
+        }
+        int dimension = segment.getInt(position);
+        if (dimension <= 0 || position + Integer.BYTES + (long) dimension * Float.BYTES > segment.limit()) {
+            return -1;
+        }
+        return dimension;
+    }
+
+    /**
+     * Maps any part of the embeddings file appended since the last mapping.
+     */
+    private void ensureMapped() throws IOException {
+        lock.readLock().lock();
+        try {
+            if (mappedBytes >= dataSize) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (mappedBytes >= dataSize) {
+                return;
+            }
+            int first = (int) (mappedBytes / SEGMENT_BYTES);
+            int last = (int) ((dataSize - 1) / SEGMENT_BYTES);
+            for (int segment = first; segment <= last; segment++) {
+                long start = segment * SEGMENT_BYTES;
+                long length = Math.min(SEGMENT_BYTES, dataSize - start);
+                MappedByteBuffer mapped = data.map(FileChannel.MapMode.READ_ONLY, start, length);
+                if (segment < segments.size()) {
+                    segments.set(segment, mapped);
+                } else {
+                    segments.add(mapped);
+                }
+            }
+            mappedBytes = dataSize;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the header to an empty file or validates an existing one.
+     *
+     * @return the file size
+     */
+    private static long initHeader(FileChannel channel, int magic) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.size() == 0) {
+            header.putInt(magic).putInt(VERSION).flip();
+            writeFully(channel, header, 0);
+            return HEADER_BYTES;
+        }
+
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Truncated embedding cache header");
+            }
+        }
+        header.flip();
+        if (header.getInt() != magic) {
+            throw new IOException("Not an embedding cache file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported embedding cache version " + version);
+        }
+        return channel.size();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package io.github.llm4j.agent.rag.embedding;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.llm4j.config.LLMConfig;
 import okhttp3.*;
 import org.slf4j.Logger;
@@ -11,10 +13,17 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Embedding provider using Google Gemini's text-embedding-004 model.
  * Generates 768-dimensional embeddings.
+ * <p>
+ * {@link #embedBatch(List)} uses the {@code batchEmbedContents} endpoint. Large
+ * batches are split into requests of at most {@value #MAX_BATCH_SIZE} texts,
+ * which are sent concurrently (bounded by {@code maxConcurrentRequests}) and
+ * reassembled in input order.
  */
 public class GeminiEmbeddingProvider implements EmbeddingProvider {
 
@@ -23,17 +32,47 @@ public class GeminiEmbeddingProvider implements EmbeddingProvider {
     private static final int EMBEDDING_DIMENSIONS = 768;
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
 
+    /**
+     * Maximum number of texts the API accepts in one batchEmbedContents request.
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+
+    /**
+     * Maximum number of characters of an error response kept in exception
+     * messages.
+     */
+    private static final int MAX_ERROR_BODY_CHARS = 500;
+
+    /**
+     * Default number of batch requests in flight at once.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final String apiKey;
     private final String model;
     private final String baseUrl;
+    private final ExecutorService batchExecutor;
 
     public GeminiEmbeddingProvider(LLMConfig config) {
         this(config, DEFAULT_MODEL);
     }
 
     public GeminiEmbeddingProvider(LLMConfig config, String model) {
+        this(config, model, DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    /**
+     * @param config                the API configuration
+     * @param model                 the embedding model (null for the default)
+     * @param maxConcurrentRequests maximum number of batch requests in flight
+     *                              at once
+     */
+    public GeminiEmbeddingProvider(LLMConfig config, String model, int maxConcurrentRequests) {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+        }
         this.apiKey = Objects.requireNonNull(config.getApiKey(), "API key cannot be null");
         this.model = model != null ? model : DEFAULT_MODEL;
         this.baseUrl = config.getBaseUrl() != null ? config.getBaseUrl()
@@ -43,6 +82,7 @@ public class GeminiEmbeddingProvider implements EmbeddingProvider {
                 .readTimeout(config.getTimeout())
                 .build();
         this.objectMapper = new ObjectMapper();
+        this.batchExecutor = newBatchExecutor(maxConcurrentRequests);
     }
 
     @Override
@@ -64,7 +104,7 @@ public class GeminiEmbeddingProvider implements EmbeddingProvider {
 
             try (Response response = httpClient.newCall(request).execute()) {
                 if (!response.isSuccessful()) {
-                    throw new IOException("Embedding request failed: " + response);
+                    throw requestFailed("Embedding request", response);
                 }
 
                 String responseBody = response.body().string();
@@ -91,16 +131,129 @@ public class GeminiEmbeddingProvider implements EmbeddingProvider {
     @Override
     public List<float[]> embedBatch(List<String> texts) {
         Objects.requireNonNull(texts, "texts cannot be null");
-
-        // Simple implementation: embed each text individually
-        // Could be optimized with batch API if available
-        List<float[]> embeddings = new ArrayList<>();
         for (String text : texts) {
-            embeddings.add(embed(text));
+            Objects.requireNonNull(text, "text cannot be null");
+        }
+
+        if (texts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (texts.size() <= MAX_BATCH_SIZE) {
+            return batchEmbed(texts);
+        }
+
+        List<Future<List<float[]>>> futures = new ArrayList<>();
+        for (int start = 0; start < texts.size(); start += MAX_BATCH_SIZE) {
+            List<String> slice = texts.subList(start, Math.min(start + MAX_BATCH_SIZE, texts.size()));
+            futures.add(batchExecutor.submit(() -> batchEmbed(slice)));
+        }
+        logger.debug("Embedding {} texts in {} batch requests", texts.size(), futures.size());
+
+        // Futures are collected in submission order, so results line up with texts
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        try {
+            for (Future<List<float[]>> future : futures) {
+                embeddings.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while generating embeddings", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Failed to generate embeddings", cause);
+        } finally {
+            for (Future<List<float[]>> future : futures) {
+                future.cancel(true);
+            }
         }
         return embeddings;
     }
 
+    /**
+     * Embeds up to {@link #MAX_BATCH_SIZE} texts with one batchEmbedContents
+     * request.
+     */
+    private List<float[]> batchEmbed(List<String> texts) {
+        try {
+            String url = String.format("%s/models/%s:batchEmbedContents?key=%s",
+                    baseUrl, model, apiKey);
+
+            ObjectNode body = objectMapper.createObjectNode();
+            ArrayNode requests = body.putArray("requests");
+            for (String text : texts) {
+                ObjectNode embedRequest = requests.addObject();
+                embedRequest.put("model", "models/" + model);
+                embedRequest.putObject("content").putArray("parts").addObject().put("text", text);
+            }
+
+            Request request = new Request.Builder()
+                    .url(url)
+                    .post(RequestBody.create(objectMapper.writeValueAsBytes(body), JSON))
+                    .build();
+
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw requestFailed("Batch embedding request", response);
+                }
+
+                JsonNode embeddingsNode = objectMapper.readTree(response.body().byteStream()).path("embeddings");
+                if (embeddingsNode.size() != texts.size()) {
+                    throw new IOException(String.format("Expected %d embeddings in response but got %d",
+                            texts.size(), embeddingsNode.size()));
+                }
+
+                List<float[]> embeddings = new ArrayList<>(texts.size());
+                for (JsonNode embeddingNode : embeddingsNode) {
+                    JsonNode valuesNode = embeddingNode.path("values");
+                    if (valuesNode.isMissingNode()) {
+                        throw new IOException("No embedding values in response");
+                    }
+                    float[] embedding = new float[valuesNode.size()];
+                    for (int i = 0; i < valuesNode.size(); i++) {
+                        embedding[i] = (float) valuesNode.get(i).asDouble();
+                    }
+                    embeddings.add(embedding);
+                }
+                return embeddings;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to generate batch embeddings", e);
+            throw new RuntimeException("Failed to generate embeddings", e);
+        }
+    }
+
+    /**
+     * Creates the pool that sends sub-batches. Threads are daemons and exit
+     * when idle, so providers need not be closed.
+     */
+    private static ExecutorService newBatchExecutor(int maxConcurrentRequests) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrentRequests, maxConcurrentRequests,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "gemini-embedding-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Describes a failed response by status code and the start of its body.
+     * The response itself is not included, since its request URL carries the
+     * API key.
+     */
+    private static IOException requestFailed(String request, Response response) throws IOException {
+        String body = response.body() != null ? response.body().string() : "";
+        if (body.length() > MAX_ERROR_BODY_CHARS) {
+            body = body.substring(0, MAX_ERROR_BODY_CHARS) + "...";
+        }
+        return new IOException(String.format("%s failed with HTTP %d: %s", request, response.code(), body));
+    }
+
     @Override
     public int getDimensions() {
         return EMBEDDING_DIMENSIONS;
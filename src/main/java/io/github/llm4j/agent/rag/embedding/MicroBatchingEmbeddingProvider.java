@@ -0,0 +1,328 @@
+package io.github.llm4j.agent.rag.embedding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Embedding provider decorator that coalesces concurrent single-text
+ * {@link #embed(String)} calls into batch requests.
+ * <p>
+ * Calls are queued and a dispatcher thread sends them to the delegate's
+ * {@link EmbeddingProvider#embedBatch(List)} once {@code maxBatchSize} texts
+ * are waiting or {@code maxDelay} has passed since the first of them arrived,
+ * whichever comes first. Under load this trades a few milliseconds of latency
+ * for far fewer requests; an idle caller waits at most {@code maxDelay}.
+ * At most {@code maxConcurrentBatches} batches are in flight; while they are,
+ * new calls keep accumulating into the next batch.
+ * <p>
+ * {@link #embedBatch(List)} calls bypass the queue. The provider owns a
+ * thread and must be {@link #close() closed}.
+ */
+public class MicroBatchingEmbeddingProvider implements EmbeddingProvider, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicroBatchingEmbeddingProvider.class);
+    private static final AtomicInteger instanceCount = new AtomicInteger();
+
+    /**
+     * Queued by {@link #close()} after the last call, to wake the dispatcher.
+     */
+    private static final PendingEmbed CLOSE = new PendingEmbed("", 0);
+
+    private final EmbeddingProvider delegate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final LongSupplier clock;
+
+    private final BlockingQueue<PendingEmbed> queue = new LinkedBlockingQueue<>();
+    private final Semaphore inFlight;
+    private final ExecutorService senders;
+    private final Thread dispatcher;
+    private final Object lifecycleLock = new Object();
+    private volatile boolean closed;
+
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder textCount = new LongAdder();
+
+    private MicroBatchingEmbeddingProvider(Builder builder) {
+        this.delegate = Objects.requireNonNull(builder.delegate, "delegate cannot be null");
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxDelayNanos = builder.maxDelay.toNanos();
+        this.clock = builder.clock;
+        this.inFlight = new Semaphore(builder.maxConcurrentBatches);
+
+        int instance = instanceCount.incrementAndGet();
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(builder.maxConcurrentBatches, runnable -> {
+            Thread thread = new Thread(runnable,
+                    "embedding-batch-" + instance + "-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatchLoop, "embedding-batch-" + instance + "-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Queues a text for the next batch.
+     *
+     * @param text the text to embed
+     * @return a future completed with the embedding, or exceptionally if the
+     *         batch request fails
+     * @throws IllegalStateException if the provider is closed
+     */
+    public CompletableFuture<float[]> embedAsync(String text) {
+        Objects.requireNonNull(text, "text cannot be null");
+
+        PendingEmbed pending = new PendingEmbed(text, clock.getAsLong());
+        synchronized (lifecycleLock) {
+            if (closed) {
+                throw new IllegalStateException("Embedding provider is closed");
+            }
+            queue.add(pending);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Embeds the text as part of the next batch, blocking until it completes.
+     */
+    @Override
+    public float[] embed(String text) {
+        try {
+            return embedAsync(text).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("Failed to generate embedding", cause);
+        }
+    }
+
+    /**
+     * Sends the texts directly to the delegate as one batch.
+     */
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        return delegate.embedBatch(texts);
+    }
+
+    @Override
+    public int getDimensions() {
+        return delegate.getDimensions();
+    }
+
+    /**
+     * Returns the number of batch requests sent for queued calls.
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * Returns the number of queued texts that have been sent.
+     */
+    public long getTextCount() {
+        return textCount.sum();
+    }
+
+    /**
+     * Stops accepting calls, sends the texts already queued and waits for
+     * in-flight batches to complete.
+     */
+    @Override
+    public void close() {
+        synchronized (lifecycleLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSE);
+        }
+
+        try {
+            dispatcher.join();
+            senders.shutdown();
+            senders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            senders.shutdownNow();
+        }
+    }
+
+    private void dispatchLoop() {
+        try {
+            boolean closing = false;
+            while (!closing) {
+                PendingEmbed first = queue.take();
+                if (first == CLOSE) {
+                    return;
+                }
+
+                List<PendingEmbed> batch = new ArrayList<>(Math.min(maxBatchSize, 16));
+                batch.add(first);
+                // Measured from arrival, so time spent queued behind other batches counts
+                long deadline = first.enqueuedNanos + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - clock.getAsLong();
+                    PendingEmbed next = remaining > 0 && !closed
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == CLOSE) {
+                        // Nothing follows the marker; send this batch and stop
+                        closing = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                inFlight.acquire();
+                try {
+                    senders.execute(() -> {
+                        try {
+                            send(batch);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    fail(batch, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            List<PendingEmbed> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            remaining.remove(CLOSE);
+            fail(remaining, e);
+        }
+    }
+
+    private void send(List<PendingEmbed> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (PendingEmbed pending : batch) {
+            texts.add(pending.text);
+        }
+
+        try {
+            List<float[]> embeddings = delegate.embedBatch(texts);
+            if (embeddings.size() != batch.size()) {
+                throw new IllegalStateException(String.format("Delegate returned %d embeddings for %d texts",
+                        embeddings.size(), batch.size()));
+            }
+            batchCount.increment();
+            textCount.add(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(embeddings.get(i));
+            }
+        } catch (Throwable e) {
+            // Errors too, or callers blocked in embed() would never return
+            logger.error("Failed to embed batch of {} texts", batch.size(), e);
+            fail(batch, e);
+        }
+    }
+
+    private static void fail(List<PendingEmbed> batch, Throwable error) {
+        for (PendingEmbed pending : batch) {
+            pending.future.completeExceptionally(error);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static final class PendingEmbed {
+        private final String text;
+        private final long enqueuedNanos;
+        private final CompletableFuture<float[]> future = new CompletableFuture<>();
+
+        private PendingEmbed(String text, long enqueuedNanos) {
+            this.text = text;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    public static final class Builder {
+        private EmbeddingProvider delegate;
+        private int maxBatchSize = 64;
+        private Duration maxDelay = Duration.ofMillis(5);
+        private int maxConcurrentBatches = 4;
+        private LongSupplier clock = System::nanoTime;
+
+        private Builder() {
+        }
+
+        public Builder delegate(EmbeddingProvider delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the number of texts that triggers a batch immediately.
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            if (maxBatchSize <= 0) {
+                throw new IllegalArgumentException("maxBatchSize must be positive");
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long the first queued text waits for others to join its
+         * batch.
+         */
+        public Builder maxDelay(Duration maxDelay) {
+            Objects.requireNonNull(maxDelay, "maxDelay cannot be null");
+            if (maxDelay.isNegative()) {
+                throw new IllegalArgumentException("maxDelay cannot be negative");
+            }
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of batch requests in flight at once.
+         */
+        public Builder maxConcurrentBatches(int maxConcurrentBatches) {
+            if (maxConcurrentBatches <= 0) {
+                throw new IllegalArgumentException("maxConcurrentBatches must be positive");
+            }
+            this.maxConcurrentBatches = maxConcurrentBatches;
+            return this;
+        }
+
+        /**
+         * Sets the time source, in nanoseconds, that {@code maxDelay} is
+         * measured with. Defaults to {@link System#nanoTime()}; mainly useful
+         * in tests.
+         */
+        public Builder clock(LongSupplier clock) {
+            this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+            return this;
+        }
+
+        public MicroBatchingEmbeddingProvider build() {
+            return new MicroBatchingEmbeddingProvider(this);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.llm4j.agent.rag.ingest;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Append-only file of completed document IDs, one per line. Each ID is
+ * flushed as soon as it is recorded, so a crashed run loses at most the
+ * documents that were still in flight.
+ */
+final class IngestionCheckpoint implements Closeable {
+
+    private final BufferedWriter writer;
+
+    private IngestionCheckpoint(BufferedWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Reads the IDs recorded in a checkpoint file.
+     *
+     * @param path the checkpoint file (may not exist yet)
+     * @return the completed document IDs
+     */
+    static Set<String> load(Path path) throws IOException {
+        Set<String> completed = new HashSet<>();
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (!line.isEmpty()) {
+                    completed.add(line);
+                }
+            }
+        }
+        return completed;
+    }
+
+    static IngestionCheckpoint open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new IngestionCheckpoint(Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    synchronized void record(String documentId) throws IOException {
+        writer.write(documentId);
+        writer.newLine();
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,649 @@
+package io.github.llm4j.agent.rag.ingest;
+
+import io.github.llm4j.agent.rag.document.ChunkingStrategy;
+import io.github.llm4j.agent.rag.document.Document;
+import io.github.llm4j.agent.rag.document.DocumentChunk;
+import io.github.llm4j.agent.rag.embedding.EmbeddingProvider;
+import io.github.llm4j.agent.rag.retrieval.Retriever;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Streaming bulk ingestion of documents into a vector store.
+ * <p>
+ * Documents flow through four stages connected by bounded queues:
+ * <ol>
+ * <li>the calling thread reads documents from the source;</li>
+ * <li>chunk workers split them into chunks;</li>
+ * <li>embed workers embed chunks in batches;</li>
+ * <li>a writer stores embedded chunks with {@link VectorStore#addBatch}.</li>
+ * </ol>
+ * A full queue blocks the stage before it, so memory use depends on the queue
+ * capacities rather than the number of documents. Documents are read lazily
+ * from an {@link Iterator}, so the source can stream from files or a database.
+ * <p>
+ * With a checkpoint file, the ID of each document is recorded once all its
+ * chunks are stored, and documents recorded by an earlier run are skipped.
+ * Documents that fail in any stage are counted, logged and not recorded, so a
+ * rerun retries them. An unexpected error in a stage, such as an {@link Error}
+ * from a provider, aborts the whole run instead: every stage stops and
+ * {@link #run(Iterator)} rethrows it.
+ *
+ * <pre>{@code
+ * IngestionPipeline pipeline = ragAgent.ingestionPipeline()
+ *         .chunkingStrategy(new FixedSizeChunkingStrategy(500, 50))
+ *         .embedWorkers(4)
+ *         .checkpointFile(Path.of("ingest.checkpoint"))
+ *         .build();
+ *
+ * IngestionProgress result = pipeline.run(documents.iterator());
+ * }</pre>
+ */
+public class IngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionPipeline.class);
+
+    /**
+     * How long a worker waits for more items before sending a partial batch.
+     */
+    private static final long LINGER_MILLIS = 10;
+
+    private static final Object END = new Object();
+
+    private final VectorStore vectorStore;
+    private final EmbeddingProvider embeddingProvider;
+    private final ChunkingStrategy chunkingStrategy;
+    private final Retriever retriever;
+    private final int chunkWorkers;
+    private final int embedWorkers;
+    private final int embedBatchSize;
+    private final int writeBatchSize;
+    private final int queueCapacity;
+    private final Path checkpointFile;
+    private final Consumer<IngestionProgress> progressListener;
+    private final BiConsumer<String, String> chunkListener;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder documentsRead = new LongAdder();
+    private final LongAdder documentsSkipped = new LongAdder();
+    private final LongAdder documentsCompleted = new LongAdder();
+    private final LongAdder chunksProduced = new LongAdder();
+    private final LongAdder chunksEmbedded = new LongAdder();
+    private final LongAdder chunksStored = new LongAdder();
+    private final Set<String> failedDocuments = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> remainingChunks = new ConcurrentHashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private IngestionCheckpoint checkpoint;
+
+    private IngestionPipeline(Builder builder) {
+        this.vectorStore = Objects.requireNonNull(builder.vectorStore, "vectorStore cannot be null");
+        this.embeddingProvider = Objects.requireNonNull(builder.embeddingProvider,
+                "embeddingProvider cannot be null");
+        this.chunkingStrategy = builder.chunkingStrategy;
+        this.retriever = builder.retriever;
+        this.chunkWorkers = builder.chunkWorkers;
+        this.embedWorkers = builder.embedWorkers;
+        this.embedBatchSize = builder.embedBatchSize;
+        this.writeBatchSize = builder.writeBatchSize;
+        this.queueCapacity = builder.queueCapacity;
+        this.checkpointFile = builder.checkpointFile;
+        this.progressListener = builder.progressListener;
+        this.chunkListener = builder.chunkListener;
+    }
+
+    /**
+     * Ingests all documents from the source, blocking until every document is
+     * stored or has failed.
+     *
+     * @param documents the documents to ingest
+     * @return the final progress counters
+     * @throws IllegalStateException if the pipeline is already running, or a
+     *                               stage failed with a checked exception
+     * @throws UncheckedIOException  if the checkpoint file cannot be opened
+     */
+    public IngestionProgress run(Iterator<Document> documents) {
+        Objects.requireNonNull(documents, "documents cannot be null");
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Pipeline is already running");
+        }
+
+        reset();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(chunkWorkers + embedWorkers + 1, runnable -> {
+            Thread thread = new Thread(runnable, "ingestion-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Set<String> completed = Collections.emptySet();
+            if (checkpointFile != null) {
+                completed = IngestionCheckpoint.load(checkpointFile);
+                checkpoint = IngestionCheckpoint.open(checkpointFile);
+            }
+
+            BlockingQueue<Object> documentQueue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity / 16));
+            BlockingQueue<Object> chunkQueue = new ArrayBlockingQueue<>(queueCapacity);
+            BlockingQueue<Object> writeQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+            List<Future<?>> chunkers = new ArrayList<>();
+            for (int i = 0; i < chunkWorkers; i++) {
+                chunkers.add(workers.submit(() -> chunkLoop(documentQueue, chunkQueue)));
+            }
+            List<Future<?>> embedders = new ArrayList<>();
+            for (int i = 0; i < embedWorkers; i++) {
+                embedders.add(workers.submit(() -> embedLoop(chunkQueue, writeQueue)));
+            }
+            Future<?> writer = workers.submit(() -> writeLoop(writeQueue));
+
+            // Reader stage on the calling thread; offer() blocks while chunkers are behind
+            while (failure.get() == null && documents.hasNext()) {
+                Document document = documents.next();
+                documentsRead.increment();
+                if (completed.contains(document.getId())) {
+                    documentsSkipped.increment();
+                    continue;
+                }
+                if (!offer(documentQueue, document)) {
+                    break;
+                }
+            }
+
+            throwIfFailed();
+
+            // Each stage drains fully before the next one is told to finish
+            finish(documentQueue, chunkers);
+            finish(chunkQueue, embedders);
+            finish(writeQueue, List.of(writer));
+
+            IngestionProgress progress = getProgress();
+            logger.info("Ingestion finished: {}", progress);
+            return progress;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to access ingestion checkpoint " + checkpointFile, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ingestion interrupted", e);
+        } finally {
+            endNanos = System.nanoTime();
+            workers.shutdownNow();
+            closeCheckpoint();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Ingests all documents from the source.
+     *
+     * @see #run(Iterator)
+     */
+    public IngestionProgress run(Iterable<Document> documents) {
+        Objects.requireNonNull(documents, "documents cannot be null");
+        return run(documents.iterator());
+    }
+
+    /**
+     * Returns the counters of the current or last run. Safe to call from
+     * another thread while the pipeline runs.
+     */
+    public IngestionProgress getProgress() {
+        long end = running.get() ? System.nanoTime() : endNanos;
+        return new IngestionProgress(documentsRead.sum(), documentsSkipped.sum(), documentsCompleted.sum(),
+                failedDocuments.size(), chunksProduced.sum(), chunksEmbedded.sum(), chunksStored.sum(),
+                Duration.ofNanos(Math.max(0, end - startNanos)));
+    }
+
+    private void chunkLoop(BlockingQueue<Object> documentQueue, BlockingQueue<Object> chunkQueue) {
+        try {
+            while (true) {
+                Object item = documentQueue.take();
+                if (item == END) {
+                    // Leave the marker for the other chunk workers
+                    documentQueue.put(END);
+                    return;
+                }
+
+                Document document = (Document) item;
+                List<DocumentChunk> chunks;
+                try {
+                    chunks = chunkingStrategy != null ? chunkingStrategy.chunk(document) : document.getChunks();
+                } catch (RuntimeException e) {
+                    logger.error("Failed to chunk document {}", document.getId(), e);
+                    failedDocuments.add(document.getId());
+                    continue;
+                }
+
+                if (chunks.isEmpty()) {
+                    logger.warn("Document {} has no chunks", document.getId());
+                    complete(document.getId());
+                    continue;
+                }
+
+                remainingChunks.put(document.getId(), new AtomicInteger(chunks.size()));
+                chunksProduced.add(chunks.size());
+                for (DocumentChunk chunk : chunks) {
+                    if (!offer(chunkQueue, new PendingChunk(document.getId(), chunk))) {
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            abort(e);
+        }
+    }
+
+    private void embedLoop(BlockingQueue<Object> chunkQueue, BlockingQueue<Object> writeQueue) {
+        try {
+            List<PendingChunk> batch = new ArrayList<>(embedBatchSize);
+            boolean finished = false;
+            while (!finished) {
+                finished = nextBatch(chunkQueue, batch, embedBatchSize, true);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+
+                List<String> texts = new ArrayList<>(batch.size());
+                for (PendingChunk pending : batch) {
+                    // Chunks that are views of their document are materialized once, here
+                    pending.content = pending.chunk.getContent();
+                    texts.add(pending.content);
+                }
+                try {
+                    List<float[]> embeddings = embeddingProvider.embedBatch(texts);
+                    if (embeddings.size() != batch.size()) {
+                        throw new IllegalStateException(String.format(
+                                "Embedding provider returned %d embeddings for %d texts",
+                                embeddings.size(), batch.size()));
+                    }
+                    chunksEmbedded.add(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).embedding = embeddings.get(i);
+                        if (!offer(writeQueue, batch.get(i))) {
+                            return;
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Failed to embed batch of {} chunks", batch.size(), e);
+                    fail(batch);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            abort(e);
+        }
+    }
+
+    private void writeLoop(BlockingQueue<Object> writeQueue) {
+        try {
+            List<PendingChunk> batch = new ArrayList<>(writeBatchSize);
+            boolean finished = false;
+            while (!finished) {
+                finished = nextBatch(writeQueue, batch, writeBatchSize, false);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+
+                List<VectorStore.VectorEntry> entries = new ArrayList<>(batch.size());
+                for (PendingChunk pending : batch) {
+                    entries.add(new VectorStore.VectorEntry(pending.chunk.getId(), pending.embedding,
+                            pending.metadata()));
+                }
+                try {
+                    vectorStore.addBatch(entries);
+                    if (retriever != null) {
+                        for (VectorStore.VectorEntry entry : entries) {
+                            retriever.onChunkAdded(entry.getId(), entry.getMetadata());
+                        }
+                    }
+                    if (chunkListener != null) {
+                        for (PendingChunk pending : batch) {
+                            chunkListener.accept(pending.documentId, pending.chunk.getId());
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Failed to store batch of {} chunks", batch.size(), e);
+                    fail(batch);
+                    batch.clear();
+                    continue;
+                }
+
+                chunksStored.add(batch.size());
+                for (PendingChunk pending : batch) {
+                    AtomicInteger remaining = remainingChunks.get(pending.documentId);
+                    if (remaining != null && remaining.decrementAndGet() == 0) {
+                        remainingChunks.remove(pending.documentId);
+                        if (!failedDocuments.contains(pending.documentId)) {
+                            complete(pending.documentId);
+                        }
+                    }
+                }
+                batch.clear();
+
+                if (progressListener != null) {
+                    try {
+                        progressListener.accept(getProgress());
+                    } catch (RuntimeException e) {
+                        logger.warn("Progress listener failed", e);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            abort(e);
+        }
+    }
+
+    /**
+     * Hands an item to the next stage, waiting while its queue is full.
+     *
+     * @return false if the pipeline was aborted, in which case the caller
+     *         must stop since the next stage may no longer be consuming
+     */
+    private boolean offer(BlockingQueue<Object> queue, Object item) throws InterruptedException {
+        while (!queue.offer(item, LINGER_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records a fatal stage error. Stages blocked handing items on notice it
+     * and stop, so {@link #run(Iterator)} can rethrow it.
+     */
+    private void abort(Throwable error) {
+        if (failure.compareAndSet(null, error)) {
+            logger.error("Ingestion aborted", error);
+        }
+    }
+
+    /**
+     * Tells the workers reading from the queue to finish and waits for them.
+     */
+    private void finish(BlockingQueue<Object> queue, List<Future<?>> stageWorkers) throws InterruptedException {
+        if (offer(queue, END)) {
+            await(stageWorkers);
+        }
+        throwIfFailed();
+    }
+
+    private void throwIfFailed() {
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new IllegalStateException("Ingestion failed", error);
+        }
+    }
+
+    /**
+     * Collects up to {@code size} items, waiting briefly for a partial batch
+     * to fill.
+     *
+     * @return true if the end marker was reached
+     */
+    private static boolean nextBatch(BlockingQueue<Object> queue, List<PendingChunk> batch, int size,
+            boolean shared) throws InterruptedException {
+        Object item = queue.take();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LINGER_MILLIS);
+        while (item != END) {
+            batch.add((PendingChunk) item);
+            if (batch.size() == size) {
+                return false;
+            }
+            long remaining = deadline - System.nanoTime();
+            item = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (item == null) {
+                return false;
+            }
+        }
+        if (shared) {
+            // Leave the marker for the other workers of this stage
+            queue.put(END);
+        }
+        return true;
+    }
+
+    private void complete(String documentId) {
+        documentsCompleted.increment();
+        if (checkpoint != null) {
+            try {
+                checkpoint.record(documentId);
+            } catch (IOException e) {
+                // The document is stored; without a checkpoint entry it is only re-ingested next run
+                logger.error("Failed to record document {} in checkpoint {}", documentId, checkpointFile, e);
+            }
+        }
+    }
+
+    private void fail(List<PendingChunk> batch) {
+        for (PendingChunk pending : batch) {
+            failedDocuments.add(pending.documentId);
+        }
+    }
+
+    private void reset() {
+        documentsRead.reset();
+        documentsSkipped.reset();
+        documentsCompleted.reset();
+        chunksProduced.reset();
+        chunksEmbedded.reset();
+        chunksStored.reset();
+        failedDocuments.clear();
+        remainingChunks.clear();
+        failure.set(null);
+        startNanos = System.nanoTime();
+    }
+
+    private static void await(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("Ingestion worker failed", cause);
+            }
+        }
+    }
+
+    private void closeCheckpoint() {
+        if (checkpoint != null) {
+            try {
+                checkpoint.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close ingestion checkpoint {}", checkpointFile, e);
+            }
+            checkpoint = null;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A chunk moving through the embed and write stages.
+     */
+    private static final class PendingChunk {
+        private final String documentId;
+        private final DocumentChunk chunk;
+        private String content;
+        private float[] embedding;
+
+        private PendingChunk(String documentId, DocumentChunk chunk) {
+            this.documentId = documentId;
+            this.chunk = chunk;
+        }
+
+        /**
+         * Builds the stored metadata, with the same layout as
+         * {@code RAGAgent.addDocument}.
+         */
+        private Map<String, Object> metadata() {
+            Map<String, Object> metadata = new HashMap<>(chunk.getMetadata());
+            metadata.put("content", content);
+            metadata.put("contentHash", chunk.getContentHash());
+            metadata.put("documentId", documentId);
+            if (chunk.getEndIndex() > chunk.getStartIndex()) {
+                metadata.put("startIndex", chunk.getStartIndex());
+                metadata.put("endIndex", chunk.getEndIndex());
+            }
+            return metadata;
+        }
+    }
+
+    public static final class Builder {
+        private VectorStore vectorStore;
+        private EmbeddingProvider embeddingProvider;
+        private ChunkingStrategy chunkingStrategy;
+        private Retriever retriever;
+        private int chunkWorkers = 2;
+        private int embedWorkers = 2;
+        private int embedBatchSize = 64;
+        private int writeBatchSize = 256;
+        private int queueCapacity = 1024;
+        private Path checkpointFile;
+        private Consumer<IngestionProgress> progressListener;
+        private BiConsumer<String, String> chunkListener;
+
+        private Builder() {
+        }
+
+        public Builder vectorStore(VectorStore vectorStore) {
+            this.vectorStore = vectorStore;
+            return this;
+        }
+
+        public Builder embeddingProvider(EmbeddingProvider embeddingProvider) {
+            this.embeddingProvider = embeddingProvider;
+            return this;
+        }
+
+        /**
+         * Sets the strategy used to chunk documents. Without one, the chunks
+         * already attached to each document are used.
+         */
+        public Builder chunkingStrategy(ChunkingStrategy chunkingStrategy) {
+            this.chunkingStrategy = chunkingStrategy;
+            return this;
+        }
+
+        /**
+         * Sets a retriever to notify of stored chunks, e.g. to keep a lexical
+         * index in sync.
+         */
+        public Builder retriever(Retriever retriever) {
+            this.retriever = retriever;
+            return this;
+        }
+
+        public Builder chunkWorkers(int chunkWorkers) {
+            if (chunkWorkers <= 0) {
+                throw new IllegalArgumentException("chunkWorkers must be positive");
+            }
+            this.chunkWorkers = chunkWorkers;
+            return this;
+        }
+
+        public Builder embedWorkers(int embedWorkers) {
+            if (embedWorkers <= 0) {
+                throw new IllegalArgumentException("embedWorkers must be positive");
+            }
+            this.embedWorkers = embedWorkers;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of chunks per embedding request.
+         */
+        public Builder embedBatchSize(int embedBatchSize) {
+            if (embedBatchSize <= 0) {
+                throw new IllegalArgumentException("embedBatchSize must be positive");
+            }
+            this.embedBatchSize = embedBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of chunks per {@link VectorStore#addBatch}
+         * call.
+         */
+        public Builder writeBatchSize(int writeBatchSize) {
+            if (writeBatchSize <= 0) {
+                throw new IllegalArgumentException("writeBatchSize must be positive");
+            }
+            this.writeBatchSize = writeBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the capacity, in chunks, of the queues between stages. The
+         * document queue holds a sixteenth of it.
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("queueCapacity must be positive");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Enables resumable runs. Document IDs must not contain line breaks.
+         */
+        public Builder checkpointFile(Path checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+        /**
+         * Sets a listener called by the writer after each stored batch.
+         */
+        public Builder progressListener(Consumer<IngestionProgress> progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Sets a listener called by the writer with the document ID and chunk
+         * ID of each stored chunk.
+         */
+        public Builder chunkListener(BiConsumer<String, String> chunkListener) {
+            this.chunkListener = chunkListener;
+            return this;
+        }
+
+        public IngestionPipeline build() {
+            return new IngestionPipeline(this);
+        }
+    }
+}
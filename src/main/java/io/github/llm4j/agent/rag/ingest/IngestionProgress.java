@@ -0,0 +1,98 @@
+package io.github.llm4j.agent.rag.ingest;
+
+import java.time.Duration;
+
+/**
+ * Point-in-time counters of an {@link IngestionPipeline} run.
+ */
+public final class IngestionProgress {
+
+    private final long documentsRead;
+    private final long documentsSkipped;
+    private final long documentsCompleted;
+    private final long documentsFailed;
+    private final long chunksProduced;
+    private final long chunksEmbedded;
+    private final long chunksStored;
+    private final Duration elapsed;
+
+    IngestionProgress(long documentsRead, long documentsSkipped, long documentsCompleted, long documentsFailed,
+            long chunksProduced, long chunksEmbedded, long chunksStored, Duration elapsed) {
+        this.documentsRead = documentsRead;
+        this.documentsSkipped = documentsSkipped;
+        this.documentsCompleted = documentsCompleted;
+        this.documentsFailed = documentsFailed;
+        this.chunksProduced = chunksProduced;
+        this.chunksEmbedded = chunksEmbedded;
+        this.chunksStored = chunksStored;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns the number of documents taken from the source, including
+     * skipped ones.
+     */
+    public long getDocumentsRead() {
+        return documentsRead;
+    }
+
+    /**
+     * Returns the number of documents skipped because a previous run
+     * completed them.
+     */
+    public long getDocumentsSkipped() {
+        return documentsSkipped;
+    }
+
+    /**
+     * Returns the number of documents whose chunks are all stored.
+     */
+    public long getDocumentsCompleted() {
+        return documentsCompleted;
+    }
+
+    /**
+     * Returns the number of documents that could not be chunked, embedded or
+     * stored. They are not checkpointed and are retried by the next run.
+     */
+    public long getDocumentsFailed() {
+        return documentsFailed;
+    }
+
+    public long getChunksProduced() {
+        return chunksProduced;
+    }
+
+    public long getChunksEmbedded() {
+        return chunksEmbedded;
+    }
+
+    public long getChunksStored() {
+        return chunksStored;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public double getDocumentsPerSecond() {
+        return rate(documentsCompleted);
+    }
+
+    public double getChunksPerSecond() {
+        return rate(chunksStored);
+    }
+
+    private double rate(long count) {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds > 0 ? count / seconds : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IngestionProgress{documents=%d completed/%d read (%d skipped, %d failed), "
+                + "chunks=%d stored/%d embedded/%d produced, %.1f docs/s, %.1f chunks/s}",
+                documentsCompleted, documentsRead, documentsSkipped, documentsFailed,
+                chunksStored, chunksEmbedded, chunksProduced, getDocumentsPerSecond(), getChunksPerSecond());
+    }
+}
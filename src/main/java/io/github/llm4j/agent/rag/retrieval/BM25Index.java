@@ -0,0 +1,442 @@
+package io.github.llm4j.agent.rag.retrieval;
+
+import io.github.llm4j.agent.rag.document.DocumentChunk;
+import io.github.llm4j.agent.rag.store.VectorStore;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process BM25 inverted index over chunk content.
+ * <p>
+ * Terms are interned to integer ids and each term keeps its postings as two
+ * parallel primitive arrays (document ordinals and term frequencies), so the
+ * index holds no per-posting objects. Removed or replaced chunks are
+ * tombstoned and the index is rebuilt in place once more than half of its
+ * documents are dead; the rebuild also drops terms no live document uses.
+ * <p>
+ * Text is tokenized into lower-cased runs of letters and digits, which keeps
+ * identifiers such as error codes and flight numbers intact for exact
+ * matching.
+ */
+public class BM25Index implements Retriever {
+
+    /**
+     * Default term-frequency saturation parameter.
+     */
+    public static final double DEFAULT_K1 = 1.2;
+
+    /**
+     * Default document-length normalization parameter.
+     */
+    public static final double DEFAULT_B = 0.75;
+
+    private static final String CONTENT_KEY = "content";
+
+    private final double k1;
+    private final double b;
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final List<Map<String, Object>> metadata = new ArrayList<>();
+    private final List<int[]> documentTerms = new ArrayList<>();
+    private int[] lengths = new int[16];
+    private final BitSet deleted = new BitSet();
+
+    private long totalLength;
+    private int liveCount;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public BM25Index() {
+        this(DEFAULT_K1, DEFAULT_B);
+    }
+
+    /**
+     * @param k1 term-frequency saturation (typically 1.2 to 2.0)
+     * @param b  length normalization between 0 (none) and 1 (full)
+     */
+    public BM25Index(double k1, double b) {
+        if (k1 < 0) {
+            throw new IllegalArgumentException("k1 cannot be negative");
+        }
+        if (b < 0 || b > 1) {
+            throw new IllegalArgumentException("b must be between 0 and 1");
+        }
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Indexes a chunk. Its metadata is returned with search results, with the
+     * chunk content stored under {@code content}.
+     *
+     * @param chunk the chunk to index
+     */
+    public void add(DocumentChunk chunk) {
+        Objects.requireNonNull(chunk, "chunk cannot be null");
+
+        String content = chunk.getContent();
+        Map<String, Object> chunkMetadata = new HashMap<>(chunk.getMetadata());
+        chunkMetadata.put(CONTENT_KEY, content);
+        chunkMetadata.put("documentId", chunk.getDocumentId());
+        add(chunk.getId(), content, chunkMetadata);
+    }
+
+    /**
+     * Indexes a text under the given ID, replacing any previous text with the
+     * same ID.
+     *
+     * @param id       the ID
+     * @param content  the text to index
+     * @param metadata metadata returned with search results
+     */
+    public void add(String id, String content, Map<String, Object> metadata) {
+        Objects.requireNonNull(id, "id cannot be null");
+        Objects.requireNonNull(content, "content cannot be null");
+        Objects.requireNonNull(metadata, "metadata cannot be null");
+
+        List<String> tokens = tokenize(content);
+        Map<Integer, Integer> frequencies = new LinkedHashMap<>();
+
+        lock.writeLock().lock();
+        try {
+            for (String token : tokens) {
+                Integer termId = termIds.get(token);
+                if (termId == null) {
+                    termId = postings.size();
+                    termIds.put(token, termId);
+                    postings.add(new Postings());
+                }
+                frequencies.merge(termId, 1, Integer::sum);
+            }
+            int length = tokens.size();
+
+            removeInternal(id);
+
+            int ordinal = ids.size();
+            ids.add(id);
+            this.metadata.add(Collections.unmodifiableMap(new HashMap<>(metadata)));
+            ordinals.put(id, ordinal);
+            if (ordinal == lengths.length) {
+                lengths = Arrays.copyOf(lengths, lengths.length * 2);
+            }
+            lengths[ordinal] = length;
+
+            int[] terms = new int[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> entry : frequencies.entrySet()) {
+                terms[i++] = entry.getKey();
+                postings.get(entry.getKey()).add(ordinal, entry.getValue());
+            }
+            documentTerms.add(terms);
+
+            totalLength += length;
+            liveCount++;
+            if (deleted.cardinality() > liveCount) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the text with the given ID.
+     *
+     * @param id the ID
+     * @return true if the ID was indexed
+     */
+    public boolean remove(String id) {
+        Objects.requireNonNull(id, "id cannot be null");
+
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeInternal(id);
+            if (removed && deleted.cardinality() > liveCount) {
+                compact();
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the top-K texts for the query ranked by BM25 score. Query terms
+     * that are not in the index are ignored; texts that share no term with
+     * the query are never returned.
+     *
+     * @param query the query text
+     * @param topK  number of results to return
+     * @return results with the BM25 score as similarity, highest first
+     */
+    public List<VectorStore.SearchResult> search(String query, int topK) {
+        Objects.requireNonNull(query, "query cannot be null");
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return new ArrayList<>();
+            }
+
+            double averageLength = Math.max(1.0, (double) totalLength / liveCount);
+            // Sparse, so a query costs in proportion to its postings rather than the corpus
+            Map<Integer, Float> scores = new HashMap<>();
+
+            for (String token : new LinkedHashSet<>(tokenize(query))) {
+                Integer termId = termIds.get(token);
+                if (termId == null) {
+                    continue;
+                }
+                Postings termPostings = postings.get(termId);
+                if (termPostings.liveFrequency == 0) {
+                    continue;
+                }
+
+                int df = termPostings.liveFrequency;
+                double idf = Math.log(1.0 + (liveCount - df + 0.5) / (df + 0.5));
+                for (int p = 0; p < termPostings.size; p++) {
+                    int ordinal = termPostings.documents[p];
+                    if (deleted.get(ordinal)) {
+                        continue;
+                    }
+                    int tf = termPostings.frequencies[p];
+                    double norm = k1 * (1 - b + b * lengths[ordinal] / averageLength);
+                    scores.merge(ordinal, (float) (idf * tf * (k1 + 1) / (tf + norm)), Float::sum);
+                }
+            }
+
+            PriorityQueue<Map.Entry<Integer, Float>> heap = new PriorityQueue<>(topK + 1,
+                    Map.Entry.comparingByValue());
+            for (Map.Entry<Integer, Float> score : scores.entrySet()) {
+                if (heap.size() < topK) {
+                    heap.add(score);
+                } else if (score.getValue() > heap.peek().getValue()) {
+                    heap.poll();
+                    heap.add(score);
+                }
+            }
+
+            List<VectorStore.SearchResult> results = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                Map.Entry<Integer, Float> score = heap.poll();
+                int ordinal = score.getKey();
+                results.add(new VectorStore.SearchResult(ids.get(ordinal), score.getValue(), metadata.get(ordinal)));
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<VectorStore.SearchResult> retrieve(String query, int topK) {
+        return search(query, topK);
+    }
+
+    /**
+     * Indexes the {@code content} entry of the stored chunk metadata.
+     */
+    @Override
+    public void onChunkAdded(String chunkId, Map<String, Object> metadata) {
+        Object content = metadata.get(CONTENT_KEY);
+        if (content instanceof String) {
+            add(chunkId, (String) content, metadata);
+        }
+    }
+
+    @Override
+    public void onChunkRemoved(String chunkId) {
+        remove(chunkId);
+    }
+
+    /**
+     * Returns the number of indexed texts.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct terms in the index.
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return termIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all indexed texts.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            termIds.clear();
+            postings.clear();
+            ordinals.clear();
+            ids.clear();
+            metadata.clear();
+            documentTerms.clear();
+            lengths = new int[16];
+            deleted.clear();
+            totalLength = 0;
+            liveCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-cased runs of letters and digits.
+     *
+     * @param text the text to tokenize
+     * @return the tokens in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean tokenChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private boolean removeInternal(String id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return false;
+        }
+        deleted.set(ordinal);
+        for (int termId : documentTerms.get(ordinal)) {
+            postings.get(termId).liveFrequency--;
+        }
+        totalLength -= lengths[ordinal];
+        liveCount--;
+        return true;
+    }
+
+    /**
+     * Rewrites the index without tombstoned documents, and without terms
+     * that only they contained. Must be called with the write lock held.
+     */
+    private void compact() {
+        List<String> oldIds = new ArrayList<>(ids);
+        List<Map<String, Object>> oldMetadata = new ArrayList<>(metadata);
+        List<int[]> oldTerms = new ArrayList<>(documentTerms);
+        List<Postings> oldPostings = new ArrayList<>(postings);
+        int[] oldLengths = lengths;
+        BitSet oldDeleted = (BitSet) deleted.clone();
+
+        int[] remap = new int[oldIds.size()];
+        ids.clear();
+        metadata.clear();
+        documentTerms.clear();
+        ordinals.clear();
+        lengths = new int[Math.max(16, liveCount)];
+        for (int ordinal = 0; ordinal < oldIds.size(); ordinal++) {
+            if (oldDeleted.get(ordinal)) {
+                remap[ordinal] = -1;
+                continue;
+            }
+            int newOrdinal = ids.size();
+            remap[ordinal] = newOrdinal;
+            ids.add(oldIds.get(ordinal));
+            metadata.add(oldMetadata.get(ordinal));
+            documentTerms.add(oldTerms.get(ordinal));
+            ordinals.put(oldIds.get(ordinal), newOrdinal);
+            lengths[newOrdinal] = oldLengths[ordinal];
+        }
+
+        int[] termRemap = new int[oldPostings.size()];
+        postings.clear();
+        for (int termId = 0; termId < oldPostings.size(); termId++) {
+            Postings termPostings = oldPostings.get(termId);
+            termPostings.remap(remap);
+            if (termPostings.size == 0) {
+                termRemap[termId] = -1;
+            } else {
+                termRemap[termId] = postings.size();
+                postings.add(termPostings);
+            }
+        }
+        Iterator<Map.Entry<String, Integer>> terms = termIds.entrySet().iterator();
+        while (terms.hasNext()) {
+            Map.Entry<String, Integer> term = terms.next();
+            int termId = termRemap[term.getValue()];
+            if (termId < 0) {
+                terms.remove();
+            } else {
+                term.setValue(termId);
+            }
+        }
+        for (int[] documentTermIds : documentTerms) {
+            for (int i = 0; i < documentTermIds.length; i++) {
+                documentTermIds[i] = termRemap[documentTermIds[i]];
+            }
+        }
+        deleted.clear();
+    }
+
+    /**
+     * Postings of one term as parallel primitive arrays.
+     */
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        private int liveFrequency;
+
+        void add(int ordinal, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+            liveFrequency++;
+        }
+
+        void remap(int[] remap) {
+            int kept = 0;
+            for (int p = 0; p < size; p++) {
+                int ordinal = remap[documents[p]];
+                if (ordinal >= 0) {
+                    documents[kept] = ordinal;
+                    frequencies[kept] = frequencies[p];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (documents.length > 4 && size < documents.length / 4) {
+                documents = Arrays.copyOf(documents, Math.max(4, size * 2));
+                frequencies = Arrays.copyOf(frequencies, Math.max(4, size * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package io.github.llm4j.agent.rag.retrieval;
+
+import io.github.llm4j.agent.rag.document.TokenEstimator;
+import io.github.llm4j.agent.rag.store.VectorStore;
+
+import java.util.*;
+
+/**
+ * Packs retrieved chunks into the context passages sent to the model, so the
+ * same information costs fewer prompt tokens.
+ * <p>
+ * Packing runs in three steps:
+ * <ol>
+ * <li>Chunks of the same document that overlap or touch, according to their
+ * {@code startIndex}/{@code endIndex} metadata, are merged into one passage
+ * with the overlap included once. A merged passage scores as its best
+ * chunk.</li>
+ * <li>Passages whose word sets are near-duplicates (Jaccard similarity at or
+ * above the duplicate threshold) of a higher-scoring passage are dropped,
+ * e.g. the same paragraph indexed from two copies of a document.</li>
+ * <li>Passages are taken greedily by score while they fit the token budget;
+ * a passage that does not fit is skipped in favour of smaller ones.</li>
+ * </ol>
+ * Chunks without a {@code documentId} or offsets are never merged.
+ */
+public class ContextPacker {
+
+    private final int tokenBudget;
+    private final double duplicateThreshold;
+    private final TokenEstimator tokenEstimator;
+
+    private ContextPacker(Builder builder) {
+        this.tokenBudget = builder.tokenBudget;
+        this.duplicateThreshold = builder.duplicateThreshold;
+        this.tokenEstimator = Objects.requireNonNull(builder.tokenEstimator, "tokenEstimator cannot be null");
+    }
+
+    /**
+     * Packs search results into passages.
+     *
+     * @param results search results with {@code content} metadata
+     * @return the passages to include, ordered by score (highest first)
+     */
+    public List<Passage> pack(List<VectorStore.SearchResult> results) {
+        Objects.requireNonNull(results, "results cannot be null");
+
+        List<Passage> passages = dropDuplicates(merge(results));
+
+        List<Passage> packed = new ArrayList<>();
+        int remaining = tokenBudget;
+        for (Passage passage : passages) {
+            if (passage.tokens <= remaining) {
+                packed.add(passage);
+                remaining -= passage.tokens;
+            }
+        }
+        return packed;
+    }
+
+    public int getTokenBudget() {
+        return tokenBudget;
+    }
+
+    public double getDuplicateThreshold() {
+        return duplicateThreshold;
+    }
+
+    /**
+     * Merges overlapping and adjacent chunks of each document.
+     *
+     * @return the passages sorted by score (highest first)
+     */
+    private List<Passage> merge(List<VectorStore.SearchResult> results) {
+        List<Passage> passages = new ArrayList<>();
+        Map<String, List<Span>> spansByDocument = new LinkedHashMap<>();
+
+        for (VectorStore.SearchResult result : results) {
+            Map<String, Object> metadata = result.getMetadata();
+            Object content = metadata.get("content");
+            if (!(content instanceof String)) {
+                continue;
+            }
+            String documentId = metadata.get("documentId") instanceof String
+                    ? (String) metadata.get("documentId") : null;
+            int start = intValue(metadata.get("startIndex"));
+            int end = intValue(metadata.get("endIndex"));
+
+            if (documentId == null || start < 0 || end - start != ((String) content).length()) {
+                passages.add(passage(documentId, (String) content, result.getSimilarity(),
+                        List.of(result.getId())));
+            } else {
+                spansByDocument.computeIfAbsent(documentId, id -> new ArrayList<>())
+                        .add(new Span(result.getId(), (String) content, start, end, result.getSimilarity()));
+            }
+        }
+
+        for (Map.Entry<String, List<Span>> entry : spansByDocument.entrySet()) {
+            List<Span> spans = entry.getValue();
+            spans.sort(Comparator.comparingInt((Span span) -> span.start).thenComparingInt(span -> -span.end));
+
+            StringBuilder content = null;
+            int end = -1;
+            float score = 0f;
+            List<String> chunkIds = null;
+            for (Span span : spans) {
+                if (content != null && span.start <= end) {
+                    if (span.end > end) {
+                        content.append(span.content, end - span.start, span.content.length());
+                        end = span.end;
+                    }
+                    score = Math.max(score, span.score);
+                    chunkIds.add(span.id);
+                    continue;
+                }
+                if (content != null) {
+                    passages.add(passage(entry.getKey(), content.toString(), score, chunkIds));
+                }
+                content = new StringBuilder(span.content);
+                end = span.end;
+                score = span.score;
+                chunkIds = new ArrayList<>();
+                chunkIds.add(span.id);
+            }
+            if (content != null) {
+                passages.add(passage(entry.getKey(), content.toString(), score, chunkIds));
+            }
+        }
+
+        // Stable sort: equal scores keep retrieval order
+        passages.sort(Comparator.comparingDouble((Passage passage) -> passage.score).reversed());
+        return passages;
+    }
+
+    private List<Passage> dropDuplicates(List<Passage> passages) {
+        if (duplicateThreshold > 1.0) {
+            return passages;
+        }
+
+        List<Passage> kept = new ArrayList<>(passages.size());
+        List<Set<String>> keptTerms = new ArrayList<>(passages.size());
+        for (Passage passage : passages) {
+            Set<String> terms = new HashSet<>(BM25Index.tokenize(passage.content));
+            boolean duplicate = false;
+            for (Set<String> other : keptTerms) {
+                if (jaccard(terms, other) >= duplicateThreshold) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                kept.add(passage);
+                keptTerms.add(terms);
+            }
+        }
+        return kept;
+    }
+
+    private Passage passage(String documentId, String content, float score, List<String> chunkIds) {
+        return new Passage(documentId, content, score, Collections.unmodifiableList(chunkIds),
+                tokenEstimator.estimate(content));
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int intersection = 0;
+        for (String term : smaller) {
+            if (larger.contains(term)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : -1;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static final class Span {
+        private final String id;
+        private final String content;
+        private final int start;
+        private final int end;
+        private final float score;
+
+        private Span(String id, String content, int start, int end, float score) {
+            this.id = id;
+            this.content = content;
+            this.start = start;
+            this.end = end;
+            this.score = score;
+        }
+    }
+
+    /**
+     * A packed context passage: one chunk, or several merged chunks of the
+     * same document.
+     */
+    public static final class Passage {
+        private final String documentId;
+        private final String content;
+        private final float score;
+        private final List<String> chunkIds;
+        private final int tokens;
+
+        private Passage(String documentId, String content, float score, List<String> chunkIds, int tokens) {
+            this.documentId = documentId;
+            this.content = content;
+            this.score = score;
+            this.chunkIds = chunkIds;
+            this.tokens = tokens;
+        }
+
+        /**
+         * Returns the source document ID, or null if unknown.
+         */
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        /**
+         * Returns the highest similarity among the merged chunks.
+         */
+        public float getScore() {
+            return score;
+        }
+
+        /**
+         * Returns the IDs of the merged chunks, in document order.
+         */
+        public List<String> getChunkIds() {
+            return chunkIds;
+        }
+
+        /**
+         * Returns the estimated token count of the content.
+         */
+        public int getTokens() {
+            return tokens;
+        }
+
+        @Override
+        public String toString() {
+            return "Passage{" +
+                    "documentId='" + documentId + '\'' +
+                    ", chunks=" + chunkIds.size() +
+                    ", tokens=" + tokens +
+                    ", score=" + score +
+                    '}';
+        }
+    }
+
+    public static final class Builder {
+        private int tokenBudget = 2048;
+        private double duplicateThreshold = 0.9;
+        private TokenEstimator tokenEstimator = TokenEstimator.heuristic();
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum estimated tokens of all passages together.
+         * Defaults to 2048.
+         */
+        public Builder tokenBudget(int tokenBudget) {
+            if (tokenBudget <= 0) {
+                throw new IllegalArgumentException("tokenBudget must be positive");
+            }
+            this.tokenBudget = tokenBudget;
+            return this;
+        }
+
+        /**
+         * Sets the word-set Jaccard similarity at which a passage counts as a
+         * duplicate of a higher-scoring one. Defaults to 0.9; values above 1
+         * disable deduplication.
+         */
+        public Builder duplicateThreshold(double duplicateThreshold) {
+            if (duplicateThreshold <= 0) {
+                throw new IllegalArgumentException("duplicateThreshold must be positive");
+            }
+            this.duplicateThreshold = duplicateThreshold;
+            return this;
+        }
+
+        public Builder tokenEstimator(TokenEstimator tokenEstimator) {
+            this.tokenEstimator = tokenEstimator;
+            return this;
+        }
+
+        public ContextPacker build() {
+            return new ContextPacker(this);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package io.github.llm4j.agent.rag.retrieval;
+
+import io.github.llm4j.agent.knowledge.KnowledgeGraph;
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.knowledge.traversal.Direction;
+import io.github.llm4j.agent.knowledge.traversal.Traversal;
+import io.github.llm4j.agent.rag.embedding.EmbeddingProvider;
+import io.github.llm4j.agent.rag.store.VectorStore;
+
+import java.util.*;
+
+/**
+ * Retriever that augments retrieved chunks with facts from a
+ * {@link KnowledgeGraph}, so a RAG agent gets both text and relationships in
+ * one retrieval step instead of calling a graph tool in later turns.
+ * <p>
+ * Chunks are linked to graph entities through a metadata key (by default
+ * {@code entities}) holding an entity ID, a comma-separated list of IDs or a
+ * collection of IDs, typically written at ingestion time by an entity
+ * extractor. After retrieving chunks with the wrapped retriever:
+ * <ol>
+ * <li>the entities linked from the chunks are collected in chunk order, up
+ * to the entity limit, ignoring IDs the graph does not know;</li>
+ * <li>the neighborhood of each entity is expanded with the traversal (by
+ * default one hop in both directions), collecting triples until the fact
+ * limit, so the entities of the best chunks contribute first;</li>
+ * <li>the entities and triples are rendered as one text passage, returned
+ * as an extra result ahead of the chunks.</li>
+ * </ol>
+ * The facts result has the ID {@link #FACTS_ID}, the similarity of the best
+ * chunk and no {@code documentId}, so a {@link ContextPacker} keeps it as its
+ * own passage and packs it first. If no chunk links to a known entity, the
+ * chunks are returned unchanged.
+ *
+ * <pre>{@code
+ * GraphRAGRetriever retriever = GraphRAGRetriever.builder()
+ *         .vector(vectorStore, embeddingProvider)
+ *         .graph(knowledgeGraph)
+ *         .build();
+ * RAGAgent ragAgent = RAGAgent.builder()
+ *         // ...
+ *         .retriever(retriever)
+ *         .build();
+ * }</pre>
+ */
+public class GraphRAGRetriever implements Retriever {
+
+    /**
+     * ID of the result that carries the graph facts.
+     */
+    public static final String FACTS_ID = "knowledge-graph-facts";
+
+    private final Retriever retriever;
+    private final KnowledgeGraph graph;
+    private final String entityKey;
+    private final Traversal traversal;
+    private final int maxEntities;
+    private final int maxFacts;
+
+    private GraphRAGRetriever(Builder builder) {
+        this.retriever = Objects.requireNonNull(builder.retriever, "retriever cannot be null");
+        this.graph = Objects.requireNonNull(builder.graph, "graph cannot be null");
+        this.entityKey = Objects.requireNonNull(builder.entityKey, "entityKey cannot be null");
+        this.traversal = Objects.requireNonNull(builder.traversal, "traversal cannot be null");
+        this.maxEntities = builder.maxEntities;
+        this.maxFacts = builder.maxFacts;
+    }
+
+    /**
+     * Retrieves the top-K chunks and, if any of them link to graph entities,
+     * a facts result ahead of them, so up to {@code topK + 1} results.
+     */
+    @Override
+    public List<VectorStore.SearchResult> retrieve(String query, int topK) {
+        List<VectorStore.SearchResult> results = retriever.retrieve(query, topK);
+
+        Map<String, Entity> linked = new LinkedHashMap<>();
+        for (VectorStore.SearchResult result : results) {
+            for (String id : entityIds(result.getMetadata().get(entityKey))) {
+                if (linked.size() == maxEntities) {
+                    break;
+                }
+                Entity entity = graph.getEntity(id);
+                if (entity != null) {
+                    linked.putIfAbsent(id, entity);
+                }
+            }
+        }
+        if (linked.isEmpty()) {
+            return results;
+        }
+
+        Set<Triple> facts = new LinkedHashSet<>();
+        for (String id : linked.keySet()) {
+            if (facts.size() >= maxFacts) {
+                break;
+            }
+            for (Triple triple : graph.neighborhood(id, traversal).getTriples()) {
+                if (facts.size() == maxFacts) {
+                    break;
+                }
+                facts.add(triple);
+            }
+        }
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("content", formatFacts(linked.values(), facts));
+        metadata.put("entityIds", List.copyOf(linked.keySet()));
+        metadata.put("factCount", facts.size());
+
+        List<VectorStore.SearchResult> augmented = new ArrayList<>(results.size() + 1);
+        augmented.add(new VectorStore.SearchResult(FACTS_ID, results.get(0).getSimilarity(), metadata));
+        augmented.addAll(results);
+        return augmented;
+    }
+
+    @Override
+    public void onChunkAdded(String chunkId, Map<String, Object> metadata) {
+        retriever.onChunkAdded(chunkId, metadata);
+    }
+
+    @Override
+    public void onChunkRemoved(String chunkId) {
+        retriever.onChunkRemoved(chunkId);
+    }
+
+    public Retriever getRetriever() {
+        return retriever;
+    }
+
+    public KnowledgeGraph getGraph() {
+        return graph;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static List<String> entityIds(Object value) {
+        List<String> ids = new ArrayList<>();
+        if (value instanceof String) {
+            for (String id : ((String) value).split(",")) {
+                if (!id.isBlank()) {
+                    ids.add(id.trim());
+                }
+            }
+        } else if (value instanceof Collection) {
+            for (Object id : (Collection<?>) value) {
+                if (id != null) {
+                    ids.add(id.toString());
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static String formatFacts(Collection<Entity> entities, Collection<Triple> facts) {
+        StringBuilder content = new StringBuilder("Knowledge graph facts:\n");
+        for (Entity entity : entities) {
+            content.append("- ").append(entity.getId()).append(" (Type: ").append(entity.getType());
+            for (Map.Entry<String, Object> property : new TreeMap<>(entity.getProperties()).entrySet()) {
+                content.append(", ").append(property.getKey()).append(": ").append(property.getValue());
+            }
+            content.append(")\n");
+        }
+        for (Triple triple : facts) {
+            content.append("- ").append(triple.getSubject().getId())
+                    .append(" -[").append(triple.getPredicate().getType());
+            Map<String, Object> properties = triple.getPredicate().getProperties();
+            if (!properties.isEmpty()) {
+                content.append(' ').append(new TreeMap<>(properties));
+            }
+            content.append("]-> ").append(triple.getObject().getId()).append('\n');
+        }
+        return content.toString();
+    }
+
+    public static final class Builder {
+        private Retriever retriever;
+        private KnowledgeGraph graph;
+        private String entityKey = "entities";
+        private Traversal traversal = Traversal.builder().direction(Direction.BOTH).maxDepth(1).build();
+        private int maxEntities = 10;
+        private int maxFacts = 30;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the retriever that finds the chunks.
+         */
+        public Builder retriever(Retriever retriever) {
+            this.retriever = retriever;
+            return this;
+        }
+
+        /**
+         * Retrieves chunks with a {@link VectorRetriever}.
+         */
+        public Builder vector(VectorStore vectorStore, EmbeddingProvider embeddingProvider) {
+            return retriever(new VectorRetriever(vectorStore, embeddingProvider));
+        }
+
+        public Builder graph(KnowledgeGraph graph) {
+            this.graph = graph;
+            return this;
+        }
+
+        /**
+         * Sets the chunk metadata key holding linked entity IDs. Defaults to
+         * "entities".
+         */
+        public Builder entityKey(String entityKey) {
+            this.entityKey = entityKey;
+            return this;
+        }
+
+        /**
+         * Sets how neighborhoods are expanded. Defaults to one hop in both
+         * directions over any predicate.
+         */
+        public Builder traversal(Traversal traversal) {
+            this.traversal = traversal;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of linked entities to expand. Defaults to
+         * 10.
+         */
+        public Builder maxEntities(int maxEntities) {
+            if (maxEntities <= 0) {
+                throw new IllegalArgumentException("maxEntities must be positive");
+            }
+            this.maxEntities = maxEntities;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of triples in the facts result. Defaults to
+         * 30.
+         */
+        public Builder maxFacts(int maxFacts) {
+            if (maxFacts < 0) {
+                throw new IllegalArgumentException("maxFacts cannot be negative");
+            }
+            this.maxFacts = maxFacts;
+            return this;
+        }
+
+        public GraphRAGRetriever build() {
+            return new GraphRAGRetriever(this);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.github.llm4j.agent.rag.retrieval;
+
+import io.github.llm4j.agent.rag.embedding.EmbeddingProvider;
+import io.github.llm4j.agent.rag.store.VectorStore;
+
+import java.util.*;
+
+/**
+ * Retriever that fuses the rankings of several retrievers, typically a dense
+ * {@link VectorRetriever} and a lexical {@link BM25Index}, using weighted
+ * reciprocal-rank fusion (RRF).
+ * <p>
+ * Each retriever contributes {@code weight / (rrfK + rank)} for every result
+ * it returns, with ranks starting at 1. Fusing ranks rather than raw scores
+ * avoids calibrating cosine similarities against unbounded BM25 scores, and
+ * lets exact keyword matches (IDs, error codes) surface even when their
+ * embeddings are not close to the query.
+ * <p>
+ * Chunk additions and removals are forwarded to every retriever, so a
+ * {@link BM25Index} stays in sync when the hybrid retriever is registered with
+ * a {@link io.github.llm4j.agent.rag.RAGAgent}.
+ *
+ * <pre>{@code
+ * HybridRetriever retriever = HybridRetriever.builder()
+ *         .vector(vectorStore, embeddingProvider)
+ *         .lexical(new BM25Index())
+ *         .build();
+ * }</pre>
+ */
+public class HybridRetriever implements Retriever {
+
+    /**
+     * Default RRF rank constant.
+     */
+    public static final int DEFAULT_RRF_K = 60;
+
+    private final List<Retriever> retrievers;
+    private final double[] weights;
+    private final int rrfK;
+    private final int candidateMultiplier;
+
+    private HybridRetriever(Builder builder) {
+        if (builder.retrievers.isEmpty()) {
+            throw new IllegalStateException("at least one retriever is required");
+        }
+        this.retrievers = List.copyOf(builder.retrievers);
+        this.weights = new double[builder.weights.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = builder.weights.get(i);
+        }
+        this.rrfK = builder.rrfK;
+        this.candidateMultiplier = builder.candidateMultiplier;
+    }
+
+    /**
+     * Retrieves {@code topK * candidateMultiplier} candidates from each
+     * retriever and returns the top-K by fused score. The similarity of each
+     * result is its RRF score; metadata is taken from the first retriever that
+     * returned the chunk.
+     */
+    @Override
+    public List<VectorStore.SearchResult> retrieve(String query, int topK) {
+        Objects.requireNonNull(query, "query cannot be null");
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+
+        int candidates = topK * candidateMultiplier;
+        Map<String, Double> scores = new HashMap<>();
+        Map<String, Map<String, Object>> metadata = new HashMap<>();
+
+        for (int r = 0; r < retrievers.size(); r++) {
+            List<VectorStore.SearchResult> results = retrievers.get(r).retrieve(query, candidates);
+            for (int rank = 0; rank < results.size(); rank++) {
+                VectorStore.SearchResult result = results.get(rank);
+                scores.merge(result.getId(), weights[r] / (rrfK + rank + 1), Double::sum);
+                metadata.putIfAbsent(result.getId(), result.getMetadata());
+            }
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<String, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<VectorStore.SearchResult> fused = new ArrayList<>(Math.min(topK, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < topK; i++) {
+            Map.Entry<String, Double> entry = ranked.get(i);
+            fused.add(new VectorStore.SearchResult(entry.getKey(), entry.getValue().floatValue(),
+                    metadata.get(entry.getKey())));
+        }
+        return fused;
+    }
+
+    @Override
+    public void onChunkAdded(String chunkId, Map<String, Object> metadata) {
+        for (Retriever retriever : retrievers) {
+            retriever.onChunkAdded(chunkId, metadata);
+        }
+    }
+
+    @Override
+    public void onChunkRemoved(String chunkId) {
+        for (Retriever retriever : retrievers) {
+            retriever.onChunkRemoved(chunkId);
+        }
+    }
+
+    public List<Retriever> getRetrievers() {
+        return retrievers;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<Retriever> retrievers = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+        private int rrfK = DEFAULT_RRF_K;
+        private int candidateMultiplier = 2;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a retriever with weight 1.
+         */
+        public Builder addRetriever(Retriever retriever) {
+            return addRetriever(retriever, 1.0);
+        }
+
+        /**
+         * Adds a retriever whose reciprocal ranks are scaled by the weight.
+         */
+        public Builder addRetriever(Retriever retriever, double weight) {
+            Objects.requireNonNull(retriever, "retriever cannot be null");
+            if (weight <= 0) {
+                throw new IllegalArgumentException("weight must be positive");
+            }
+            retrievers.add(retriever);
+            weights.add(weight);
+            return this;
+        }
+
+        /**
+         * Adds a dense retriever over the vector store.
+         */
+        public Builder vector(VectorStore vectorStore, EmbeddingProvider embeddingProvider) {
+            return addRetriever(new VectorRetriever(vectorStore, embeddingProvider));
+        }
+
+        /**
+         * Adds a lexical retriever.
+         */
+        public Builder lexical(BM25Index index) {
+            return addRetriever(index);
+        }
+
+        /**
+         * Sets the RRF rank constant; larger values flatten the contribution of
+         * top ranks.
+         */
+        public Builder rrfK(int rrfK) {
+            if (rrfK < 0) {
+                throw new IllegalArgumentException("rrfK cannot be negative");
+            }
+            this.rrfK = rrfK;
+            return this;
+        }
+
+        /**
+         * Sets how many candidates per requested result are fetched from each
+         * retriever before fusion.
+         */
+        public Builder candidateMultiplier(int candidateMultiplier) {
+            if (candidateMultiplier < 1) {
+                throw new IllegalArgumentException("candidateMultiplier must be at least 1");
+            }
+            this.candidateMultiplier = candidateMultiplier;
+            return this;
+        }
+
+        public HybridRetriever build() {
+            return new HybridRetriever(this);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.llm4j.agent.rag.retrieval;
+
+import io.github.llm4j.agent.rag.store.VectorStore;
+
+import java.util.*;
+
+/**
+ * Reranker that blends the retrieval score with a BM25 score of each
+ * candidate against the query, computed over the candidate set alone.
+ * <p>
+ * Both scores are rescaled to [0, 1] across the candidates and combined as
+ * {@code (1 - lexicalWeight) * retrieval + lexicalWeight * bm25}. This lifts
+ * candidates that contain the query's rarer terms, such as identifiers, that
+ * dense retrieval ranked too low. It costs one small in-memory index per
+ * call and no model requests.
+ */
+public class LexicalReranker implements Reranker {
+
+    private final double lexicalWeight;
+
+    public LexicalReranker() {
+        this(0.5);
+    }
+
+    /**
+     * @param lexicalWeight weight of the BM25 score, between 0 and 1
+     */
+    public LexicalReranker(double lexicalWeight) {
+        if (lexicalWeight < 0 || lexicalWeight > 1) {
+            throw new IllegalArgumentException("lexicalWeight must be between 0 and 1");
+        }
+        this.lexicalWeight = lexicalWeight;
+    }
+
+    @Override
+    public List<VectorStore.SearchResult> rerank(String query, List<VectorStore.SearchResult> candidates, int topN) {
+        Objects.requireNonNull(query, "query cannot be null");
+        Objects.requireNonNull(candidates, "candidates cannot be null");
+        if (topN <= 0) {
+            throw new IllegalArgumentException("topN must be positive");
+        }
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Positions rather than IDs: candidate lists may repeat an ID
+        BM25Index index = new BM25Index();
+        for (int i = 0; i < candidates.size(); i++) {
+            Object content = candidates.get(i).getMetadata().get("content");
+            index.add(Integer.toString(i), content instanceof String ? (String) content : "", Map.of());
+        }
+        float[] lexical = new float[candidates.size()];
+        float maxLexical = 0f;
+        for (VectorStore.SearchResult result : index.search(query, candidates.size())) {
+            int position = Integer.parseInt(result.getId());
+            lexical[position] = result.getSimilarity();
+            maxLexical = Math.max(maxLexical, result.getSimilarity());
+        }
+
+        float[] retrieval = normalizedScores(candidates);
+        Integer[] order = new Integer[candidates.size()];
+        float[] scores = new float[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            float lexicalScore = maxLexical > 0 ? lexical[i] / maxLexical : 0f;
+            scores[i] = (float) ((1 - lexicalWeight) * retrieval[i] + lexicalWeight * lexicalScore);
+            order[i] = i;
+        }
+        // Stable: ties keep retrieval order
+        Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+
+        int count = Math.min(topN, order.length);
+        List<VectorStore.SearchResult> reranked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            VectorStore.SearchResult candidate = candidates.get(order[i]);
+            reranked.add(new VectorStore.SearchResult(candidate.getId(), scores[order[i]], candidate.getMetadata()));
+        }
+        return reranked;
+    }
+
+    public double getLexicalWeight() {
+        return lexicalWeight;
+    }
+
+    /**
+     * Returns the candidate scores rescaled to [0, 1], or all ones if the
+     * scores are equal.
+     */
+    static float[] normalizedScores(List<VectorStore.SearchResult> candidates) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (VectorStore.SearchResult candidate : candidates) {
+            min = Math.min(min, candidate.getSimilarity());
+            max = Math.max(max, candidate.getSimilarity());
+        }
+        float[] scores = new float[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = max > min ? (candidates.get(i).getSimilarity() - min) / (max - min) : 1f;
+        }
+        return scores;
+    }
+}
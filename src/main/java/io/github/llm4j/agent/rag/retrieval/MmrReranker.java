@@ -0,0 +1,99 @@
+package io.github.llm4j.agent.rag.retrieval;
+
+import io.github.llm4j.agent.rag.store.VectorStore;
+
+import java.util.*;
+
+/**
+ * Reranker that selects a relevant but diverse subset of the candidates with
+ * maximal marginal relevance (MMR).
+ * <p>
+ * Results are picked one at a time, each maximizing
+ * {@code lambda * relevance - (1 - lambda) * maxSimilarityToPicked}, where
+ * relevance is the candidate score rescaled to [0, 1] and similarity is the
+ * Jaccard similarity of the candidates' word sets. With many overlapping
+ * candidates this keeps the prompt from spending its slots on the same
+ * passage several times. Returned results keep their candidate score.
+ */
+public class MmrReranker implements Reranker {
+
+    private final double lambda;
+
+    public MmrReranker() {
+        this(0.7);
+    }
+
+    /**
+     * @param lambda trade-off between relevance (1) and diversity (0)
+     */
+    public MmrReranker(double lambda) {
+        if (lambda < 0 || lambda > 1) {
+            throw new IllegalArgumentException("lambda must be between 0 and 1");
+        }
+        this.lambda = lambda;
+    }
+
+    @Override
+    public List<VectorStore.SearchResult> rerank(String query, List<VectorStore.SearchResult> candidates, int topN) {
+        Objects.requireNonNull(candidates, "candidates cannot be null");
+        if (topN <= 0) {
+            throw new IllegalArgumentException("topN must be positive");
+        }
+
+        int count = Math.min(topN, candidates.size());
+        float[] relevance = LexicalReranker.normalizedScores(candidates);
+        List<Set<String>> terms = new ArrayList<>(candidates.size());
+        for (VectorStore.SearchResult candidate : candidates) {
+            Object content = candidate.getMetadata().get("content");
+            terms.add(new HashSet<>(BM25Index.tokenize(content instanceof String ? (String) content : "")));
+        }
+
+        // Highest similarity of each candidate to any picked result so far
+        double[] redundancy = new double[candidates.size()];
+        boolean[] picked = new boolean[candidates.size()];
+        List<VectorStore.SearchResult> selected = new ArrayList<>(count);
+
+        for (int round = 0; round < count; round++) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (picked[i]) {
+                    continue;
+                }
+                double score = lambda * relevance[i] - (1 - lambda) * redundancy[i];
+                if (score > bestScore) {
+                    best = i;
+                    bestScore = score;
+                }
+            }
+
+            picked[best] = true;
+            selected.add(candidates.get(best));
+            for (int i = 0; i < candidates.size(); i++) {
+                if (!picked[i]) {
+                    redundancy[i] = Math.max(redundancy[i], jaccard(terms.get(i), terms.get(best)));
+                }
+            }
+        }
+        return selected;
+    }
+
+    public double getLambda() {
+        return lambda;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0.0;
+        }
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int intersection = 0;
+        for (String term : smaller) {
+            if (larger.contains(term)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+}
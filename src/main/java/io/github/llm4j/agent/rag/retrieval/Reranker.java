@@ -0,0 +1,45 @@
+package io.github.llm4j.agent.rag.retrieval;
+
+import io.github.llm4j.agent.rag.store.VectorStore;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Re-orders retrieved candidates before they are added to the prompt, so a
+ * RAG agent can retrieve many candidates for recall and send only the best
+ * few.
+ * <p>
+ * {@link LexicalReranker} and {@link MmrReranker} run locally and cheaply;
+ * model-based rerankers (cross-encoders, LLM scoring) implement this
+ * interface around their own client.
+ */
+@FunctionalInterface
+public interface Reranker {
+
+    /**
+     * Selects and orders the best candidates for the query.
+     *
+     * @param query      the user query
+     * @param candidates retrieved candidates, most relevant first; the
+     *                   metadata of each contains the chunk {@code content}
+     * @param topN       maximum number of results to return
+     * @return at most {@code topN} results, best first, with the reranker's
+     *         score as similarity
+     */
+    List<VectorStore.SearchResult> rerank(String query, List<VectorStore.SearchResult> candidates, int topN);
+
+    /**
+     * Returns a reranker that rescores all candidates with this reranker and
+     * then lets {@code next} select the top N from them, e.g. lexical
+     * rescoring followed by MMR diversification.
+     *
+     * @param next the reranker applied to this reranker's output
+     * @return the combined reranker
+     */
+    default Reranker andThen(Reranker next) {
+        Objects.requireNonNull(next, "next cannot be null");
+        return (query, candidates, topN) -> next.rerank(query,
+                rerank(query, candidates, Math.max(1, candidates.size())), topN);
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.llm4j.agent.rag.retrieval;
+
+import io.github.llm4j.agent.rag.store.VectorStore;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retrieves the chunks most relevant to a query for a RAG agent.
+ */
+public interface Retriever {
+
+    /**
+     * Retrieves the top-K chunks for the query.
+     *
+     * @param query the user query
+     * @param topK  number of results to return
+     * @return results ordered by relevance (highest first); the metadata of
+     *         each result contains the chunk {@code content}
+     */
+    List<VectorStore.SearchResult> retrieve(String query, int topK);
+
+    /**
+     * Called after a chunk has been stored, so retrievers that keep their own
+     * index (e.g. a lexical index) can add it.
+     *
+     * @param chunkId  the chunk ID
+     * @param metadata the stored chunk metadata, including {@code content}
+     */
+    default void onChunkAdded(String chunkId, Map<String, Object> metadata) {
+    }
+
+    /**
+     * Called after a chunk has been removed from the store.
+     *
+     * @param chunkId the chunk ID
+     */
+    default void onChunkRemoved(String chunkId) {
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.llm4j.agent.rag.retrieval;
+
+import io.github.llm4j.agent.rag.embedding.EmbeddingProvider;
+import io.github.llm4j.agent.rag.store.VectorStore;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Retriever that embeds the query and searches a vector store.
+ */
+public class VectorRetriever implements Retriever {
+
+    private final VectorStore vectorStore;
+    private final EmbeddingProvider embeddingProvider;
+
+    public VectorRetriever(VectorStore vectorStore, EmbeddingProvider embeddingProvider) {
+        this.vectorStore = Objects.requireNonNull(vectorStore, "vectorStore cannot be null");
+        this.embeddingProvider = Objects.requireNonNull(embeddingProvider, "embeddingProvider cannot be null");
+    }
+
+    @Override
+    public List<VectorStore.SearchResult> retrieve(String query, int topK) {
+        Objects.requireNonNull(query, "query cannot be null");
+
+        float[] queryEmbedding = embeddingProvider.embed(query);
+        return vectorStore.search(queryEmbedding, topK);
+    }
+
+    public VectorStore getVectorStore() {
+        return vectorStore;
+    }
+
+    public EmbeddingProvider getEmbeddingProvider() {
+        return embeddingProvider;
+    }
+}
@@ -1,22 +1,78 @@
 package io.github.llm4j.agent.rag.store;
 
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.RealVector;
+import io.github.llm4j.agent.metadata.Filter;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * In-memory vector store using cosine similarity for search.
  * Suitable for small to medium datasets (up to ~10K vectors).
+ * <p>
+ * Metadata fields declared through {@link Builder#indexedFields} get an
+ * inverted index from value to vector ordinals, so filtered searches on those
+ * fields can intersect bitmaps and score only the matching vectors.
  */
 public class InMemoryVectorStore implements VectorStore {
 
-    private final Map<String, VectorEntry> vectors;
+    /**
+     * Strategy used to apply metadata filters during a search.
+     */
+    public enum FilterPlan {
+        /**
+         * No filters: every vector is scored.
+         */
+        SCAN,
+        /**
+         * Indexed filters are selective: intersect their bitmaps and score only
+         * the candidates.
+         */
+        PRE_FILTER,
+        /**
+         * Filters are unindexed or match most vectors: score every vector and
+         * evaluate filters only for those that would enter the top-K.
+         */
+        POST_FILTER
+    }
+
+    /**
+     * Vectors and queries per tile of a batched search. A tile of vectors is
+     * scored against a tile of queries while both are cache resident.
+     */
+    private static final int VECTOR_BLOCK = 256;
+    private static final int QUERY_BLOCK = 16;
+
+    private final Map<String, MetadataIndex> indexes;
+    private final double preFilterSelectivity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final List<float[]> embeddings = new ArrayList<>();
+    private final List<Map<String, Object>> metadata = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private float[] norms = new float[16];
 
     public InMemoryVectorStore() {
-        this.vectors = new ConcurrentHashMap<>();
+        this(builder());
+    }
+
+    private InMemoryVectorStore(Builder builder) {
+        this.indexes = new HashMap<>();
+        for (String field : builder.indexedFields) {
+            indexes.put(field, new MetadataIndex(field));
+        }
+        this.preFilterSelectivity = builder.preFilterSelectivity;
     }
 
     @Override
@@ -26,7 +82,39 @@ public class InMemoryVectorStore implements VectorStore {
 
         Map<String, Object> metadataCopy = metadata != null ? new HashMap<>(metadata) : new HashMap<>();
 
-        vectors.put(id, new VectorEntry(id, embedding, metadataCopy));
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(id);
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                unindex(ordinal);
+                this.embeddings.set(ordinal, embedding);
+                this.metadata.set(ordinal, metadataCopy);
+            } else if (!freeOrdinals.isEmpty()) {
+                ordinal = freeOrdinals.pop();
+                ids.set(ordinal, id);
+                this.embeddings.set(ordinal, embedding);
+                this.metadata.set(ordinal, metadataCopy);
+            } else {
+                ordinal = ids.size();
+                ids.add(id);
+                this.embeddings.add(embedding);
+                this.metadata.add(metadataCopy);
+                if (ordinal == norms.length) {
+                    norms = Arrays.copyOf(norms, norms.length * 2);
+                }
+            }
+
+            ordinals.put(id, ordinal);
+            norms[ordinal] = VectorMath.norm(embedding);
+            live.set(ordinal);
+            for (MetadataIndex index : indexes.values()) {
+                index.add(ordinal, metadataCopy);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
@@ -40,103 +128,522 @@ public class InMemoryVectorStore implements VectorStore {
 
     @Override
     public List<SearchResult> search(float[] queryEmbedding, int topK) {
-        return search(queryEmbedding, topK, null);
+        return search(queryEmbedding, topK, (Filter) null);
     }
 
     @Override
     public List<SearchResult> search(float[] queryEmbedding, int topK, Map<String, Object> filters) {
+        return search(queryEmbedding, topK, Filter.fromMap(filters));
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK, Filter filter) {
         Objects.requireNonNull(queryEmbedding, "queryEmbedding cannot be null");
 
         if (topK <= 0) {
             throw new IllegalArgumentException("topK must be positive");
         }
 
-        RealVector queryVector = new ArrayRealVector(toDoubleArray(queryEmbedding));
+        float queryNorm = VectorMath.norm(queryEmbedding);
 
-        // Calculate similarities for all vectors
-        List<SearchResult> results = vectors.values().stream()
-                .filter(entry -> matchesFilters(entry.getMetadata(), filters))
-                .map(entry -> {
-                    RealVector entryVector = new ArrayRealVector(toDoubleArray(entry.getEmbedding()));
-                    float similarity = (float) cosineSimilarity(queryVector, entryVector);
-                    return new SearchResult(entry.getId(), similarity, entry.getMetadata());
-                })
-                .sorted((a, b) -> Float.compare(b.getSimilarity(), a.getSimilarity()))
-                .limit(topK)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            TopKCollector collector = new TopKCollector(topK);
+            Candidates candidates = filter != null ? candidates(filter) : null;
+            FilterPlan plan = choosePlan(filter, candidates);
 
-        return results;
+            if (plan == FilterPlan.PRE_FILTER) {
+                BitSet bitmap = candidates.bitmap;
+                for (int ordinal = bitmap.nextSetBit(0); ordinal >= 0; ordinal = bitmap.nextSetBit(ordinal + 1)) {
+                    if (candidates.exact || filter.matches(metadata.get(ordinal))) {
+                        collector.offer(ordinal, similarity(queryEmbedding, queryNorm, ordinal));
+                    }
+                }
+            } else {
+                boolean filtered = plan == FilterPlan.POST_FILTER;
+                for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                    float similarity = similarity(queryEmbedding, queryNorm, ordinal);
+                    // Filters are only evaluated for vectors that would enter the top-K
+                    if (similarity > collector.threshold()
+                            && (!filtered || filter.matches(metadata.get(ordinal)))) {
+                        collector.offer(ordinal, similarity);
+                    }
+                }
+            }
+
+            return toResults(collector);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean supportsFind() {
+        return true;
+    }
+
+    /**
+     * Uses the metadata indexes to narrow the candidates when the filter
+     * allows it.
+     */
+    @Override
+    public List<VectorEntry> find(Filter filter) {
+        Objects.requireNonNull(filter, "filter cannot be null");
+
+        lock.readLock().lock();
+        try {
+            Candidates candidates = candidates(filter);
+            BitSet bitmap = candidates != null ? candidates.bitmap : live;
+            boolean exact = candidates != null && candidates.exact;
+
+            List<VectorEntry> entries = new ArrayList<>();
+            for (int ordinal = bitmap.nextSetBit(0); ordinal >= 0; ordinal = bitmap.nextSetBit(ordinal + 1)) {
+                if (exact || filter.matches(metadata.get(ordinal))) {
+                    entries.add(new VectorEntry(ids.get(ordinal), embeddings.get(ordinal), metadata.get(ordinal)));
+                }
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scans the store once for all queries, scoring tiles of vectors against
+     * tiles of queries so each vector is read from memory once per batch
+     * rather than once per query.
+     */
+    @Override
+    public List<List<SearchResult>> searchBatch(List<float[]> queryEmbeddings, int topK) {
+        Objects.requireNonNull(queryEmbeddings, "queryEmbeddings cannot be null");
+
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+
+        int queryCount = queryEmbeddings.size();
+        float[][] queries = new float[queryCount][];
+        float[] queryNorms = new float[queryCount];
+        TopKCollector[] collectors = new TopKCollector[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            queries[q] = Objects.requireNonNull(queryEmbeddings.get(q), "queryEmbedding cannot be null");
+            queryNorms[q] = VectorMath.norm(queries[q]);
+            collectors[q] = new TopKCollector(topK);
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] block = new int[VECTOR_BLOCK];
+            int ordinal = live.nextSetBit(0);
+            while (ordinal >= 0) {
+                int blockSize = 0;
+                while (ordinal >= 0 && blockSize < VECTOR_BLOCK) {
+                    block[blockSize++] = ordinal;
+                    ordinal = live.nextSetBit(ordinal + 1);
+                }
+
+                for (int queryStart = 0; queryStart < queryCount; queryStart += QUERY_BLOCK) {
+                    int queryEnd = Math.min(queryStart + QUERY_BLOCK, queryCount);
+                    for (int v = 0; v < blockSize; v++) {
+                        int vector = block[v];
+                        for (int q = queryStart; q < queryEnd; q++) {
+                            float similarity = similarity(queries[q], queryNorms[q], vector);
+                            if (similarity > collectors[q].threshold()) {
+                                collectors[q].offer(vector, similarity);
+                            }
+                        }
+                    }
+                }
+            }
+
+            List<List<SearchResult>> results = new ArrayList<>(queryCount);
+            for (TopKCollector collector : collectors) {
+                results.add(toResults(collector));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the strategy a search with the given filters would use.
+     *
+     * @param filters metadata filters (null means no filtering)
+     * @return the chosen plan
+     */
+    public FilterPlan planFor(Map<String, Object> filters) {
+        return planFor(Filter.fromMap(filters));
+    }
+
+    /**
+     * Returns the strategy a search with the given filter would use.
+     *
+     * @param filter filter expression (null means no filtering)
+     * @return the chosen plan
+     */
+    public FilterPlan planFor(Filter filter) {
+        lock.readLock().lock();
+        try {
+            return choosePlan(filter, filter != null ? candidates(filter) : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the metadata fields with an inverted index.
+     *
+     * @return indexed field names
+     */
+    public Set<String> getIndexedFields() {
+        return Collections.unmodifiableSet(indexes.keySet());
     }
 
     @Override
     public boolean delete(String id) {
-        return vectors.remove(id) != null;
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return false;
+            }
+
+            unindex(ordinal);
+            live.clear(ordinal);
+            ids.set(ordinal, null);
+            embeddings.set(ordinal, null);
+            metadata.set(ordinal, null);
+            freeOrdinals.push(ordinal);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public int size() {
-        return vectors.size();
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public void clear() {
-        vectors.clear();
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            ids.clear();
+            embeddings.clear();
+            metadata.clear();
+            live.clear();
+            freeOrdinals.clear();
+            norms = new float[16];
+            for (MetadataIndex index : indexes.values()) {
+                index.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Calculates cosine similarity between two vectors.
+     * Saves all vectors to a binary snapshot file with a checksum.
      *
-     * @param v1 first vector
-     * @param v2 second vector
-     * @return cosine similarity (0 to 1)
+     * @param path the snapshot file
+     * @throws IOException if the file cannot be written
      */
-    private double cosineSimilarity(RealVector v1, RealVector v2) {
-        double dotProduct = v1.dotProduct(v2);
-        double norm1 = v1.getNorm();
-        double norm2 = v2.getNorm();
+    public void save(Path path) throws IOException {
+        save(path, true);
+    }
 
-        if (norm1 == 0 || norm2 == 0) {
-            return 0;
+    /**
+     * Saves all vectors to a binary snapshot file. The snapshot is written to a
+     * temporary file first and moved into place once complete.
+     *
+     * @param path     the snapshot file
+     * @param checksum whether to append a CRC32C checksum
+     * @throws IOException           if the file cannot be written
+     * @throws IllegalStateException if the store holds embeddings of different
+     *                               dimensions
+     */
+    public void save(Path path, boolean checksum) throws IOException {
+        Objects.requireNonNull(path, "path cannot be null");
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            save(channel, checksum);
+            channel.force(true);
         }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
 
-        return dotProduct / (norm1 * norm2);
+    /**
+     * Writes all vectors to the channel in the binary snapshot format.
+     *
+     * @param channel  the target channel
+     * @param checksum whether to append a CRC32C checksum
+     * @throws IOException if writing fails
+     */
+    public void save(WritableByteChannel channel, boolean checksum) throws IOException {
+        Objects.requireNonNull(channel, "channel cannot be null");
+        VectorSnapshot.write(entries(), channel, checksum);
     }
 
     /**
-     * Checks if metadata matches the given filters.
+     * Replaces the contents of this store with a snapshot written by
+     * {@link #save(Path)}.
      *
-     * @param metadata the metadata to check
-     * @param filters  the filters to apply (null means no filtering)
-     * @return true if metadata matches all filters
+     * @param path the snapshot file
+     * @throws IOException if the snapshot cannot be read or is corrupt
      */
-    private boolean matchesFilters(Map<String, Object> metadata, Map<String, Object> filters) {
-        if (filters == null || filters.isEmpty()) {
-            return true;
+    public void load(Path path) throws IOException {
+        Objects.requireNonNull(path, "path cannot be null");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            load(channel);
         }
+    }
 
-        for (Map.Entry<String, Object> filter : filters.entrySet()) {
-            Object metadataValue = metadata.get(filter.getKey());
-            Object filterValue = filter.getValue();
+    /**
+     * Replaces the contents of this store with a snapshot read from the
+     * channel. Entries are decoded into a separate store, which replaces the
+     * contents of this one only once the whole snapshot, including its
+     * checksum, has been read. Concurrent searches see either the old or the
+     * new contents, and a failed load leaves the store unchanged.
+     *
+     * @param channel the source channel
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    public void load(ReadableByteChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "channel cannot be null");
 
-            if (metadataValue == null || !metadataValue.equals(filterValue)) {
-                return false;
+        InMemoryVectorStore loaded = builder()
+                .indexedFields(indexes.keySet().toArray(new String[0]))
+                .preFilterSelectivity(preFilterSelectivity)
+                .build();
+        VectorSnapshot.read(channel, entry -> loaded.add(entry.getId(), entry.getEmbedding(), entry.getMetadata()));
+
+        lock.writeLock().lock();
+        try {
+            clear();
+            ordinals.putAll(loaded.ordinals);
+            ids.addAll(loaded.ids);
+            embeddings.addAll(loaded.embeddings);
+            metadata.addAll(loaded.metadata);
+            live.or(loaded.live);
+            freeOrdinals.addAll(loaded.freeOrdinals);
+            norms = loaded.norms;
+            for (MetadataIndex index : indexes.values()) {
+                index.replaceWith(loaded.indexes.get(index.getField()));
             }
+        } finally {
+            lock.writeLock().unlock();
         }
+    }
 
-        return true;
+    private List<VectorEntry> entries() {
+        lock.readLock().lock();
+        try {
+            List<VectorEntry> entries = new ArrayList<>(ordinals.size());
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                entries.add(new VectorEntry(ids.get(ordinal), embeddings.get(ordinal), metadata.get(ordinal)));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Converts float array to double array for Apache Commons Math.
+     * Translates a filter into a bitmap of candidate ordinals using the
+     * metadata indexes.
      *
-     * @param floats float array
-     * @return double array
+     * @return a superset of the matching ordinals (exact if every clause was
+     *         answered by an index), or null if the filter cannot be bounded
+     */
+    private Candidates candidates(Filter filter) {
+        if (filter instanceof Filter.Eq) {
+            Filter.Eq eq = (Filter.Eq) filter;
+            MetadataIndex index = indexes.get(eq.getField());
+            return index != null ? new Candidates((BitSet) index.get(eq.getValue()).clone(), true) : null;
+        }
+        if (filter instanceof Filter.In) {
+            Filter.In in = (Filter.In) filter;
+            MetadataIndex index = indexes.get(in.getField());
+            if (index == null) {
+                return null;
+            }
+            BitSet bitmap = new BitSet();
+            for (Object value : in.getValues()) {
+                bitmap.or(index.get(value));
+            }
+            return new Candidates(bitmap, true);
+        }
+        if (filter instanceof Filter.Range) {
+            Filter.Range range = (Filter.Range) filter;
+            MetadataIndex index = indexes.get(range.getField());
+            if (index == null) {
+                return null;
+            }
+            // One range test per distinct value rather than per vector
+            BitSet bitmap = new BitSet();
+            for (Map.Entry<Object, BitSet> posting : index.postings().entrySet()) {
+                if (range.test(posting.getKey())) {
+                    bitmap.or(posting.getValue());
+                }
+            }
+            return new Candidates(bitmap, true);
+        }
+        if (filter instanceof Filter.Not) {
+            Candidates negated = candidates(((Filter.Not) filter).getFilter());
+            if (negated == null || !negated.exact) {
+                return null;
+            }
+            BitSet bitmap = (BitSet) live.clone();
+            bitmap.andNot(negated.bitmap);
+            return new Candidates(bitmap, true);
+        }
+        if (filter instanceof Filter.And) {
+            Candidates result = null;
+            boolean exact = true;
+            for (Filter clause : ((Filter.And) filter).getFilters()) {
+                Candidates clauseCandidates = candidates(clause);
+                if (clauseCandidates == null) {
+                    exact = false;
+                    continue;
+                }
+                exact &= clauseCandidates.exact;
+                if (result == null) {
+                    result = clauseCandidates;
+                } else {
+                    result.bitmap.and(clauseCandidates.bitmap);
+                }
+            }
+            return result != null ? new Candidates(result.bitmap, exact) : null;
+        }
+        if (filter instanceof Filter.Or) {
+            BitSet bitmap = new BitSet();
+            boolean exact = true;
+            for (Filter clause : ((Filter.Or) filter).getFilters()) {
+                Candidates clauseCandidates = candidates(clause);
+                if (clauseCandidates == null) {
+                    return null;
+                }
+                exact &= clauseCandidates.exact;
+                bitmap.or(clauseCandidates.bitmap);
+            }
+            return new Candidates(bitmap, exact);
+        }
+        return null;
+    }
+
+    private FilterPlan choosePlan(Filter filter, Candidates candidates) {
+        if (filter == null) {
+            return FilterPlan.SCAN;
+        }
+        if (candidates == null) {
+            return FilterPlan.POST_FILTER;
+        }
+
+        int total = ordinals.size();
+        double selectivity = total == 0 ? 0 : (double) candidates.bitmap.cardinality() / total;
+        return selectivity <= preFilterSelectivity ? FilterPlan.PRE_FILTER : FilterPlan.POST_FILTER;
+    }
+
+    private void unindex(int ordinal) {
+        Map<String, Object> entryMetadata = metadata.get(ordinal);
+        for (MetadataIndex index : indexes.values()) {
+            index.remove(ordinal, entryMetadata);
+        }
+    }
+
+    private float similarity(float[] query, float queryNorm, int ordinal) {
+        float[] embedding = embeddings.get(ordinal);
+        float norm = norms[ordinal];
+        if (queryNorm == 0 || norm == 0) {
+            return 0;
+        }
+        if (embedding.length != query.length) {
+            throw new IllegalArgumentException(String.format(
+                    "query dimension %d does not match dimension %d of vector %s",
+                    query.length, embedding.length, ids.get(ordinal)));
+        }
+        return VectorMath.dot(query, embedding) / (queryNorm * norm);
+    }
+
+    private List<SearchResult> toResults(TopKCollector collector) {
+        collector.sortDescending();
+        List<SearchResult> results = new ArrayList<>(collector.size());
+        for (int i = 0; i < collector.size(); i++) {
+            int ordinal = collector.ordinalAt(i);
+            results.add(new SearchResult(ids.get(ordinal), collector.scoreAt(i), metadata.get(ordinal)));
+        }
+        return results;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Candidate ordinals for a filter; {@code exact} means every candidate is
+     * known to match without evaluating the filter.
      */
-    private double[] toDoubleArray(float[] floats) {
-        double[] doubles = new double[floats.length];
-        for (int i = 0; i < floats.length; i++) {
-            doubles[i] = floats[i];
+    private static final class Candidates {
+        private final BitSet bitmap;
+        private final boolean exact;
+
+        private Candidates(BitSet bitmap, boolean exact) {
+            this.bitmap = bitmap;
+            this.exact = exact;
+        }
+    }
+
+    public static final class Builder {
+        private final Set<String> indexedFields = new LinkedHashSet<>();
+        private double preFilterSelectivity = 0.25;
+
+        private Builder() {
+        }
+
+        /**
+         * Declares metadata fields to maintain an inverted index for.
+         *
+         * @param fields field names
+         * @return this builder
+         */
+        public Builder indexedFields(String... fields) {
+            this.indexedFields.addAll(Arrays.asList(fields));
+            return this;
+        }
+
+        public Builder addIndexedField(String field) {
+            this.indexedFields.add(Objects.requireNonNull(field, "field cannot be null"));
+            return this;
+        }
+
+        /**
+         * Sets the fraction of the store that indexed filters may match for the
+         * planner to still prefer pre-filtering over a post-filtered scan.
+         *
+         * @param preFilterSelectivity fraction between 0 and 1
+         * @return this builder
+         */
+        public Builder preFilterSelectivity(double preFilterSelectivity) {
+            if (preFilterSelectivity < 0 || preFilterSelectivity > 1) {
+                throw new IllegalArgumentException("preFilterSelectivity must be between 0 and 1");
+            }
+            this.preFilterSelectivity = preFilterSelectivity;
+            return this;
+        }
+
+        public InMemoryVectorStore build() {
+            return new InMemoryVectorStore(this);
         }
-        return doubles;
     }
 }
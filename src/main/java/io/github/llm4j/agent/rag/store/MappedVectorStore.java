@@ -0,0 +1,838 @@
+package io.github.llm4j.agent.rag.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.llm4j.agent.metadata.Filter;
+import io.github.llm4j.agent.metadata.MetadataTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Disk-backed vector store that keeps embeddings in a fixed-stride file
+ * accessed through memory-mapped buffers, so reopening a store does not read
+ * the vectors onto the heap.
+ * <p>
+ * A store is a directory with two files:
+ * <ul>
+ * <li>{@code vectors.bin} - a header followed by one record per vector: the
+ * vector norm and its components as little-endian floats</li>
+ * <li>{@code metadata.log} - an append-only log of add and delete records
+ * holding ids and metadata, replayed on open</li>
+ * </ul>
+ * Metadata is stored as JSON together with the {@link MetadataTypes types}
+ * of values that JSON does not preserve, so a reopened store returns the
+ * same boxed types that were added. Opening a store only reads the ids from
+ * the log; the metadata of a record is parsed when it is first returned or
+ * filtered on.
+ * <p>
+ * Deletes and overwrites leave tombstoned records behind; {@link #compact()}
+ * rewrites both files without them into temporary files and then renames
+ * them over the originals. Both files carry a generation number that
+ * compaction increments, so a vector file is never paired with the log of
+ * another generation: if a crash interrupts the renames, the next open
+ * finishes them, and any other mismatch fails the open.
+ */
+public class MappedVectorStore implements VectorStore, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedVectorStore.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    static final String VECTORS_FILE = "vectors.bin";
+    static final String METADATA_FILE = "metadata.log";
+
+    private static final int MAGIC = 0x4C344A4D; // "L4JM"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final byte RECORD_ADD = 1;
+    private static final byte RECORD_DELETE = 2;
+    private static final byte RECORD_ADD_TYPED = 3;
+    private static final byte RECORD_GENERATION = 4;
+    private static final int RECORD_HEADER_BYTES = 1 + Integer.BYTES;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Path directory;
+    private final int dimension;
+    private final int stride;
+    private final int vectorsPerSegment;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final List<StoredMetadata> metadata = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private final List<FloatBuffer> segments = new ArrayList<>();
+
+    private FileChannel vectorChannel;
+    private FileChannel logChannel;
+    private int mappedRecords;
+    private int generation;
+
+    private MappedVectorStore(Path directory, int dimension) {
+        this.directory = directory;
+        this.dimension = dimension;
+        this.stride = (dimension + 1) * Float.BYTES;
+        this.vectorsPerSegment = (int) Math.max(1, MAX_SEGMENT_BYTES / stride);
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if it does not exist.
+     *
+     * @param directory store directory
+     * @param dimension embedding dimension
+     * @return the opened store
+     * @throws IOException              if the files cannot be read or created
+     * @throws IllegalArgumentException if an existing store has another
+     *                                  dimension
+     */
+    public static MappedVectorStore open(Path directory, int dimension) throws IOException {
+        Objects.requireNonNull(directory, "directory cannot be null");
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("dimension must be positive");
+        }
+
+        Files.createDirectories(directory);
+        Path vectorsFile = directory.resolve(VECTORS_FILE);
+        if (Files.exists(vectorsFile)) {
+            int existing = readDimension(vectorsFile);
+            if (existing != dimension) {
+                throw new IllegalArgumentException(String.format(
+                        "store at %s has dimension %d, not %d", directory, existing, dimension));
+            }
+        }
+
+        MappedVectorStore store = new MappedVectorStore(directory, dimension);
+        try {
+            store.openFiles();
+        } catch (IOException | RuntimeException e) {
+            try {
+                store.closeFiles();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Opens an existing store, reading the dimension from its header.
+     *
+     * @param directory store directory
+     * @return the opened store
+     * @throws IOException if the store does not exist or cannot be read
+     */
+    public static MappedVectorStore open(Path directory) throws IOException {
+        Objects.requireNonNull(directory, "directory cannot be null");
+        return open(directory, readDimension(directory.resolve(VECTORS_FILE)));
+    }
+
+    @Override
+    public void add(String id, float[] embedding, Map<String, Object> metadata) {
+        Objects.requireNonNull(id, "id cannot be null");
+        Objects.requireNonNull(embedding, "embedding cannot be null");
+        if (embedding.length != dimension) {
+            throw new IllegalArgumentException(String.format(
+                    "embedding dimension %d does not match store dimension %d", embedding.length, dimension));
+        }
+
+        Map<String, Object> metadataCopy = metadata != null ? new HashMap<>(metadata) : new HashMap<>();
+
+        lock.writeLock().lock();
+        try {
+            int ordinal = ids.size();
+            writeVector(ordinal, embedding);
+            long position = appendAddRecord(ordinal, id, metadataCopy);
+            applyAdd(ordinal, id, new StoredMetadata(position, metadataCopy));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append vector " + id, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addBatch(List<VectorEntry> entries) {
+        Objects.requireNonNull(entries, "entries cannot be null");
+
+        for (VectorEntry entry : entries) {
+            add(entry.getId(), entry.getEmbedding(), entry.getMetadata());
+        }
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK) {
+        return search(queryEmbedding, topK, (Filter) null);
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK, Map<String, Object> filters) {
+        return search(queryEmbedding, topK, Filter.fromMap(filters));
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK, Filter filter) {
+        Objects.requireNonNull(queryEmbedding, "queryEmbedding cannot be null");
+
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        if (queryEmbedding.length != dimension) {
+            throw new IllegalArgumentException(String.format(
+                    "query dimension %d does not match store dimension %d", queryEmbedding.length, dimension));
+        }
+
+        float queryNorm = VectorMath.norm(queryEmbedding);
+        ensureMapped();
+
+        lock.readLock().lock();
+        try {
+            int count = Math.min(ids.size(), mappedRecords);
+            TopKCollector collector = new TopKCollector(topK);
+            float[] record = new float[dimension + 1];
+
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                if (deleted.get(ordinal) || !matches(filter, ordinal)) {
+                    continue;
+                }
+                readRecord(ordinal, record);
+                float norm = record[0];
+                float similarity = 0f;
+                if (norm != 0 && queryNorm != 0) {
+                    float dot = 0f;
+                    for (int i = 0; i < dimension; i++) {
+                        dot += queryEmbedding[i] * record[i + 1];
+                    }
+                    similarity = dot / (queryNorm * norm);
+                }
+                collector.offer(ordinal, similarity);
+            }
+            collector.sortDescending();
+
+            List<SearchResult> results = new ArrayList<>(collector.size());
+            for (int i = 0; i < collector.size(); i++) {
+                int ordinal = collector.ordinalAt(i);
+                results.add(new SearchResult(ids.get(ordinal), collector.scoreAt(i), metadata.get(ordinal).get()));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean supportsFind() {
+        return true;
+    }
+
+    @Override
+    public List<VectorEntry> find(Filter filter) {
+        Objects.requireNonNull(filter, "filter cannot be null");
+        ensureMapped();
+
+        lock.readLock().lock();
+        try {
+            int count = Math.min(ids.size(), mappedRecords);
+            List<VectorEntry> entries = new ArrayList<>();
+            float[] record = new float[dimension + 1];
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                if (deleted.get(ordinal) || !matches(filter, ordinal)) {
+                    continue;
+                }
+                readRecord(ordinal, record);
+                entries.add(new VectorEntry(ids.get(ordinal), Arrays.copyOfRange(record, 1, record.length),
+                        metadata.get(ordinal).get()));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        lock.writeLock().lock();
+        try {
+            if (!ordinals.containsKey(id)) {
+                return false;
+            }
+            appendDeleteRecord(id);
+            applyDelete(id);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete vector " + id, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            vectorChannel.truncate(HEADER_BYTES);
+            logChannel.truncate(0);
+            if (generation != 0) {
+                writeFully(logChannel, encodeGenerationRecord(generation), 0);
+            }
+            resetState();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear store at " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the vector file and metadata log without deleted or overwritten
+     * records. Metadata records are copied without being parsed.
+     * <p>
+     * If the rewritten files cannot be moved into place, the store is reopened
+     * from the files on disk before the exception is thrown.
+     *
+     * @throws IOException if the files cannot be rewritten
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            int live = ordinals.size();
+            int total = ids.size();
+            if (live == total) {
+                return;
+            }
+
+            mapThrough(total);
+            Path vectorsFile = directory.resolve(VECTORS_FILE);
+            Path logFile = directory.resolve(METADATA_FILE);
+            Path vectorsTemp = directory.resolve(VECTORS_FILE + ".tmp");
+            Path logTemp = directory.resolve(METADATA_FILE + ".tmp");
+            int nextGeneration = generation + 1;
+            float[] record = new float[dimension + 1];
+            ByteBuffer vectorBuffer = ByteBuffer.allocate(stride).order(ByteOrder.LITTLE_ENDIAN);
+
+            try (FileChannel vectors = FileChannel.open(vectorsTemp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                    FileChannel log = FileChannel.open(logTemp, StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeHeader(vectors, nextGeneration);
+                writeFully(log, encodeGenerationRecord(nextGeneration));
+                int target = 0;
+                for (int ordinal = 0; ordinal < total; ordinal++) {
+                    if (deleted.get(ordinal)) {
+                        continue;
+                    }
+                    readRecord(ordinal, record);
+                    vectorBuffer.clear();
+                    vectorBuffer.asFloatBuffer().put(record);
+                    vectors.write(vectorBuffer, HEADER_BYTES + (long) target * stride);
+                    ByteBuffer addRecord = readLogRecord(metadata.get(ordinal).position);
+                    addRecord.putInt(RECORD_HEADER_BYTES, target);
+                    writeFully(log, addRecord);
+                    target++;
+                }
+                vectors.force(true);
+                log.force(true);
+            } catch (IOException | RuntimeException e) {
+                try {
+                    Files.deleteIfExists(vectorsTemp);
+                    Files.deleteIfExists(logTemp);
+                } catch (IOException cleanupFailure) {
+                    e.addSuppressed(cleanupFailure);
+                }
+                throw e;
+            }
+
+            // The log is moved second: a crash in between leaves a vector file
+            // whose generation matches only the temporary log, which
+            // openFiles() then moves into place
+            closeFiles();
+            try {
+                Files.move(vectorsTemp, vectorsFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                Files.move(logTemp, logFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                try {
+                    resetState();
+                    openFiles();
+                } catch (IOException | RuntimeException reopenFailure) {
+                    e.addSuppressed(reopenFailure);
+                }
+                throw e;
+            }
+            resetState();
+            openFiles();
+            logger.info("Compacted store at {}: {} records reduced to {}", directory, total, live);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces pending writes of both files to the storage device.
+     *
+     * @throws IOException if the files cannot be synced
+     */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            vectorChannel.force(false);
+            logChannel.force(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            closeFiles();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    private void openFiles() throws IOException {
+        Path vectorsFile = directory.resolve(VECTORS_FILE);
+        Path logFile = directory.resolve(METADATA_FILE);
+        boolean created = !Files.exists(vectorsFile);
+        if (!created) {
+            recoverCompaction(vectorsFile, logFile);
+        }
+
+        vectorChannel = FileChannel.open(vectorsFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (created) {
+            writeHeader(vectorChannel, 0);
+        }
+        generation = readGeneration(vectorChannel);
+        logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int logGeneration = readLogGeneration(logChannel);
+        if (logGeneration != generation && logChannel.size() > 0) {
+            throw new IOException(String.format("%s has generation %d but %s has generation %d in %s",
+                    VECTORS_FILE, generation, METADATA_FILE, logGeneration, directory));
+        }
+
+        long start = System.nanoTime();
+        replayLog();
+        logger.debug("Opened store at {} with {} vectors in {} ms", directory, ordinals.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Finishes a compaction that crashed between renaming the vector file and
+     * the log, and removes the temporary files of any other interrupted
+     * compaction.
+     */
+    private void recoverCompaction(Path vectorsFile, Path logFile) throws IOException {
+        Path vectorsTemp = directory.resolve(VECTORS_FILE + ".tmp");
+        Path logTemp = directory.resolve(METADATA_FILE + ".tmp");
+        if (Files.exists(logTemp)) {
+            int vectorsGeneration;
+            try (FileChannel channel = FileChannel.open(vectorsFile, StandardOpenOption.READ)) {
+                vectorsGeneration = readGeneration(channel);
+            }
+            if (vectorsGeneration != 0 && logGeneration(logFile) != vectorsGeneration
+                    && logGeneration(logTemp) == vectorsGeneration) {
+                logger.warn("Completing interrupted compaction of store at {}", directory);
+                Files.move(logTemp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        Files.deleteIfExists(vectorsTemp);
+        Files.deleteIfExists(logTemp);
+    }
+
+    private static int logGeneration(Path logFile) throws IOException {
+        if (!Files.exists(logFile)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            return readLogGeneration(channel);
+        }
+    }
+
+    private void closeFiles() throws IOException {
+        segments.clear();
+        mappedRecords = 0;
+        if (vectorChannel != null) {
+            vectorChannel.close();
+        }
+        if (logChannel != null) {
+            logChannel.close();
+        }
+    }
+
+    private void resetState() {
+        ordinals.clear();
+        ids.clear();
+        metadata.clear();
+        deleted.clear();
+        segments.clear();
+        mappedRecords = 0;
+    }
+
+    /**
+     * Rebuilds the ids and tombstones from the log, reading it sequentially.
+     * Metadata is skipped and left to be parsed on first use.
+     */
+    private void replayLog() throws IOException {
+        long size = logChannel.size();
+        long validRecords = (vectorChannel.size() - HEADER_BYTES) / stride;
+        // Not closed: closing the stream would close the log channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(logChannel.position(0)), 1 << 16));
+        long position = 0;
+
+        while (position + RECORD_HEADER_BYTES <= size) {
+            byte type = in.readByte();
+            int length = in.readInt();
+            if (length < 0 || position + RECORD_HEADER_BYTES + length > size) {
+                break;
+            }
+
+            if (type == RECORD_ADD || type == RECORD_ADD_TYPED) {
+                int ordinal = in.readInt();
+                int idLength = in.readInt();
+                if (idLength < 0 || idLength > length - 2 * Integer.BYTES
+                        || ordinal != ids.size() || ordinal >= validRecords) {
+                    break;
+                }
+                String id = new String(in.readNBytes(idLength), StandardCharsets.UTF_8);
+                in.skipNBytes(length - 2 * Integer.BYTES - idLength);
+                applyAdd(ordinal, id, new StoredMetadata(position, null));
+            } else if (type == RECORD_DELETE) {
+                String id = readString(in, length);
+                if (id == null) {
+                    break;
+                }
+                applyDelete(id);
+            } else if (type == RECORD_GENERATION && position == 0) {
+                in.skipNBytes(length);
+            } else {
+                break;
+            }
+            position += RECORD_HEADER_BYTES + length;
+        }
+
+        if (position < size) {
+            logger.warn("Truncating incomplete metadata log tail at {} in {}", position, directory);
+            logChannel.truncate(position);
+        }
+    }
+
+    private void applyAdd(int ordinal, String id, StoredMetadata entryMetadata) {
+        Integer previous = ordinals.put(id, ordinal);
+        if (previous != null) {
+            deleted.set(previous);
+        }
+        ids.add(id);
+        metadata.add(entryMetadata);
+    }
+
+    private void applyDelete(String id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal != null) {
+            deleted.set(ordinal);
+        }
+    }
+
+    /**
+     * Appends an add record and returns its position in the log.
+     */
+    private long appendAddRecord(int ordinal, String id, Map<String, Object> entryMetadata) throws IOException {
+        long position = logChannel.size();
+        writeFully(logChannel, encodeAddRecord(ordinal, id, entryMetadata), position);
+        return position;
+    }
+
+    private void appendDeleteRecord(String id) throws IOException {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES + Integer.BYTES + idBytes.length);
+        record.put(RECORD_DELETE).putInt(Integer.BYTES + idBytes.length).putInt(idBytes.length).put(idBytes);
+        record.flip();
+        writeFully(logChannel, record, logChannel.size());
+    }
+
+    private ByteBuffer encodeAddRecord(int ordinal, String id, Map<String, Object> entryMetadata)
+            throws IOException {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        Map<String, String> types = MetadataTypes.of(entryMetadata);
+        byte type = types.isEmpty() ? RECORD_ADD : RECORD_ADD_TYPED;
+        byte[] json;
+        if (types.isEmpty()) {
+            json = objectMapper.writeValueAsBytes(entryMetadata);
+        } else {
+            Map<String, Object> typed = new LinkedHashMap<>();
+            typed.put("metadata", entryMetadata);
+            typed.put("types", types);
+            json = objectMapper.writeValueAsBytes(typed);
+        }
+        int length = Integer.BYTES + Integer.BYTES + idBytes.length + json.length;
+
+        ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES + length);
+        record.put(type).putInt(length).putInt(ordinal).putInt(idBytes.length).put(idBytes).put(json);
+        record.flip();
+        return record;
+    }
+
+    private static ByteBuffer encodeGenerationRecord(int generation) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + Integer.BYTES);
+        record.put(RECORD_GENERATION).putInt(Integer.BYTES).putInt(generation);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Reads a whole log record, header included.
+     */
+    private ByteBuffer readLogRecord(long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        readFully(logChannel, header, position);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + header.getInt(1));
+        readFully(logChannel, record, position);
+        return record;
+    }
+
+    /**
+     * Parses the metadata of the add record at a log position.
+     */
+    private Map<String, Object> readMetadata(long position) {
+        try {
+            ByteBuffer record = readLogRecord(position);
+            byte type = record.get();
+            int idLength = record.getInt(RECORD_HEADER_BYTES + Integer.BYTES);
+            record.position(RECORD_HEADER_BYTES + 2 * Integer.BYTES + idLength);
+            byte[] json = new byte[record.remaining()];
+            record.get(json);
+            return type == RECORD_ADD ? objectMapper.readValue(json, METADATA_TYPE) : readTypedMetadata(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read metadata at " + position + " in " + directory, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readTypedMetadata(byte[] json) throws IOException {
+        Map<String, Object> typed = objectMapper.readValue(json, METADATA_TYPE);
+        return MetadataTypes.restore((Map<String, Object>) typed.get("metadata"),
+                (Map<String, String>) typed.get("types"));
+    }
+
+    private void writeVector(int ordinal, float[] embedding) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(stride).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putFloat(VectorMath.norm(embedding));
+        for (float value : embedding) {
+            buffer.putFloat(value);
+        }
+        buffer.flip();
+        writeFully(vectorChannel, buffer, HEADER_BYTES + (long) ordinal * stride);
+    }
+
+    /**
+     * Maps any records appended since the last search. Mapping happens under
+     * the write lock so that searches can share the segments read-only.
+     */
+    private void ensureMapped() {
+        lock.readLock().lock();
+        try {
+            if (mappedRecords >= ids.size()) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            mapThrough(ids.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the norm and components of a mapped record into {@code target}.
+     */
+    private void readRecord(int ordinal, float[] target) {
+        FloatBuffer segment = segments.get(ordinal / vectorsPerSegment);
+        segment.get((ordinal % vectorsPerSegment) * (dimension + 1), target);
+    }
+
+    private void mapThrough(int recordCount) {
+        if (recordCount <= mappedRecords) {
+            return;
+        }
+        try {
+            int lastSegment = (recordCount - 1) / vectorsPerSegment;
+            for (int index = mappedRecords / vectorsPerSegment; index <= lastSegment; index++) {
+                int first = index * vectorsPerSegment;
+                int records = Math.min(vectorsPerSegment, recordCount - first);
+                MappedByteBuffer mapped = vectorChannel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_BYTES + (long) first * stride, (long) records * stride);
+                FloatBuffer floats = mapped.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+                if (index < segments.size()) {
+                    segments.set(index, floats);
+                } else {
+                    segments.add(floats);
+                }
+                mappedRecords = first + records;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map vectors in " + directory, e);
+        }
+    }
+
+    private void writeHeader(FileChannel channel, int headerGeneration) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(headerGeneration);
+        header.flip();
+        writeFully(channel, header, 0);
+    }
+
+    /**
+     * Reads the generation from the last header field, which stores written
+     * before compaction was generational left at zero.
+     */
+    private static int readGeneration(FileChannel vectors) throws IOException {
+        ByteBuffer field = ByteBuffer.allocate(Integer.BYTES);
+        readFully(vectors, field, HEADER_BYTES - Integer.BYTES);
+        return field.getInt();
+    }
+
+    /**
+     * Reads the generation record that starts a compacted log. Logs that do
+     * not start with one are generation zero.
+     */
+    private static int readLogGeneration(FileChannel log) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + Integer.BYTES);
+        if (log.read(record, 0) < record.capacity()) {
+            return 0;
+        }
+        record.flip();
+        if (record.get() != RECORD_GENERATION || record.getInt() != Integer.BYTES) {
+            return 0;
+        }
+        return record.getInt();
+    }
+
+    private static int readDimension(Path vectorsFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(vectorsFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (channel.read(header, 0) < HEADER_BYTES) {
+                throw new IOException("Truncated header in " + vectorsFile);
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a vector store file: " + vectorsFile);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported vector store version " + version + " in " + vectorsFile);
+            }
+            return header.getInt();
+        }
+    }
+
+    /**
+     * Reads a length-prefixed string, or returns null if its length exceeds
+     * the bytes left in the record.
+     */
+    private static String readString(DataInputStream in, int available) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > available - Integer.BYTES) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private boolean matches(Filter filter, int ordinal) {
+        return filter == null || filter.matches(metadata.get(ordinal).get());
+    }
+
+    /**
+     * Metadata of one add record, parsed from the log on first use. Parsing
+     * is idempotent, so concurrent searches may both parse it; the volatile
+     * field publishes whichever result is stored last.
+     */
+    private final class StoredMetadata {
+        private final long position;
+        private volatile Map<String, Object> value;
+
+        StoredMetadata(long position, Map<String, Object> value) {
+            this.position = position;
+            this.value = value;
+        }
+
+        Map<String, Object> get() {
+            Map<String, Object> result = value;
+            if (result == null) {
+                result = readMetadata(position);
+                value = result;
+            }
+            return result;
+        }
+    }
+}
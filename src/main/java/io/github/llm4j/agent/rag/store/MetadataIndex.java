@@ -0,0 +1,82 @@
+package io.github.llm4j.agent.rag.store;
+
+import io.github.llm4j.agent.metadata.Filter;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inverted index over a single metadata field, mapping each distinct value to
+ * the bitmap of vector ordinals that carry it. Values are keyed in their
+ * {@link Filter#normalize(Object) normalized} form.
+ */
+final class MetadataIndex {
+
+    private final String field;
+    private final Map<Object, BitSet> postings = new HashMap<>();
+
+    MetadataIndex(String field) {
+        this.field = field;
+    }
+
+    String getField() {
+        return field;
+    }
+
+    void add(int ordinal, Map<String, Object> metadata) {
+        Object value = Filter.normalize(metadata.get(field));
+        if (value != null) {
+            postings.computeIfAbsent(value, key -> new BitSet()).set(ordinal);
+        }
+    }
+
+    void remove(int ordinal, Map<String, Object> metadata) {
+        Object value = Filter.normalize(metadata.get(field));
+        if (value == null) {
+            return;
+        }
+        BitSet bitmap = postings.get(value);
+        if (bitmap != null) {
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                postings.remove(value);
+            }
+        }
+    }
+
+    /**
+     * Returns the ordinals whose field equals the value. The returned bitmap
+     * is shared and must not be modified.
+     *
+     * @param value the value to look up
+     * @return matching ordinals, or an empty bitmap
+     */
+    BitSet get(Object value) {
+        BitSet bitmap = postings.get(Filter.normalize(value));
+        return bitmap != null ? bitmap : new BitSet();
+    }
+
+    /**
+     * Returns the distinct indexed values and their bitmaps. The map is shared
+     * and must not be modified.
+     *
+     * @return value to ordinal bitmap
+     */
+    Map<Object, BitSet> postings() {
+        return postings;
+    }
+
+    /**
+     * Takes over the postings of an index built over the same ordinals, e.g.
+     * a freshly loaded copy of the store.
+     */
+    void replaceWith(MetadataIndex other) {
+        postings.clear();
+        postings.putAll(other.postings);
+    }
+
+    void clear() {
+        postings.clear();
+    }
+}
@@ -0,0 +1,543 @@
+package io.github.llm4j.agent.rag.store;
+
+import io.github.llm4j.agent.metadata.Filter;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory vector store that keeps embeddings as int8 scalar or 1-bit binary
+ * codes and searches them in two stages: a fast integer scan over the codes
+ * selects {@code topK * rerankFactor} candidates, which are then re-ranked
+ * with float precision.
+ * <p>
+ * int8 codes take 4x less memory than float embeddings and binary codes 32x
+ * less. By default only the codes are kept, and candidates are re-ranked by
+ * scoring the float query against the codes. With
+ * {@code retainOriginals(true)} the normalized float vectors are kept as well
+ * for exact re-ranking, at the cost of the memory saving.
+ */
+public class QuantizedVectorStore implements VectorStore {
+
+    /**
+     * Encoding used for the stored embeddings.
+     */
+    public enum Quantization {
+        /**
+         * One signed byte per dimension with a per-vector scale.
+         */
+        INT8,
+        /**
+         * One sign bit per dimension, compared by Hamming distance.
+         */
+        BINARY
+    }
+
+    private final Quantization quantization;
+    private final int rerankFactor;
+    private final boolean retainOriginals;
+    /**
+     * Largest array length the JVM reliably allocates.
+     */
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final List<Map<String, Object>> metadata = new ArrayList<>();
+
+    private int dimension = -1;
+    private int words;
+    private byte[] int8Codes = new byte[0];
+    private float[] scales = new float[0];
+    private long[] binaryCodes = new long[0];
+    private float[] originals = new float[0];
+
+    private QuantizedVectorStore(Builder builder) {
+        this.quantization = Objects.requireNonNull(builder.quantization, "quantization cannot be null");
+        this.rerankFactor = builder.rerankFactor;
+        this.retainOriginals = builder.retainOriginals;
+    }
+
+    /**
+     * Creates a store with the given quantization and default settings.
+     *
+     * @param quantization the code format
+     */
+    public QuantizedVectorStore(Quantization quantization) {
+        this(builder().quantization(quantization));
+    }
+
+    @Override
+    public void add(String id, float[] embedding, Map<String, Object> metadata) {
+        Objects.requireNonNull(id, "id cannot be null");
+        Objects.requireNonNull(embedding, "embedding cannot be null");
+
+        float[] unit = VectorMath.normalize(embedding);
+        Map<String, Object> metadataCopy = metadata != null ? new HashMap<>(metadata) : new HashMap<>();
+
+        lock.writeLock().lock();
+        try {
+            if (dimension < 0) {
+                dimension = embedding.length;
+                words = (dimension + 63) >>> 6;
+            } else if (embedding.length != dimension) {
+                throw new IllegalArgumentException(String.format(
+                        "embedding dimension %d does not match store dimension %d", embedding.length, dimension));
+            }
+
+            Integer existing = ordinals.get(id);
+            int ordinal = existing != null ? existing : ids.size();
+            if (existing == null) {
+                ensureCapacity(ordinal + 1);
+                ordinals.put(id, ordinal);
+                ids.add(id);
+                this.metadata.add(metadataCopy);
+            } else {
+                this.metadata.set(ordinal, metadataCopy);
+            }
+            encode(ordinal, unit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addBatch(List<VectorEntry> entries) {
+        Objects.requireNonNull(entries, "entries cannot be null");
+
+        for (VectorEntry entry : entries) {
+            add(entry.getId(), entry.getEmbedding(), entry.getMetadata());
+        }
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK) {
+        return search(queryEmbedding, topK, (Filter) null);
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK, Map<String, Object> filters) {
+        return search(queryEmbedding, topK, Filter.fromMap(filters));
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK, Filter filter) {
+        Objects.requireNonNull(queryEmbedding, "queryEmbedding cannot be null");
+
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+
+        float[] query = VectorMath.normalize(queryEmbedding);
+
+        lock.readLock().lock();
+        try {
+            int count = ids.size();
+            if (count == 0) {
+                return new ArrayList<>();
+            }
+            checkQueryDimension(query);
+
+            // Stage 1: integer scan over the codes
+            TopKCollector candidates = new TopKCollector((int) Math.min(count, (long) topK * rerankFactor));
+            if (quantization == Quantization.INT8) {
+                byte[] queryCode = new byte[dimension];
+                quantizeInt8(query, queryCode, 0);
+                for (int ordinal = 0; ordinal < count; ordinal++) {
+                    if (matches(filter, ordinal)) {
+                        candidates.offer(ordinal, int8Dot(queryCode, ordinal) * scales[ordinal]);
+                    }
+                }
+            } else {
+                long[] queryCode = new long[words];
+                quantizeBinary(query, queryCode, 0);
+                for (int ordinal = 0; ordinal < count; ordinal++) {
+                    if (matches(filter, ordinal)) {
+                        candidates.offer(ordinal, -hammingDistance(queryCode, ordinal));
+                    }
+                }
+            }
+
+            // Stage 2: float re-rank of the candidates
+            TopKCollector reranked = new TopKCollector(topK);
+            for (int i = 0; i < candidates.size(); i++) {
+                int ordinal = candidates.ordinalAt(i);
+                reranked.offer(ordinal, rerankScore(query, ordinal));
+            }
+            reranked.sortDescending();
+
+            List<SearchResult> results = new ArrayList<>(reranked.size());
+            for (int i = 0; i < reranked.size(); i++) {
+                int ordinal = reranked.ordinalAt(i);
+                results.add(new SearchResult(ids.get(ordinal), reranked.scoreAt(i), metadata.get(ordinal)));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean supportsFind() {
+        return true;
+    }
+
+    /**
+     * Returns the entries whose metadata matches the filter. Embeddings are
+     * returned unit-normalized, as the store keeps them: the retained
+     * originals, or vectors decoded from the codes when originals are not
+     * retained. Either way they encode to the same codes when added again.
+     */
+    @Override
+    public List<VectorEntry> find(Filter filter) {
+        Objects.requireNonNull(filter, "filter cannot be null");
+
+        lock.readLock().lock();
+        try {
+            List<VectorEntry> entries = new ArrayList<>();
+            for (int ordinal = 0; ordinal < ids.size(); ordinal++) {
+                if (matches(filter, ordinal)) {
+                    entries.add(new VectorEntry(ids.get(ordinal), decode(ordinal), metadata.get(ordinal)));
+                }
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Measures recall@K of the two-stage search against an exact float search
+     * over the retained original vectors.
+     *
+     * @param queries query embeddings
+     * @param topK    number of results per query
+     * @return fraction of exact top-K results also returned by the quantized
+     *         search
+     * @throws IllegalStateException if original vectors are not retained
+     */
+    public double measureRecall(List<float[]> queries, int topK) {
+        Objects.requireNonNull(queries, "queries cannot be null");
+        if (!retainOriginals) {
+            throw new IllegalStateException(
+                    "measureRecall requires retainOriginals; use RecallEvaluator with a reference store instead");
+        }
+
+        int expected = 0;
+        int found = 0;
+        for (float[] queryEmbedding : queries) {
+            Set<String> approximate = new HashSet<>();
+            for (SearchResult result : search(queryEmbedding, topK)) {
+                approximate.add(result.getId());
+            }
+            for (String id : exactSearch(queryEmbedding, topK)) {
+                expected++;
+                if (approximate.contains(id)) {
+                    found++;
+                }
+            }
+        }
+        return expected == 0 ? 1.0 : (double) found / expected;
+    }
+
+    @Override
+    public boolean delete(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return false;
+            }
+
+            // Move the last entry into the freed slot to keep the codes contiguous
+            int last = ids.size() - 1;
+            if (ordinal != last) {
+                String movedId = ids.get(last);
+                ids.set(ordinal, movedId);
+                metadata.set(ordinal, metadata.get(last));
+                ordinals.put(movedId, ordinal);
+                moveCodes(last, ordinal);
+            }
+            ids.remove(last);
+            metadata.remove(last);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            ids.clear();
+            metadata.clear();
+            dimension = -1;
+            int8Codes = new byte[0];
+            scales = new float[0];
+            binaryCodes = new long[0];
+            originals = new float[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Quantization getQuantization() {
+        return quantization;
+    }
+
+    public int getRerankFactor() {
+        return rerankFactor;
+    }
+
+    public boolean isRetainOriginals() {
+        return retainOriginals;
+    }
+
+    private List<String> exactSearch(float[] queryEmbedding, int topK) {
+        float[] query = VectorMath.normalize(queryEmbedding);
+
+        lock.readLock().lock();
+        try {
+            int count = ids.size();
+            if (count == 0) {
+                return new ArrayList<>();
+            }
+            checkQueryDimension(query);
+
+            TopKCollector exact = new TopKCollector(Math.min(count, topK));
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                exact.offer(ordinal, VectorMath.dot(query, originals, ordinal * dimension));
+            }
+            exact.sortDescending();
+
+            List<String> result = new ArrayList<>(exact.size());
+            for (int i = 0; i < exact.size(); i++) {
+                result.add(ids.get(exact.ordinalAt(i)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void checkQueryDimension(float[] query) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException(String.format(
+                    "query dimension %d does not match store dimension %d", query.length, dimension));
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = scales.length;
+        if (required <= capacity) {
+            return;
+        }
+        // Codes and originals are flat arrays indexed by int, so their lengths bound the capacity
+        int stride = retainOriginals || quantization == Quantization.INT8 ? dimension : words;
+        int maxCapacity = MAX_ARRAY_LENGTH / stride;
+        if (required > maxCapacity) {
+            throw new IllegalStateException(String.format(
+                    "Cannot store %d vectors of dimension %d: at most %d fit in one store",
+                    required, dimension, maxCapacity));
+        }
+        int newCapacity = (int) Math.min(maxCapacity, Math.max(required, Math.max(16, capacity * 2L)));
+
+        if (quantization == Quantization.INT8) {
+            int8Codes = Arrays.copyOf(int8Codes, newCapacity * dimension);
+        } else {
+            binaryCodes = Arrays.copyOf(binaryCodes, newCapacity * words);
+        }
+        scales = Arrays.copyOf(scales, newCapacity);
+        if (retainOriginals) {
+            originals = Arrays.copyOf(originals, newCapacity * dimension);
+        }
+    }
+
+    private void encode(int ordinal, float[] unit) {
+        if (quantization == Quantization.INT8) {
+            scales[ordinal] = quantizeInt8(unit, int8Codes, ordinal * dimension);
+        } else {
+            quantizeBinary(unit, binaryCodes, ordinal * words);
+        }
+        if (retainOriginals) {
+            System.arraycopy(unit, 0, originals, ordinal * dimension, dimension);
+        }
+    }
+
+    private float[] decode(int ordinal) {
+        if (retainOriginals) {
+            return Arrays.copyOfRange(originals, ordinal * dimension, (ordinal + 1) * dimension);
+        }
+
+        float[] vector = new float[dimension];
+        if (quantization == Quantization.INT8) {
+            int offset = ordinal * dimension;
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = int8Codes[offset + i] * scales[ordinal];
+            }
+            return vector;
+        }
+
+        int offset = ordinal * words;
+        float component = 1f / (float) Math.sqrt(dimension);
+        for (int i = 0; i < dimension; i++) {
+            boolean positive = (binaryCodes[offset + (i >>> 6)] & (1L << (i & 63))) != 0;
+            vector[i] = positive ? component : -component;
+        }
+        return vector;
+    }
+
+    private void moveCodes(int from, int to) {
+        if (quantization == Quantization.INT8) {
+            System.arraycopy(int8Codes, from * dimension, int8Codes, to * dimension, dimension);
+        } else {
+            System.arraycopy(binaryCodes, from * words, binaryCodes, to * words, words);
+        }
+        scales[to] = scales[from];
+        if (retainOriginals) {
+            System.arraycopy(originals, from * dimension, originals, to * dimension, dimension);
+        }
+    }
+
+    /**
+     * Quantizes a vector to signed bytes using its maximum absolute component
+     * as the range.
+     *
+     * @return the scale that maps a code back to the original value
+     */
+    private static float quantizeInt8(float[] vector, byte[] target, int offset) {
+        float maxAbs = 0f;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        if (maxAbs == 0f) {
+            Arrays.fill(target, offset, offset + vector.length, (byte) 0);
+            return 0f;
+        }
+
+        float scale = maxAbs / 127f;
+        for (int i = 0; i < vector.length; i++) {
+            target[offset + i] = (byte) Math.round(vector[i] / scale);
+        }
+        return scale;
+    }
+
+    private static void quantizeBinary(float[] vector, long[] target, int offset) {
+        int words = (vector.length + 63) >>> 6;
+        Arrays.fill(target, offset, offset + words, 0L);
+        for (int i = 0; i < vector.length; i++) {
+            if (vector[i] > 0) {
+                target[offset + (i >>> 6)] |= 1L << (i & 63);
+            }
+        }
+    }
+
+    private int int8Dot(byte[] queryCode, int ordinal) {
+        int offset = ordinal * dimension;
+        int sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += queryCode[i] * int8Codes[offset + i];
+        }
+        return sum;
+    }
+
+    private int hammingDistance(long[] queryCode, int ordinal) {
+        int offset = ordinal * words;
+        int distance = 0;
+        for (int i = 0; i < words; i++) {
+            distance += Long.bitCount(queryCode[i] ^ binaryCodes[offset + i]);
+        }
+        return distance;
+    }
+
+    private float rerankScore(float[] query, int ordinal) {
+        if (retainOriginals) {
+            return VectorMath.dot(query, originals, ordinal * dimension);
+        }
+
+        // Asymmetric scoring: float query against the stored codes
+        float sum = 0f;
+        if (quantization == Quantization.INT8) {
+            int offset = ordinal * dimension;
+            for (int i = 0; i < dimension; i++) {
+                sum += query[i] * int8Codes[offset + i];
+            }
+            return sum * scales[ordinal];
+        }
+
+        int offset = ordinal * words;
+        for (int i = 0; i < dimension; i++) {
+            boolean positive = (binaryCodes[offset + (i >>> 6)] & (1L << (i & 63))) != 0;
+            sum += positive ? query[i] : -query[i];
+        }
+        return sum / (float) Math.sqrt(dimension);
+    }
+
+    private boolean matches(Filter filter, int ordinal) {
+        return filter == null || filter.matches(metadata.get(ordinal));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private Quantization quantization = Quantization.INT8;
+        private int rerankFactor = 4;
+        private boolean retainOriginals;
+
+        private Builder() {
+        }
+
+        public Builder quantization(Quantization quantization) {
+            this.quantization = quantization;
+            return this;
+        }
+
+        /**
+         * Sets how many candidates per requested result the quantized scan
+         * passes on to the float re-rank stage.
+         *
+         * @param rerankFactor candidate multiplier (at least 1)
+         * @return this builder
+         */
+        public Builder rerankFactor(int rerankFactor) {
+            if (rerankFactor < 1) {
+                throw new IllegalArgumentException("rerankFactor must be at least 1");
+            }
+            this.rerankFactor = rerankFactor;
+            return this;
+        }
+
+        /**
+         * Keeps the normalized float vectors next to the codes, for exact
+         * re-ranking and {@link QuantizedVectorStore#measureRecall}. Off by
+         * default, since the floats take more memory than the codes save.
+         *
+         * @param retainOriginals whether to keep the float vectors
+         * @return this builder
+         */
+        public Builder retainOriginals(boolean retainOriginals) {
+            this.retainOriginals = retainOriginals;
+            return this;
+        }
+
+        public QuantizedVectorStore build() {
+            return new QuantizedVectorStore(this);
+        }
+    }
+}
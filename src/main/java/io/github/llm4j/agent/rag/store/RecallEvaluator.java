@@ -0,0 +1,51 @@
+package io.github.llm4j.agent.rag.store;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Measures how well an approximate vector store reproduces the results of a
+ * reference (typically exact) store.
+ */
+public final class RecallEvaluator {
+
+    private RecallEvaluator() {
+    }
+
+    /**
+     * Computes recall@K: the fraction of the reference store's top-K results
+     * that the candidate store also returns in its top-K.
+     *
+     * @param candidate the store under evaluation
+     * @param reference the store providing the ground truth
+     * @param queries   query embeddings
+     * @param topK      number of results per query
+     * @return recall in the range 0 to 1
+     */
+    public static double recallAtK(VectorStore candidate, VectorStore reference, List<float[]> queries, int topK) {
+        Objects.requireNonNull(candidate, "candidate cannot be null");
+        Objects.requireNonNull(reference, "reference cannot be null");
+        Objects.requireNonNull(queries, "queries cannot be null");
+
+        List<List<VectorStore.SearchResult>> candidateResults = candidate.searchBatch(queries, topK);
+        List<List<VectorStore.SearchResult>> referenceResults = reference.searchBatch(queries, topK);
+
+        int expected = 0;
+        int found = 0;
+        for (int q = 0; q < queries.size(); q++) {
+            Set<String> returned = new HashSet<>();
+            for (VectorStore.SearchResult result : candidateResults.get(q)) {
+                returned.add(result.getId());
+            }
+            for (VectorStore.SearchResult result : referenceResults.get(q)) {
+                expected++;
+                if (returned.contains(result.getId())) {
+                    found++;
+                }
+            }
+        }
+        return expected == 0 ? 1.0 : (double) found / expected;
+    }
+}
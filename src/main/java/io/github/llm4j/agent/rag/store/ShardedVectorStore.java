@@ -0,0 +1,309 @@
+package io.github.llm4j.agent.rag.store;
+
+import io.github.llm4j.agent.metadata.Filter;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Exact in-memory vector store that partitions vectors across several
+ * {@link InMemoryVectorStore} shards and scans them in parallel.
+ * <p>
+ * Vectors are assigned to a shard by a hash of their ID, so updates and
+ * deletes touch a single shard and each shard has its own lock. A search
+ * scans every shard for its own top-K on a {@link ForkJoinPool} and merges
+ * the per-shard results; stores smaller than the parallel threshold are
+ * scanned on the calling thread, where fork and join overhead would outweigh
+ * the scan itself.
+ * <p>
+ * Results are identical to a single {@link InMemoryVectorStore} holding the
+ * same vectors, apart from the order of equal scores.
+ */
+public class ShardedVectorStore implements VectorStore {
+
+    private final InMemoryVectorStore[] shards;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public ShardedVectorStore() {
+        this(builder());
+    }
+
+    private ShardedVectorStore(Builder builder) {
+        this.shards = new InMemoryVectorStore[builder.shards];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = InMemoryVectorStore.builder()
+                    .indexedFields(builder.indexedFields.toArray(new String[0]))
+                    .preFilterSelectivity(builder.preFilterSelectivity)
+                    .build();
+        }
+        this.pool = builder.pool != null ? builder.pool : ForkJoinPool.commonPool();
+        this.parallelThreshold = builder.parallelThreshold;
+    }
+
+    @Override
+    public void add(String id, float[] embedding, Map<String, Object> metadata) {
+        Objects.requireNonNull(id, "id cannot be null");
+        shardFor(id).add(id, embedding, metadata);
+    }
+
+    @Override
+    public void addBatch(List<VectorEntry> entries) {
+        Objects.requireNonNull(entries, "entries cannot be null");
+
+        List<List<VectorEntry>> perShard = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            perShard.add(new ArrayList<>());
+        }
+        for (VectorEntry entry : entries) {
+            perShard.get(shardIndex(entry.getId())).add(entry);
+        }
+        for (int i = 0; i < shards.length; i++) {
+            if (!perShard.get(i).isEmpty()) {
+                shards[i].addBatch(perShard.get(i));
+            }
+        }
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK) {
+        return search(queryEmbedding, topK, (Filter) null);
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK, Map<String, Object> filters) {
+        return search(queryEmbedding, topK, Filter.fromMap(filters));
+    }
+
+    @Override
+    public List<SearchResult> search(float[] queryEmbedding, int topK, Filter filter) {
+        Objects.requireNonNull(queryEmbedding, "queryEmbedding cannot be null");
+
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+
+        List<List<SearchResult>> perShard = new ArrayList<>(shards.length);
+        if (shards.length == 1 || size() < parallelThreshold) {
+            for (InMemoryVectorStore shard : shards) {
+                perShard.add(shard.search(queryEmbedding, topK, filter));
+            }
+        } else {
+            List<ForkJoinTask<List<SearchResult>>> tasks = new ArrayList<>(shards.length - 1);
+            for (int i = 1; i < shards.length; i++) {
+                InMemoryVectorStore shard = shards[i];
+                tasks.add(pool.submit(() -> shard.search(queryEmbedding, topK, filter)));
+            }
+            // The calling thread scans the first shard instead of idling
+            perShard.add(shards[0].search(queryEmbedding, topK, filter));
+            for (ForkJoinTask<List<SearchResult>> task : tasks) {
+                perShard.add(task.join());
+            }
+        }
+
+        return merge(perShard, topK);
+    }
+
+    /**
+     * Runs a batched scan on every shard, in parallel above the threshold, and
+     * merges the per-shard results of each query.
+     */
+    @Override
+    public List<List<SearchResult>> searchBatch(List<float[]> queryEmbeddings, int topK) {
+        Objects.requireNonNull(queryEmbeddings, "queryEmbeddings cannot be null");
+
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+
+        List<List<List<SearchResult>>> perShard = new ArrayList<>(shards.length);
+        if (shards.length == 1 || size() < parallelThreshold) {
+            for (InMemoryVectorStore shard : shards) {
+                perShard.add(shard.searchBatch(queryEmbeddings, topK));
+            }
+        } else {
+            List<ForkJoinTask<List<List<SearchResult>>>> tasks = new ArrayList<>(shards.length - 1);
+            for (int i = 1; i < shards.length; i++) {
+                InMemoryVectorStore shard = shards[i];
+                tasks.add(pool.submit(() -> shard.searchBatch(queryEmbeddings, topK)));
+            }
+            perShard.add(shards[0].searchBatch(queryEmbeddings, topK));
+            for (ForkJoinTask<List<List<SearchResult>>> task : tasks) {
+                perShard.add(task.join());
+            }
+        }
+
+        List<List<SearchResult>> results = new ArrayList<>(queryEmbeddings.size());
+        for (int q = 0; q < queryEmbeddings.size(); q++) {
+            List<List<SearchResult>> queryResults = new ArrayList<>(shards.length);
+            for (List<List<SearchResult>> shardResults : perShard) {
+                queryResults.add(shardResults.get(q));
+            }
+            results.add(merge(queryResults, topK));
+        }
+        return results;
+    }
+
+    @Override
+    public boolean supportsFind() {
+        return true;
+    }
+
+    @Override
+    public List<VectorEntry> find(Filter filter) {
+        List<VectorEntry> entries = new ArrayList<>();
+        for (InMemoryVectorStore shard : shards) {
+            entries.addAll(shard.find(filter));
+        }
+        return entries;
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return shardFor(id).delete(id);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (InMemoryVectorStore shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (InMemoryVectorStore shard : shards) {
+            shard.clear();
+        }
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return shard count
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the number of vectors in each shard.
+     *
+     * @return vector count per shard
+     */
+    public int[] shardSizes() {
+        int[] sizes = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            sizes[i] = shards[i].size();
+        }
+        return sizes;
+    }
+
+    private InMemoryVectorStore shardFor(String id) {
+        return shards[shardIndex(id)];
+    }
+
+    private int shardIndex(String id) {
+        // Spread the hash so IDs differing only in a suffix do not cluster
+        int hash = id.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    private static List<SearchResult> merge(List<List<SearchResult>> perShard, int topK) {
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+
+        List<SearchResult> all = new ArrayList<>();
+        for (List<SearchResult> results : perShard) {
+            all.addAll(results);
+        }
+
+        TopKCollector collector = new TopKCollector(topK);
+        for (int i = 0; i < all.size(); i++) {
+            collector.offer(i, all.get(i).getSimilarity());
+        }
+        collector.sortDescending();
+
+        List<SearchResult> merged = new ArrayList<>(collector.size());
+        for (int i = 0; i < collector.size(); i++) {
+            merged.add(all.get(collector.ordinalAt(i)));
+        }
+        return merged;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int shards = Runtime.getRuntime().availableProcessors();
+        private ForkJoinPool pool;
+        private int parallelThreshold = 10_000;
+        private final Set<String> indexedFields = new LinkedHashSet<>();
+        private double preFilterSelectivity = 0.25;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of shards. Defaults to the number of available
+         * processors.
+         */
+        public Builder shards(int shards) {
+            if (shards <= 0) {
+                throw new IllegalArgumentException("shards must be positive");
+            }
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * Sets the pool that scans shards. Defaults to the common pool.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Sets the store size below which searches scan all shards on the
+         * calling thread.
+         */
+        public Builder parallelThreshold(int parallelThreshold) {
+            if (parallelThreshold < 0) {
+                throw new IllegalArgumentException("parallelThreshold cannot be negative");
+            }
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        /**
+         * Declares metadata fields each shard maintains an inverted index for.
+         *
+         * @see InMemoryVectorStore.Builder#indexedFields(String...)
+         */
+        public Builder indexedFields(String... fields) {
+            this.indexedFields.addAll(Arrays.asList(fields));
+            return this;
+        }
+
+        /**
+         * @see InMemoryVectorStore.Builder#preFilterSelectivity(double)
+         */
+        public Builder preFilterSelectivity(double preFilterSelectivity) {
+            if (preFilterSelectivity < 0 || preFilterSelectivity > 1) {
+                throw new IllegalArgumentException("preFilterSelectivity must be between 0 and 1");
+            }
+            this.preFilterSelectivity = preFilterSelectivity;
+            return this;
+        }
+
+        public ShardedVectorStore build() {
+            return new ShardedVectorStore(this);
+        }
+    }
+}
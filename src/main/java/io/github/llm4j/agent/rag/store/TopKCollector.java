@@ -0,0 +1,112 @@
+package io.github.llm4j.agent.rag.store;
+
+/**
+ * Bounded min-heap that keeps the {@code k} highest scoring ordinals seen so
+ * far. Scores and ordinals are kept in primitive arrays so that a full scan
+ * does not allocate per candidate.
+ */
+final class TopKCollector {
+
+    private final int[] ordinals;
+    private final float[] scores;
+    private int size;
+
+    TopKCollector(int k) {
+        this.ordinals = new int[k];
+        this.scores = new float[k];
+    }
+
+    /**
+     * Offers a candidate, keeping it only if it is among the best {@code k}.
+     *
+     * @param ordinal candidate ordinal
+     * @param score   candidate score (higher is better)
+     */
+    void offer(int ordinal, float score) {
+        if (ordinals.length == 0) {
+            return;
+        }
+        if (size < ordinals.length) {
+            ordinals[size] = ordinal;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            ordinals[0] = ordinal;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Returns the lowest score currently retained, or negative infinity while
+     * the collector is not yet full.
+     *
+     * @return admission threshold for new candidates
+     */
+    float threshold() {
+        return size < ordinals.length ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Sorts the retained candidates best-first in place. After this call the
+     * collector must only be read through {@link #ordinalAt} and
+     * {@link #scoreAt}.
+     */
+    void sortDescending() {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    int ordinalAt(int index) {
+        return ordinals[index];
+    }
+
+    float scoreAt(int index) {
+        return scores[index];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[index] >= scores[parent]) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int limit) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= limit) {
+                break;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < limit && scores[right] < scores[left]) {
+                smallest = right;
+            }
+            if (scores[index] <= scores[smallest]) {
+                break;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int ordinal = ordinals[i];
+        ordinals[i] = ordinals[j];
+        ordinals[j] = ordinal;
+        float score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.llm4j.agent.rag.store;
+
+/**
+ * Primitive float vector arithmetic shared by the vector store implementations.
+ */
+final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    /**
+     * Computes the dot product of two vectors of equal length.
+     *
+     * @param a first vector
+     * @param b second vector
+     * @return dot product
+     */
+    static float dot(float[] a, float[] b) {
+        return dot(a, b, 0);
+    }
+
+    /**
+     * Computes the dot product of {@code a} with the {@code a.length} values of
+     * {@code arena} starting at {@code offset}.
+     *
+     * @param a      query vector
+     * @param arena  contiguous block of vectors
+     * @param offset start of the vector within the arena
+     * @return dot product
+     */
+    static float dot(float[] a, float[] arena, int offset) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * arena[offset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the Euclidean norm of a vector.
+     *
+     * @param v the vector
+     * @return the norm
+     */
+    static float norm(float[] v) {
+        return (float) Math.sqrt(dot(v, v));
+    }
+
+    /**
+     * Calculates cosine similarity between two vectors.
+     *
+     * @param a first vector
+     * @param b second vector
+     * @return cosine similarity, or 0 if either vector has zero norm
+     */
+    static float cosine(float[] a, float[] b) {
+        float normA = norm(a);
+        float normB = norm(b);
+        if (normA == 0 || normB == 0) {
+            return 0;
+        }
+        return dot(a, b) / (normA * normB);
+    }
+
+    /**
+     * Returns a unit-length copy of the vector. Zero vectors are returned as a
+     * zero-filled copy.
+     *
+     * @param v the vector
+     * @return normalized copy
+     */
+    static float[] normalize(float[] v) {
+        float[] copy = v.clone();
+        float norm = norm(v);
+        if (norm > 0) {
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] /= norm;
+            }
+        }
+        return copy;
+    }
+}
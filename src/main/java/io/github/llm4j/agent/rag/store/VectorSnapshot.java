@@ -0,0 +1,315 @@
+package io.github.llm4j.agent.rag.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.llm4j.agent.metadata.MetadataTypes;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary snapshot format for vector collections.
+ * <p>
+ * Layout (all values little-endian):
+ * <ol>
+ * <li>header: magic, version, flags, dimension, vector count</li>
+ * <li>for each vector, its length-prefixed UTF-8 id, its length-prefixed
+ * JSON metadata, the length-prefixed JSON {@link MetadataTypes types} of
+ * that metadata (empty if none) and its {@code dimension} floats</li>
+ * <li>optional CRC32C of everything above</li>
+ * </ol>
+ * Snapshots are written and read through a fixed-size buffer and each entry
+ * is complete once its record is read, so neither side ever holds the file in
+ * memory. When reading from a file, the header and every length are checked
+ * against the bytes left before anything is allocated.
+ */
+final class VectorSnapshot {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<Map<String, String>> TYPES_TYPE = new TypeReference<>() {
+    };
+
+    private static final int MAGIC = 0x4C344A53; // "L4JS"
+    private static final int VERSION = 2;
+    private static final int FLAG_CHECKSUM = 1;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private VectorSnapshot() {
+    }
+
+    /**
+     * Writes the entries to the channel. All embeddings must have the same
+     * dimension.
+     *
+     * @param entries  the entries to write
+     * @param channel  the target channel
+     * @param checksum whether to append a CRC32C trailer
+     * @throws IOException           if writing fails
+     * @throws IllegalStateException if embeddings have different dimensions
+     */
+    static void write(Collection<VectorStore.VectorEntry> entries, WritableByteChannel channel, boolean checksum)
+            throws IOException {
+        int dimension = 0;
+        for (VectorStore.VectorEntry entry : entries) {
+            if (dimension == 0) {
+                dimension = entry.getEmbedding().length;
+            } else if (entry.getEmbedding().length != dimension) {
+                throw new IllegalStateException(
+                        "Cannot snapshot embeddings of different dimensions: " + dimension + " and "
+                                + entry.getEmbedding().length);
+            }
+        }
+
+        Output out = new Output(channel, checksum);
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(checksum ? FLAG_CHECKSUM : 0);
+        out.putInt(dimension);
+        out.putLong(entries.size());
+
+        for (VectorStore.VectorEntry entry : entries) {
+            Map<String, String> types = MetadataTypes.of(entry.getMetadata());
+            out.putBytes(entry.getId().getBytes(StandardCharsets.UTF_8));
+            out.putBytes(objectMapper.writeValueAsBytes(entry.getMetadata()));
+            out.putBytes(types.isEmpty() ? new byte[0] : objectMapper.writeValueAsBytes(types));
+            for (float value : entry.getEmbedding()) {
+                out.putFloat(value);
+            }
+        }
+        out.finish();
+    }
+
+    /**
+     * Reads a snapshot, passing each entry to the consumer as soon as it is
+     * decoded. The checksum can only be verified at the end, so a consumer
+     * that must not see entries of a corrupt snapshot should collect them
+     * somewhere it can discard.
+     *
+     * @param channel  the source channel
+     * @param consumer receives the decoded entries
+     * @return number of entries read
+     * @throws IOException if the snapshot is truncated, corrupt or unsupported
+     */
+    static long read(ReadableByteChannel channel, Consumer<VectorStore.VectorEntry> consumer) throws IOException {
+        Input in = new Input(channel);
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a vector store snapshot");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        boolean checksum = (in.getInt() & FLAG_CHECKSUM) != 0;
+        int dimension = in.getInt();
+        long count = in.getLong();
+        long recordBytes = 3L * Integer.BYTES + (long) dimension * Float.BYTES;
+        if (count < 0 || count > Integer.MAX_VALUE || dimension < 0
+                || count > (in.remaining() - (checksum ? Long.BYTES : 0)) / recordBytes) {
+            throw new IOException("Invalid snapshot header: " + count + " vectors of dimension " + dimension
+                    + " do not fit in " + in.remaining() + " bytes");
+        }
+
+        for (long i = 0; i < count; i++) {
+            String id = new String(in.getBytes(), StandardCharsets.UTF_8);
+            Map<String, Object> metadata = objectMapper.readValue(in.getBytes(), METADATA_TYPE);
+            byte[] types = in.getBytes();
+            if (types.length > 0) {
+                MetadataTypes.restore(metadata, objectMapper.readValue(types, TYPES_TYPE));
+            }
+            in.expect((long) dimension * Float.BYTES);
+            float[] embedding = new float[dimension];
+            for (int d = 0; d < dimension; d++) {
+                embedding[d] = in.getFloat();
+            }
+            consumer.accept(new VectorStore.VectorEntry(id, embedding, metadata));
+        }
+
+        if (checksum) {
+            long expected = in.checksum();
+            if (in.getLong() != expected) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Buffered little-endian writer that tracks a running checksum.
+     */
+    private static final class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc;
+
+        Output(WritableByteChannel channel, boolean checksum) {
+            this.channel = channel;
+            this.crc = checksum ? new CRC32C() : null;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putFloat(float value) throws IOException {
+            ensure(Float.BYTES);
+            buffer.putFloat(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            putInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            if (crc != null) {
+                buffer.putLong(crc.getValue());
+                buffer.flip();
+                drain();
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (crc != null) {
+                crc.update(buffer.array(), 0, buffer.position());
+            }
+            buffer.flip();
+            drain();
+        }
+
+        private void drain() throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Buffered little-endian reader that tracks a running checksum over the
+     * bytes consumed so far and, for seekable channels, the bytes left.
+     */
+    private static final class Input {
+        private final ReadableByteChannel channel;
+        private final CRC32C crc = new CRC32C();
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final long limit;
+        private long bytesRead;
+        private int crcMark;
+
+        Input(ReadableByteChannel channel) throws IOException {
+            this.channel = channel;
+            this.limit = channel instanceof SeekableByteChannel
+                    ? ((SeekableByteChannel) channel).size() - ((SeekableByteChannel) channel).position()
+                    : Long.MAX_VALUE;
+            buffer.flip();
+        }
+
+        /**
+         * Returns the number of unread bytes, or {@link Long#MAX_VALUE} if the
+         * channel size is unknown.
+         */
+        long remaining() {
+            return limit == Long.MAX_VALUE ? limit : limit - bytesRead + buffer.remaining();
+        }
+
+        /**
+         * Fails if fewer than the given number of bytes are left, so corrupt
+         * lengths are rejected before they are allocated.
+         */
+        void expect(long bytes) throws IOException {
+            if (bytes > remaining()) {
+                throw new EOFException("Snapshot truncated: " + bytes + " bytes expected, " + remaining() + " left");
+            }
+        }
+
+        int getInt() throws IOException {
+            require(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long getLong() throws IOException {
+            require(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        float getFloat() throws IOException {
+            require(Float.BYTES);
+            return buffer.getFloat();
+        }
+
+        byte[] getBytes() throws IOException {
+            int length = getInt();
+            if (length < 0) {
+                throw new IOException("Invalid length " + length);
+            }
+            expect(length);
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                require(1);
+                int chunk = Math.min(buffer.remaining(), length - offset);
+                buffer.get(bytes, offset, chunk);
+                offset += chunk;
+            }
+            return bytes;
+        }
+
+        long checksum() {
+            updateChecksum();
+            return crc.getValue();
+        }
+
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            updateChecksum();
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of snapshot");
+                }
+                bytesRead += read;
+            }
+            buffer.flip();
+            crcMark = 0;
+        }
+
+        private void updateChecksum() {
+            crc.update(buffer.array(), crcMark, buffer.position() - crcMark);
+            crcMark = buffer.position();
+        }
+    }
+}
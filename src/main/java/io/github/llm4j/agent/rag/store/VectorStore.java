@@ -1,7 +1,11 @@
 package io.github.llm4j.agent.rag.store;
 
+import io.github.llm4j.agent.metadata.Filter;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Interface for vector storage and similarity search.
@@ -43,6 +47,98 @@ public interface VectorStore {
      */
     List<SearchResult> search(float[] queryEmbedding, int topK, Map<String, Object> filters);
 
+    /**
+     * Searches for the top-K most similar vectors matching a filter expression.
+     * <p>
+     * The default implementation filters the results of unfiltered searches,
+     * widening the search fourfold until it has {@code topK} matches or has
+     * covered the whole store, so a selective filter can end up scoring every
+     * vector. Implementations should override it to apply the filter during
+     * the scan.
+     *
+     * @param queryEmbedding the query vector
+     * @param topK           number of results to return
+     * @param filter         filter expression (null means no filtering)
+     * @return list of search results ordered by similarity (highest first)
+     */
+    default List<SearchResult> search(float[] queryEmbedding, int topK, Filter filter) {
+        if (filter == null) {
+            return search(queryEmbedding, topK);
+        }
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+
+        int size = size();
+        List<SearchResult> results = new ArrayList<>();
+        int fetch = (int) Math.min(size, (long) topK * 4);
+        while (fetch > 0) {
+            List<SearchResult> candidates = search(queryEmbedding, fetch);
+            results.clear();
+            for (SearchResult result : candidates) {
+                if (filter.matches(result.getMetadata())) {
+                    results.add(result);
+                    if (results.size() == topK) {
+                        return results;
+                    }
+                }
+            }
+            if (candidates.size() < fetch || fetch == size) {
+                break;
+            }
+            fetch = (int) Math.min(size, (long) fetch * 4);
+        }
+        return results;
+    }
+
+    /**
+     * Searches for the top-K most similar vectors for each of several queries,
+     * e.g. the expansions of one question or an evaluation query set.
+     * <p>
+     * The default implementation runs one search per query; implementations
+     * that scan memory should override it to pass over their vectors once and
+     * score each block of vectors against a block of queries.
+     *
+     * @param queryEmbeddings the query vectors
+     * @param topK            number of results per query
+     * @return one result list per query, in query order, each ordered by
+     *         similarity (highest first)
+     */
+    default List<List<SearchResult>> searchBatch(List<float[]> queryEmbeddings, int topK) {
+        Objects.requireNonNull(queryEmbeddings, "queryEmbeddings cannot be null");
+
+        List<List<SearchResult>> results = new ArrayList<>(queryEmbeddings.size());
+        for (float[] queryEmbedding : queryEmbeddings) {
+            results.add(search(queryEmbedding, topK));
+        }
+        return results;
+    }
+
+    /**
+     * Returns every stored vector whose metadata matches a filter, e.g. all
+     * chunks of one document. Results are in no particular order.
+     * <p>
+     * The default implementation throws; stores that keep their vectors
+     * readable override it, together with {@link #supportsFind()}.
+     *
+     * @param filter filter expression
+     * @return the matching entries, with their embeddings and metadata
+     * @throws UnsupportedOperationException if the store cannot enumerate its vectors
+     */
+    default List<VectorEntry> find(Filter filter) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support find");
+    }
+
+    /**
+     * Returns whether {@link #find(Filter)} is implemented. Stores that
+     * override {@code find} override this to return true.
+     *
+     * @return true if the store can enumerate its vectors by metadata
+     */
+    default boolean supportsFind() {
+        return false;
+    }
+
     /**
      * Deletes a vector by its ID.
      *
@@ -0,0 +1,129 @@
+package io.github.llm4j.agent.knowledge;
+
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Relation;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.knowledge.store.CompactGraphStore;
+import io.github.llm4j.agent.knowledge.store.InMemoryGraphStore;
+import io.github.llm4j.agent.metadata.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for CompactGraphStore
+ */
+class CompactGraphStoreTest {
+
+    private CompactGraphStore graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new CompactGraphStore();
+    }
+
+    @Test
+    void testEntitiesAndTriples() {
+        Entity alice = Entity.builder().id("alice").type("Person").addProperty("title", "CEO").build();
+        Entity acme = Entity.builder().id("acme").type("Company").build();
+        Relation worksFor = Relation.builder().type("WORKS_FOR").addProperty("since", 2020).build();
+
+        graph.addTriple(new Triple(alice, worksFor, acme));
+
+        assertThat(graph.getEntity("alice")).isSameAs(alice);
+        assertThat(graph.getEntityCount()).isEqualTo(2);
+        assertThat(graph.findEntities("Person", Map.of("title", "CEO"))).containsExactly(alice);
+        assertThat(graph.getTripleCount()).isEqualTo(1);
+
+        Triple triple = graph.getTriples("alice").get(0);
+        assertThat(triple.getObject()).isSameAs(acme);
+        assertThat(triple.getPredicate().getProperty("since")).isEqualTo(2020);
+        assertThat(graph.findTriples("alice", "UNKNOWN", null)).isEmpty();
+        assertThat(graph.findTriples("nobody", null, null)).isEmpty();
+    }
+
+    @Test
+    void testFiltersCompareNumbersAcrossBoxedTypes() {
+        Entity alice = Entity.builder().id("alice").type("Person").addProperty("age", 30L).build();
+        graph.addEntity(alice);
+        graph.addEntity(Entity.builder().id("bob").type("Person").addProperty("age", 31).build());
+
+        assertThat(graph.findEntities("Person", Map.of("age", 30))).containsExactly(alice);
+        assertThat(graph.findEntitiesMatching("Person", Filter.lt("age", 31.0))).containsExactly(alice);
+        assertThat(graph.findEntities("Person", Map.of("age", 32))).isEmpty();
+    }
+
+    @Test
+    void testAddingEqualTripleReplacesIt() {
+        Entity alice = Entity.builder().id("alice").type("Person").build();
+        Entity bob = Entity.builder().id("bob").type("Person").build();
+
+        graph.addTriple(new Triple(alice, Relation.builder().type("KNOWS").addProperty("since", 2019).build(), bob));
+        graph.compact();
+        graph.addTriple(new Triple(alice, Relation.builder().type("KNOWS").addProperty("since", 2020).build(), bob));
+
+        assertThat(graph.getTripleCount()).isEqualTo(1);
+        assertThat(graph.findTriples(null, "KNOWS", "bob").get(0).getPredicate().getProperty("since"))
+                .isEqualTo(2020);
+    }
+
+    @Test
+    void testQueriesAfterIncrementalAdds() {
+        Entity a = Entity.builder().id("a").type("Node").build();
+        Entity b = Entity.builder().id("b").type("Node").build();
+        Entity c = Entity.builder().id("c").type("Node").build();
+
+        graph.addTriple(new Triple(a, Relation.builder().type("LINKS").build(), b));
+        assertThat(graph.findTriples(null, null, "b")).hasSize(1);
+
+        graph.addTriple(new Triple(c, Relation.builder().type("LINKS").build(), b));
+        assertThat(graph.findTriples(null, "LINKS", "b")).extracting(t -> t.getSubject().getId())
+                .containsExactly("a", "c");
+
+        graph.clear();
+        assertThat(graph.getTripleCount()).isZero();
+        assertThat(graph.getEntity("a")).isNull();
+    }
+
+    @Test
+    void testMatchesInMemoryGraphStoreForEveryPattern() {
+        InMemoryGraphStore reference = new InMemoryGraphStore();
+        Random random = new Random(42);
+        String[] types = {"KNOWS", "WORKS_AT", "LIKES", "OWNS"};
+
+        for (int i = 0; i < 5000; i++) {
+            Triple triple = new Triple(
+                    Entity.builder().id("e" + random.nextInt(300)).type("Node").build(),
+                    Relation.builder().type(types[random.nextInt(types.length)]).build(),
+                    Entity.builder().id("e" + random.nextInt(300)).type("Node").build());
+            graph.addTriple(triple);
+            reference.addTriple(triple);
+            if (i == 2500) {
+                graph.compact();
+            }
+        }
+
+        assertThat(graph.getTripleCount()).isEqualTo(reference.getTripleCount());
+        assertThat(graph.getEntityCount()).isEqualTo(reference.getEntityCount());
+        for (int i = 0; i < 200; i++) {
+            String s = random.nextBoolean() ? "e" + random.nextInt(300) : null;
+            String p = random.nextBoolean() ? types[random.nextInt(types.length)] : null;
+            String o = random.nextBoolean() ? "e" + random.nextInt(300) : null;
+            assertThat(keys(graph.findTriples(s, p, o)))
+                    .as("pattern (%s, %s, %s)", s, p, o)
+                    .containsExactlyInAnyOrderElementsOf(keys(reference.findTriples(s, p, o)));
+        }
+    }
+
+    private static List<String> keys(List<Triple> triples) {
+        return triples.stream()
+                .map(t -> t.getSubject().getId() + " " + t.getPredicate().getType() + " " + t.getObject().getId())
+                .collect(Collectors.toList());
+    }
+}
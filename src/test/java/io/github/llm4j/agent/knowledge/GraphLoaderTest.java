@@ -0,0 +1,202 @@
+package io.github.llm4j.agent.knowledge;
+
+import io.github.llm4j.agent.knowledge.loader.CsvEdgeLoader;
+import io.github.llm4j.agent.knowledge.loader.LoadStats;
+import io.github.llm4j.agent.knowledge.loader.NTriplesLoader;
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Relation;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.knowledge.store.CompactGraphStore;
+import io.github.llm4j.agent.knowledge.store.InMemoryGraphStore;
+import io.github.llm4j.agent.knowledge.store.PersistentGraphStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for bulk loading with KnowledgeGraph.addAll and the N-Triples
+ * and CSV loaders
+ */
+class GraphLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testNTriplesMapsTypesLiteralsAndEdges() throws Exception {
+        String input = String.join("\n",
+                "# people",
+                "<http://ex.org/alice> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://ex.org/Person> .",
+                "<http://ex.org/alice> <http://ex.org/name> \"Alice \\\"Al\\\" Smith\"@en .",
+                "<http://ex.org/alice> <http://ex.org/age> \"42\"^^<http://www.w3.org/2001/XMLSchema#integer> .",
+                "<http://ex.org/alice> <http://ex.org/knows> _:b0 .",
+                "",
+                "_:b0 <http://ex.org/name> \"Bob \\u00e9\" .",
+                "<http://ex.org/alice> <http://ex.org/knows> broken .");
+        InMemoryGraphStore graph = new InMemoryGraphStore();
+
+        LoadStats stats = NTriplesLoader.builder().localNames(true).build().load(graph, new StringReader(input));
+
+        assertThat(stats.getLinesRead()).isEqualTo(8);
+        assertThat(stats.getLinesSkipped()).isEqualTo(1);
+        assertThat(stats.getTriplesLoaded()).isEqualTo(1);
+        assertThat(stats.getEntitiesLoaded()).isEqualTo(2);
+
+        Entity alice = graph.getEntity("http://ex.org/alice");
+        assertThat(alice.getType()).isEqualTo("Person");
+        assertThat(alice.getProperty("name")).isEqualTo("Alice \"Al\" Smith");
+        assertThat(alice.getProperty("age")).isEqualTo(42L);
+        assertThat(graph.getEntity("_:b0").getType()).isEqualTo("Resource");
+        assertThat(graph.getEntity("_:b0").getProperty("name")).isEqualTo("Bob \u00e9");
+        assertThat(graph.findTriples("http://ex.org/alice", "knows", "_:b0")).hasSize(1);
+    }
+
+    @Test
+    void testParallelChunksMatchSingleChunk() throws Exception {
+        StringBuilder input = new StringBuilder();
+        Random random = new Random(7);
+        for (int i = 0; i < 3000; i++) {
+            int subject = random.nextInt(200);
+            if (i % 3 == 0) {
+                input.append("<urn:e").append(subject).append("> <urn:p:rank> \"").append(i)
+                        .append("\"^^<http://www.w3.org/2001/XMLSchema#int> .\n");
+            } else {
+                input.append("<urn:e").append(subject).append("> <urn:p:LINKS> <urn:e")
+                        .append(random.nextInt(200)).append("> .\n");
+            }
+        }
+
+        InMemoryGraphStore single = new InMemoryGraphStore();
+        NTriplesLoader.builder().chunkLines(100_000).build().load(single, new StringReader(input.toString()));
+        InMemoryGraphStore chunked = new InMemoryGraphStore();
+        NTriplesLoader.builder().chunkLines(7).build().load(chunked, new StringReader(input.toString()));
+
+        assertThat(keys(chunked.findTriples(null, null, null)))
+                .containsExactlyInAnyOrderElementsOf(keys(single.findTriples(null, null, null)));
+        assertThat(chunked.getEntityCount()).isEqualTo(single.getEntityCount());
+        for (Entity entity : single.findEntities(null, null)) {
+            // Later lines win, whichever chunk they were parsed in
+            assertThat(chunked.getEntity(entity.getId()).getProperties()).isEqualTo(entity.getProperties());
+        }
+    }
+
+    @Test
+    void testCsvWithNamedColumnsAndRelationProperties() throws Exception {
+        Path file = tempDir.resolve("edges.csv");
+        Files.writeString(file, String.join("\n",
+                "source,weight,target,relation",
+                "alice,0.5,bob,KNOWS",
+                "\"carol, jr\",,bob,\"WORKS \"\"WITH\"\"\"",
+                "dave,1",
+                "alice,,carol,KNOWS"));
+        InMemoryGraphStore graph = new InMemoryGraphStore();
+
+        LoadStats stats = CsvEdgeLoader.builder()
+                .columns("source", "relation", "target")
+                .entityType("Person")
+                .build()
+                .load(graph, file);
+
+        assertThat(stats.getTriplesLoaded()).isEqualTo(3);
+        assertThat(stats.getLinesSkipped()).isEqualTo(1);
+        assertThat(graph.getEntityCount()).isEqualTo(4);
+        assertThat(graph.getEntity("carol, jr").getType()).isEqualTo("Person");
+        assertThat(graph.findTriples("alice", "KNOWS", "bob").get(0).getPredicate().getProperty("weight"))
+                .isEqualTo("0.5");
+        assertThat(graph.findTriples(null, "WORKS \"WITH\"", "bob")).hasSize(1);
+        assertThat(graph.findTriples("alice", "KNOWS", "carol").get(0).getPredicate().getProperties()).isEmpty();
+    }
+
+    @Test
+    void testCsvWithoutHeaderOrPredicateColumn() throws Exception {
+        InMemoryGraphStore graph = new InMemoryGraphStore();
+
+        CsvEdgeLoader.builder()
+                .header(false)
+                .delimiter('\t')
+                .columns(0, -1, 1)
+                .predicate("FOLLOWS")
+                .build()
+                .load(graph, new StringReader("a\tb\nb\tc\tmutual\n"));
+
+        assertThat(graph.findTriples(null, "FOLLOWS", null)).hasSize(2);
+        assertThat(graph.findTriples("b", "FOLLOWS", "c").get(0).getPredicate().getProperty("column2"))
+                .isEqualTo("mutual");
+        assertThatThrownBy(() -> CsvEdgeLoader.builder().columns("from", null, "to").build()
+                .load(graph, new StringReader("a,b\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'from'");
+    }
+
+    @Test
+    void testAddAllMatchesSequentialAddsInEveryStore() throws Exception {
+        List<Entity> entities = new ArrayList<>();
+        List<Triple> triples = new ArrayList<>();
+        Random random = new Random(11);
+        String[] types = {"KNOWS", "LIKES", "OWNS"};
+        for (int i = 0; i < 50; i++) {
+            entities.add(Entity.builder().id("e" + i).type("Node").addProperty("version", 0).build());
+        }
+        for (int i = 0; i < 2000; i++) {
+            triples.add(new Triple(
+                    Entity.builder().id("e" + random.nextInt(80)).type("Node").addProperty("version", i).build(),
+                    Relation.builder().type(types[random.nextInt(types.length)]).addProperty("n", i).build(),
+                    Entity.builder().id("e" + random.nextInt(80)).type("Node").addProperty("version", i).build()));
+        }
+
+        InMemoryGraphStore reference = new InMemoryGraphStore();
+        entities.subList(0, 25).forEach(reference::addEntity);
+        triples.subList(0, 1000).forEach(reference::addTriple);
+        entities.subList(25, 50).forEach(reference::addEntity);
+        triples.subList(1000, 2000).forEach(reference::addTriple);
+
+        List<KnowledgeGraph> graphs = List.of(new InMemoryGraphStore(), new CompactGraphStore(),
+                PersistentGraphStore.open(tempDir.resolve("small"), 500),
+                PersistentGraphStore.open(tempDir.resolve("large")));
+        for (KnowledgeGraph graph : graphs) {
+            graph.addAll(entities.subList(0, 25), triples.subList(0, 1000));
+            graph.addAll(entities.subList(25, 50), triples.subList(1000, 2000));
+
+            assertThat(graph.getTripleCount()).as(graph.getClass().getSimpleName())
+                    .isEqualTo(reference.getTripleCount());
+            assertThat(graph.getEntityCount()).isEqualTo(reference.getEntityCount());
+            assertThat(relationKeys(graph.findTriples(null, null, null)))
+                    .containsExactlyInAnyOrderElementsOf(relationKeys(reference.findTriples(null, null, null)));
+            for (Entity entity : reference.findEntities(null, null)) {
+                assertThat(graph.getEntity(entity.getId()).getProperty("version"))
+                        .isEqualTo(entity.getProperty("version"));
+            }
+            if (graph instanceof PersistentGraphStore) {
+                ((PersistentGraphStore) graph).close();
+            }
+        }
+
+        try (PersistentGraphStore reopened = PersistentGraphStore.open(tempDir.resolve("small"), 500)) {
+            assertThat(relationKeys(reopened.findTriples(null, null, null)))
+                    .containsExactlyInAnyOrderElementsOf(relationKeys(reference.findTriples(null, null, null)));
+        }
+    }
+
+    private static List<String> keys(List<Triple> triples) {
+        return triples.stream()
+                .map(t -> t.getSubject().getId() + " " + t.getPredicate().getType() + " " + t.getObject().getId())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> relationKeys(List<Triple> triples) {
+        return triples.stream()
+                .map(t -> t.getSubject().getId() + " " + t.getPredicate().getType() + " " + t.getObject().getId()
+                        + " " + t.getPredicate().getProperty("n"))
+                .collect(Collectors.toList());
+    }
+}
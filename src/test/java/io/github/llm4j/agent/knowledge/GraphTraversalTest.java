@@ -0,0 +1,128 @@
+package io.github.llm4j.agent.knowledge;
+
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Relation;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.knowledge.store.CompactGraphStore;
+import io.github.llm4j.agent.knowledge.store.InMemoryGraphStore;
+import io.github.llm4j.agent.knowledge.tools.GraphQueryTool;
+import io.github.llm4j.agent.knowledge.traversal.Direction;
+import io.github.llm4j.agent.knowledge.traversal.Path;
+import io.github.llm4j.agent.knowledge.traversal.Subgraph;
+import io.github.llm4j.agent.knowledge.traversal.Traversal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for multi-hop traversal on KnowledgeGraph
+ */
+class GraphTraversalTest {
+
+    static Stream<Arguments> graphs() {
+        return Stream.of(
+                Arguments.of(orgChart(new InMemoryGraphStore())),
+                Arguments.of(orgChart(new CompactGraphStore())));
+    }
+
+    /**
+     * carol and dave report to bob, bob reports to alice, erin reports to
+     * dave; carol also mentors erin.
+     */
+    private static KnowledgeGraph orgChart(KnowledgeGraph graph) {
+        link(graph, "bob", "REPORTS_TO", "alice");
+        link(graph, "carol", "REPORTS_TO", "bob");
+        link(graph, "dave", "REPORTS_TO", "bob");
+        link(graph, "erin", "REPORTS_TO", "dave");
+        link(graph, "carol", "MENTORS", "erin");
+        return graph;
+    }
+
+    private static void link(KnowledgeGraph graph, String subject, String predicate, String object) {
+        graph.addTriple(new Triple(
+                Entity.builder().id(subject).type("Person").build(),
+                Relation.builder().type(predicate).build(),
+                Entity.builder().id(object).type("Person").build()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("graphs")
+    void testBreadthFirstTraversalFollowsPredicatesUpToDepth(KnowledgeGraph graph) {
+        List<Path> chain = graph.traverse("erin", Traversal.builder().predicates("REPORTS_TO").build());
+
+        assertThat(chain).extracting(path -> path.getEnd().getId()).containsExactly("dave", "bob", "alice");
+        assertThat(chain.get(2).length()).isEqualTo(3);
+        assertThat(chain.get(2).toString()).isEqualTo(
+                "erin -[REPORTS_TO]-> dave -[REPORTS_TO]-> bob -[REPORTS_TO]-> alice");
+
+        List<Path> shallow = graph.traverse("erin", Traversal.builder().predicates("REPORTS_TO").maxDepth(1).build());
+        assertThat(shallow).extracting(path -> path.getEnd().getId()).containsExactly("dave");
+    }
+
+    @ParameterizedTest
+    @MethodSource("graphs")
+    void testIncomingAndDepthFirstTraversal(KnowledgeGraph graph) {
+        List<Path> reports = graph.traverse("alice", Traversal.builder()
+                .direction(Direction.INCOMING)
+                .predicates("REPORTS_TO")
+                .strategy(Traversal.Strategy.DEPTH_FIRST)
+                .build());
+
+        List<String> order = reports.stream().map(path -> path.getEnd().getId()).collect(Collectors.toList());
+        assertThat(order).containsExactlyInAnyOrder("bob", "carol", "dave", "erin");
+        assertThat(order.get(0)).isEqualTo("bob");
+        // Depth-first: erin is visited right after dave, her manager
+        assertThat(order.indexOf("erin")).isEqualTo(order.indexOf("dave") + 1);
+        assertThat(reports.get(0).toString()).isEqualTo("alice <-[REPORTS_TO]- bob");
+    }
+
+    @ParameterizedTest
+    @MethodSource("graphs")
+    void testShortestPathsInOrderOfLength(KnowledgeGraph graph) {
+        Traversal any = Traversal.builder().direction(Direction.BOTH).maxDepth(4).build();
+
+        List<Path> paths = graph.findPaths("carol", "erin", 3, any);
+
+        assertThat(paths).extracting(Path::toString).containsExactly(
+                "carol -[MENTORS]-> erin",
+                "carol -[REPORTS_TO]-> bob <-[REPORTS_TO]- dave <-[REPORTS_TO]- erin");
+        assertThat(graph.findPaths("carol", "erin", 3,
+                Traversal.builder().direction(Direction.BOTH).maxDepth(2).build())).hasSize(1);
+        assertThat(graph.findPaths("alice", "erin", 1, Traversal.defaults())).isEmpty();
+    }
+
+    @ParameterizedTest
+    @MethodSource("graphs")
+    void testNeighborhood(KnowledgeGraph graph) {
+        Subgraph subgraph = graph.neighborhood("bob",
+                Traversal.builder().direction(Direction.BOTH).maxDepth(1).build());
+
+        assertThat(subgraph.getEntities()).extracting(Entity::getId)
+                .containsExactlyInAnyOrder("bob", "alice", "carol", "dave");
+        assertThat(subgraph.getTriples()).hasSize(3);
+        assertThat(graph.neighborhood("nobody", Traversal.defaults()).getEntities()).isEmpty();
+    }
+
+    @Test
+    void testGraphQueryToolMultiHopQueries() throws Exception {
+        GraphQueryTool tool = new GraphQueryTool(orgChart(new InMemoryGraphStore()));
+
+        String reachable = tool.execute(Map.of("startId", "erin", "predicateType", "REPORTS_TO"));
+        assertThat(reachable).startsWith("Found 3 entities reachable from erin")
+                .contains("erin -[REPORTS_TO]-> dave -[REPORTS_TO]-> bob -[REPORTS_TO]-> alice (3 hops)");
+
+        String paths = tool.execute(Map.of("fromId", "carol", "toId", "alice", "k", 1));
+        assertThat(paths).contains("carol -[REPORTS_TO]-> bob -[REPORTS_TO]-> alice (2 hops)");
+
+        String around = tool.execute(Map.of("centerId", "dave", "maxDepth", 1, "direction", "both"));
+        assertThat(around).startsWith("Found 2 relationships");
+    }
+}
@@ -4,11 +4,17 @@ import io.github.llm4j.agent.knowledge.model.Entity;
 import io.github.llm4j.agent.knowledge.model.Relation;
 import io.github.llm4j.agent.knowledge.model.Triple;
 import io.github.llm4j.agent.knowledge.store.InMemoryGraphStore;
+import io.github.llm4j.agent.metadata.Filter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -72,6 +78,21 @@ class InMemoryGraphStoreTest {
         assertThat(nycPeople.get(0).getId()).isEqualTo("p1");
     }
 
+    @Test
+    void testNullFilterValueMatchesNothing() {
+        InMemoryGraphStore indexed = InMemoryGraphStore.builder().indexedProperties("city").build();
+        for (InMemoryGraphStore store : List.of(graph, indexed)) {
+            store.addEntity(Entity.builder().id("p1").type("Person").addProperty("city", "NYC").build());
+            store.addEntity(Entity.builder().id("p2").type("Person").build());
+
+            Map<String, Object> filters = new HashMap<>();
+            filters.put("city", null);
+            assertThat(store.findEntities("Person", filters)).isEmpty();
+            filters.put("city", "NYC");
+            assertThat(store.findEntities("Person", filters)).extracting(Entity::getId).containsExactly("p1");
+        }
+    }
+
     @Test
     void testAddAndGetTriple() {
         Entity alice = Entity.builder().id("alice").type("Person").build();
@@ -112,6 +133,187 @@ class InMemoryGraphStoreTest {
         assertThat(aliceKnowsBob).hasSize(1);
     }
 
+    @Test
+    void testFindTriplesWithEveryBindingCombination() {
+        Entity alice = Entity.builder().id("alice").type("Person").build();
+        Entity bob = Entity.builder().id("bob").type("Person").build();
+        Entity acme = Entity.builder().id("acme").type("Company").build();
+
+        graph.addTriple(new Triple(alice, Relation.builder().type("KNOWS").build(), bob));
+        graph.addTriple(new Triple(alice, Relation.builder().type("WORKS_AT").build(), acme));
+        graph.addTriple(new Triple(bob, Relation.builder().type("WORKS_AT").build(), acme));
+        graph.addTriple(new Triple(bob, Relation.builder().type("KNOWS").build(), alice));
+
+        assertThat(graph.findTriples(null, null, null)).hasSize(4);
+        assertThat(graph.findTriples("alice", "WORKS_AT", null)).hasSize(1);
+        assertThat(graph.findTriples(null, "WORKS_AT", "acme")).extracting(t -> t.getSubject().getId())
+                .containsExactlyInAnyOrder("alice", "bob");
+        assertThat(graph.findTriples(null, null, "alice")).hasSize(1);
+        assertThat(graph.findTriples("bob", null, "acme")).extracting(t -> t.getPredicate().getType())
+                .containsExactly("WORKS_AT");
+        assertThat(graph.findTriples("alice", "KNOWS", "acme")).isEmpty();
+        assertThat(graph.findTriples("nobody", null, null)).isEmpty();
+        assertThat(graph.findTriples(null, "UNKNOWN", null)).isEmpty();
+    }
+
+    @Test
+    void testAddingEqualTripleReplacesIt() {
+        Entity alice = Entity.builder().id("alice").type("Person").build();
+        Entity bob = Entity.builder().id("bob").type("Person").build();
+
+        graph.addTriple(new Triple(alice, Relation.builder().type("KNOWS").addProperty("since", 2019).build(), bob));
+        graph.addTriple(new Triple(alice, Relation.builder().type("KNOWS").addProperty("since", 2020).build(), bob));
+
+        assertThat(graph.getTripleCount()).isEqualTo(1);
+        assertThat(graph.findTriples(null, "KNOWS", "bob").get(0).getPredicate().getProperty("since"))
+                .isEqualTo(2020);
+    }
+
+    @Test
+    void testTriplesRewriteOnlyChangedEntities() {
+        Entity alice = Entity.builder().id("alice").type("Person").addProperty("age", 30).build();
+        Entity bob = Entity.builder().id("bob").type("Person").build();
+        graph.addEntity(alice);
+        graph.addEntity(bob);
+
+        graph.addTriple(new Triple(Entity.builder().id("alice").type("Person").addProperty("age", 30).build(),
+                Relation.builder().type("KNOWS").build(), Entity.builder().id("bob").type("Person").build()));
+        assertThat(graph.getEntity("alice")).isSameAs(alice);
+        assertThat(graph.getEntity("bob")).isSameAs(bob);
+
+        Entity older = Entity.builder().id("alice").type("Person").addProperty("age", 31).build();
+        graph.addTriple(new Triple(older, Relation.builder().type("KNOWS").build(), bob));
+        assertThat(graph.getEntity("alice")).isSameAs(older);
+        assertThat(graph.findEntities("Person", Map.of("age", 31))).containsExactly(older);
+    }
+
+    @Test
+    void testConcurrentAdds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        graph.addTriple(new Triple(
+                                Entity.builder().id("s" + (i % 50)).type("Node").build(),
+                                Relation.builder().type("R" + offset).build(),
+                                Entity.builder().id("o" + i).type("Node").build()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(graph.getTripleCount()).isEqualTo(8 * 500);
+        assertThat(graph.findTriples("s0", null, null)).hasSize(8 * 10);
+        assertThat(graph.findTriples(null, "R3", null)).hasSize(500);
+        assertThat(graph.findTriples(null, null, "o42")).hasSize(8);
+    }
+
+    @Test
+    void testConcurrentReplacementsKeepIndexesConsistent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int writer = thread;
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < 200; round++) {
+                        for (int i = 0; i < 10; i++) {
+                            graph.addTriple(new Triple(
+                                    Entity.builder().id("s" + i).type("Node").build(),
+                                    Relation.builder().type("KNOWS").addProperty("writer", writer).build(),
+                                    Entity.builder().id("o" + i).type("Node").build()));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(graph.getTripleCount()).isEqualTo(10);
+        for (int i = 0; i < 10; i++) {
+            Triple fromSpo = graph.findTriples("s" + i, "KNOWS", "o" + i).get(0);
+            assertThat(graph.findTriples(null, "KNOWS", "o" + i)).singleElement().isSameAs(fromSpo);
+            assertThat(graph.findTriples("s" + i, null, "o" + i)).singleElement().isSameAs(fromSpo);
+        }
+    }
+
+    @Test
+    void testIndexedPropertyQueries() {
+        InMemoryGraphStore indexed = InMemoryGraphStore.builder()
+                .indexedProperties("title", "age")
+                .adaptiveIndexThreshold(0)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            indexed.addEntity(Entity.builder()
+                    .id("p" + i)
+                    .type(i % 10 == 0 ? "Robot" : "Person")
+                    .addProperty("title", i % 2 == 0 ? "Engineer" : "Manager")
+                    .addProperty("age", 20 + i % 40)
+                    .build());
+        }
+        // Replacing an entity moves it between index entries
+        indexed.addEntity(Entity.builder().id("p1").type("Person")
+                .addProperty("title", "Engineer").addProperty("age", 99).build());
+
+        assertThat(indexed.findEntities("Person", Map.of("title", "Engineer"))).hasSize(41);
+        assertThat(indexed.findEntitiesMatching("Person", Filter.and(
+                Filter.eq("title", "Engineer"), Filter.between("age", 50, 59))))
+                .extracting(Entity::getId)
+                .containsExactlyInAnyOrder("p32", "p34", "p36", "p38", "p72", "p74", "p76", "p78");
+        assertThat(indexed.findEntitiesMatching(null, Filter.gt("age", 90))).extracting(Entity::getId)
+                .containsExactly("p1");
+        assertThat(indexed.findEntitiesMatching("Robot", Filter.or(Filter.in("age", 20, 30),
+                Filter.not(Filter.eq("title", "Engineer"))))).hasSize(6);
+        assertThat(indexed.getIndexedProperties()).containsExactly("age", "title");
+    }
+
+    @Test
+    void testIndexedLargeNumbersStayDistinct() {
+        InMemoryGraphStore indexed = InMemoryGraphStore.builder().indexedProperties("serial").build();
+        long serial = (1L << 53) + 1;
+        indexed.addEntity(Entity.builder().id("a").type("Device").addProperty("serial", serial).build());
+        indexed.addEntity(Entity.builder().id("b").type("Device").addProperty("serial", serial - 1).build());
+        indexed.addEntity(Entity.builder().id("c").type("Device").addProperty("serial", 0.5).build());
+
+        assertThat(indexed.findEntities("Device", Map.of("serial", serial))).extracting(Entity::getId)
+                .containsExactly("a");
+        assertThat(indexed.findEntitiesMatching(null, Filter.gt("serial", serial - 1))).extracting(Entity::getId)
+                .containsExactly("a");
+        assertThat(indexed.findEntitiesMatching(null, Filter.lt("serial", 1))).extracting(Entity::getId)
+                .containsExactly("c");
+    }
+
+    @Test
+    void testPropertiesAreIndexedAfterRepeatedQueries() {
+        InMemoryGraphStore adaptive = InMemoryGraphStore.builder().adaptiveIndexThreshold(3).build();
+        adaptive.addEntity(Entity.builder().id("a").type("Person").addProperty("team", "core").build());
+        adaptive.addEntity(Entity.builder().id("b").type("Person").addProperty("team", "docs").build());
+
+        for (int i = 0; i < 2; i++) {
+            adaptive.findEntitiesMatching("Person", Filter.eq("team", "core"));
+        }
+        assertThat(adaptive.getIndexedProperties()).isEmpty();
+
+        adaptive.findEntitiesMatching("Person", Filter.eq("team", "core"));
+        assertThat(adaptive.getIndexedProperties()).containsExactly("team");
+
+        adaptive.addEntity(Entity.builder().id("c").type("Person").addProperty("team", "core").build());
+        assertThat(adaptive.findEntitiesMatching("Person", Filter.eq("team", "core"))).extracting(Entity::getId)
+                .containsExactlyInAnyOrder("a", "c");
+    }
+
     @Test
     void testClear() {
         graph.addEntity(Entity.builder().id("e1").type("Test").build());
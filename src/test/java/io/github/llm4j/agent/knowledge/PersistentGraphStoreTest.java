@@ -0,0 +1,199 @@
+package io.github.llm4j.agent.knowledge;
+
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Relation;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.knowledge.store.InMemoryGraphStore;
+import io.github.llm4j.agent.knowledge.store.PersistentGraphStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for PersistentGraphStore
+ */
+class PersistentGraphStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReopenReplaysLog() throws Exception {
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            graph.addTriple(triple("alice", "WORKS_FOR", "acme"));
+            graph.addEntity(Entity.builder().id("acme").type("Company").addProperty("founded", 1999).build());
+        }
+
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            assertThat(graph.getEntityCount()).isEqualTo(2);
+            assertThat(graph.getTripleCount()).isEqualTo(1);
+            assertThat(graph.getEntity("acme").getProperty("founded")).isEqualTo(1999);
+            assertThat(graph.findTriples(null, "WORKS_FOR", "acme")).extracting(t -> t.getSubject().getId())
+                    .containsExactly("alice");
+        }
+    }
+
+    @Test
+    void testCompactedSegmentAndLogAreMerged() throws Exception {
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir, 0)) {
+            graph.addTriple(new Triple(entity("alice"),
+                    Relation.builder().type("KNOWS").addProperty("since", 2019).build(), entity("bob")));
+            graph.addTriple(triple("bob", "KNOWS", "carol"));
+            graph.compact();
+            assertThat(Files.size(tempDir.resolve("graph.wal"))).isZero();
+
+            // Replaces a segment triple and adds a new one
+            graph.addTriple(new Triple(entity("alice"),
+                    Relation.builder().type("KNOWS").addProperty("since", 2020).build(), entity("bob")));
+            graph.addTriple(triple("carol", "KNOWS", "alice"));
+        }
+
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir, 0)) {
+            assertThat(graph.getTripleCount()).isEqualTo(3);
+            List<Triple> aliceKnows = graph.findTriples("alice", "KNOWS", null);
+            assertThat(aliceKnows).hasSize(1);
+            assertThat(aliceKnows.get(0).getPredicate().getProperty("since")).isEqualTo(2020);
+            assertThat(graph.findTriples(null, null, "alice")).extracting(t -> t.getSubject().getId())
+                    .containsExactly("carol");
+
+            graph.compact();
+            assertThat(graph.getTripleCount()).isEqualTo(3);
+            assertThat(graph.findTriples("alice", "KNOWS", "bob").get(0).getPredicate().getProperty("since"))
+                    .isEqualTo(2020);
+        }
+    }
+
+    @Test
+    void testLogCompactsAtThresholdAndMatchesInMemoryStore() throws Exception {
+        InMemoryGraphStore reference = new InMemoryGraphStore();
+        Random random = new Random(7);
+        String[] types = {"KNOWS", "LIKES", "OWNS"};
+
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir, 500)) {
+            for (int i = 0; i < 2000; i++) {
+                Triple triple = triple("e" + random.nextInt(200), types[random.nextInt(types.length)],
+                        "e" + random.nextInt(200));
+                graph.addTriple(triple);
+                reference.addTriple(triple);
+            }
+            assertThat(Files.exists(tempDir.resolve("graph.seg"))).isTrue();
+        }
+
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir, 500)) {
+            assertThat(graph.getTripleCount()).isEqualTo(reference.getTripleCount());
+            for (int i = 0; i < 100; i++) {
+                String s = random.nextBoolean() ? "e" + random.nextInt(200) : null;
+                String p = random.nextBoolean() ? types[random.nextInt(types.length)] : null;
+                String o = random.nextBoolean() ? "e" + random.nextInt(200) : null;
+                assertThat(keys(graph.findTriples(s, p, o)))
+                        .as("pattern (%s, %s, %s)", s, p, o)
+                        .containsExactlyInAnyOrderElementsOf(keys(reference.findTriples(s, p, o)));
+            }
+        }
+    }
+
+    @Test
+    void testTornLogTailIsDiscarded() throws Exception {
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            graph.addTriple(triple("alice", "KNOWS", "bob"));
+        }
+        Files.write(tempDir.resolve("graph.wal"), new byte[]{2, 0, 0, 1, 0, '{'}, StandardOpenOption.APPEND);
+
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            assertThat(graph.getTripleCount()).isEqualTo(1);
+            graph.addTriple(triple("bob", "KNOWS", "carol"));
+        }
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            assertThat(graph.getTripleCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testReopenKeepsPropertyTypes() throws Exception {
+        Entity counter = Entity.builder().id("c").type("T").addProperty("n", 5L).addProperty("ratio", 0.5f).build();
+        Relation relation = Relation.builder().type("HAS").addProperty("weight", 2L).build();
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            graph.addTriple(new Triple(counter, relation, entity("alice")));
+            assertThat(graph.findEntities("T", Map.of("n", 5L))).hasSize(1);
+        }
+
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            assertThat(graph.findEntities("T", Map.of("n", 5L))).hasSize(1);
+            assertThat(graph.getEntity("c").getProperties()).isEqualTo(counter.getProperties());
+            assertThat(graph.getTriples("c").get(0).getPredicate().getProperties()).isEqualTo(relation.getProperties());
+            graph.compact();
+        }
+
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            assertThat(graph.findEntities("T", Map.of("n", 5L))).hasSize(1);
+            assertThat(graph.getEntity("c").getProperties()).isEqualTo(counter.getProperties());
+            assertThat(graph.getTriples("c").get(0).getPredicate().getProperties()).isEqualTo(relation.getProperties());
+        }
+    }
+
+    @Test
+    void testNullFilterValueMatchesNothing() throws Exception {
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            graph.addEntity(entity("alice"));
+
+            Map<String, Object> filters = new HashMap<>();
+            filters.put("name", null);
+            assertThat(graph.findEntities("Person", filters)).isEmpty();
+            assertThat(graph.findEntities("Person", Map.of("name", "alice"))).hasSize(1);
+        }
+    }
+
+    @Test
+    void testClear() throws Exception {
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            graph.addTriple(triple("alice", "KNOWS", "bob"));
+            graph.compact();
+            graph.addTriple(triple("bob", "KNOWS", "carol"));
+            graph.clear();
+            assertThat(graph.getTripleCount()).isZero();
+        }
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            assertThat(graph.getEntityCount()).isZero();
+            assertThat(graph.findTriples(null, null, null)).isEmpty();
+        }
+    }
+
+    @Test
+    void testFailedClearKeepsGraphInMemory() throws Exception {
+        try (PersistentGraphStore graph = PersistentGraphStore.open(tempDir)) {
+            graph.addTriple(triple("alice", "KNOWS", "bob"));
+            // A non-empty directory in place of the segment makes deleting it fail
+            Files.createDirectories(tempDir.resolve("graph.seg").resolve("blocker"));
+
+            assertThrows(UncheckedIOException.class, graph::clear);
+            assertThat(graph.getEntityCount()).isEqualTo(2);
+            assertThat(graph.getTripleCount()).isEqualTo(1);
+        }
+    }
+
+    private static Entity entity(String id) {
+        return Entity.builder().id(id).type("Person").addProperty("name", id).build();
+    }
+
+    private static Triple triple(String subject, String predicate, String object) {
+        return new Triple(entity(subject), Relation.builder().type(predicate).build(), entity(object));
+    }
+
+    private static List<String> keys(List<Triple> triples) {
+        return triples.stream()
+                .map(t -> t.getSubject().getId() + " " + t.getPredicate().getType() + " " + t.getObject().getId())
+                .collect(Collectors.toList());
+    }
+}
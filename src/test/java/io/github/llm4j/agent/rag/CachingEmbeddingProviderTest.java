@@ -0,0 +1,238 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.rag.embedding.CachingEmbeddingProvider;
+import io.github.llm4j.agent.rag.embedding.EmbeddingProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for CachingEmbeddingProvider
+ */
+class CachingEmbeddingProviderTest {
+
+    @Test
+    void testMemoryTierServesRepeatedTexts() {
+        CountingEmbeddingProvider delegate = new CountingEmbeddingProvider();
+        CachingEmbeddingProvider provider = CachingEmbeddingProvider.builder().delegate(delegate).build();
+
+        float[] first = provider.embed("hello");
+        float[] second = provider.embed("hello");
+
+        assertThat(second).containsExactly(first);
+        assertThat(delegate.embeddedTexts).containsExactly("hello");
+
+        CachingEmbeddingProvider.CacheStats stats = provider.getStats();
+        assertThat(stats.getMemoryHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getHitRate()).isEqualTo(0.5);
+        assertThat(stats.getBytesSaved()).isEqualTo("hello".length() + 4L * 4);
+    }
+
+    @Test
+    void testCachedArraysAreNotShared() {
+        CachingEmbeddingProvider provider = CachingEmbeddingProvider.builder()
+                .delegate(new CountingEmbeddingProvider())
+                .build();
+
+        float[] first = provider.embed("abc");
+        first[0] = 999f;
+
+        assertThat(provider.embed("abc")[0]).isNotEqualTo(999f);
+    }
+
+    @Test
+    void testBatchOnlyEmbedsMissingDistinctTexts() {
+        CountingEmbeddingProvider delegate = new CountingEmbeddingProvider();
+        CachingEmbeddingProvider provider = CachingEmbeddingProvider.builder().delegate(delegate).build();
+        provider.embed("cached");
+        delegate.embeddedTexts.clear();
+
+        List<float[]> embeddings = provider.embedBatch(List.of("new", "cached", "new", "other"));
+
+        assertThat(delegate.batchCalls).isEqualTo(1);
+        assertThat(delegate.embeddedTexts).containsExactly("new", "other");
+        assertThat(embeddings).hasSize(4);
+        assertThat(embeddings.get(0)).containsExactly(embeddings.get(2));
+        assertThat(embeddings.get(1)).containsExactly(delegate.embed("cached"));
+        assertThat(embeddings.get(3)).containsExactly(delegate.embed("other"));
+    }
+
+    @Test
+    void testLruEvictsLeastRecentlyUsed() {
+        CountingEmbeddingProvider delegate = new CountingEmbeddingProvider();
+        CachingEmbeddingProvider provider = CachingEmbeddingProvider.builder()
+                .delegate(delegate)
+                .maxMemoryEntries(2)
+                .build();
+
+        provider.embed("a");
+        provider.embed("b");
+        provider.embed("a");
+        provider.embed("c");
+        delegate.embeddedTexts.clear();
+
+        provider.embed("a");
+        provider.embed("b");
+
+        assertThat(delegate.embeddedTexts).containsExactly("b");
+        assertThat(provider.getStats().getMemoryEntries()).isEqualTo(2);
+    }
+
+    @Test
+    void testDiskTierSurvivesRestart(@TempDir Path tempDir) throws IOException {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            texts.add("chunk number " + i);
+        }
+
+        List<float[]> original;
+        try (CachingEmbeddingProvider provider = CachingEmbeddingProvider.builder()
+                .delegate(new CountingEmbeddingProvider())
+                .model("model-a")
+                .directory(tempDir)
+                .build()) {
+            original = provider.embedBatch(texts);
+            assertThat(provider.getStats().getDiskEntries()).isEqualTo(50);
+        }
+
+        CountingEmbeddingProvider delegate = new CountingEmbeddingProvider();
+        try (CachingEmbeddingProvider reopened = CachingEmbeddingProvider.builder()
+                .delegate(delegate)
+                .model("model-a")
+                .directory(tempDir)
+                .build()) {
+            List<float[]> cached = reopened.embedBatch(texts);
+
+            assertThat(delegate.embeddedTexts).isEmpty();
+            for (int i = 0; i < texts.size(); i++) {
+                assertThat(cached.get(i)).containsExactly(original.get(i));
+            }
+            assertThat(reopened.getStats().getDiskHits()).isEqualTo(50);
+
+            // Appends after reopening are readable through the remapped file
+            reopened.embed("fresh text");
+            reopened.embedBatch(List.of("another"));
+        }
+
+        try (CachingEmbeddingProvider otherModel = CachingEmbeddingProvider.builder()
+                .delegate(delegate)
+                .model("model-b")
+                .maxMemoryEntries(0)
+                .directory(tempDir)
+                .build()) {
+            otherModel.embed("chunk number 1");
+            assertThat(delegate.embeddedTexts).contains("chunk number 1");
+            assertThat(otherModel.getStats().getDiskEntries()).isEqualTo(53);
+        }
+    }
+
+    @Test
+    void testTornIndexRecordIsIgnored(@TempDir Path tempDir) throws IOException {
+        try (CachingEmbeddingProvider provider = CachingEmbeddingProvider.builder()
+                .delegate(new CountingEmbeddingProvider())
+                .directory(tempDir)
+                .build()) {
+            provider.embed("one");
+            provider.embed("two");
+        }
+
+        Path index = tempDir.resolve("embeddings.idx");
+        byte[] bytes = Files.readAllBytes(index);
+        Files.write(index, java.util.Arrays.copyOf(bytes, bytes.length - 5));
+
+        CountingEmbeddingProvider delegate = new CountingEmbeddingProvider();
+        try (CachingEmbeddingProvider reopened = CachingEmbeddingProvider.builder()
+                .delegate(delegate)
+                .directory(tempDir)
+                .maxMemoryEntries(0)
+                .build()) {
+            assertThat(reopened.getStats().getDiskEntries()).isEqualTo(1);
+            reopened.embed("one");
+            reopened.embed("two");
+            assertThat(delegate.embeddedTexts).containsExactly("two");
+            reopened.embed("two");
+            assertThat(delegate.embeddedTexts).containsExactly("two");
+        }
+    }
+
+    @Test
+    void testIndexEntryForTornDataRecordIsDropped(@TempDir Path tempDir) throws IOException {
+        try (CachingEmbeddingProvider provider = CachingEmbeddingProvider.builder()
+                .delegate(new CountingEmbeddingProvider())
+                .directory(tempDir)
+                .build()) {
+            provider.embed("one");
+            provider.embed("two");
+        }
+
+        // The index entry for "two" survives, but its record lost part of its floats
+        Path data = tempDir.resolve("embeddings.bin");
+        byte[] bytes = Files.readAllBytes(data);
+        Files.write(data, java.util.Arrays.copyOf(bytes, bytes.length - 5));
+
+        CountingEmbeddingProvider delegate = new CountingEmbeddingProvider();
+        try (CachingEmbeddingProvider reopened = CachingEmbeddingProvider.builder()
+                .delegate(delegate)
+                .directory(tempDir)
+                .maxMemoryEntries(0)
+                .build()) {
+            assertThat(reopened.getStats().getDiskEntries()).isEqualTo(1);
+            reopened.embed("one");
+            reopened.embed("two");
+            reopened.embed("two");
+            assertThat(delegate.embeddedTexts).containsExactly("two");
+        }
+
+        CountingEmbeddingProvider afterRepair = new CountingEmbeddingProvider();
+        try (CachingEmbeddingProvider reopened = CachingEmbeddingProvider.builder()
+                .delegate(afterRepair)
+                .directory(tempDir)
+                .build()) {
+            assertThat(reopened.embed("two")).containsExactly(new CountingEmbeddingProvider().embed("two"));
+            assertThat(afterRepair.embeddedTexts).isEmpty();
+        }
+    }
+
+    /**
+     * Deterministic provider that records every text it embeds.
+     */
+    private static class CountingEmbeddingProvider implements EmbeddingProvider {
+        private final List<String> embeddedTexts = new ArrayList<>();
+        private int batchCalls;
+
+        @Override
+        public float[] embed(String text) {
+            embeddedTexts.add(text);
+            return vector(text);
+        }
+
+        @Override
+        public List<float[]> embedBatch(List<String> texts) {
+            batchCalls++;
+            List<float[]> embeddings = new ArrayList<>();
+            for (String text : texts) {
+                embeddedTexts.add(text);
+                embeddings.add(vector(text));
+            }
+            return embeddings;
+        }
+
+        @Override
+        public int getDimensions() {
+            return 4;
+        }
+
+        private static float[] vector(String text) {
+            int hash = text.hashCode();
+            return new float[] { text.length(), hash & 0xFF, (hash >> 8) & 0xFF, (hash >> 16) & 0xFF };
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.rag.document.ChunkingStrategy;
+import io.github.llm4j.agent.rag.document.Document;
+import io.github.llm4j.agent.rag.document.DocumentChunk;
+import io.github.llm4j.agent.rag.document.RecursiveChunkingStrategy;
+import io.github.llm4j.agent.rag.document.SentenceChunkingStrategy;
+
+import java.util.List;
+
+/**
+ * Throughput check for the text-aware chunkers on a multi-megabyte document.
+ * Not run by the test suite; timings depend on the machine, so nothing is
+ * asserted. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.llm4j.agent.rag.ChunkingBenchmark
+ * </pre>
+ */
+public final class ChunkingBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private ChunkingBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Document doc = DocumentChunkingTest.largeDocument(megabytes * 1024 * 1024);
+        double sizeMb = doc.getContent().length() / (1024.0 * 1024.0);
+
+        ChunkingStrategy[] strategies = {
+                new SentenceChunkingStrategy(256, 1), new RecursiveChunkingStrategy(256) };
+        for (ChunkingStrategy strategy : strategies) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                strategy.chunk(doc);
+            }
+
+            long totalNanos = 0;
+            int chunkCount = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long start = System.nanoTime();
+                List<DocumentChunk> chunks = strategy.chunk(doc);
+                totalNanos += System.nanoTime() - start;
+                chunkCount = chunks.size();
+            }
+
+            double seconds = totalNanos / 1e9 / MEASURED_ROUNDS;
+            System.out.printf("%-28s %8.1f ms  %7.1f MB/s  %d chunks%n",
+                    strategy.getClass().getSimpleName(), seconds * 1000, sizeMb / seconds, chunkCount);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.rag.document.TokenEstimator;
+import io.github.llm4j.agent.rag.retrieval.ContextPacker;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ContextPacker
+ */
+class ContextPackerTest {
+
+    private static final String TEXT = "The reactor cools down slowly. Operators check the gauges hourly. "
+            + "Alarms trigger above four hundred degrees.";
+
+    @Test
+    void testMergesOverlappingAndAdjacentChunks() {
+        List<ContextPacker.Passage> passages = ContextPacker.builder().build().pack(List.of(
+                chunk("doc1_chunk_1", "doc1", 20, 50, 0.9f),
+                chunk("doc1_chunk_0", "doc1", 0, 30, 0.7f),
+                chunk("doc1_chunk_2", "doc1", 50, 66, 0.5f),
+                chunk("doc1_chunk_4", "doc1", 80, TEXT.length(), 0.8f)));
+
+        assertThat(passages).hasSize(2);
+        assertThat(passages.get(0).getContent()).isEqualTo(TEXT.substring(0, 66));
+        assertThat(passages.get(0).getScore()).isEqualTo(0.9f);
+        assertThat(passages.get(0).getChunkIds()).containsExactly("doc1_chunk_0", "doc1_chunk_1", "doc1_chunk_2");
+        assertThat(passages.get(1).getContent()).isEqualTo(TEXT.substring(80));
+    }
+
+    @Test
+    void testDoesNotMergeAcrossDocuments() {
+        List<ContextPacker.Passage> passages = ContextPacker.builder().build().pack(List.of(
+                chunk("doc1_chunk_0", "doc1", 0, 30, 0.9f),
+                chunk("doc2_chunk_0", "doc2", 20, 66, 0.8f)));
+
+        assertThat(passages).extracting(ContextPacker.Passage::getDocumentId).containsExactly("doc1", "doc2");
+    }
+
+    @Test
+    void testDropsNearDuplicates() {
+        List<ContextPacker.Passage> passages = ContextPacker.builder().build().pack(List.of(
+                plain("a", "Alarms trigger above four hundred degrees in the reactor.", 0.9f),
+                plain("b", "alarms trigger above four hundred degrees in the reactor", 0.8f),
+                plain("c", "Operators check the gauges hourly.", 0.7f)));
+
+        assertThat(passages).extracting(passage -> passage.getChunkIds().get(0)).containsExactly("a", "c");
+    }
+
+    @Test
+    void testFillsTokenBudgetByScore() {
+        String large = "word ".repeat(50).trim();
+        List<VectorStore.SearchResult> results = List.of(
+                plain("small-low", "tiny note", 0.2f),
+                plain("large", large, 0.9f),
+                plain("medium", "several words that fit the remaining budget", 0.5f));
+
+        List<ContextPacker.Passage> passages = ContextPacker.builder()
+                .tokenBudget(60)
+                .build()
+                .pack(results);
+
+        // "large" (50 tokens) fits first, "medium" (11) does not, "small-low" (3) does
+        assertThat(passages).extracting(passage -> passage.getChunkIds().get(0))
+                .containsExactly("large", "small-low");
+        assertThat(passages.stream().mapToInt(ContextPacker.Passage::getTokens).sum()).isLessThanOrEqualTo(60);
+        assertThat(passages.get(0).getTokens()).isEqualTo(TokenEstimator.heuristic().estimate(large));
+    }
+
+    private static VectorStore.SearchResult chunk(String id, String documentId, int start, int end, float score) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("content", TEXT.substring(start, end));
+        metadata.put("documentId", documentId);
+        metadata.put("startIndex", start);
+        metadata.put("endIndex", end);
+        return new VectorStore.SearchResult(id, score, metadata);
+    }
+
+    private static VectorStore.SearchResult plain(String id, String content, float score) {
+        return new VectorStore.SearchResult(id, score, Map.of("content", content, "documentId", id));
+    }
+}
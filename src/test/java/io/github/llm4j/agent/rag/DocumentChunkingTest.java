@@ -2,10 +2,18 @@ package io.github.llm4j.agent.rag;
 
 import io.github.llm4j.agent.rag.document.Document;
 import io.github.llm4j.agent.rag.document.DocumentChunk;
+import io.github.llm4j.agent.rag.document.ChunkingStrategy;
 import io.github.llm4j.agent.rag.document.FixedSizeChunkingStrategy;
+import io.github.llm4j.agent.rag.document.RecursiveChunkingStrategy;
+import io.github.llm4j.agent.rag.document.SentenceChunkingStrategy;
+import io.github.llm4j.agent.rag.document.TokenEstimator;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -127,4 +135,187 @@ class DocumentChunkingTest {
         assertThat(chunks.get(1).getStartIndex()).isEqualTo(5);
         assertThat(chunks.get(1).getEndIndex()).isEqualTo(10);
     }
+
+    @Test
+    void testChunkContentViewsParentContent() {
+        String content = "The quick brown fox jumps over the lazy dog";
+        Document doc = Document.builder()
+                .id("doc1")
+                .content(content)
+                .build();
+
+        List<DocumentChunk> chunks = new FixedSizeChunkingStrategy(10, 3).chunk(doc);
+
+        for (DocumentChunk chunk : chunks) {
+            String expected = content.substring(chunk.getStartIndex(), chunk.getEndIndex());
+            assertThat(chunk.getContent()).isEqualTo(expected);
+            assertThat(chunk.getContentView().toString()).isEqualTo(expected);
+            assertThat(chunk.getContentLength()).isEqualTo(expected.length());
+            assertThat(chunk.getContentHash()).isEqualTo(DocumentChunk.builder()
+                    .id("copy")
+                    .documentId("doc1")
+                    .content(expected)
+                    .build()
+                    .getContentHash());
+        }
+        CharSequence view = chunks.get(1).getContentView();
+        assertThat(view.subSequence(2, 6).toString()).isEqualTo(content.substring(9, 13));
+        assertThat(view.charAt(0)).isEqualTo(content.charAt(7));
+    }
+
+    @Test
+    void testReaderChunkingMatchesDocumentChunking() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            text.append("token").append(i).append(' ');
+        }
+        String content = text.toString();
+
+        for (int length : new int[] { 0, 7, 15, 25, 35, content.length() }) {
+            String prefix = content.substring(0, length);
+            FixedSizeChunkingStrategy strategy = new FixedSizeChunkingStrategy(15, 5);
+            List<DocumentChunk> expected = strategy.chunk(Document.builder()
+                    .id("doc1")
+                    .content(prefix)
+                    .addMetadata("source", "stream")
+                    .build());
+
+            List<DocumentChunk> actual = new ArrayList<>();
+            Iterator<DocumentChunk> iterator = strategy.chunk("doc1", new StringReader(prefix),
+                    Map.of("source", "stream"));
+            iterator.forEachRemaining(actual::add);
+
+            assertThat(actual).hasSameSizeAs(expected);
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i).getId()).isEqualTo(expected.get(i).getId());
+                assertThat(actual.get(i).getContent()).isEqualTo(expected.get(i).getContent());
+                assertThat(actual.get(i).getStartIndex()).isEqualTo(expected.get(i).getStartIndex());
+                assertThat(actual.get(i).getEndIndex()).isEqualTo(expected.get(i).getEndIndex());
+                assertThat(actual.get(i).getMetadata()).containsEntry("source", "stream");
+            }
+        }
+    }
+
+    @Test
+    void testHeuristicTokenEstimate() {
+        TokenEstimator estimator = TokenEstimator.heuristic();
+
+        // hello (2) , (1) world (2) ! (1)
+        assertThat(estimator.estimate("Hello, world!")).isEqualTo(6);
+        assertThat(estimator.estimate("   ")).isZero();
+        assertThat(estimator.estimate("internationalization", 0, 5)).isEqualTo(2);
+        assertThat(TokenEstimator.characters(4).estimate("123456789")).isEqualTo(3);
+    }
+
+    @Test
+    void testSentenceChunkingKeepsSentencesWhole() {
+        Document doc = Document.builder()
+                .id("doc1")
+                .content("Version 2.5 shipped today. It fixes the login bug! Does it also fix caching? "
+                        + "Yes, e.g. the stale entries are gone. Release notes follow.")
+                .build();
+
+        List<DocumentChunk> chunks = new SentenceChunkingStrategy(20).chunk(doc);
+
+        // "2.5" and "e.g." do not end sentences
+        assertThat(chunks).extracting(DocumentChunk::getContent).containsExactly(
+                "Version 2.5 shipped today. It fixes the login bug!",
+                "Does it also fix caching?",
+                "Yes, e.g. the stale entries are gone.",
+                "Release notes follow.");
+        assertThat(chunks).allSatisfy(chunk -> assertThat(
+                TokenEstimator.heuristic().estimate(chunk.getContentView())).isLessThanOrEqualTo(20));
+        assertThat(chunks.get(1).getId()).isEqualTo("doc1_chunk_1");
+        assertThat(doc.getContent().substring(chunks.get(1).getStartIndex(), chunks.get(1).getEndIndex()))
+                .isEqualTo("Does it also fix caching?");
+    }
+
+    @Test
+    void testSentenceChunkingBreaksAtParagraphsAndOverlaps() {
+        Document doc = Document.builder()
+                .id("doc1")
+                .content("One two three. Four five six.\n\nSeven eight nine. Ten eleven twelve. "
+                        + "Thirteen fourteen.")
+                .build();
+
+        List<DocumentChunk> paragraphs = new SentenceChunkingStrategy(12).chunk(doc);
+        assertThat(paragraphs).extracting(DocumentChunk::getContent).containsExactly(
+                "One two three. Four five six.",
+                "Seven eight nine. Ten eleven twelve.",
+                "Thirteen fourteen.");
+
+        List<DocumentChunk> overlapping = new SentenceChunkingStrategy(12, 1).chunk(doc);
+        assertThat(overlapping).extracting(DocumentChunk::getContent).containsExactly(
+                "One two three. Four five six.",
+                "Seven eight nine. Ten eleven twelve.",
+                "Ten eleven twelve. Thirteen fourteen.");
+    }
+
+    @Test
+    void testSentenceChunkingSplitsOversizedSentences() {
+        String sentence = String.join(" ", java.util.Collections.nCopies(40, "word")) + ".";
+        Document doc = Document.builder().id("doc1").content(sentence).build();
+
+        List<DocumentChunk> chunks = new SentenceChunkingStrategy(10).chunk(doc);
+
+        assertThat(chunks).hasSize(5);
+        assertThat(chunks).allSatisfy(chunk -> assertThat(
+                TokenEstimator.heuristic().estimate(chunk.getContentView())).isLessThanOrEqualTo(10));
+        assertThat(String.join(" ", chunks.stream().map(DocumentChunk::getContent).toArray(String[]::new)))
+                .isEqualTo(sentence);
+    }
+
+    @Test
+    void testRecursiveChunkingUsesCoarsestBoundary() {
+        String longParagraph = "Alpha beta gamma delta. Epsilon zeta eta theta. Iota kappa lambda mu.";
+        Document doc = Document.builder()
+                .id("doc1")
+                .content("Short intro.\n\nAnother short one.\n\n" + longParagraph + "\n\n"
+                        + "x".repeat(100))
+                .build();
+
+        List<DocumentChunk> chunks = new RecursiveChunkingStrategy(16).chunk(doc);
+
+        assertThat(chunks).extracting(DocumentChunk::getContent).startsWith(
+                "Short intro.\n\nAnother short one.",
+                "Alpha beta gamma delta. Epsilon zeta eta theta.",
+                "Iota kappa lambda mu.");
+        // An unbroken run is cut into pieces of 16 * 4 characters
+        assertThat(chunks.subList(3, chunks.size())).extracting(DocumentChunk::getContentLength)
+                .containsExactly(64, 36);
+    }
+
+    @Test
+    void testChunkersHandleMultiMegabyteInput() {
+        // Correctness only; see ChunkingBenchmark for throughput
+        Document doc = largeDocument(4 * 1024 * 1024);
+
+        for (ChunkingStrategy strategy : new ChunkingStrategy[] {
+                new SentenceChunkingStrategy(256, 1), new RecursiveChunkingStrategy(256) }) {
+            List<DocumentChunk> chunks = strategy.chunk(doc);
+
+            assertThat(chunks).hasSizeGreaterThan(1000);
+            assertThat(chunks).allSatisfy(chunk -> assertThat(
+                    TokenEstimator.heuristic().estimate(chunk.getContentView())).isLessThanOrEqualTo(256));
+            assertThat(chunks.get(chunks.size() - 1).getEndIndex())
+                    .isEqualTo(doc.getContent().stripTrailing().length());
+        }
+    }
+
+    /**
+     * Builds a document of at least {@code length} characters of prose, with a
+     * paragraph break every eight sentences.
+     */
+    static Document largeDocument(int length) {
+        StringBuilder text = new StringBuilder();
+        int sentence = 0;
+        while (text.length() < length) {
+            text.append("Sentence number ").append(sentence++)
+                    .append(" talks about vectors, tokens and chunking strategies. ");
+            if (sentence % 8 == 0) {
+                text.append("\n\n");
+            }
+        }
+        return Document.builder().id("large").content(text.toString()).build();
+    }
 }
@@ -0,0 +1,131 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.metadata.Filter;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for Filter expressions
+ */
+class FilterTest {
+
+    private static final Map<String, Object> METADATA = Map.of(
+            "tenant", "acme",
+            "language", "en",
+            "year", 2021,
+            "score", 0.75,
+            "published", LocalDate.of(2024, 3, 1));
+
+    @Test
+    void testEqualityAndIn() {
+        assertThat(Filter.eq("tenant", "acme").matches(METADATA)).isTrue();
+        assertThat(Filter.eq("tenant", "other").matches(METADATA)).isFalse();
+        assertThat(Filter.eq("missing", "x").matches(METADATA)).isFalse();
+
+        assertThat(Filter.in("language", "de", "en").matches(METADATA)).isTrue();
+        assertThat(Filter.in("language", "de", "fr").matches(METADATA)).isFalse();
+    }
+
+    @Test
+    void testEqualityAcrossBoxedTypes() {
+        assertThat(Filter.eq("year", 2021L).matches(METADATA)).isTrue();
+        assertThat(Filter.eq("year", 2021.0).matches(METADATA)).isTrue();
+        assertThat(Filter.eq("year", (short) 2022).matches(METADATA)).isFalse();
+        assertThat(Filter.in("year", 2020L, 2021L).matches(METADATA)).isTrue();
+        assertThat(Filter.eq("score", 0.75f).matches(METADATA)).isTrue();
+    }
+
+    @Test
+    void testLargeAndDecimalNumbersKeepTheirPrecision() {
+        long id = (1L << 53) + 1;
+        Map<String, Object> metadata = Map.of("id", id, "price", new BigDecimal("0.10"),
+                "big", new BigInteger("123456789012345678901234567890"));
+
+        assertThat(Filter.eq("id", id).matches(metadata)).isTrue();
+        assertThat(Filter.eq("id", id - 1).matches(metadata)).isFalse();
+        assertThat(Filter.eq("id", (double) id).matches(metadata)).isFalse();
+        assertThat(Filter.in("id", id - 1, id + 1).matches(metadata)).isFalse();
+        assertThat(Filter.gt("id", id - 1).matches(metadata)).isTrue();
+        assertThat(Filter.gt("id", (double) (id - 1)).matches(metadata)).isTrue();
+        assertThat(Filter.lt("id", id).matches(metadata)).isFalse();
+
+        assertThat(Filter.eq("price", new BigDecimal("0.1")).matches(metadata)).isTrue();
+        assertThat(Filter.eq("price", 0.1).matches(metadata)).isFalse();
+        assertThat(Filter.gt("price", 0.1).matches(metadata)).isFalse();
+        assertThat(Filter.lt("price", 0.1).matches(metadata)).isTrue();
+
+        assertThat(Filter.eq("big", new BigDecimal("123456789012345678901234567890.0")).matches(metadata)).isTrue();
+        assertThat(Filter.eq("big", new BigInteger("123456789012345678901234567891")).matches(metadata)).isFalse();
+        assertThat(Filter.normalize(30)).isEqualTo(30L);
+        assertThat(Filter.normalize(30.0f)).isEqualTo(30L);
+        assertThat(Filter.normalize(0.5f)).isEqualTo(0.5);
+    }
+
+    @Test
+    void testNullValuesNeverMatch() {
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("tenant", null);
+
+        assertThat(Filter.eq("tenant", null).matches(METADATA)).isFalse();
+        assertThat(Filter.eq("missing", null).matches(METADATA)).isFalse();
+        assertThat(Filter.in("tenant", "other", null).matches(METADATA)).isFalse();
+        assertThat(Filter.fromMap(filters).matches(METADATA)).isFalse();
+    }
+
+    @Test
+    void testNumericRangesAcrossBoxedTypes() {
+        assertThat(Filter.gte("year", 2021L).matches(METADATA)).isTrue();
+        assertThat(Filter.gt("year", 2021).matches(METADATA)).isFalse();
+        assertThat(Filter.lt("year", 2021.5).matches(METADATA)).isTrue();
+        assertThat(Filter.between("score", 0.5f, 1).matches(METADATA)).isTrue();
+        assertThat(Filter.between("score", 0.8, 1.0).matches(METADATA)).isFalse();
+    }
+
+    @Test
+    void testDateRanges() {
+        assertThat(Filter.gte("published", LocalDate.of(2024, 1, 1)).matches(METADATA)).isTrue();
+        assertThat(Filter.lt("published", LocalDate.of(2024, 3, 1)).matches(METADATA)).isFalse();
+
+        Map<String, Object> withDate = Map.of("created", Date.from(Instant.parse("2024-05-01T00:00:00Z")));
+        assertThat(Filter.gt("created", Instant.parse("2024-04-30T00:00:00Z")).matches(withDate)).isTrue();
+    }
+
+    @Test
+    void testIncomparableValuesDoNotMatch() {
+        assertThat(Filter.gt("tenant", 5).matches(METADATA)).isFalse();
+        assertThat(Filter.gt("missing", 5).matches(METADATA)).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> Filter.between("year", null, null));
+    }
+
+    @Test
+    void testBooleanComposition() {
+        Filter filter = Filter.and(
+                Filter.eq("tenant", "acme"),
+                Filter.or(Filter.eq("language", "de"), Filter.gte("year", 2020)),
+                Filter.not(Filter.in("language", "fr")));
+
+        assertThat(filter.matches(METADATA)).isTrue();
+        assertThat(Filter.not(filter).matches(METADATA)).isFalse();
+        assertThat(Filter.and().matches(METADATA)).isTrue();
+        assertThat(Filter.or().matches(METADATA)).isFalse();
+        assertThat(filter.asPredicate().test(METADATA)).isTrue();
+    }
+
+    @Test
+    void testFromMap() {
+        assertThat(Filter.fromMap(null)).isNull();
+        assertThat(Filter.fromMap(Map.of())).isNull();
+        assertThat(Filter.fromMap(Map.of("tenant", "acme", "year", 2021)).matches(METADATA)).isTrue();
+        assertThat(Filter.fromMap(Map.of("tenant", "acme", "year", 2022)).matches(METADATA)).isFalse();
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.llm4j.agent.rag;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.llm4j.agent.rag.embedding.GeminiEmbeddingProvider;
+import io.github.llm4j.config.LLMConfig;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for GeminiEmbeddingProvider batch embedding
+ */
+class GeminiEmbeddingProviderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void testSmallBatchUsesSingleRequest() throws InterruptedException {
+        server.setDispatcher(new EchoDispatcher());
+        GeminiEmbeddingProvider provider = provider(4);
+
+        List<float[]> embeddings = provider.embedBatch(List.of("text-0", "text-1", "text-2"));
+
+        assertThat(embeddings).hasSize(3);
+        assertThat(embeddings.get(2)).containsExactly(2f, 1f);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getPath()).startsWith("/models/text-embedding-004:batchEmbedContents");
+        JsonNode body = readTree(request.getBody().readUtf8());
+        assertThat(body.path("requests").get(0).path("model").asText()).isEqualTo("models/text-embedding-004");
+        assertThat(body.path("requests").get(1).path("content").path("parts").get(0).path("text").asText())
+                .isEqualTo("text-1");
+    }
+
+    @Test
+    void testLargeBatchIsSplitAndReassembledInOrder() {
+        server.setDispatcher(new EchoDispatcher());
+        GeminiEmbeddingProvider provider = provider(3);
+
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 450; i++) {
+            texts.add("text-" + i);
+        }
+
+        List<float[]> embeddings = provider.embedBatch(texts);
+
+        assertThat(embeddings).hasSize(450);
+        for (int i = 0; i < embeddings.size(); i++) {
+            assertThat(embeddings.get(i)[0]).isEqualTo((float) i);
+        }
+        assertThat(server.getRequestCount()).isEqualTo(5);
+        synchronized (batchSizes) {
+            assertThat(batchSizes).containsExactlyInAnyOrder(100, 100, 100, 100, 50);
+        }
+        assertThat(maxInFlight.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void testTextsNeedNoManualEscaping() {
+        server.setDispatcher(new EchoDispatcher());
+        GeminiEmbeddingProvider provider = provider(1);
+
+        List<float[]> embeddings = provider.embedBatch(List.of("text-7 \"quoted\"\n\u0001"));
+
+        assertThat(embeddings.get(0)).containsExactly(7f, 1f);
+    }
+
+    @Test
+    void testFailedSubBatchFailsWholeBatch() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(500);
+            }
+        });
+        GeminiEmbeddingProvider provider = provider(2);
+
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            texts.add("text-" + i);
+        }
+
+        assertThrows(RuntimeException.class, () -> provider.embedBatch(texts));
+        assertThat(provider.embedBatch(List.of())).isEmpty();
+    }
+
+    @Test
+    void testErrorMessagesDoNotLeakApiKey() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(400).setBody("{\"error\":\"bad request\"}");
+            }
+        });
+        GeminiEmbeddingProvider provider = provider(2);
+
+        for (Throwable error : List.of(
+                assertThrows(RuntimeException.class, () -> provider.embed("text-1")),
+                assertThrows(RuntimeException.class, () -> provider.embedBatch(List.of("text-1"))))) {
+            assertThat(error.getCause()).hasMessageContaining("HTTP 400").hasMessageContaining("bad request");
+            assertThat(error.getCause().getMessage()).doesNotContain("test-key");
+        }
+    }
+
+    private GeminiEmbeddingProvider provider(int maxConcurrentRequests) {
+        LLMConfig config = LLMConfig.builder()
+                .apiKey("test-key")
+                .baseUrl(server.url("/").toString().replaceAll("/$", ""))
+                .build();
+        return new GeminiEmbeddingProvider(config, null, maxConcurrentRequests);
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Answers each text "text-N" with the embedding [N, 1].
+     */
+    private class EchoDispatcher extends Dispatcher {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(20);
+                JsonNode requests = readTree(request.getBody().clone().readUtf8()).path("requests");
+                synchronized (batchSizes) {
+                    batchSizes.add(requests.size());
+                }
+
+                ObjectNode response = objectMapper.createObjectNode();
+                ArrayNode embeddings = response.putArray("embeddings");
+                for (JsonNode embedRequest : requests) {
+                    String text = embedRequest.path("content").path("parts").get(0).path("text").asText();
+                    int index = Integer.parseInt(text.split("[- ]")[1]);
+                    embeddings.addObject().putArray("values").add(index).add(1);
+                }
+                return new MockResponse().setBody(response.toString());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Relation;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.knowledge.store.InMemoryGraphStore;
+import io.github.llm4j.agent.knowledge.traversal.Traversal;
+import io.github.llm4j.agent.rag.retrieval.ContextPacker;
+import io.github.llm4j.agent.rag.retrieval.GraphRAGRetriever;
+import io.github.llm4j.agent.rag.retrieval.Retriever;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for GraphRAGRetriever
+ */
+class GraphRAGRetrieverTest {
+
+    private InMemoryGraphStore graph;
+    private List<VectorStore.SearchResult> chunks;
+    private final Retriever chunkRetriever = (query, topK) -> chunks.subList(0, Math.min(topK, chunks.size()));
+
+    @BeforeEach
+    void setUp() {
+        graph = new InMemoryGraphStore();
+        Entity alice = Entity.builder().id("alice").type("Person").addProperty("title", "CEO").build();
+        Entity acme = Entity.builder().id("acme").type("Company").build();
+        Entity bob = Entity.builder().id("bob").type("Person").build();
+        Entity berlin = Entity.builder().id("berlin").type("City").build();
+        graph.addTriple(new Triple(alice, Relation.builder().type("WORKS_FOR").addProperty("since", 2020).build(), acme));
+        graph.addTriple(new Triple(bob, Relation.builder().type("REPORTS_TO").build(), alice));
+        graph.addTriple(new Triple(acme, Relation.builder().type("LOCATED_IN").build(), berlin));
+
+        chunks = new ArrayList<>();
+        chunks.add(chunk("c1", 0.9f, "Alice leads the company.", "alice"));
+        chunks.add(chunk("c2", 0.7f, "Quarterly numbers.", List.of("acme", "unknown")));
+        chunks.add(chunk("c3", 0.5f, "Unrelated text.", null));
+    }
+
+    @Test
+    void testFactsFromLinkedEntitiesArePrependedToChunks() {
+        GraphRAGRetriever retriever = GraphRAGRetriever.builder()
+                .retriever(chunkRetriever)
+                .graph(graph)
+                .build();
+
+        List<VectorStore.SearchResult> results = retriever.retrieve("who runs acme?", 3);
+
+        assertThat(results).extracting(VectorStore.SearchResult::getId)
+                .containsExactly(GraphRAGRetriever.FACTS_ID, "c1", "c2", "c3");
+        VectorStore.SearchResult facts = results.get(0);
+        assertThat(facts.getSimilarity()).isEqualTo(0.9f);
+        assertThat(facts.getMetadata().get("entityIds")).isEqualTo(List.of("alice", "acme"));
+        assertThat((String) facts.getMetadata().get("content"))
+                .startsWith("Knowledge graph facts:\n")
+                .contains("- alice (Type: Person, title: CEO)")
+                .contains("- acme (Type: Company)")
+                .contains("- alice -[WORKS_FOR {since=2020}]-> acme")
+                .contains("- bob -[REPORTS_TO]-> alice")
+                .contains("- acme -[LOCATED_IN]-> berlin");
+        assertThat(facts.getMetadata().get("factCount")).isEqualTo(3);
+    }
+
+    @Test
+    void testLimitsAndTraversal() {
+        GraphRAGRetriever retriever = GraphRAGRetriever.builder()
+                .retriever(chunkRetriever)
+                .graph(graph)
+                .maxEntities(1)
+                .traversal(Traversal.builder().maxDepth(2).build())
+                .build();
+
+        String content = (String) retriever.retrieve("alice", 3).get(0).getMetadata().get("content");
+
+        // Outgoing only, two hops from alice
+        assertThat(content).doesNotContain("acme (Type")
+                .contains("alice -[WORKS_FOR {since=2020}]-> acme")
+                .contains("acme -[LOCATED_IN]-> berlin")
+                .doesNotContain("REPORTS_TO");
+
+        GraphRAGRetriever oneFact = GraphRAGRetriever.builder()
+                .retriever(chunkRetriever)
+                .graph(graph)
+                .maxFacts(1)
+                .build();
+        assertThat(oneFact.retrieve("alice", 3).get(0).getMetadata().get("factCount")).isEqualTo(1);
+    }
+
+    @Test
+    void testChunksWithoutKnownEntitiesAreReturnedUnchanged() {
+        GraphRAGRetriever retriever = GraphRAGRetriever.builder()
+                .retriever(chunkRetriever)
+                .graph(graph)
+                .build();
+        chunks.remove(0);
+        chunks.remove(0);
+
+        assertThat(retriever.retrieve("anything", 3)).extracting(VectorStore.SearchResult::getId)
+                .containsExactly("c3");
+    }
+
+    @Test
+    void testContextPackerKeepsFactsAsFirstPassage() {
+        GraphRAGRetriever retriever = GraphRAGRetriever.builder()
+                .retriever(chunkRetriever)
+                .graph(graph)
+                .build();
+
+        List<ContextPacker.Passage> passages = ContextPacker.builder().build().pack(retriever.retrieve("acme", 3));
+
+        assertThat(passages.get(0).getChunkIds()).containsExactly(GraphRAGRetriever.FACTS_ID);
+        assertThat(passages).hasSize(4);
+    }
+
+    private static VectorStore.SearchResult chunk(String id, float score, String content, Object entities) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("content", content);
+        if (entities != null) {
+            metadata.put("entities", entities);
+        }
+        return new VectorStore.SearchResult(id, score, metadata);
+    }
+}
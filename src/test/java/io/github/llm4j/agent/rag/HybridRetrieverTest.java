@@ -0,0 +1,190 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.rag.document.DocumentChunk;
+import io.github.llm4j.agent.rag.retrieval.BM25Index;
+import io.github.llm4j.agent.rag.retrieval.HybridRetriever;
+import io.github.llm4j.agent.rag.retrieval.Retriever;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for BM25Index and HybridRetriever
+ */
+class HybridRetrieverTest {
+
+    @Test
+    void testBM25RanksExactTermMatches() {
+        BM25Index index = new BM25Index();
+        index.add("c1", "Flight BA123 was delayed by weather", Map.of());
+        index.add("c2", "Flights are sometimes delayed", Map.of());
+        index.add("c3", "Error E4012 means the payment was declined", Map.of());
+
+        List<VectorStore.SearchResult> results = index.search("what happened to ba123", 3);
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getId()).isEqualTo("c1");
+
+        results = index.search("E4012", 3);
+        assertThat(ids(results)).containsExactly("c3");
+    }
+
+    @Test
+    void testBM25PrefersRareTermsAndShortDocuments() {
+        BM25Index index = new BM25Index();
+        index.add("common", "the cat sat on the mat", Map.of());
+        index.add("rare", "the quokka sat on the mat", Map.of());
+        index.add("long", "the quokka sat on the mat and then the quokka wandered "
+                + "around the garden for a very long time looking at every single flower", Map.of());
+
+        List<VectorStore.SearchResult> results = index.search("the quokka", 3);
+
+        assertThat(ids(results)).containsExactly("rare", "long", "common");
+        assertThat(results.get(0).getSimilarity()).isGreaterThan(results.get(1).getSimilarity());
+    }
+
+    @Test
+    void testBM25ReplaceAndRemove() {
+        BM25Index index = new BM25Index();
+        index.add("c1", "alpha beta", Map.of());
+        index.add("c2", "gamma delta", Map.of());
+
+        index.add("c1", "epsilon", Map.of("version", 2));
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("alpha", 5)).isEmpty();
+        assertThat(index.search("epsilon", 5).get(0).getMetadata()).containsEntry("version", 2);
+
+        assertThat(index.remove("c2")).isTrue();
+        assertThat(index.remove("c2")).isFalse();
+        assertThat(index.search("gamma", 5)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testBM25SurvivesCompaction() {
+        BM25Index index = new BM25Index();
+        for (int i = 0; i < 100; i++) {
+            index.add("c" + i, "shared token" + i, Map.of());
+        }
+        for (int i = 0; i < 90; i++) {
+            index.remove("c" + i);
+        }
+
+        assertThat(index.size()).isEqualTo(10);
+        assertThat(index.search("shared", 20)).hasSize(10);
+        assertThat(ids(index.search("token95", 5))).containsExactly("c95");
+        assertThat(index.search("token5", 5)).isEmpty();
+    }
+
+    @Test
+    void testBM25CompactionDropsUnusedTerms() {
+        BM25Index index = new BM25Index();
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 10; i++) {
+                index.add("c" + i, "shared version" + round + " item" + i, Map.of());
+            }
+        }
+
+        // shared, the 10 item terms and at most the versions of the last two rounds
+        assertThat(index.termCount()).isLessThanOrEqualTo(13);
+        assertThat(ids(index.search("version49 item3", 1))).containsExactly("c3");
+        assertThat(index.search("version10", 5)).isEmpty();
+        assertThat(index.search("shared", 20)).hasSize(10);
+    }
+
+    @Test
+    void testBM25IndexesChunkContent() {
+        BM25Index index = new BM25Index();
+        index.add(DocumentChunk.builder()
+                .id("doc1_chunk_0")
+                .documentId("doc1")
+                .content("Kubernetes pods restart on OOM")
+                .startIndex(0)
+                .endIndex(30)
+                .build());
+
+        VectorStore.SearchResult result = index.search("oom", 1).get(0);
+        assertThat(result.getMetadata())
+                .containsEntry("content", "Kubernetes pods restart on OOM")
+                .containsEntry("documentId", "doc1");
+    }
+
+    @Test
+    void testTokenizerKeepsIdentifiers() {
+        BM25Index index = new BM25Index();
+        index.add("c1", "ERR-42: disk_full on node-7", Map.of());
+
+        assertThat(index.search("err 42", 1)).hasSize(1);
+        assertThat(index.search("disk", 1)).hasSize(1);
+        assertThat(index.search("node", 1)).hasSize(1);
+        assertThat(index.termCount()).isEqualTo(7);
+    }
+
+    @Test
+    void testReciprocalRankFusion() {
+        Retriever dense = fixed("a", "b", "c");
+        Retriever lexical = fixed("c", "d");
+
+        HybridRetriever retriever = HybridRetriever.builder()
+                .addRetriever(dense)
+                .addRetriever(lexical)
+                .rrfK(60)
+                .build();
+
+        List<VectorStore.SearchResult> results = retriever.retrieve("query", 4);
+
+        // c: 1/63 + 1/61, a: 1/61, d: 1/62, b: 1/62
+        assertThat(ids(results)).containsExactly("c", "a", "b", "d");
+        assertThat(results.get(0).getSimilarity()).isCloseTo(1f / 63 + 1f / 61, within(1e-6f));
+    }
+
+    @Test
+    void testWeightsShiftFusion() {
+        HybridRetriever retriever = HybridRetriever.builder()
+                .addRetriever(fixed("a", "b"), 1.0)
+                .addRetriever(fixed("b", "a"), 3.0)
+                .build();
+
+        assertThat(ids(retriever.retrieve("query", 2))).containsExactly("b", "a");
+    }
+
+    @Test
+    void testHybridForwardsChunkEvents() {
+        BM25Index index = new BM25Index();
+        HybridRetriever retriever = HybridRetriever.builder()
+                .addRetriever(fixed("x"))
+                .lexical(index)
+                .build();
+
+        retriever.onChunkAdded("c1", Map.of("content", "invoice INV-9913 overdue"));
+        assertThat(ids(retriever.retrieve("INV-9913", 2))).containsExactlyInAnyOrder("c1", "x");
+
+        retriever.onChunkRemoved("c1");
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalStateException.class, () -> HybridRetriever.builder().build());
+        assertThrows(IllegalArgumentException.class,
+                () -> HybridRetriever.builder().addRetriever(fixed("a"), 0));
+        assertThrows(IllegalArgumentException.class, () -> new BM25Index(1.2, 1.5));
+    }
+
+    private static Retriever fixed(String... ids) {
+        return (query, topK) -> Arrays.stream(ids)
+                .limit(topK)
+                .map(id -> new VectorStore.SearchResult(id, 1.0f, Map.of("content", id)))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> ids(List<VectorStore.SearchResult> results) {
+        return results.stream().map(VectorStore.SearchResult::getId).collect(Collectors.toList());
+    }
+}
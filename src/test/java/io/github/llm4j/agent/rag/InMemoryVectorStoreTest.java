@@ -1,13 +1,19 @@
 package io.github.llm4j.agent.rag;
 
+import io.github.llm4j.agent.metadata.Filter;
 import io.github.llm4j.agent.rag.store.InMemoryVectorStore;
 import io.github.llm4j.agent.rag.store.VectorStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Unit tests for InMemoryVectorStore
@@ -72,6 +78,12 @@ class InMemoryVectorStoreTest {
 
         assertThat(results).hasSize(2);
         assertThat(results).allMatch(r -> r.getMetadata().get("category").equals("science"));
+
+        // Numbers compare by value and a null value matches nothing
+        assertThat(vectorStore.search(embedding, 10, Map.of("year", 2020L))).hasSize(2);
+        Map<String, Object> nullFilter = new HashMap<>();
+        nullFilter.put("category", null);
+        assertThat(vectorStore.search(embedding, 10, nullFilter)).isEmpty();
     }
 
     @Test
@@ -132,4 +144,304 @@ class InMemoryVectorStoreTest {
 
         assertThat(results).isEmpty();
     }
+
+    @Test
+    void testSaveAndLoadSnapshot(@TempDir Path tempDir) throws IOException {
+        vectorStore.add("vec1", new float[] { 1.0f, 0.0f, 0.0f }, Map.of("documentId", "doc1", "page", 1));
+        vectorStore.add("vec2", new float[] { 0.0f, 1.0f, 0.0f }, Map.of("documentId", "doc2"));
+        vectorStore.add("vec3", new float[] { 0.0f, 0.0f, 1.0f }, new HashMap<>());
+
+        Path snapshot = tempDir.resolve("store.snapshot");
+        vectorStore.save(snapshot);
+
+        InMemoryVectorStore restored = new InMemoryVectorStore();
+        restored.add("stale", new float[] { 1.0f, 1.0f, 1.0f }, new HashMap<>());
+        restored.load(snapshot);
+
+        assertThat(restored.size()).isEqualTo(3);
+        List<VectorStore.SearchResult> results = restored.search(new float[] { 0.0f, 1.0f, 0.0f }, 1);
+        assertThat(results.get(0).getId()).isEqualTo("vec2");
+        assertThat(results.get(0).getMetadata()).containsEntry("documentId", "doc2");
+        assertThat(restored.search(new float[] { 1.0f, 0.0f, 0.0f }, 1, Map.of("page", 1))).hasSize(1);
+    }
+
+    @Test
+    void testSnapshotWithoutChecksum(@TempDir Path tempDir) throws IOException {
+        vectorStore.add("vec1", new float[] { 1.0f, 2.0f }, new HashMap<>());
+
+        Path withChecksum = tempDir.resolve("checked.snapshot");
+        Path withoutChecksum = tempDir.resolve("unchecked.snapshot");
+        vectorStore.save(withChecksum, true);
+        vectorStore.save(withoutChecksum, false);
+
+        assertThat(Files.size(withChecksum)).isEqualTo(Files.size(withoutChecksum) + Long.BYTES);
+
+        InMemoryVectorStore restored = new InMemoryVectorStore();
+        restored.load(withoutChecksum);
+        assertThat(restored.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testCorruptSnapshotIsRejected(@TempDir Path tempDir) throws IOException {
+        vectorStore.add("vec1", new float[] { 1.0f, 2.0f, 3.0f }, Map.of("key", "value"));
+        Path snapshot = tempDir.resolve("store.snapshot");
+        vectorStore.save(snapshot);
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[30] ^= 0x7F; // inside the float block
+        Files.write(snapshot, bytes);
+
+        InMemoryVectorStore restored = new InMemoryVectorStore();
+        restored.add("existing", new float[] { 1.0f, 0.0f, 0.0f }, Map.of("key", "old"));
+        assertThrows(IOException.class, () -> restored.load(snapshot));
+
+        // A failed load leaves the previous contents in place
+        assertThat(restored.size()).isEqualTo(1);
+        assertThat(restored.search(new float[] { 1.0f, 0.0f, 0.0f }, 1).get(0).getId()).isEqualTo("existing");
+    }
+
+    @Test
+    void testSnapshotHeaderIsCheckedAgainstFileSize(@TempDir Path tempDir) throws IOException {
+        vectorStore.add("vec1", new float[] { 1.0f, 2.0f, 3.0f }, Map.of("key", "value"));
+        Path snapshot = tempDir.resolve("store.snapshot");
+        vectorStore.save(snapshot);
+
+        // Claim a million vectors in the header's count field
+        byte[] bytes = Files.readAllBytes(snapshot);
+        java.nio.ByteBuffer.wrap(bytes).order(java.nio.ByteOrder.LITTLE_ENDIAN).putLong(16, 1_000_000L);
+        Files.write(snapshot, bytes);
+
+        IOException error = assertThrows(IOException.class, () -> new InMemoryVectorStore().load(snapshot));
+        assertThat(error.getMessage()).contains("Invalid snapshot header");
+    }
+
+    @Test
+    void testSnapshotKeepsMetadataTypesAndIndexes(@TempDir Path tempDir) throws IOException {
+        Map<String, Object> metadata = Map.of("version", 5L, "weight", 0.5f, "tenant", "acme");
+        vectorStore.add("vec1", new float[] { 1.0f, 0.0f }, metadata);
+        vectorStore.add("vec2", new float[] { 0.0f, 1.0f }, Map.of("tenant", "other"));
+        Path snapshot = tempDir.resolve("store.snapshot");
+        vectorStore.save(snapshot);
+
+        InMemoryVectorStore restored = InMemoryVectorStore.builder()
+                .indexedFields("tenant")
+                .preFilterSelectivity(1.0)
+                .build();
+        restored.load(snapshot);
+
+        assertThat(restored.find(Filter.eq("tenant", "acme"))).singleElement()
+                .satisfies(entry -> assertThat(entry.getMetadata()).isEqualTo(metadata));
+        assertThat(restored.planFor(Filter.eq("tenant", "acme"))).isEqualTo(InMemoryVectorStore.FilterPlan.PRE_FILTER);
+    }
+
+    @Test
+    void testSnapshotRequiresUniformDimension(@TempDir Path tempDir) {
+        vectorStore.add("vec1", new float[] { 1.0f, 0.0f }, new HashMap<>());
+        vectorStore.add("vec2", new float[] { 1.0f, 0.0f, 0.0f }, new HashMap<>());
+
+        assertThrows(IllegalStateException.class, () -> vectorStore.save(tempDir.resolve("store.snapshot")));
+    }
+
+    @Test
+    void testIndexedFilteringMatchesUnindexedResults() {
+        InMemoryVectorStore indexed = InMemoryVectorStore.builder()
+                .indexedFields("tenant", "language")
+                .build();
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            float[] embedding = { random.nextFloat(), random.nextFloat(), random.nextFloat() };
+            Map<String, Object> metadata = Map.of(
+                    "tenant", "t" + (i % 10),
+                    "language", i % 2 == 0 ? "en" : "fr",
+                    "year", 2020 + i % 3);
+            indexed.add("vec" + i, embedding, metadata);
+            vectorStore.add("vec" + i, embedding, metadata);
+        }
+
+        float[] query = { 0.3f, 0.5f, 0.2f };
+        Map<String, Object> filters = Map.of("tenant", "t3", "language", "fr", "year", 2021);
+
+        List<VectorStore.SearchResult> expected = vectorStore.search(query, 5, filters);
+        List<VectorStore.SearchResult> actual = indexed.search(query, 5, filters);
+
+        assertThat(actual).extracting(VectorStore.SearchResult::getId)
+                .containsExactlyElementsOf(expected.stream().map(VectorStore.SearchResult::getId).toList());
+        assertThat(actual).allMatch(r -> r.getMetadata().get("tenant").equals("t3")
+                && r.getMetadata().get("year").equals(2021));
+    }
+
+    @Test
+    void testFilterPlanSelection() {
+        InMemoryVectorStore indexed = InMemoryVectorStore.builder()
+                .indexedFields("documentId", "language")
+                .preFilterSelectivity(0.25)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            indexed.add("vec" + i, new float[] { i, 1.0f }, Map.of(
+                    "documentId", "doc" + (i / 10),
+                    "language", i < 90 ? "en" : "de",
+                    "category", "general"));
+        }
+
+        assertThat(indexed.planFor((Filter) null)).isEqualTo(InMemoryVectorStore.FilterPlan.SCAN);
+        assertThat(indexed.planFor(Map.of("documentId", "doc4"))).isEqualTo(InMemoryVectorStore.FilterPlan.PRE_FILTER);
+        assertThat(indexed.planFor(Map.of("language", "en"))).isEqualTo(InMemoryVectorStore.FilterPlan.POST_FILTER);
+        assertThat(indexed.planFor(Map.of("category", "general")))
+                .isEqualTo(InMemoryVectorStore.FilterPlan.POST_FILTER);
+        assertThat(indexed.planFor(Map.of("language", "en", "documentId", "doc4")))
+                .isEqualTo(InMemoryVectorStore.FilterPlan.PRE_FILTER);
+    }
+
+    @Test
+    void testIndexTracksDeletesAndOverwrites() {
+        InMemoryVectorStore indexed = InMemoryVectorStore.builder().indexedFields("documentId").build();
+        float[] embedding = { 1.0f, 0.0f };
+        indexed.add("vec1", embedding, Map.of("documentId", "doc1"));
+        indexed.add("vec2", embedding, Map.of("documentId", "doc1"));
+        indexed.add("vec3", embedding, Map.of("documentId", "doc2"));
+
+        indexed.delete("vec1");
+        indexed.add("vec3", embedding, Map.of("documentId", "doc1"));
+        indexed.add("vec4", embedding, Map.of("documentId", "doc2"));
+
+        assertThat(indexed.search(embedding, 10, Map.of("documentId", "doc1")))
+                .extracting(VectorStore.SearchResult::getId)
+                .containsExactlyInAnyOrder("vec2", "vec3");
+        assertThat(indexed.search(embedding, 10, Map.of("documentId", "doc2")))
+                .extracting(VectorStore.SearchResult::getId)
+                .containsExactly("vec4");
+    }
+
+    @Test
+    void testFilterExpressionsWithAndWithoutIndexes() {
+        InMemoryVectorStore indexed = InMemoryVectorStore.builder()
+                .indexedFields("tenant", "year")
+                .build();
+        Random random = new Random(13);
+        for (int i = 0; i < 300; i++) {
+            float[] embedding = { random.nextFloat(), random.nextFloat(), random.nextFloat() };
+            Map<String, Object> metadata = Map.of(
+                    "tenant", "t" + (i % 6),
+                    "year", 2015 + i % 10,
+                    "language", i % 3 == 0 ? "de" : "en");
+            indexed.add("vec" + i, embedding, metadata);
+            vectorStore.add("vec" + i, embedding, metadata);
+        }
+
+        float[] query = { 0.1f, 0.7f, 0.4f };
+        List<Filter> filters = List.of(
+                Filter.in("tenant", "t1", "t4"),
+                Filter.between("year", 2018, 2020),
+                Filter.and(Filter.eq("tenant", "t2"), Filter.gt("year", 2019), Filter.eq("language", "de")),
+                Filter.or(Filter.eq("tenant", "t0"), Filter.lt("year", 2016)),
+                Filter.not(Filter.in("tenant", "t0", "t1", "t2", "t3", "t4")),
+                Filter.or(Filter.eq("tenant", "t5"), Filter.eq("language", "de")),
+                Filter.eq("year", 2019L),
+                Filter.in("year", 2016L, 2017.0),
+                Filter.eq("tenant", null));
+
+        for (Filter filter : filters) {
+            List<VectorStore.SearchResult> actual = indexed.search(query, 7, filter);
+            List<VectorStore.SearchResult> expected = vectorStore.search(query, 7, filter);
+
+            assertThat(actual).extracting(VectorStore.SearchResult::getId)
+                    .as(filter.toString())
+                    .containsExactlyElementsOf(expected.stream().map(VectorStore.SearchResult::getId).toList());
+            assertThat(actual).allMatch(r -> filter.matches(r.getMetadata()));
+        }
+
+        assertThat(indexed.planFor(Filter.and(Filter.eq("tenant", "t2"), Filter.eq("language", "de"))))
+                .isEqualTo(InMemoryVectorStore.FilterPlan.PRE_FILTER);
+        assertThat(indexed.planFor(Filter.or(Filter.eq("tenant", "t5"), Filter.eq("language", "de"))))
+                .isEqualTo(InMemoryVectorStore.FilterPlan.POST_FILTER);
+        assertThat(vectorStore.planFor(Filter.eq("tenant", "t2")))
+                .isEqualTo(InMemoryVectorStore.FilterPlan.POST_FILTER);
+    }
+
+    @Test
+    void testSearchBatchMatchesIndividualSearches() {
+        Random random = new Random(17);
+        for (int i = 0; i < 1000; i++) {
+            float[] embedding = new float[8];
+            for (int d = 0; d < embedding.length; d++) {
+                embedding[d] = (float) random.nextGaussian();
+            }
+            vectorStore.add("vec" + i, embedding, Map.of("index", i));
+        }
+        vectorStore.delete("vec500");
+
+        List<float[]> queries = new ArrayList<>();
+        for (int q = 0; q < 40; q++) {
+            float[] query = new float[8];
+            for (int d = 0; d < query.length; d++) {
+                query[d] = (float) random.nextGaussian();
+            }
+            queries.add(query);
+        }
+
+        List<List<VectorStore.SearchResult>> batch = vectorStore.searchBatch(queries, 5);
+
+        assertThat(batch).hasSize(queries.size());
+        for (int q = 0; q < queries.size(); q++) {
+            List<VectorStore.SearchResult> expected = vectorStore.search(queries.get(q), 5);
+            assertThat(batch.get(q)).extracting(VectorStore.SearchResult::getId)
+                    .containsExactlyElementsOf(expected.stream().map(VectorStore.SearchResult::getId).toList());
+        }
+        assertThat(vectorStore.searchBatch(List.of(), 5)).isEmpty();
+        assertThrows(IllegalArgumentException.class, () -> vectorStore.searchBatch(queries, 0));
+    }
+
+    @Test
+    void testDefaultFilteredSearchWidensUntilTopKMatches() {
+        Random random = new Random(19);
+        for (int i = 0; i < 400; i++) {
+            float[] embedding = { random.nextFloat(), random.nextFloat(), random.nextFloat() };
+            vectorStore.add("vec" + i, embedding, Map.of("bucket", i % 50));
+        }
+        // Only the abstract methods, so search(..., Filter) uses the interface default
+        VectorStore plain = new VectorStore() {
+            @Override
+            public void add(String id, float[] embedding, Map<String, Object> metadata) {
+                vectorStore.add(id, embedding, metadata);
+            }
+
+            @Override
+            public void addBatch(List<VectorEntry> entries) {
+                vectorStore.addBatch(entries);
+            }
+
+            @Override
+            public List<SearchResult> search(float[] queryEmbedding, int topK) {
+                return vectorStore.search(queryEmbedding, topK);
+            }
+
+            @Override
+            public List<SearchResult> search(float[] queryEmbedding, int topK, Map<String, Object> filters) {
+                return vectorStore.search(queryEmbedding, topK, filters);
+            }
+
+            @Override
+            public boolean delete(String id) {
+                return vectorStore.delete(id);
+            }
+
+            @Override
+            public int size() {
+                return vectorStore.size();
+            }
+
+            @Override
+            public void clear() {
+                vectorStore.clear();
+            }
+        };
+
+        float[] query = { 0.3f, 0.2f, 0.9f };
+        for (Filter filter : List.of(Filter.eq("bucket", 7), Filter.lt("bucket", 25), Filter.eq("bucket", 99))) {
+            assertThat(plain.search(query, 6, filter)).extracting(VectorStore.SearchResult::getId)
+                    .as(filter.toString())
+                    .containsExactlyElementsOf(vectorStore.search(query, 6, filter).stream()
+                            .map(VectorStore.SearchResult::getId).toList());
+        }
+    }
 }
@@ -0,0 +1,294 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.rag.document.Document;
+import io.github.llm4j.agent.rag.document.FixedSizeChunkingStrategy;
+import io.github.llm4j.agent.rag.embedding.EmbeddingProvider;
+import io.github.llm4j.agent.rag.ingest.IngestionPipeline;
+import io.github.llm4j.agent.rag.ingest.IngestionProgress;
+import io.github.llm4j.agent.rag.retrieval.BM25Index;
+import io.github.llm4j.agent.rag.store.InMemoryVectorStore;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for IngestionPipeline
+ */
+class IngestionPipelineTest {
+
+    private final EmbeddingProvider embeddingProvider = new RAGAgentTest.LetterFrequencyEmbeddingProvider();
+
+    @Test
+    void testIngestsAllChunks() {
+        InMemoryVectorStore vectorStore = new InMemoryVectorStore();
+        BM25Index index = new BM25Index();
+        IngestionPipeline pipeline = IngestionPipeline.builder()
+                .vectorStore(vectorStore)
+                .embeddingProvider(embeddingProvider)
+                .chunkingStrategy(new FixedSizeChunkingStrategy(20))
+                .retriever(index)
+                .chunkWorkers(3)
+                .embedWorkers(3)
+                .embedBatchSize(8)
+                .writeBatchSize(16)
+                .build();
+
+        IngestionProgress progress = pipeline.run(documents(100));
+
+        assertThat(progress.getDocumentsRead()).isEqualTo(100);
+        assertThat(progress.getDocumentsCompleted()).isEqualTo(100);
+        assertThat(progress.getDocumentsFailed()).isZero();
+        assertThat(progress.getChunksStored()).isEqualTo(progress.getChunksProduced());
+        assertThat(vectorStore.size()).isEqualTo((int) progress.getChunksStored());
+        assertThat(index.size()).isEqualTo(vectorStore.size());
+
+        VectorStore.SearchResult result = vectorStore.search(embeddingProvider.embed("x"), 1,
+                Map.<String, Object>of("documentId", "doc42")).get(0);
+        assertThat(result.getId()).startsWith("doc42_chunk_");
+        assertThat(result.getMetadata()).containsKeys("content", "source");
+    }
+
+    @Test
+    void testBoundedQueuesApplyBackpressure() {
+        AtomicLong stored = new AtomicLong();
+        IngestionPipeline pipeline = IngestionPipeline.builder()
+                .vectorStore(new InMemoryVectorStore())
+                .embeddingProvider(new SlowEmbeddingProvider(embeddingProvider))
+                .chunkWorkers(2)
+                .embedWorkers(2)
+                .embedBatchSize(4)
+                .writeBatchSize(4)
+                .queueCapacity(16)
+                .progressListener(progress -> stored.set(progress.getChunksStored()))
+                .build();
+
+        long[] maxInFlight = { 0 };
+        Iterator<Document> source = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < 300;
+            }
+
+            @Override
+            public Document next() {
+                maxInFlight[0] = Math.max(maxInFlight[0], next - stored.get());
+                return singleChunkDocument("doc" + next++);
+            }
+        };
+
+        IngestionProgress progress = pipeline.run(source);
+
+        assertThat(progress.getDocumentsCompleted()).isEqualTo(300);
+        // Document queue (1) + chunk and write queues (16 each) + items held by workers
+        assertThat(maxInFlight[0]).isLessThanOrEqualTo(60);
+    }
+
+    @Test
+    void testCheckpointSkipsCompletedAndRetriesFailedDocuments(@TempDir Path tempDir) throws IOException {
+        Path checkpoint = tempDir.resolve("ingest.checkpoint");
+        InMemoryVectorStore vectorStore = new InMemoryVectorStore();
+        EmbeddingProvider flaky = new EmbeddingProvider() {
+            @Override
+            public float[] embed(String text) {
+                return embeddingProvider.embed(text);
+            }
+
+            @Override
+            public List<float[]> embedBatch(List<String> texts) {
+                if (texts.stream().anyMatch(text -> text.contains("poison"))) {
+                    throw new IllegalStateException("embedding service unavailable");
+                }
+                return embeddingProvider.embedBatch(texts);
+            }
+
+            @Override
+            public int getDimensions() {
+                return embeddingProvider.getDimensions();
+            }
+        };
+
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            documents.add(Document.builder()
+                    .id("doc" + i)
+                    .content(i == 7 ? "poison pill" : "regular content " + i)
+                    .build());
+        }
+
+        IngestionProgress first = IngestionPipeline.builder()
+                .vectorStore(vectorStore)
+                .embeddingProvider(flaky)
+                .chunkingStrategy(new FixedSizeChunkingStrategy(100))
+                .embedBatchSize(1)
+                .checkpointFile(checkpoint)
+                .build()
+                .run(documents);
+
+        assertThat(first.getDocumentsCompleted()).isEqualTo(19);
+        assertThat(first.getDocumentsFailed()).isEqualTo(1);
+        assertThat(Files.readAllLines(checkpoint)).hasSize(19).doesNotContain("doc7");
+
+        List<String> embedded = Collections.synchronizedList(new ArrayList<>());
+        EmbeddingProvider recording = new EmbeddingProvider() {
+            @Override
+            public float[] embed(String text) {
+                return embeddingProvider.embed(text);
+            }
+
+            @Override
+            public List<float[]> embedBatch(List<String> texts) {
+                embedded.addAll(texts);
+                return embeddingProvider.embedBatch(texts);
+            }
+
+            @Override
+            public int getDimensions() {
+                return embeddingProvider.getDimensions();
+            }
+        };
+
+        IngestionProgress second = IngestionPipeline.builder()
+                .vectorStore(vectorStore)
+                .embeddingProvider(recording)
+                .chunkingStrategy(new FixedSizeChunkingStrategy(100))
+                .checkpointFile(checkpoint)
+                .build()
+                .run(documents);
+
+        assertThat(second.getDocumentsSkipped()).isEqualTo(19);
+        assertThat(second.getDocumentsCompleted()).isEqualTo(1);
+        assertThat(embedded).containsExactly("poison pill");
+        assertThat(Files.readAllLines(checkpoint)).hasSize(20);
+        assertThat(vectorStore.size()).isEqualTo(20);
+    }
+
+    @Test
+    void testUsesAttachedChunksWithoutStrategy() {
+        InMemoryVectorStore vectorStore = new InMemoryVectorStore();
+        IngestionProgress progress = IngestionPipeline.builder()
+                .vectorStore(vectorStore)
+                .embeddingProvider(embeddingProvider)
+                .build()
+                .run(List.of(singleChunkDocument("a"), singleChunkDocument("b"),
+                        Document.builder().id("empty").content("").build()));
+
+        assertThat(progress.getDocumentsCompleted()).isEqualTo(3);
+        assertThat(vectorStore.size()).isEqualTo(2);
+    }
+
+    @Test
+    @Timeout(30)
+    void testThrowingListenerDoesNotStallPipeline() {
+        InMemoryVectorStore vectorStore = new InMemoryVectorStore();
+        IngestionProgress progress = IngestionPipeline.builder()
+                .vectorStore(vectorStore)
+                .embeddingProvider(embeddingProvider)
+                .chunkingStrategy(new FixedSizeChunkingStrategy(20))
+                .writeBatchSize(4)
+                .queueCapacity(16)
+                .progressListener(p -> {
+                    throw new IllegalStateException("listener bug");
+                })
+                .build()
+                .run(documents(2000));
+
+        assertThat(progress.getDocumentsCompleted()).isEqualTo(2000);
+        assertThat(vectorStore.size()).isEqualTo((int) progress.getChunksStored());
+    }
+
+    @Test
+    @Timeout(30)
+    void testStageErrorAbortsRun() {
+        EmbeddingProvider broken = new EmbeddingProvider() {
+            @Override
+            public float[] embed(String text) {
+                return embeddingProvider.embed(text);
+            }
+
+            @Override
+            public List<float[]> embedBatch(List<String> texts) {
+                throw new AssertionError("provider bug");
+            }
+
+            @Override
+            public int getDimensions() {
+                return embeddingProvider.getDimensions();
+            }
+        };
+        IngestionPipeline pipeline = IngestionPipeline.builder()
+                .vectorStore(new InMemoryVectorStore())
+                .embeddingProvider(broken)
+                .chunkingStrategy(new FixedSizeChunkingStrategy(20))
+                .queueCapacity(16)
+                .build();
+
+        assertThatThrownBy(() -> pipeline.run(documents(2000)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessage("provider bug");
+        assertThat(pipeline.getProgress().getDocumentsRead()).isLessThan(2000);
+    }
+
+    private static List<Document> documents(int count) {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String content = Collections.nCopies(1 + i % 5, "sentence about topic " + i + ". ")
+                    .stream().collect(Collectors.joining());
+            documents.add(Document.builder()
+                    .id("doc" + i)
+                    .content(content)
+                    .addMetadata("source", "test")
+                    .build());
+        }
+        return documents;
+    }
+
+    private static Document singleChunkDocument(String id) {
+        Document document = Document.builder().id(id).content("content of " + id).build();
+        return Document.builder()
+                .id(id)
+                .content(document.getContent())
+                .chunks(new FixedSizeChunkingStrategy(1000).chunk(document))
+                .build();
+    }
+
+    private static class SlowEmbeddingProvider implements EmbeddingProvider {
+        private final EmbeddingProvider delegate;
+
+        SlowEmbeddingProvider(EmbeddingProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public float[] embed(String text) {
+            return delegate.embed(text);
+        }
+
+        @Override
+        public List<float[]> embedBatch(List<String> texts) {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return delegate.embedBatch(texts);
+        }
+
+        @Override
+        public int getDimensions() {
+            return delegate.getDimensions();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.metadata.Filter;
+import io.github.llm4j.agent.rag.store.MappedVectorStore;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for MappedVectorStore
+ */
+class MappedVectorStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAddAndSearch() throws Exception {
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir, 3)) {
+            store.add("vec1", new float[] { 1.0f, 0.0f, 0.0f }, Map.of("type", "A"));
+            store.add("vec2", new float[] { 0.0f, 1.0f, 0.0f }, Map.of("type", "B"));
+            store.add("vec3", new float[] { 0.0f, 0.0f, 1.0f }, Map.of("type", "C"));
+
+            List<VectorStore.SearchResult> results = store.search(new float[] { 1.0f, 0.1f, 0.0f }, 2);
+
+            assertThat(results).hasSize(2);
+            assertThat(results.get(0).getId()).isEqualTo("vec1");
+            assertThat(results.get(0).getMetadata()).containsEntry("type", "A");
+        }
+    }
+
+    @Test
+    void testReopenRestoresVectorsAndMetadata() throws Exception {
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir, 2)) {
+            store.add("vec1", new float[] { 1.0f, 0.0f }, Map.of("documentId", "doc1", "page", 3));
+            store.add("vec2", new float[] { 0.0f, 1.0f }, Map.of("documentId", "doc2"));
+        }
+
+        try (MappedVectorStore reopened = MappedVectorStore.open(tempDir)) {
+            assertThat(reopened.getDimension()).isEqualTo(2);
+            assertThat(reopened.size()).isEqualTo(2);
+
+            List<VectorStore.SearchResult> results = reopened.search(new float[] { 0.0f, 1.0f }, 1);
+            assertThat(results.get(0).getId()).isEqualTo("vec2");
+            assertThat(results.get(0).getSimilarity()).isCloseTo(1.0f, org.assertj.core.data.Offset.offset(0.001f));
+
+            List<VectorStore.SearchResult> filtered = reopened.search(new float[] { 0.0f, 1.0f }, 5,
+                    Map.of("documentId", "doc1"));
+            assertThat(filtered).hasSize(1);
+            assertThat(filtered.get(0).getMetadata()).containsEntry("page", 3);
+        }
+    }
+
+    @Test
+    void testReopenKeepsMetadataTypes() throws Exception {
+        Map<String, Object> metadata = Map.of("version", 5L, "weight", 0.5f, "page", 3, "tag", "a");
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir, 2)) {
+            store.add("vec1", new float[] { 1.0f, 0.0f }, metadata);
+            store.add("vec2", new float[] { 0.0f, 1.0f }, Map.of("version", 6L));
+        }
+
+        try (MappedVectorStore reopened = MappedVectorStore.open(tempDir)) {
+            List<VectorStore.SearchResult> results = reopened.search(new float[] { 1.0f, 0.0f }, 1,
+                    Map.of("version", 5L));
+            assertThat(results).hasSize(1);
+            assertThat(results.get(0).getMetadata()).isEqualTo(metadata);
+
+            reopened.compact();
+        }
+
+        try (MappedVectorStore compacted = MappedVectorStore.open(tempDir)) {
+            assertThat(compacted.find(Filter.eq("version", 5L)).get(0).getMetadata()).isEqualTo(metadata);
+        }
+    }
+
+    @Test
+    void testDeletesAndOverwritesSurviveReopen() throws Exception {
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir, 2)) {
+            store.add("vec1", new float[] { 1.0f, 0.0f }, null);
+            store.add("vec2", new float[] { 0.0f, 1.0f }, null);
+            store.add("vec1", new float[] { -1.0f, 0.0f }, Map.of("version", 2));
+
+            assertThat(store.delete("vec2")).isTrue();
+            assertThat(store.delete("vec2")).isFalse();
+        }
+
+        try (MappedVectorStore reopened = MappedVectorStore.open(tempDir, 2)) {
+            assertThat(reopened.size()).isEqualTo(1);
+
+            List<VectorStore.SearchResult> results = reopened.search(new float[] { -1.0f, 0.0f }, 5);
+            assertThat(results).hasSize(1);
+            assertThat(results.get(0).getId()).isEqualTo("vec1");
+            assertThat(results.get(0).getMetadata()).containsEntry("version", 2);
+        }
+    }
+
+    @Test
+    void testCompactDropsTombstones() throws Exception {
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir, 2)) {
+            for (int i = 0; i < 10; i++) {
+                store.add("vec" + i, new float[] { i, 1.0f }, Map.of("index", i));
+            }
+            for (int i = 0; i < 10; i += 2) {
+                store.delete("vec" + i);
+            }
+            long before = java.nio.file.Files.size(tempDir.resolve("vectors.bin"));
+
+            store.compact();
+
+            assertThat(java.nio.file.Files.size(tempDir.resolve("vectors.bin"))).isLessThan(before);
+            assertThat(store.size()).isEqualTo(5);
+            assertThat(store.search(new float[] { 9.0f, 1.0f }, 1).get(0).getId()).isEqualTo("vec9");
+
+            store.add("vec10", new float[] { 10.0f, 1.0f }, null);
+            assertThat(store.size()).isEqualTo(6);
+        }
+
+        try (MappedVectorStore reopened = MappedVectorStore.open(tempDir, 2)) {
+            assertThat(reopened.size()).isEqualTo(6);
+        }
+    }
+
+    @Test
+    void testInterruptedCompactionIsCompletedOnOpen() throws Exception {
+        Path compacted = tempDir.resolve("compacted");
+        Path crashed = tempDir.resolve("crashed");
+        writeStoreWithTombstones(compacted);
+        writeStoreWithTombstones(crashed);
+        try (MappedVectorStore store = MappedVectorStore.open(compacted)) {
+            store.compact();
+        }
+
+        // A crash between the two renames: new vectors, old log, new log still temporary
+        Files.copy(compacted.resolve("vectors.bin"), crashed.resolve("vectors.bin"),
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(compacted.resolve("metadata.log"), crashed.resolve("metadata.log.tmp"));
+
+        try (MappedVectorStore store = MappedVectorStore.open(crashed)) {
+            assertThat(store.size()).isEqualTo(5);
+            VectorStore.SearchResult best = store.search(new float[] { 9.0f, 1.0f }, 1).get(0);
+            assertThat(best.getId()).isEqualTo("vec9");
+            assertThat(best.getMetadata()).containsEntry("index", 9);
+        }
+        assertThat(crashed.resolve("metadata.log.tmp")).doesNotExist();
+    }
+
+    @Test
+    void testMismatchedGenerationsAreRejected() throws Exception {
+        Path compacted = tempDir.resolve("compacted");
+        Path mixed = tempDir.resolve("mixed");
+        writeStoreWithTombstones(compacted);
+        writeStoreWithTombstones(mixed);
+        try (MappedVectorStore store = MappedVectorStore.open(compacted)) {
+            store.compact();
+        }
+
+        Files.copy(compacted.resolve("vectors.bin"), mixed.resolve("vectors.bin"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        assertThrows(IOException.class, () -> MappedVectorStore.open(mixed));
+    }
+
+    @Test
+    void testFailedCompactionKeepsStoreUsable() throws Exception {
+        writeStoreWithTombstones(tempDir);
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir)) {
+            // A non-empty directory in place of the temporary vector file
+            Files.createDirectories(tempDir.resolve("vectors.bin.tmp").resolve("blocker"));
+
+            assertThrows(IOException.class, store::compact);
+
+            assertThat(store.size()).isEqualTo(5);
+            store.add("vec10", new float[] { 10.0f, 1.0f }, Map.of("index", 10));
+            assertThat(store.search(new float[] { 10.0f, 1.0f }, 1).get(0).getId()).isEqualTo("vec10");
+        }
+    }
+
+    @Test
+    void testClearAfterCompactionSurvivesReopen() throws Exception {
+        writeStoreWithTombstones(tempDir);
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir)) {
+            store.compact();
+            store.clear();
+            store.add("vec1", new float[] { 1.0f, 0.0f }, Map.of("index", 1));
+        }
+
+        try (MappedVectorStore reopened = MappedVectorStore.open(tempDir)) {
+            assertThat(reopened.size()).isEqualTo(1);
+            assertThat(reopened.find(Filter.eq("index", 1))).hasSize(1);
+        }
+    }
+
+    @Test
+    void testFindReturnsMatchingEntries() throws Exception {
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir, 2)) {
+            store.add("vec1", new float[] { 1.0f, 0.0f }, Map.of("documentId", "doc1"));
+            store.add("vec2", new float[] { 0.0f, 1.0f }, Map.of("documentId", "doc1"));
+            store.add("vec3", new float[] { 1.0f, 1.0f }, Map.of("documentId", "doc2"));
+            store.delete("vec2");
+
+            List<VectorStore.VectorEntry> found = store.find(Filter.eq("documentId", "doc1"));
+
+            assertThat(found).hasSize(1);
+            assertThat(found.get(0).getId()).isEqualTo("vec1");
+            assertThat(found.get(0).getEmbedding()).containsExactly(1.0f, 0.0f);
+        }
+    }
+
+    @Test
+    void testClear() throws Exception {
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir, 2)) {
+            store.add("vec1", new float[] { 1.0f, 0.0f }, null);
+            store.search(new float[] { 1.0f, 0.0f }, 1);
+
+            store.clear();
+
+            assertThat(store.size()).isEqualTo(0);
+            assertThat(store.search(new float[] { 1.0f, 0.0f }, 1)).isEmpty();
+
+            store.add("vec2", new float[] { 0.0f, 1.0f }, null);
+            assertThat(store.search(new float[] { 0.0f, 1.0f }, 1).get(0).getId()).isEqualTo("vec2");
+        }
+    }
+
+    @Test
+    void testDimensionMismatch() throws Exception {
+        try (MappedVectorStore store = MappedVectorStore.open(tempDir, 3)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> store.add("vec1", new float[] { 1.0f, 0.0f }, null));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> MappedVectorStore.open(tempDir, 4));
+    }
+
+    private static void writeStoreWithTombstones(Path directory) throws IOException {
+        try (MappedVectorStore store = MappedVectorStore.open(directory, 2)) {
+            for (int i = 0; i < 10; i++) {
+                store.add("vec" + i, new float[] { i, 1.0f }, Map.of("index", i));
+            }
+            for (int i = 0; i < 10; i += 2) {
+                store.delete("vec" + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.rag.embedding.EmbeddingProvider;
+import io.github.llm4j.agent.rag.embedding.MicroBatchingEmbeddingProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for MicroBatchingEmbeddingProvider
+ */
+class MicroBatchingEmbeddingProviderTest {
+
+    @Test
+    void testConcurrentCallsAreCoalesced() throws Exception {
+        RecordingEmbeddingProvider delegate = new RecordingEmbeddingProvider();
+        ExecutorService callers = Executors.newFixedThreadPool(32);
+        try (MicroBatchingEmbeddingProvider provider = MicroBatchingEmbeddingProvider.builder()
+                .delegate(delegate)
+                .maxBatchSize(16)
+                .maxDelay(Duration.ofMillis(50))
+                .build()) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<float[]>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String text = "text-" + i;
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return provider.embed(text);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get(10, TimeUnit.SECONDS)).containsExactly(i);
+            }
+
+            assertThat(provider.getTextCount()).isEqualTo(64);
+            assertThat(provider.getBatchCount()).isLessThan(64);
+            assertThat(delegate.batchSizes).allMatch(size -> size <= 16);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSingleCallIsSentAfterDelay() {
+        RecordingEmbeddingProvider delegate = new RecordingEmbeddingProvider();
+        try (MicroBatchingEmbeddingProvider provider = MicroBatchingEmbeddingProvider.builder()
+                .delegate(delegate)
+                .maxDelay(Duration.ofMillis(2))
+                .build()) {
+            assertThat(provider.embed("text-7")).containsExactly(7);
+            assertThat(provider.embedAsync("text-8").join()).containsExactly(8);
+            assertThat(delegate.batchSizes).containsExactly(1, 1);
+        }
+    }
+
+    @Test
+    void testFailuresReachEveryCaller() {
+        EmbeddingProvider failing = new RecordingEmbeddingProvider() {
+            @Override
+            public List<float[]> embedBatch(List<String> texts) {
+                throw new IllegalStateException("quota exceeded");
+            }
+        };
+        try (MicroBatchingEmbeddingProvider provider = MicroBatchingEmbeddingProvider.builder()
+                .delegate(failing)
+                .maxDelay(Duration.ofMillis(20))
+                .build()) {
+            CompletableFuture<float[]> first = provider.embedAsync("text-1");
+            CompletableFuture<float[]> second = provider.embedAsync("text-2");
+
+            assertThat(first).failsWithin(5, TimeUnit.SECONDS);
+            assertThat(second).failsWithin(5, TimeUnit.SECONDS);
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> provider.embed("text-3"));
+            assertThat(error).hasMessage("quota exceeded");
+        }
+    }
+
+    @Test
+    void testErrorsFromTheDelegateReachEveryCaller() {
+        EmbeddingProvider failing = new RecordingEmbeddingProvider() {
+            @Override
+            public List<float[]> embedBatch(List<String> texts) {
+                throw new AssertionError("delegate bug");
+            }
+        };
+        try (MicroBatchingEmbeddingProvider provider = MicroBatchingEmbeddingProvider.builder()
+                .delegate(failing)
+                .maxDelay(Duration.ofMillis(20))
+                .build()) {
+            CompletableFuture<float[]> first = provider.embedAsync("text-1");
+            CompletableFuture<float[]> second = provider.embedAsync("text-2");
+
+            assertThat(first).failsWithin(5, TimeUnit.SECONDS);
+            assertThat(second).failsWithin(5, TimeUnit.SECONDS);
+            AssertionError error = assertThrows(AssertionError.class, () -> provider.embed("text-3"));
+            assertThat(error).hasMessage("delegate bug");
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void testDelayIsMeasuredFromArrival() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmbeddingProvider blocking = new RecordingEmbeddingProvider() {
+            @Override
+            public List<float[]> embedBatch(List<String> texts) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.embedBatch(texts);
+            }
+        };
+        AtomicLong now = new AtomicLong();
+        try (MicroBatchingEmbeddingProvider provider = MicroBatchingEmbeddingProvider.builder()
+                .delegate(blocking)
+                .maxBatchSize(2)
+                .maxDelay(Duration.ofHours(1))
+                .maxConcurrentBatches(1)
+                .clock(now::get)
+                .build()) {
+            // Full batches are sent without waiting: the first blocks the only
+            // sender, and the second is assembled and waits for it
+            provider.embedAsync("text-1");
+            provider.embedAsync("text-2");
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            provider.embedAsync("text-3");
+            provider.embedAsync("text-4");
+
+            CompletableFuture<float[]> queued = provider.embedAsync("text-5");
+            now.addAndGet(Duration.ofHours(2).toNanos());
+            release.countDown();
+
+            // text-5 has been queued longer than maxDelay, so it is sent without
+            // waiting for a batch partner; timed from dispatch it would wait an hour
+            assertThat(queued.get()).containsExactly(5);
+            assertThat(blocking.batchSizes).containsExactly(2, 2, 1);
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void testCloseWakesWaitingDispatcher() throws Exception {
+        RecordingEmbeddingProvider delegate = new RecordingEmbeddingProvider();
+        MicroBatchingEmbeddingProvider provider = MicroBatchingEmbeddingProvider.builder()
+                .delegate(delegate)
+                .maxDelay(Duration.ofHours(1))
+                .build();
+
+        // The dispatcher holds text-1 and waits up to an hour for more
+        CompletableFuture<float[]> pending = provider.embedAsync("text-1");
+        while (!Thread.getAllStackTraces().keySet().stream().anyMatch(thread ->
+                thread.getName().endsWith("-dispatcher") && thread.getState() == Thread.State.TIMED_WAITING)) {
+            Thread.sleep(1);
+        }
+        provider.close();
+
+        assertThat(pending).isCompletedWithValueMatching(embedding -> embedding[0] == 1f);
+    }
+
+    @Test
+    void testCloseFlushesQueueAndRejectsNewCalls() {
+        RecordingEmbeddingProvider delegate = new RecordingEmbeddingProvider();
+        MicroBatchingEmbeddingProvider provider = MicroBatchingEmbeddingProvider.builder()
+                .delegate(delegate)
+                .maxDelay(Duration.ofSeconds(10))
+                .build();
+
+        CompletableFuture<float[]> pending = provider.embedAsync("text-3");
+        provider.close();
+
+        assertThat(pending).isCompletedWithValueMatching(embedding -> embedding[0] == 3f);
+        assertThrows(IllegalStateException.class, () -> provider.embedAsync("text-4"));
+    }
+
+    /**
+     * Provider that embeds "text-N" as [N] and records batch sizes.
+     */
+    private static class RecordingEmbeddingProvider implements EmbeddingProvider {
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public float[] embed(String text) {
+            return new float[] { Integer.parseInt(text.substring("text-".length())) };
+        }
+
+        @Override
+        public List<float[]> embedBatch(List<String> texts) {
+            batchSizes.add(texts.size());
+            List<float[]> embeddings = new ArrayList<>();
+            for (String text : texts) {
+                embeddings.add(embed(text));
+            }
+            return embeddings;
+        }
+
+        @Override
+        public int getDimensions() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.rag.document.Document;
+import io.github.llm4j.agent.rag.document.DocumentChunk;
+import io.github.llm4j.agent.rag.document.FixedSizeChunkingStrategy;
+import io.github.llm4j.agent.rag.document.ParallelChunker;
+import io.github.llm4j.agent.rag.document.SentenceChunkingStrategy;
+import io.github.llm4j.agent.rag.document.TokenEstimator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ParallelChunker
+ */
+class ParallelChunkerTest {
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testFixedSizeRegionsMatchSequentialChunking() {
+        Document document = Document.builder()
+                .id("large")
+                .content(text(20_000))
+                .addMetadata("source", "test")
+                .build();
+        FixedSizeChunkingStrategy strategy = new FixedSizeChunkingStrategy(100, 17);
+
+        List<DocumentChunk> expected = strategy.chunk(document);
+        List<DocumentChunk> actual = ParallelChunker.builder()
+                .strategy(strategy)
+                .pool(pool)
+                .regionSize(1_000)
+                .build()
+                .chunk(document);
+
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getId()).isEqualTo(expected.get(i).getId());
+            assertThat(actual.get(i).getContent()).isEqualTo(expected.get(i).getContent());
+            assertThat(actual.get(i).getStartIndex()).isEqualTo(expected.get(i).getStartIndex());
+            assertThat(actual.get(i).getMetadata()).isEqualTo(expected.get(i).getMetadata());
+        }
+    }
+
+    @Test
+    void testParagraphRegionsAreStitchedDeterministically() {
+        Document document = Document.builder()
+                .id("large")
+                .content(text(50_000))
+                .build();
+        ParallelChunker chunker = ParallelChunker.builder()
+                .strategy(new SentenceChunkingStrategy(64))
+                .pool(pool)
+                .regionSize(2_000)
+                .build();
+
+        List<DocumentChunk> chunks = chunker.chunk(document);
+
+        assertThat(chunks).hasSizeGreaterThan(25);
+        String content = document.getContent();
+        int previousEnd = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            DocumentChunk chunk = chunks.get(i);
+            assertThat(chunk.getId()).isEqualTo("large_chunk_" + i);
+            assertThat(chunk.getDocumentId()).isEqualTo("large");
+            assertThat(content.substring(chunk.getStartIndex(), chunk.getEndIndex())).isEqualTo(chunk.getContent());
+            assertThat(chunk.getStartIndex()).isGreaterThanOrEqualTo(previousEnd);
+            assertThat(TokenEstimator.heuristic().estimate(chunk.getContentView())).isLessThanOrEqualTo(64);
+            previousEnd = chunk.getEndIndex();
+        }
+
+        assertThat(ids(chunker.chunk(document))).isEqualTo(ids(chunks));
+    }
+
+    @Test
+    void testChunkAllPreservesDocumentOrder() {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            documents.add(Document.builder().id("doc" + i).content(text(500 + i * 37)).build());
+        }
+        FixedSizeChunkingStrategy strategy = new FixedSizeChunkingStrategy(80, 10);
+        List<String> expected = documents.stream()
+                .flatMap(document -> strategy.chunk(document).stream())
+                .map(DocumentChunk::getId)
+                .collect(Collectors.toList());
+        ParallelChunker chunker = ParallelChunker.builder()
+                .strategy(strategy)
+                .pool(pool)
+                .windowSize(7)
+                .build();
+
+        assertThat(ids(chunker.chunkAll(documents))).isEqualTo(expected);
+
+        List<DocumentChunk> streamed = new ArrayList<>();
+        chunker.chunk(documents.iterator()).forEachRemaining(streamed::add);
+        assertThat(ids(streamed)).isEqualTo(expected);
+    }
+
+    private static List<String> ids(List<DocumentChunk> chunks) {
+        return chunks.stream().map(DocumentChunk::getId).collect(Collectors.toList());
+    }
+
+    private static String text(int length) {
+        StringBuilder text = new StringBuilder(length + 100);
+        int sentence = 0;
+        while (text.length() < length) {
+            text.append("Sentence ").append(sentence++).append(" describes a chunking scenario. ");
+            if (sentence % 6 == 0) {
+                text.append("\n\n");
+            }
+        }
+        return text.substring(0, length);
+    }
+}
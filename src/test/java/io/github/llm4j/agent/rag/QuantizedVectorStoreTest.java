@@ -0,0 +1,187 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.metadata.Filter;
+import io.github.llm4j.agent.rag.store.InMemoryVectorStore;
+import io.github.llm4j.agent.rag.store.QuantizedVectorStore;
+import io.github.llm4j.agent.rag.store.RecallEvaluator;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for QuantizedVectorStore
+ */
+class QuantizedVectorStoreTest {
+
+    private static final int DIMENSIONS = 64;
+
+    @Test
+    void testInt8SearchFindsSelf() {
+        QuantizedVectorStore store = new QuantizedVectorStore(QuantizedVectorStore.Quantization.INT8);
+        List<float[]> vectors = randomVectors(200, 1);
+        for (int i = 0; i < vectors.size(); i++) {
+            store.add("vec" + i, vectors.get(i), Map.of("index", i));
+        }
+
+        List<VectorStore.SearchResult> results = store.search(vectors.get(42), 3);
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).getId()).isEqualTo("vec42");
+        assertThat(results.get(0).getSimilarity()).isCloseTo(1.0f, org.assertj.core.data.Offset.offset(0.01f));
+        assertThat(results.get(0).getMetadata()).containsEntry("index", 42);
+        // Only the codes are kept unless originals are requested
+        assertThat(store.isRetainOriginals()).isFalse();
+    }
+
+    @Test
+    void testInt8RecallAgainstExactSearch() {
+        QuantizedVectorStore store = QuantizedVectorStore.builder()
+                .quantization(QuantizedVectorStore.Quantization.INT8)
+                .rerankFactor(4)
+                .retainOriginals(true)
+                .build();
+        List<float[]> vectors = randomVectors(1000, 2);
+        populate(store, vectors);
+
+        double recall = store.measureRecall(nearbyQueries(vectors, 20, 3), 10);
+
+        assertThat(recall).isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void testBinaryRecallWithoutOriginals() {
+        List<float[]> vectors = randomVectors(1000, 4);
+        QuantizedVectorStore quantized = QuantizedVectorStore.builder()
+                .quantization(QuantizedVectorStore.Quantization.BINARY)
+                .rerankFactor(10)
+                .retainOriginals(false)
+                .build();
+        InMemoryVectorStore exact = new InMemoryVectorStore();
+        populate(quantized, vectors);
+        populate(exact, vectors);
+
+        double recall = RecallEvaluator.recallAtK(quantized, exact, nearbyQueries(vectors, 20, 5), 1);
+
+        assertThat(recall).isGreaterThanOrEqualTo(0.9);
+        assertThrows(IllegalStateException.class, () -> quantized.measureRecall(List.of(vectors.get(0)), 1));
+    }
+
+    @Test
+    void testMetadataFiltering() {
+        QuantizedVectorStore store = new QuantizedVectorStore(QuantizedVectorStore.Quantization.BINARY);
+        List<float[]> vectors = randomVectors(50, 6);
+        for (int i = 0; i < vectors.size(); i++) {
+            store.add("vec" + i, vectors.get(i), Map.of("parity", i % 2 == 0 ? "even" : "odd"));
+        }
+
+        List<VectorStore.SearchResult> results = store.search(vectors.get(1), 10, Map.of("parity", "even"));
+
+        assertThat(results).hasSize(10);
+        assertThat(results).allMatch(r -> r.getMetadata().get("parity").equals("even"));
+    }
+
+    @Test
+    void testSelectiveFilterIsAppliedDuringScan() {
+        QuantizedVectorStore store = QuantizedVectorStore.builder()
+                .quantization(QuantizedVectorStore.Quantization.INT8)
+                .rerankFactor(1)
+                .build();
+        List<float[]> vectors = randomVectors(500, 8);
+        for (int i = 0; i < vectors.size(); i++) {
+            store.add("vec" + i, vectors.get(i), Map.of("bucket", i % 100));
+        }
+
+        // Only five vectors match, none of them near the query
+        List<VectorStore.SearchResult> results = store.search(vectors.get(1), 5, Filter.eq("bucket", 0L));
+
+        assertThat(results).extracting(VectorStore.SearchResult::getId)
+                .containsExactlyInAnyOrder("vec0", "vec100", "vec200", "vec300", "vec400");
+    }
+
+    @Test
+    void testFindReturnsEntriesThatEncodeToTheSameCodes() {
+        for (QuantizedVectorStore.Quantization quantization : QuantizedVectorStore.Quantization.values()) {
+            QuantizedVectorStore store = QuantizedVectorStore.builder()
+                    .quantization(quantization)
+                    .retainOriginals(false)
+                    .build();
+            List<float[]> vectors = randomVectors(20, 9);
+            for (int i = 0; i < vectors.size(); i++) {
+                store.add("vec" + i, vectors.get(i), Map.of("group", i % 4));
+            }
+
+            List<VectorStore.VectorEntry> found = store.find(Filter.eq("group", 1));
+            assertThat(found).extracting(VectorStore.VectorEntry::getId)
+                    .containsExactlyInAnyOrder("vec1", "vec5", "vec9", "vec13", "vec17");
+
+            // Re-adding a found entry leaves its search results unchanged
+            float[] query = vectors.get(5);
+            List<VectorStore.SearchResult> before = store.search(query, 3);
+            for (VectorStore.VectorEntry entry : found) {
+                store.add(entry.getId(), entry.getEmbedding(), entry.getMetadata());
+            }
+            assertThat(store.search(query, 3)).extracting(VectorStore.SearchResult::getId)
+                    .containsExactlyElementsOf(before.stream().map(VectorStore.SearchResult::getId).toList());
+        }
+    }
+
+    @Test
+    void testDeleteKeepsRemainingVectorsSearchable() {
+        QuantizedVectorStore store = new QuantizedVectorStore(QuantizedVectorStore.Quantization.INT8);
+        List<float[]> vectors = randomVectors(10, 7);
+        populate(store, vectors);
+
+        assertThat(store.delete("vec0")).isTrue();
+        assertThat(store.delete("vec0")).isFalse();
+        assertThat(store.size()).isEqualTo(9);
+
+        // vec9 was moved into the freed slot
+        List<VectorStore.SearchResult> results = store.search(vectors.get(9), 1);
+        assertThat(results.get(0).getId()).isEqualTo("vec9");
+    }
+
+    @Test
+    void testDimensionMismatch() {
+        QuantizedVectorStore store = new QuantizedVectorStore(QuantizedVectorStore.Quantization.INT8);
+        store.add("vec1", new float[] { 1.0f, 0.0f, 0.0f }, null);
+
+        assertThrows(IllegalArgumentException.class, () -> store.add("vec2", new float[] { 1.0f, 0.0f }, null));
+        assertThrows(IllegalArgumentException.class, () -> store.search(new float[] { 1.0f, 0.0f }, 1));
+    }
+
+    private static void populate(VectorStore store, List<float[]> vectors) {
+        for (int i = 0; i < vectors.size(); i++) {
+            store.add("vec" + i, vectors.get(i), new HashMap<>());
+        }
+    }
+
+    private static List<float[]> nearbyQueries(List<float[]> vectors, int count, long seed) {
+        Random random = new Random(seed);
+        List<float[]> queries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            float[] query = vectors.get(random.nextInt(vectors.size())).clone();
+            for (int d = 0; d < DIMENSIONS; d++) {
+                query[d] += (float) random.nextGaussian() * 0.3f;
+            }
+            queries.add(query);
+        }
+        return queries;
+    }
+
+    private static List<float[]> randomVectors(int count, long seed) {
+        Random random = new Random(seed);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            float[] vector = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+}
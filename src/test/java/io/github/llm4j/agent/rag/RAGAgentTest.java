@@ -0,0 +1,390 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.LLMClient;
+import io.github.llm4j.agent.AgentResult;
+import io.github.llm4j.agent.ReActAgent;
+import io.github.llm4j.agent.knowledge.model.Entity;
+import io.github.llm4j.agent.knowledge.model.Relation;
+import io.github.llm4j.agent.knowledge.model.Triple;
+import io.github.llm4j.agent.knowledge.store.InMemoryGraphStore;
+import io.github.llm4j.agent.metadata.Filter;
+import io.github.llm4j.agent.rag.document.Document;
+import io.github.llm4j.agent.rag.document.DocumentChunk;
+import io.github.llm4j.agent.rag.document.FixedSizeChunkingStrategy;
+import io.github.llm4j.agent.rag.embedding.EmbeddingProvider;
+import io.github.llm4j.agent.rag.retrieval.BM25Index;
+import io.github.llm4j.agent.rag.retrieval.ContextPacker;
+import io.github.llm4j.agent.rag.retrieval.GraphRAGRetriever;
+import io.github.llm4j.agent.rag.retrieval.HybridRetriever;
+import io.github.llm4j.agent.rag.retrieval.Retriever;
+import io.github.llm4j.agent.rag.store.InMemoryVectorStore;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import io.github.llm4j.model.LLMRequest;
+import io.github.llm4j.model.LLMResponse;
+import io.github.llm4j.model.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RAGAgent
+ */
+class RAGAgentTest {
+
+    @Mock
+    private LLMClient mockClient;
+
+    private InMemoryVectorStore vectorStore;
+    private EmbeddingProvider embeddingProvider;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockClient.chat(any(LLMRequest.class))).thenReturn(LLMResponse.builder()
+                .content("Thought: I know the answer\nFinal Answer: done")
+                .model("test-model")
+                .build());
+        vectorStore = new InMemoryVectorStore();
+        embeddingProvider = new LetterFrequencyEmbeddingProvider();
+    }
+
+    @Test
+    void testAddDocumentStoresContentMetadata() {
+        RAGAgent ragAgent = ragAgent().build();
+
+        ragAgent.addDocument(document("doc1", "The capital of France is Paris."));
+
+        assertThat(vectorStore.size()).isEqualTo(1);
+        VectorStore.SearchResult stored = vectorStore.search(embeddingProvider.embed("Paris"), 1).get(0);
+        assertThat(stored.getId()).isEqualTo("doc1_chunk_0");
+        assertThat(stored.getMetadata())
+                .containsEntry("content", "The capital of France is Paris.")
+                .containsEntry("documentId", "doc1");
+    }
+
+    @Test
+    void testRunAugmentsQuestionWithContext() {
+        RAGAgent ragAgent = ragAgent().topK(1).build();
+        ragAgent.addDocument(document("doc1", "The capital of France is Paris."));
+
+        AgentResult result = ragAgent.run("What is the capital of France?");
+
+        assertThat(result.getFinalAnswer()).isEqualTo("done");
+        assertThat(lastUserMessage()).contains("[1] The capital of France is Paris.")
+                .contains("Question: What is the capital of France?");
+    }
+
+    @Test
+    void testGraphRAGRetrieverAddsFactsToContext() {
+        InMemoryGraphStore graph = new InMemoryGraphStore();
+        graph.addTriple(new Triple(Entity.builder().id("paris").type("City").build(),
+                Relation.builder().type("CAPITAL_OF").build(),
+                Entity.builder().id("france").type("Country").build()));
+        RAGAgent ragAgent = ragAgent()
+                .topK(1)
+                .retriever(GraphRAGRetriever.builder().vector(vectorStore, embeddingProvider).graph(graph).build())
+                .build();
+        ragAgent.addDocument(Document.builder()
+                .id("doc1")
+                .content("Paris has many museums.")
+                .addChunk(DocumentChunk.builder()
+                        .id("doc1_chunk_0")
+                        .documentId("doc1")
+                        .content("Paris has many museums.")
+                        .metadata(Map.of("entities", "paris"))
+                        .build())
+                .build());
+
+        ragAgent.run("What is Paris the capital of?");
+
+        assertThat(lastUserMessage()).contains("[1] Knowledge graph facts:")
+                .contains("- paris -[CAPITAL_OF]-> france")
+                .contains("[2] Paris has many museums.");
+    }
+
+    @Test
+    void testHybridRetrieverIsKeptInSync() {
+        BM25Index index = new BM25Index();
+        RAGAgent ragAgent = ragAgent()
+                .retriever(HybridRetriever.builder()
+                        .vector(vectorStore, embeddingProvider)
+                        .lexical(index)
+                        .build())
+                .topK(1)
+                .build();
+
+        ragAgent.addDocument(document("doc1", "Ticket ZX-4471 covers the login outage."));
+        ragAgent.addDocument(document("doc2", "General notes about tickets and outages."));
+
+        assertThat(index.size()).isEqualTo(2);
+
+        ragAgent.run("ZX-4471");
+        assertThat(lastUserMessage()).contains("Ticket ZX-4471 covers the login outage.");
+    }
+
+    @Test
+    void testContextPackerMergesOverlappingChunks() {
+        String content = "Paris is the capital of France and its largest city.";
+        RAGAgent ragAgent = ragAgent()
+                .contextPacker(ContextPacker.builder().build())
+                .topK(10)
+                .build();
+        ragAgent.addDocument(Document.builder()
+                .id("doc1")
+                .content(content)
+                .chunks(new FixedSizeChunkingStrategy(20, 8).chunk(Document.builder()
+                        .id("doc1")
+                        .content(content)
+                        .build()))
+                .build());
+
+        ragAgent.run("What is the capital of France?");
+
+        String prompt = lastUserMessage();
+        assertThat(prompt).contains("[1] " + content + "\n");
+        assertThat(prompt).doesNotContain("[2]");
+    }
+
+    @Test
+    void testRerankerSelectsTopKFromCandidates() {
+        Retriever retriever = mock(Retriever.class);
+        when(retriever.retrieve("question", 20)).thenReturn(List.of(
+                new VectorStore.SearchResult("a", 0.9f, java.util.Map.of("content", "first candidate")),
+                new VectorStore.SearchResult("b", 0.8f, java.util.Map.of("content", "second candidate")),
+                new VectorStore.SearchResult("c", 0.7f, java.util.Map.of("content", "third candidate"))));
+        RAGAgent ragAgent = ragAgent()
+                .retriever(retriever)
+                .reranker((query, candidates, topN) -> List.of(candidates.get(2)))
+                .candidateCount(20)
+                .topK(1)
+                .build();
+
+        ragAgent.run("question");
+
+        verify(retriever).retrieve("question", 20);
+        assertThat(lastUserMessage()).contains("[1] third candidate").doesNotContain("first candidate");
+    }
+
+    @Test
+    void testUpsertDocumentReembedsOnlyChangedChunks() {
+        BM25Index index = new BM25Index();
+        RAGAgent ragAgent = ragAgent()
+                .retriever(HybridRetriever.builder()
+                        .vector(vectorStore, embeddingProvider)
+                        .lexical(index)
+                        .build())
+                .build();
+
+        RAGAgent.UpsertResult first = ragAgent.upsertDocument(
+                paragraphs("doc1", "Alpha paragraph.", "Beta paragraph.", "Gamma paragraph."));
+        assertThat(first.getWritten()).isEqualTo(3);
+        assertThat(first.getEmbedded()).isEqualTo(3);
+
+        RAGAgent.UpsertResult edited = ragAgent.upsertDocument(
+                paragraphs("doc1", "Alpha paragraph.", "Beta paragraph, revised.", "Gamma paragraph."));
+        assertThat(edited.getUnchanged()).isEqualTo(2);
+        assertThat(edited.getWritten()).isEqualTo(1);
+        assertThat(edited.getEmbedded()).isEqualTo(1);
+        assertThat(edited.getDeleted()).isZero();
+
+        // Removing the middle paragraph shifts Gamma to a new chunk ID
+        RAGAgent.UpsertResult shortened = ragAgent.upsertDocument(
+                paragraphs("doc1", "Alpha paragraph.", "Gamma paragraph."));
+        assertThat(shortened.getUnchanged()).isEqualTo(1);
+        assertThat(shortened.getWritten()).isEqualTo(1);
+        assertThat(shortened.getReused()).isEqualTo(1);
+        assertThat(shortened.getEmbedded()).isZero();
+        assertThat(shortened.getDeleted()).isEqualTo(1);
+
+        assertThat(vectorStore.size()).isEqualTo(2);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(vectorStore.find(Filter.eq("documentId", "doc1")))
+                .extracting(entry -> entry.getMetadata().get("content"))
+                .containsExactlyInAnyOrder("Alpha paragraph.", "Gamma paragraph.");
+    }
+
+    @Test
+    void testUpsertDocumentDoesNotTouchOtherDocuments() {
+        RAGAgent ragAgent = ragAgent().build();
+        ragAgent.addDocument(document("doc1", "First document."));
+        ragAgent.addDocument(document("doc2", "Second document."));
+
+        RAGAgent.UpsertResult result = ragAgent.upsertDocument(Document.builder()
+                .id("doc1")
+                .content("")
+                .build());
+
+        assertThat(result.getDeleted()).isEqualTo(1);
+        assertThat(vectorStore.size()).isEqualTo(1);
+        assertThat(vectorStore.find(Filter.eq("documentId", "doc2"))).hasSize(1);
+    }
+
+    @Test
+    void testUpsertDocumentWithoutFindUsesTrackedChunkIds() {
+        VectorStore store = new NoFindVectorStore(vectorStore);
+        RAGAgent ragAgent = RAGAgent.builder()
+                .agent(ReActAgent.builder().llmClient(mockClient).build())
+                .vectorStore(store)
+                .embeddingProvider(embeddingProvider)
+                .build();
+        ragAgent.addDocument(paragraphs("doc1", "Alpha paragraph.", "Beta paragraph.", "Gamma paragraph."));
+        ragAgent.addDocument(document("doc2", "Second document."));
+
+        RAGAgent.UpsertResult result = ragAgent.upsertDocument(paragraphs("doc1", "Alpha paragraph."));
+
+        assertThat(result.getWritten()).isEqualTo(1);
+        assertThat(result.getEmbedded()).isEqualTo(1);
+        assertThat(result.getDeleted()).isEqualTo(2);
+        assertThat(store.size()).isEqualTo(2);
+
+        // The tracked IDs follow the upsert
+        assertThat(ragAgent.upsertDocument(Document.builder().id("doc1").content("").build()).getDeleted())
+                .isEqualTo(1);
+        assertThat(vectorStore.find(Filter.eq("documentId", "doc2"))).hasSize(1);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testPipelineIngestedChunksAreTrackedWithoutFind() {
+        VectorStore store = new NoFindVectorStore(vectorStore);
+        RAGAgent ragAgent = RAGAgent.builder()
+                .agent(ReActAgent.builder().llmClient(mockClient).build())
+                .vectorStore(store)
+                .embeddingProvider(embeddingProvider)
+                .build();
+        ragAgent.ingestionPipeline().build().run(List.of(
+                paragraphs("doc1", "Alpha paragraph.", "Beta paragraph.", "Gamma paragraph.")).iterator());
+        assertThat(store.size()).isEqualTo(3);
+
+        RAGAgent.UpsertResult result = ragAgent.upsertDocument(paragraphs("doc1", "Alpha paragraph."));
+
+        assertThat(result.getDeleted()).isEqualTo(2);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    private RAGAgent.Builder ragAgent() {
+        return RAGAgent.builder()
+                .agent(ReActAgent.builder().llmClient(mockClient).build())
+                .vectorStore(vectorStore)
+                .embeddingProvider(embeddingProvider);
+    }
+
+    private String lastUserMessage() {
+        ArgumentCaptor<LLMRequest> captor = ArgumentCaptor.forClass(LLMRequest.class);
+        verify(mockClient, atLeastOnce()).chat(captor.capture());
+        List<Message> messages = captor.getValue().getMessages();
+        return messages.get(messages.size() - 1).getContent();
+    }
+
+    private static Document document(String id, String content) {
+        return Document.builder()
+                .id(id)
+                .content(content)
+                .chunks(new FixedSizeChunkingStrategy(1000, 0).chunk(Document.builder()
+                        .id(id)
+                        .content(content)
+                        .build()))
+                .build();
+    }
+
+    private static Document paragraphs(String id, String... paragraphs) {
+        List<DocumentChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < paragraphs.length; i++) {
+            chunks.add(DocumentChunk.builder()
+                    .id(id + "_chunk_" + i)
+                    .documentId(id)
+                    .content(paragraphs[i])
+                    .build());
+        }
+        return Document.builder()
+                .id(id)
+                .content(String.join("\n\n", paragraphs))
+                .chunks(chunks)
+                .build();
+    }
+
+    /**
+     * Store that only implements the abstract methods, so find is unsupported.
+     */
+    static class NoFindVectorStore implements VectorStore {
+        private final VectorStore delegate;
+
+        NoFindVectorStore(VectorStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void add(String id, float[] embedding, Map<String, Object> metadata) {
+            delegate.add(id, embedding, metadata);
+        }
+
+        @Override
+        public void addBatch(List<VectorEntry> entries) {
+            delegate.addBatch(entries);
+        }
+
+        @Override
+        public List<SearchResult> search(float[] queryEmbedding, int topK) {
+            return delegate.search(queryEmbedding, topK);
+        }
+
+        @Override
+        public List<SearchResult> search(float[] queryEmbedding, int topK, Map<String, Object> filters) {
+            return delegate.search(queryEmbedding, topK, filters);
+        }
+
+        @Override
+        public boolean delete(String id) {
+            return delegate.delete(id);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+    }
+
+    /**
+     * Deterministic embedding of the 26 letter counts, good enough to rank
+     * texts by character overlap.
+     */
+    static class LetterFrequencyEmbeddingProvider implements EmbeddingProvider {
+        @Override
+        public float[] embed(String text) {
+            float[] embedding = new float[26];
+            for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+                if (c >= 'a' && c <= 'z') {
+                    embedding[c - 'a']++;
+                }
+            }
+            return embedding;
+        }
+
+        @Override
+        public List<float[]> embedBatch(List<String> texts) {
+            return texts.stream().map(this::embed).collect(Collectors.toList());
+        }
+
+        @Override
+        public int getDimensions() {
+            return 26;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.rag.retrieval.LexicalReranker;
+import io.github.llm4j.agent.rag.retrieval.MmrReranker;
+import io.github.llm4j.agent.rag.retrieval.Reranker;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the built-in rerankers
+ */
+class RerankerTest {
+
+    private final List<VectorStore.SearchResult> candidates = List.of(
+            result("a", "Login failures are usually caused by expired passwords.", 0.90f),
+            result("b", "Login failures are usually caused by expired passwords and tokens.", 0.88f),
+            result("c", "General guidance on account security and passwords.", 0.80f),
+            result("d", "Error ZX-4471 means the SSO certificate has expired.", 0.60f));
+
+    @Test
+    void testLexicalRerankerLiftsExactTermMatches() {
+        List<VectorStore.SearchResult> reranked = new LexicalReranker(0.7)
+                .rerank("What does error ZX-4471 mean?", candidates, 2);
+
+        assertThat(reranked).extracting(VectorStore.SearchResult::getId).containsExactly("d", "a");
+        assertThat(reranked.get(0).getSimilarity()).isGreaterThan(reranked.get(1).getSimilarity());
+    }
+
+    @Test
+    void testLexicalRerankerWithZeroWeightKeepsRetrievalOrder() {
+        List<VectorStore.SearchResult> reranked = new LexicalReranker(0.0)
+                .rerank("ZX-4471", candidates, 4);
+
+        assertThat(reranked).extracting(VectorStore.SearchResult::getId).containsExactly("a", "b", "c", "d");
+    }
+
+    @Test
+    void testMmrRerankerSkipsRedundantCandidates() {
+        List<VectorStore.SearchResult> reranked = new MmrReranker(0.5)
+                .rerank("login failures", candidates, 2);
+
+        assertThat(reranked).extracting(VectorStore.SearchResult::getId).containsExactly("a", "c");
+        assertThat(reranked.get(0).getSimilarity()).isEqualTo(0.90f);
+    }
+
+    @Test
+    void testMmrRerankerWithFullRelevanceWeightKeepsOrder() {
+        List<VectorStore.SearchResult> reranked = new MmrReranker(1.0).rerank("login", candidates, 3);
+
+        assertThat(reranked).extracting(VectorStore.SearchResult::getId).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void testChainedRerankers() {
+        Reranker reranker = new LexicalReranker(0.7).andThen(new MmrReranker(0.5));
+
+        List<VectorStore.SearchResult> reranked = reranker.rerank("expired passwords ZX-4471", candidates, 3);
+
+        assertThat(reranked).hasSize(3);
+        assertThat(reranked).extracting(VectorStore.SearchResult::getId).doesNotHaveDuplicates().contains("d");
+        assertThat(reranked).extracting(VectorStore.SearchResult::getId).containsAnyOf("a", "b")
+                .doesNotContainSequence("a", "b");
+    }
+
+    private static VectorStore.SearchResult result(String id, String content, float similarity) {
+        return new VectorStore.SearchResult(id, similarity, Map.of("content", content));
+    }
+}
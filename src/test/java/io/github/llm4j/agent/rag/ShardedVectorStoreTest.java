@@ -0,0 +1,157 @@
+package io.github.llm4j.agent.rag;
+
+import io.github.llm4j.agent.metadata.Filter;
+import io.github.llm4j.agent.rag.store.InMemoryVectorStore;
+import io.github.llm4j.agent.rag.store.ShardedVectorStore;
+import io.github.llm4j.agent.rag.store.VectorStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for ShardedVectorStore
+ */
+class ShardedVectorStoreTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void testParallelSearchMatchesSingleStore() {
+        ShardedVectorStore sharded = ShardedVectorStore.builder()
+                .shards(4)
+                .parallelThreshold(0)
+                .build();
+        InMemoryVectorStore exact = new InMemoryVectorStore();
+        populate(500, 1, sharded, exact);
+
+        for (float[] query : randomVectors(20, 2)) {
+            assertThat(ids(sharded.search(query, 10))).containsExactlyElementsOf(ids(exact.search(query, 10)));
+        }
+    }
+
+    @Test
+    void testSearchBatchMatchesSingleStore() {
+        ShardedVectorStore sharded = ShardedVectorStore.builder()
+                .shards(4)
+                .parallelThreshold(0)
+                .build();
+        InMemoryVectorStore exact = new InMemoryVectorStore();
+        populate(500, 9, sharded, exact);
+
+        List<float[]> queries = randomVectors(25, 10);
+        List<List<VectorStore.SearchResult>> batch = sharded.searchBatch(queries, 6);
+
+        assertThat(batch).hasSize(queries.size());
+        for (int q = 0; q < queries.size(); q++) {
+            assertThat(ids(batch.get(q))).containsExactlyElementsOf(ids(exact.search(queries.get(q), 6)));
+        }
+    }
+
+    @Test
+    void testSequentialBelowThreshold() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ShardedVectorStore sharded = ShardedVectorStore.builder()
+                    .shards(4)
+                    .pool(pool)
+                    .parallelThreshold(1_000)
+                    .build();
+            InMemoryVectorStore exact = new InMemoryVectorStore();
+            populate(200, 3, sharded, exact);
+
+            float[] query = randomVectors(1, 4).get(0);
+            assertThat(ids(sharded.search(query, 5))).containsExactlyElementsOf(ids(exact.search(query, 5)));
+            assertThat(pool.getStealCount() + pool.getQueuedSubmissionCount()).isZero();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testFilteredSearchAcrossShards() {
+        ShardedVectorStore sharded = ShardedVectorStore.builder()
+                .shards(3)
+                .parallelThreshold(0)
+                .indexedFields("group")
+                .build();
+        InMemoryVectorStore exact = new InMemoryVectorStore();
+        populate(300, 5, sharded, exact);
+
+        float[] query = randomVectors(1, 6).get(0);
+        Filter filter = Filter.and(Filter.eq("group", 2), Filter.lt("index", 150));
+
+        List<VectorStore.SearchResult> results = sharded.search(query, 8, filter);
+        assertThat(ids(results)).containsExactlyElementsOf(ids(exact.search(query, 8, filter)));
+        assertThat(results).allSatisfy(result -> assertThat(result.getMetadata()).containsEntry("group", 2));
+    }
+
+    @Test
+    void testUpdatesAndDeletesRouteToOwningShard() {
+        ShardedVectorStore sharded = ShardedVectorStore.builder().shards(4).build();
+        populate(100, 7, sharded, new InMemoryVectorStore());
+
+        assertThat(sharded.size()).isEqualTo(100);
+        assertThat(Arrays.stream(sharded.shardSizes()).sum()).isEqualTo(100);
+        assertThat(Arrays.stream(sharded.shardSizes()).min().getAsInt()).isPositive();
+
+        float[] replacement = new float[DIMENSIONS];
+        replacement[0] = 1;
+        sharded.add("vec10", replacement, Map.of("replaced", true));
+        assertThat(sharded.size()).isEqualTo(100);
+        assertThat(sharded.search(replacement, 1).get(0).getMetadata()).containsEntry("replaced", true);
+
+        assertThat(sharded.delete("vec10")).isTrue();
+        assertThat(sharded.delete("vec10")).isFalse();
+        assertThat(sharded.size()).isEqualTo(99);
+
+        sharded.clear();
+        assertThat(sharded.size()).isZero();
+        assertThat(sharded.search(replacement, 3)).isEmpty();
+    }
+
+    @Test
+    void testErrorsFromShardsPropagate() {
+        ShardedVectorStore sharded = ShardedVectorStore.builder()
+                .shards(2)
+                .parallelThreshold(0)
+                .build();
+        populate(50, 8, sharded, new InMemoryVectorStore());
+
+        assertThrows(IllegalArgumentException.class, () -> sharded.search(new float[] { 1, 2 }, 3));
+        assertThrows(IllegalArgumentException.class, () -> sharded.search(new float[DIMENSIONS], 0));
+        assertThrows(IllegalArgumentException.class, () -> ShardedVectorStore.builder().shards(0));
+    }
+
+    private static void populate(int count, long seed, VectorStore... stores) {
+        List<float[]> vectors = randomVectors(count, seed);
+        List<VectorStore.VectorEntry> entries = new ArrayList<>();
+        for (int i = 0; i < vectors.size(); i++) {
+            entries.add(new VectorStore.VectorEntry("vec" + i, vectors.get(i), Map.of("index", i, "group", i % 5)));
+        }
+        for (VectorStore store : stores) {
+            store.addBatch(entries);
+        }
+    }
+
+    private static List<float[]> randomVectors(int count, long seed) {
+        Random random = new Random(seed);
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float[] vector = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+
+    private static List<String> ids(List<VectorStore.SearchResult> results) {
+        return results.stream().map(VectorStore.SearchResult::getId).collect(Collectors.toList());
+    }
+}